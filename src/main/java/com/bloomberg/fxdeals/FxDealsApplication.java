@@ -2,6 +2,8 @@ package com.bloomberg.fxdeals;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
@@ -11,7 +13,9 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  * with validation, duplicate detection, and no-rollback transaction handling.
  */
 @SpringBootApplication(scanBasePackages = "com.bloomberg.fxdeals")
+@ConfigurationPropertiesScan("com.bloomberg.fxdeals.config")
 @EnableTransactionManagement
+@EnableScheduling
 public class FxDealsApplication {
 
     public static void main(String[] args) {
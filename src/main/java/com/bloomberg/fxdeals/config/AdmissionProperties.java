@@ -0,0 +1,56 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limit in front of the import endpoints (fxdeals.admission.*)
+ *
+ * See ImportAdmissionInterceptor and AdaptiveConcurrencyLimiter.
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.admission")
+public class AdmissionProperties {
+
+    /**
+     * Whether import requests need a permit; when false every request is admitted
+     */
+    private boolean enabled = true;
+
+    /**
+     * Concurrent imports allowed at startup
+     */
+    private int initialLimit = 8;
+
+    /**
+     * Lowest limit reached by backing off
+     */
+    private int minLimit = 1;
+
+    /**
+     * Highest limit reached by fast completions
+     */
+    private int maxLimit = 10;
+
+    /**
+     * Factor the limit is multiplied by after a slow or failed import (between 0 and 1)
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * Per-deal latency above which an import counts as slow
+     */
+    private Duration latencyThresholdPerDeal = Duration.ofMillis(50);
+
+    /**
+     * Requests allowed to wait for a permit once the limit is reached
+     */
+    private int maxQueueSize = 20;
+
+    /**
+     * Longest a queued request waits before it is rejected with 429
+     */
+    private Duration maxWait = Duration.ofSeconds(2);
+}
@@ -0,0 +1,51 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties for cold-tier archival of old deals (fxdeals.archive.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.archive")
+public class ArchiveProperties {
+
+    /**
+     * Whether the scheduled job moves old deals out of fx_deals; existing segments
+     * are always searched
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory holding the segment files
+     */
+    private String path = "data/archive";
+
+    /**
+     * Deals with a deal timestamp older than this are archived
+     */
+    private Duration age = Duration.ofDays(365);
+
+    /**
+     * Maximum deals per segment file (and per archival transaction)
+     */
+    private int segmentSize = 50_000;
+
+    /**
+     * Deals per compressed block; the sparse index holds one key per block
+     */
+    private int blockSize = 256;
+
+    /**
+     * Bloom filter bits per deal in each new segment, letting lookups of deals that are
+     * not in a segment skip its blocks (10 gives about 1% false positives); 0 disables it
+     */
+    private int filterBitsPerKey = 10;
+
+    /**
+     * Ids per DELETE statement when archived deals are removed from fx_deals
+     */
+    private int deleteBatchSize = 1_000;
+}
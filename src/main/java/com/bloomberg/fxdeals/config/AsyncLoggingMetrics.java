@@ -0,0 +1,25 @@
+package com.bloomberg.fxdeals.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports queue depth and drop counts of the async log appenders
+ */
+@Component
+public class AsyncLoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fxdeals.logging.async.dropped", CountingAsyncAppender.class,
+                type -> CountingAsyncAppender.getDroppedCount())
+            .description("Log events dropped because the async queue was full or past its threshold")
+            .register(registry);
+        Gauge.builder("fxdeals.logging.async.queued", CountingAsyncAppender::getQueuedCount)
+            .description("Log events waiting in async appender queues")
+            .register(registry);
+    }
+}
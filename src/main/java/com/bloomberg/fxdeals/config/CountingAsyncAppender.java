@@ -0,0 +1,67 @@
+package com.bloomberg.fxdeals.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback AsyncAppender that counts the events it drops
+ *
+ * The stock appender silently discards low-level events once the queue passes the
+ * discarding threshold, and drops everything when the queue is full in neverBlock
+ * mode. This subclass counts both cases so they can be exported as metrics.
+ * Counts are approximate under contention because the capacity check races with
+ * the worker thread draining the queue.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final Set<CountingAsyncAppender> INSTANCES = new CopyOnWriteArraySet<>();
+
+    @Override
+    public void start() {
+        super.start();
+        INSTANCES.add(this);
+    }
+
+    @Override
+    public void stop() {
+        INSTANCES.remove(this);
+        super.stop();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining < getDiscardingThreshold() && isDiscardable(event)) {
+            DROPPED.increment();
+            return;
+        }
+        if (isNeverBlock() && remaining == 0) {
+            // The base class offers without blocking and loses the event
+            DROPPED.increment();
+        }
+        super.append(event);
+    }
+
+    /**
+     * @return total events dropped by all counting appenders since startup
+     */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * @return events currently queued across all counting appenders
+     */
+    public static int getQueuedCount() {
+        int queued = 0;
+        for (CountingAsyncAppender appender : INSTANCES) {
+            queued += appender.getNumberOfElementsInQueue();
+        }
+        return queued;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bloomberg.fxdeals.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Read/write DataSource routing configuration
+ *
+ * Enabled with fxdeals.datasource.routing.enabled=true. Builds two Hikari pools:
+ * - Primary: configured from spring.datasource.* (used by imports)
+ * - Replica: configured from fxdeals.datasource.replica.* (used by read-only transactions)
+ *
+ * Each pool has its own sizing and is reported separately in the hikaricp.* metrics
+ * under its pool name. When routing is disabled, Spring Boot's single pool is used.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fxdeals.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    static final String PRIMARY_POOL_NAME = "fx-deals-primary";
+    static final String REPLICA_POOL_NAME = "fx-deals-replica";
+
+    /**
+     * Primary (read-write) pool, bound the same way Spring Boot binds its default pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        if (!StringUtils.hasText(dataSource.getPoolName())) {
+            dataSource.setPoolName(PRIMARY_POOL_NAME);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Replica (read-only) pool; expects jdbc-url, username, password and Hikari settings
+     */
+    @Bean
+    @ConfigurationProperties("fxdeals.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .build();
+        dataSource.setPoolName(REPLICA_POOL_NAME);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * DataSource used by JPA and JDBC: routes by the transaction's read-only flag
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return createRoutingDataSource(primaryDataSource, replicaDataSource);
+    }
+
+    /**
+     * Wire a lazily-connecting routing DataSource over the given pools
+     *
+     * @param primaryDataSource pool used for read-write and non-transactional work
+     * @param replicaDataSource pool used for read-only transactions
+     * @return routing DataSource
+     */
+    public static DataSource createRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource) {
+        ReplicationRoutingDataSource routingDataSource = new ReplicationRoutingDataSource();
+        routingDataSource.setTargetDataSources(Map.of(
+            ReplicationRoutingDataSource.Route.PRIMARY, primaryDataSource,
+            ReplicationRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+
+        // The physical connection is fetched on first statement, once the
+        // transaction's read-only flag is visible to the router
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
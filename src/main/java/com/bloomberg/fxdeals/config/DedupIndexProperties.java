@@ -0,0 +1,38 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties for the persistent deal ID fingerprint index (fxdeals.dedup.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.dedup")
+public class DedupIndexProperties {
+
+    /**
+     * Whether imports consult the fingerprint index before querying the database
+     */
+    private boolean enabled = true;
+
+    /**
+     * Memory-mapped index file
+     */
+    private String path = "data/deal-id-index.bin";
+
+    /**
+     * Slots allocated for a new index file (8 bytes each, rounded up to a power of two)
+     */
+    private long initialCapacity = 1 << 20;
+
+    /**
+     * How far below the persisted high-water mark reconciliation starts, to cover
+     * deals that committed around the last checkpoint
+     */
+    private long reconcileOverlap = 10_000;
+
+    /**
+     * Rows fetched per keyset page while reconciling
+     */
+    private int reconcileBatchSize = 5_000;
+}
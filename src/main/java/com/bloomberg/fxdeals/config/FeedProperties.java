@@ -0,0 +1,46 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties for the live deal change feed (fxdeals.feed.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.feed")
+public class FeedProperties {
+
+    /**
+     * Imported deals kept in memory for subscribers (rounded up to a power of two);
+     * a subscriber further behind than this is disconnected
+     */
+    private int bufferSize = 16_384;
+
+    /**
+     * Maximum concurrent subscribers
+     */
+    private int maxSubscribers = 100;
+
+    /**
+     * Threads writing events to subscribers
+     */
+    private int senderThreads = 4;
+
+    /**
+     * Connection lifetime; clients reconnect with Last-Event-ID to continue
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * Rows fetched per page when a resuming subscriber is behind the buffer
+     */
+    private int backfillBatchSize = 500;
+
+    /**
+     * Rows sent from the database on one connection; beyond this the connection is
+     * closed and the client resumes from its last event id
+     */
+    private int maxBackfill = 50_000;
+}
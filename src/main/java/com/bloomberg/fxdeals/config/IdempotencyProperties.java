@@ -0,0 +1,29 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties for Idempotency-Key handling on the import endpoints (fxdeals.idempotency.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Whether the Idempotency-Key header is honoured; when disabled it is ignored
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of remembered keys; the least recently used key is evicted first
+     */
+    private int maxEntries = 10_000;
+
+    /**
+     * How long a completed result is replayed for a key
+     */
+    private Duration ttl = Duration.ofHours(24);
+}
@@ -0,0 +1,90 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tuning properties for the deal import path (fxdeals.import.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.import")
+public class ImportProperties {
+
+    /**
+     * Maximum per-deal warning lines logged per second during bulk imports;
+     * the rest are counted in the batch summary line
+     */
+    private int logWarningsPerSecond = 20;
+
+    /**
+     * Deals committed per transaction during bulk imports (the starting point when adaptive)
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Deals written per JDBC batch (one flush) within a chunk; capped at the chunk size
+     * (the starting point when adaptive)
+     */
+    private int batchSize = 500;
+
+    /**
+     * Parallel writers a large bulk import is partitioned across (by hash of dealUniqueId)
+     */
+    private int writers = 4;
+
+    /**
+     * Largest fraction of the primary connection pool the parallel writers may hold together
+     */
+    private double maxPoolShare = 0.5;
+
+    /**
+     * Bulk imports with fewer deals are written on the request thread
+     */
+    private int parallelThreshold = 5_000;
+
+    /**
+     * Automatic tuning of chunk-size and batch-size
+     */
+    private Adaptive adaptive = new Adaptive();
+
+    /**
+     * Hill climbing of the bulk import chunk and batch sizes (fxdeals.import.adaptive.*)
+     */
+    @Data
+    public static class Adaptive {
+
+        /**
+         * Tune chunk-size and batch-size from measured chunk throughput
+         */
+        private boolean enabled = true;
+
+        /**
+         * Bounds of the chunk size (widened to include chunk-size)
+         */
+        private int minChunkSize = 100;
+        private int maxChunkSize = 10_000;
+
+        /**
+         * Bounds of the batch size (widened to include batch-size)
+         */
+        private int minBatchSize = 50;
+        private int maxBatchSize = 2_000;
+
+        /**
+         * Full chunks measured before each adjustment
+         */
+        private int window = 8;
+
+        /**
+         * Each adjustment multiplies or divides a size by this factor
+         */
+        private double stepFactor = 1.25;
+
+        /**
+         * Mean chunk commit time above which the chunk shrinks regardless of throughput
+         */
+        private Duration maxChunkLatency = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,22 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties for batch deal lookups (fxdeals.lookup.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.lookup")
+public class LookupProperties {
+
+    /**
+     * Unique IDs looked up per query (and per transaction)
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Maximum unique IDs in one lookup request
+     */
+    private int maxIds = 100_000;
+}
@@ -0,0 +1,44 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties for near-duplicate detection (fxdeals.near-duplicates.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.near-duplicates")
+public class NearDuplicateProperties {
+
+    /**
+     * What happens to a deal that matches a recent deal's currency pair and amount,
+     * with a timestamp within the tolerance, under a different unique ID
+     */
+    private Mode mode = Mode.OFF;
+
+    /**
+     * Maximum distance between the deal timestamps of two suspected resends
+     */
+    private Duration timestampTolerance = Duration.ofSeconds(1);
+
+    /**
+     * How long an imported deal stays in the index
+     */
+    private Duration window = Duration.ofHours(1);
+
+    /**
+     * Maximum deals kept in the index (about 100 bytes each); the oldest are evicted first
+     */
+    private int maxEntries = 200_000;
+
+    public enum Mode {
+        /** No detection */
+        OFF,
+        /** Import the deal and report it as a suspect */
+        FLAG,
+        /** Do not import the deal; report it as a suspect */
+        REJECT
+    }
+}
@@ -0,0 +1,22 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties for the in-memory net position engine (fxdeals.positions.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.positions")
+public class PositionProperties {
+
+    /**
+     * Whether positions are rebuilt on startup and maintained on import
+     */
+    private boolean enabled = true;
+
+    /**
+     * Rows fetched per round trip while rebuilding from fx_deals
+     */
+    private int rebuildFetchSize = 10_000;
+}
@@ -0,0 +1,44 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties for the rejected deal store (fxdeals.rejections.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.rejections")
+public class RejectionProperties {
+
+    /**
+     * Record rejected deals in rejected_deals
+     */
+    private boolean enabled = true;
+
+    /**
+     * Rejections buffered for the writer; beyond this they are dropped and counted
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Most rejections written per JDBC batch
+     */
+    private int batchSize = 500;
+
+    /**
+     * Most rejections returned by one query
+     */
+    private int maxPageSize = 1000;
+
+    /**
+     * Rejections older than this are deleted by the nightly purge (zero keeps them)
+     */
+    private Duration maxAge = Duration.ofDays(30);
+
+    /**
+     * Schedule of the purge of expired rejections
+     */
+    private String purgeCron = "0 30 3 * * *";
+}
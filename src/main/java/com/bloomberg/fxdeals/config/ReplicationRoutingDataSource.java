@@ -0,0 +1,29 @@
+package com.bloomberg.fxdeals.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routing DataSource that sends read-only transactions to the replica pool
+ *
+ * Everything else (imports, non-transactional access) goes to the primary.
+ * Must be wrapped in a LazyConnectionDataSourceProxy so the route is decided
+ * after the transaction has published its read-only flag.
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Lookup keys for the target pools
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            ? Route.REPLICA
+            : Route.PRIMARY;
+    }
+}
@@ -0,0 +1,49 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties for the retention purge of expired deals (fxdeals.retention.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.retention")
+public class RetentionProperties {
+
+    /**
+     * Whether the scheduled purge runs
+     */
+    private boolean enabled = false;
+
+    /**
+     * Deals with a deal timestamp older than this are deleted, from fx_deals and the archive
+     */
+    private Duration age = Duration.ofDays(3650);
+
+    /**
+     * Largest number of deals deleted per transaction
+     */
+    private int maxBatchSize = 5_000;
+
+    /**
+     * Smallest batch the purge shrinks to while imports are slow
+     */
+    private int minBatchSize = 100;
+
+    /**
+     * Pause between batches
+     */
+    private Duration pause = Duration.ofMillis(100);
+
+    /**
+     * Longest pause the purge backs off to while imports are slow
+     */
+    private Duration maxPause = Duration.ofSeconds(5);
+
+    /**
+     * Per-deal latency of recent bulk imports above which the purge backs off
+     */
+    private Duration importLatencyBudget = Duration.ofMillis(5);
+}
@@ -0,0 +1,38 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties for file ingestion from the spool directory (fxdeals.spool.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.spool")
+public class SpoolProperties {
+
+    /**
+     * Whether the spool directory is watched
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory upstream systems drop deal files into; processing, done and error
+     * folders are created inside it
+     */
+    private String path = "data/spool";
+
+    /**
+     * Files imported at the same time
+     */
+    private int workers = 2;
+
+    /**
+     * Deals passed to each bulk import call while a file is read
+     */
+    private int batchSize = 5_000;
+
+    /**
+     * Per-deal errors kept in a file's result summary; the rest are only counted
+     */
+    private int maxReportedErrors = 100;
+}
@@ -0,0 +1,41 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties for the streaming deal statistics (fxdeals.stats.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.stats")
+public class StatisticsProperties {
+
+    /**
+     * Whether imports feed the statistics sketches
+     */
+    private boolean enabled = true;
+
+    /**
+     * Length of one tumbling window
+     */
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * Closed windows kept for queries spanning several windows
+     */
+    private int retainedWindows = 60;
+
+    /**
+     * Currency pairs tracked per window by the heavy-hitter sketch; a reported count
+     * overestimates by at most (deals in the window) / top-pairs-capacity
+     */
+    private int topPairsCapacity = 64;
+
+    /**
+     * HyperLogLog precision for distinct deal IDs (2^precision bytes per window);
+     * relative standard error is 1.04 / sqrt(2^precision)
+     */
+    private int distinctPrecision = 12;
+}
@@ -0,0 +1,49 @@
+package com.bloomberg.fxdeals.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Transaction manager configuration
+ *
+ * Declares two transaction managers:
+ * - transactionManager (primary): the JPA manager Spring Boot would otherwise create,
+ *   used by @Transactional methods
+ * - bulkImportTransactionManager: a JDBC manager over the same DataSource for the
+ *   bulk import chunks, which only use JdbcTemplate and need JDBC savepoints
+ *   (Hibernate's JPA dialect does not expose savepoints)
+ *
+ * Declaring the second manager switches off Boot's auto-configured one, so the JPA
+ * manager is declared here explicitly with the usual customizations applied.
+ */
+@Configuration
+public class TransactionConfig {
+
+    public static final String BULK_IMPORT_TRANSACTION_MANAGER = "bulkImportTransactionManager";
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+            ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+
+    @Bean(BULK_IMPORT_TRANSACTION_MANAGER)
+    public JdbcTransactionManager bulkImportTransactionManager(DataSource dataSource,
+            ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(dataSource);
+        customizers.ifAvailable(c -> c.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Business rules applied to every imported deal (fxdeals.validation.*)
+ *
+ * Compiled once into a ValidationRuleSet; see DealValidationService. The rules can
+ * be replaced at runtime through PUT /api/v1/validation/rules when
+ * fxdeals.validation.endpoint-enabled is set.
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.validation")
+public class ValidationProperties {
+
+    /**
+     * Longest accepted deal unique ID, at most 100 (the length of the fx_deals column)
+     */
+    private int maxDealIdLength = 100;
+
+    /**
+     * Known currency codes
+     */
+    private List<String> currencies = new ArrayList<>(List.of(
+        "USD", "EUR", "GBP", "JPY", "AUD", "CAD", "CHF", "CNY", "HKD", "NZD",
+        "SEK", "NOK", "DKK", "PLN", "ZAR", "SGD", "MXN", "INR", "BRL", "KRW"));
+
+    /**
+     * Whether codes missing from currencies are rejected; otherwise any three letters are accepted
+     */
+    private boolean rejectUnknownCurrencies = false;
+
+    /**
+     * Oldest accepted deal timestamp, relative to now
+     */
+    private Period maxAge = Period.ofYears(10);
+
+    /**
+     * How far in the future a deal timestamp may be (clock skew allowance)
+     */
+    private Duration futureTolerance = Duration.ZERO;
+
+    /**
+     * Largest accepted deal amount
+     */
+    private BigDecimal maxAmount = new BigDecimal("1000000000000");
+
+    /**
+     * Decimal places accepted in the deal amount (at most 4, the stored scale)
+     */
+    private int maxDecimalPlaces = 4;
+}
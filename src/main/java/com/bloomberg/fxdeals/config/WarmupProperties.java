@@ -0,0 +1,39 @@
+package com.bloomberg.fxdeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties for the startup warmup (fxdeals.warmup.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fxdeals.warmup")
+public class WarmupProperties {
+
+    /**
+     * Warm up the import and lookup paths before the readiness probe reports ready
+     */
+    private boolean enabled = true;
+
+    /**
+     * Longest the warmup may delay readiness; whatever is left is abandoned
+     */
+    private Duration maxDuration = Duration.ofSeconds(30);
+
+    /**
+     * Rounds of synthetic deals pushed through JSON binding, validation and the rolled-back insert
+     */
+    private int rounds = 40;
+
+    /**
+     * Synthetic deals per round
+     */
+    private int dealsPerRound = 200;
+
+    /**
+     * Open every connection of each pool (up to maximum-pool-size) before traffic arrives
+     */
+    private boolean fillConnectionPools = true;
+}
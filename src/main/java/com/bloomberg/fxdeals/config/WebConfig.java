@@ -0,0 +1,25 @@
+package com.bloomberg.fxdeals.config;
+
+import com.bloomberg.fxdeals.controller.ImportAdmissionInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ImportAdmissionInterceptor importAdmissionInterceptor;
+
+    public WebConfig(ImportAdmissionInterceptor importAdmissionInterceptor) {
+        this.importAdmissionInterceptor = importAdmissionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(importAdmissionInterceptor)
+            .addPathPatterns("/api/v1/deals", "/api/v1/deals/bulk", "/api/v1/uploads/*/chunks/*");
+    }
+}
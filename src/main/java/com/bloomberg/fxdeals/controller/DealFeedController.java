@@ -0,0 +1,45 @@
+package com.bloomberg.fxdeals.controller;
+
+import com.bloomberg.fxdeals.service.DealChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * REST Controller for the live deal feed
+ *
+ * Streams imported deals as Server-Sent Events, so downstream systems do not
+ * have to poll the deal list.
+ */
+@RestController
+@RequestMapping("/api/v1/feed")
+@CrossOrigin(origins = "*")
+public class DealFeedController {
+
+    private final DealChangeFeed dealChangeFeed;
+
+    @Autowired
+    public DealFeedController(DealChangeFeed dealChangeFeed) {
+        this.dealChangeFeed = dealChangeFeed;
+    }
+
+    /**
+     * Subscribe to imported deals
+     *
+     * GET /api/v1/feed/deals?pair=EUR/USD
+     *
+     * @param pairs optional currency pairs to receive, e.g. EUR/USD (repeatable)
+     * @param lastEventId id of the last deal received, sent by EventSource clients when reconnecting
+     * @param lastId same as Last-Event-ID, for clients that cannot set headers
+     * @return the event stream; each "deal" event has the deal id as its event id
+     */
+    @GetMapping(value = "/deals", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDeals(@RequestParam(value = "pair", required = false) List<String> pairs,
+                                  @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                  @RequestParam(value = "lastId", required = false) Long lastId) {
+        return dealChangeFeed.subscribe(lastEventId != null ? lastEventId : lastId, pairs);
+    }
+}
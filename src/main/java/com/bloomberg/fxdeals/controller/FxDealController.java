@@ -2,17 +2,29 @@ package com.bloomberg.fxdeals.controller;
 
 import com.bloomberg.fxdeals.dto.BulkDealRequest;
 import com.bloomberg.fxdeals.dto.BulkDealResponse;
+import com.bloomberg.fxdeals.dto.DealLookupRequest;
+import com.bloomberg.fxdeals.dto.DealLookupResponse;
+import com.bloomberg.fxdeals.dto.DealLookupResult;
 import com.bloomberg.fxdeals.dto.DealRequest;
 import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.exception.SuspectedDuplicateException;
+import com.bloomberg.fxdeals.service.DealLookupService;
 import com.bloomberg.fxdeals.service.FxDealService;
-import jakarta.validation.Valid;
+import com.bloomberg.fxdeals.service.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -21,7 +33,7 @@ import java.util.List;
  * Provides endpoints for:
  * - Single deal import
  * - Bulk deal import
- * - Deal retrieval
+ * - Deal retrieval, one at a time or in batch
  */
 @RestController
 @RequestMapping("/api/v1/deals")
@@ -31,10 +43,17 @@ public class FxDealController {
     private static final Logger logger = LoggerFactory.getLogger(FxDealController.class);
 
     private final FxDealService dealService;
+    private final IdempotencyService idempotencyService;
+    private final DealLookupService lookupService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public FxDealController(FxDealService dealService) {
+    public FxDealController(FxDealService dealService, IdempotencyService idempotencyService,
+                            DealLookupService lookupService, ObjectMapper objectMapper) {
         this.dealService = dealService;
+        this.idempotencyService = idempotencyService;
+        this.lookupService = lookupService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -43,12 +62,18 @@ public class FxDealController {
      * POST /api/v1/deals
      * 
      * @param dealRequest the deal to import
+     * @param idempotencyKey optional key; a retry with the same key replays the first result
      * @return DealResponse with imported deal information
      */
     @PostMapping
-    public ResponseEntity<?> importDeal(@Valid @RequestBody DealRequest dealRequest) {
-        logger.info("Received request to import deal: {}", dealRequest.getDealUniqueId());
+    public ResponseEntity<?> importDeal(@RequestBody DealRequest dealRequest,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        logger.debug("Received request to import deal: {}", dealRequest.getDealUniqueId());
+        return idempotencyService.execute("deal", idempotencyKey, IdempotencyService.fingerprint(dealRequest),
+            () -> doImportDeal(dealRequest));
+    }
 
+    private ResponseEntity<?> doImportDeal(DealRequest dealRequest) {
         try {
             DealResponse response = dealService.importDeal(dealRequest);
             logger.info("Successfully imported deal: {}", response.getDealUniqueId());
@@ -59,6 +84,11 @@ public class FxDealController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(new ErrorResponse("VALIDATION_ERROR", e.getMessage()));
 
+        } catch (SuspectedDuplicateException e) {
+            logger.warn("Suspected resend rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse("SUSPECTED_DUPLICATE", e.getMessage()));
+
         } catch (IllegalStateException e) {
             logger.warn("Duplicate deal detected: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -77,21 +107,32 @@ public class FxDealController {
      * POST /api/v1/deals/bulk
      * 
      * @param bulkRequest the bulk deal request
+     * @param request the servlet request, used to report the batch size to admission control
+     * @param idempotencyKey optional key; a retry with the same key replays the first result summary
      * @return BulkDealResponse with import statistics
      */
     @PostMapping("/bulk")
-    public ResponseEntity<BulkDealResponse> importDealsBulk(@Valid @RequestBody BulkDealRequest bulkRequest) {
-        logger.info("Received request to import {} deals in bulk", bulkRequest.getDeals().size());
+    public ResponseEntity<?> importDealsBulk(@RequestBody BulkDealRequest bulkRequest, HttpServletRequest request,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        logger.debug("Received request to import {} deals in bulk", bulkRequest.getDeals().size());
+        request.setAttribute(ImportAdmissionInterceptor.WORK_UNITS_ATTRIBUTE, bulkRequest.getDeals().size());
+
+        return idempotencyService.execute("bulk", idempotencyKey,
+            IdempotencyService.fingerprint(bulkRequest.getDeals()), () -> doImportDealsBulk(bulkRequest));
+    }
 
+    private ResponseEntity<BulkDealResponse> doImportDealsBulk(BulkDealRequest bulkRequest) {
         BulkDealResponse response = dealService.importDealsBulk(bulkRequest.getDeals());
         
+        // Rejected suspected resends are neither imported nor counted as failed
         HttpStatus status = response.getFailed() == 0 && response.getSkippedDuplicates() == 0
+                && response.getSuccessfullyImported() == response.getTotalReceived()
             ? HttpStatus.CREATED
             : response.getSuccessfullyImported() > 0
                 ? HttpStatus.PARTIAL_CONTENT
                 : HttpStatus.BAD_REQUEST;
 
-        logger.info("Bulk import completed with status {}: {} imported, {} duplicates, {} failed",
+        logger.debug("Bulk import completed with status {}: {} imported, {} duplicates, {} failed",
             status, response.getSuccessfullyImported(), response.getSkippedDuplicates(), response.getFailed());
 
         return ResponseEntity.status(status).body(response);
@@ -102,12 +143,16 @@ public class FxDealController {
      * 
      * GET /api/v1/deals
      * 
+     * @param includeArchived whether deals moved to the archive are listed too
      * @return list of all deals
      */
     @GetMapping
-    public ResponseEntity<List<DealResponse>> getAllDeals() {
+    public ResponseEntity<List<DealResponse>> getAllDeals(
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
         logger.debug("Received request to retrieve all deals");
-        List<DealResponse> deals = dealService.getAllDeals();
+        List<DealResponse> deals = includeArchived
+            ? dealService.getAllDealsIncludingArchive()
+            : dealService.getAllDeals();
         return ResponseEntity.ok(deals);
     }
 
@@ -131,6 +176,73 @@ public class FxDealController {
         return ResponseEntity.ok(deal);
     }
 
+    /**
+     * Look up many deals by unique ID
+     * 
+     * POST /api/v1/deals/lookup
+     * 
+     * @param lookupRequest the unique IDs to look up
+     * @return found deals and missing IDs, in request order
+     */
+    @PostMapping(value = "/lookup", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DealLookupResponse> lookupDeals(@RequestBody DealLookupRequest lookupRequest) {
+        logger.debug("Received request to look up {} deals", sizeOf(lookupRequest.getDealUniqueIds()));
+        return ResponseEntity.ok(lookupService.lookup(lookupRequest.getDealUniqueIds()));
+    }
+
+    /**
+     * Look up many deals by unique ID, streaming one DealLookupResult per line
+     * 
+     * POST /api/v1/deals/lookup with Accept: application/x-ndjson
+     * 
+     * Lines are written as each chunk of IDs is read, so neither side holds the whole
+     * answer for large inputs.
+     * 
+     * @param lookupRequest the unique IDs to look up
+     * @return one line per distinct ID, in request order
+     */
+    @PostMapping(value = "/lookup", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLookupDeals(@RequestBody DealLookupRequest lookupRequest) {
+        List<String> ids = lookupRequest.getDealUniqueIds();
+        logger.debug("Received request to stream a lookup of {} deals", sizeOf(ids));
+
+        try {
+            lookupService.checkRequest(ids);
+        } catch (IllegalArgumentException e) {
+            // The client accepts only NDJSON, so the error is sent as a single line
+            logger.warn("Rejected deal lookup: {}", e.getMessage());
+            ErrorResponse error = new ErrorResponse("INVALID_ARGUMENT", e.getMessage());
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> writeLine(out, error));
+        }
+
+        StreamingResponseBody body = out -> lookupService.lookup(ids, new DealLookupService.ResultHandler() {
+            @Override
+            public void found(DealResponse deal) {
+                writeLine(out, new DealLookupResult(deal.getDealUniqueId(), true, deal));
+            }
+
+            @Override
+            public void missing(String dealUniqueId) {
+                writeLine(out, new DealLookupResult(dealUniqueId, false, null));
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static int sizeOf(List<String> ids) {
+        return ids == null ? 0 : ids.size();
+    }
+
+    private void writeLine(OutputStream out, Object line) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Error response DTO
      */
@@ -0,0 +1,103 @@
+package com.bloomberg.fxdeals.controller;
+
+import com.bloomberg.fxdeals.config.AdmissionProperties;
+import com.bloomberg.fxdeals.exception.AdmissionRejectedException;
+import com.bloomberg.fxdeals.service.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admission control for the import endpoints
+ *
+ * Every import request must obtain a permit from an adaptive concurrency limiter
+ * before it reaches the controller. When the limit and its wait queue are full the
+ * request fails fast with 429 instead of queueing on the connection pool.
+ *
+ * Latency is normalized per deal (see WORK_UNITS_ATTRIBUTE) so that large bulk
+ * requests are not mistaken for overload.
+ */
+@Component
+public class ImportAdmissionInterceptor implements HandlerInterceptor, MeterBinder {
+
+    /**
+     * Request attribute holding the number of deals in the request (defaults to 1)
+     */
+    public static final String WORK_UNITS_ATTRIBUTE = ImportAdmissionInterceptor.class.getName() + ".units";
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportAdmissionInterceptor.class);
+
+    private static final String START_ATTRIBUTE = ImportAdmissionInterceptor.class.getName() + ".start";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final boolean enabled;
+
+    public ImportAdmissionInterceptor(AdmissionProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.limiter = new AdaptiveConcurrencyLimiter(properties.getInitialLimit(), properties.getMinLimit(),
+            properties.getMaxLimit(), properties.getBackoffRatio(), properties.getLatencyThresholdPerDeal(),
+            properties.getMaxQueueSize(), properties.getMaxWait());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !isImport(request)) {
+            return true;
+        }
+
+        if (!limiter.tryAcquire()) {
+            long retryAfter = limiter.getRetryAfterSeconds();
+            logger.warn("Import rejected by admission control: limit {}, in flight {}, retry after {}s",
+                limiter.getLimit(), limiter.getInFlight(), retryAfter);
+            throw new AdmissionRejectedException(
+                "Import capacity exhausted, retry after " + retryAfter + " seconds", retryAfter);
+        }
+
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    private boolean isImport(HttpServletRequest request) {
+        return HttpMethod.POST.matches(request.getMethod()) || HttpMethod.PUT.matches(request.getMethod());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+
+        long elapsed = System.nanoTime() - (Long) start;
+        Object units = request.getAttribute(WORK_UNITS_ATTRIBUTE);
+        int deals = units instanceof Integer count && count > 0 ? count : 1;
+        boolean failed = ex != null || response.getStatus() >= 500;
+
+        limiter.release(elapsed, deals, failed);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fxdeals.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current adaptive concurrency limit for imports")
+            .register(registry);
+        Gauge.builder("fxdeals.admission.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+            .description("Import requests currently holding a permit")
+            .register(registry);
+        Gauge.builder("fxdeals.admission.waiting", limiter, AdaptiveConcurrencyLimiter::getWaiting)
+            .description("Import requests waiting for a permit")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.admission.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+            .description("Import requests rejected with 429")
+            .register(registry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.bloomberg.fxdeals.controller;
+
+import com.bloomberg.fxdeals.dto.PositionResponse;
+import com.bloomberg.fxdeals.exception.ResourceNotFoundException;
+import com.bloomberg.fxdeals.service.PositionEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for net currency positions
+ *
+ * Served from the in-memory PositionEngine rather than aggregated from fx_deals.
+ */
+@RestController
+@RequestMapping("/api/v1/positions")
+@CrossOrigin(origins = "*")
+public class PositionController {
+
+    private final PositionEngine positionEngine;
+
+    @Autowired
+    public PositionController(PositionEngine positionEngine) {
+        this.positionEngine = positionEngine;
+    }
+
+    /**
+     * Get the net position of every traded currency
+     *
+     * GET /api/v1/positions
+     *
+     * @return positions ordered by currency code
+     */
+    @GetMapping
+    public ResponseEntity<List<PositionResponse>> getPositions() {
+        return ResponseEntity.ok(positionEngine.getPositions());
+    }
+
+    /**
+     * Get the net position of one currency
+     *
+     * GET /api/v1/positions/{currency}
+     *
+     * @param currency ISO currency code
+     * @return the currency's position
+     */
+    @GetMapping("/{currency}")
+    public ResponseEntity<PositionResponse> getPosition(@PathVariable String currency) {
+        PositionResponse position = positionEngine.getPosition(currency);
+        if (position == null) {
+            throw new ResourceNotFoundException("No deals in currency " + currency);
+        }
+        return ResponseEntity.ok(position);
+    }
+}
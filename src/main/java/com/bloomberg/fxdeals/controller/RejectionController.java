@@ -0,0 +1,63 @@
+package com.bloomberg.fxdeals.controller;
+
+import com.bloomberg.fxdeals.dto.RejectedDealResponse;
+import com.bloomberg.fxdeals.model.RejectedDeal;
+import com.bloomberg.fxdeals.service.RejectedDealRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * REST Controller for the rejected deal store
+ *
+ * Deals a bulk import did not persist are recorded asynchronously, so they show up
+ * here shortly after the import responds.
+ */
+@RestController
+@RequestMapping("/api/v1/rejections")
+@CrossOrigin(origins = "*")
+public class RejectionController {
+
+    private final RejectedDealRecorder rejections;
+
+    @Autowired
+    public RejectionController(RejectedDealRecorder rejections) {
+        this.rejections = rejections;
+    }
+
+    /**
+     * Get rejected deals by import and/or reason
+     *
+     * GET /api/v1/rejections?batchId={batchId}&reason={reason}&afterId={id}&limit={n}
+     *
+     * @param batchId batchId of a bulk import response, or omitted for all imports
+     * @param reason INVALID, DUPLICATE, DUPLICATE_IN_BATCH, SUSPECTED_RESEND or FAILED, or omitted for all
+     * @param afterId id of the last rejection already seen, for the next page
+     * @param limit maximum number of rejections
+     * @return rejections in id order
+     */
+    @GetMapping
+    public ResponseEntity<List<RejectedDealResponse>> getRejections(
+            @RequestParam(required = false) String batchId,
+            @RequestParam(required = false) String reason,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(rejections.find(batchId, parseReason(reason), afterId, limit));
+    }
+
+    private static RejectedDeal.Reason parseReason(String reason) {
+        if (reason == null || reason.isBlank()) {
+            return null;
+        }
+        try {
+            return RejectedDeal.Reason.valueOf(reason.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("reason must be one of "
+                + Arrays.toString(RejectedDeal.Reason.values()));
+        }
+    }
+}
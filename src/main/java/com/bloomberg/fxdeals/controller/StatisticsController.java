@@ -0,0 +1,41 @@
+package com.bloomberg.fxdeals.controller;
+
+import com.bloomberg.fxdeals.dto.DealStatisticsResponse;
+import com.bloomberg.fxdeals.service.DealStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for approximate deal statistics
+ *
+ * Served from fixed-memory streaming sketches rather than aggregated from fx_deals.
+ */
+@RestController
+@RequestMapping("/api/v1/stats")
+@CrossOrigin(origins = "*")
+public class StatisticsController {
+
+    private final DealStatistics dealStatistics;
+
+    @Autowired
+    public StatisticsController(DealStatistics dealStatistics) {
+        this.dealStatistics = dealStatistics;
+    }
+
+    /**
+     * Get top currency pairs and distinct deal counts over recent windows
+     *
+     * GET /api/v1/stats/deals?windows=5&top=10
+     *
+     * @param windows number of tumbling windows to cover, including the current one
+     * @param top number of currency pairs to return
+     * @return the statistics with their error bounds
+     */
+    @GetMapping("/deals")
+    public ResponseEntity<DealStatisticsResponse> getDealStatistics(
+            @RequestParam(defaultValue = "1") int windows,
+            @RequestParam(defaultValue = "10") int top) {
+        return ResponseEntity.ok(dealStatistics.snapshot(windows, top));
+    }
+}
@@ -0,0 +1,104 @@
+package com.bloomberg.fxdeals.controller;
+
+import com.bloomberg.fxdeals.dto.BulkDealRequest;
+import com.bloomberg.fxdeals.dto.UploadChunkResponse;
+import com.bloomberg.fxdeals.dto.UploadSessionRequest;
+import com.bloomberg.fxdeals.dto.UploadSessionResponse;
+import com.bloomberg.fxdeals.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for resumable chunked uploads
+ *
+ * Provides endpoints for:
+ * - Opening an upload session
+ * - Sending numbered chunks of deals
+ * - Querying the last committed chunk and deal offset
+ * - Completing the session
+ */
+@RestController
+@RequestMapping("/api/v1/uploads")
+@CrossOrigin(origins = "*")
+public class UploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadController.class);
+
+    private final UploadSessionService uploadService;
+
+    @Autowired
+    public UploadController(UploadSessionService uploadService) {
+        this.uploadService = uploadService;
+    }
+
+    /**
+     * Open an upload session
+     *
+     * POST /api/v1/uploads
+     *
+     * @param request optional session parameters
+     * @return the new session
+     */
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> openSession(
+            @Valid @RequestBody(required = false) UploadSessionRequest request) {
+        Integer expectedChunks = request != null ? request.getExpectedChunks() : null;
+        UploadSessionResponse session = uploadService.openSession(expectedChunks);
+        return ResponseEntity.status(HttpStatus.CREATED).body(session);
+    }
+
+    /**
+     * Get upload progress, including the chunk to resume from
+     *
+     * GET /api/v1/uploads/{uploadId}
+     *
+     * @param uploadId the upload session identifier
+     * @return session progress
+     */
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String uploadId) {
+        return ResponseEntity.ok(uploadService.getSession(uploadId));
+    }
+
+    /**
+     * Send one chunk of deals
+     *
+     * PUT /api/v1/uploads/{uploadId}/chunks/{chunkNumber}
+     *
+     * @param uploadId the upload session identifier
+     * @param chunkNumber zero-based chunk number
+     * @param chunk the deals in this chunk
+     * @param request the servlet request, used to report the chunk size to admission control
+     * @return chunk result and updated progress
+     */
+    @PutMapping("/{uploadId}/chunks/{chunkNumber}")
+    public ResponseEntity<UploadChunkResponse> uploadChunk(@PathVariable String uploadId,
+                                                           @PathVariable int chunkNumber,
+                                                           @RequestBody BulkDealRequest chunk,
+                                                           HttpServletRequest request) {
+        logger.debug("Received chunk {} of upload {} with {} deals", chunkNumber, uploadId, chunk.getDeals().size());
+        request.setAttribute(ImportAdmissionInterceptor.WORK_UNITS_ATTRIBUTE, chunk.getDeals().size());
+
+        UploadChunkResponse response = uploadService.uploadChunk(uploadId, chunkNumber, chunk.getDeals());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Complete the upload session
+     *
+     * POST /api/v1/uploads/{uploadId}/complete
+     *
+     * @param uploadId the upload session identifier
+     * @return final progress
+     */
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<UploadSessionResponse> completeSession(@PathVariable String uploadId) {
+        return ResponseEntity.ok(uploadService.completeSession(uploadId));
+    }
+}
@@ -0,0 +1,55 @@
+package com.bloomberg.fxdeals.controller;
+
+import com.bloomberg.fxdeals.config.ValidationProperties;
+import com.bloomberg.fxdeals.service.DealValidationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for the deal validation rules
+ *
+ * The rules start from fxdeals.validation.* and can be replaced at runtime; a
+ * replacement lasts until the next restart. The endpoint is unauthenticated, so it
+ * only exists with fxdeals.validation.endpoint-enabled=true and is not open to
+ * cross-origin requests.
+ */
+@RestController
+@RequestMapping("/api/v1/validation/rules")
+@ConditionalOnProperty(prefix = "fxdeals.validation", name = "endpoint-enabled", havingValue = "true")
+public class ValidationRulesController {
+
+    private final DealValidationService validationService;
+
+    @Autowired
+    public ValidationRulesController(DealValidationService validationService) {
+        this.validationService = validationService;
+    }
+
+    /**
+     * Get the validation rules currently applied
+     *
+     * GET /api/v1/validation/rules
+     *
+     * @return the rule configuration
+     */
+    @GetMapping
+    public ResponseEntity<ValidationProperties> getRules() {
+        return ResponseEntity.ok(validationService.getRuleProperties());
+    }
+
+    /**
+     * Replace the validation rules; imports in progress finish with the old ones
+     *
+     * PUT /api/v1/validation/rules
+     *
+     * @param properties the complete new rule configuration (omitted fields take their defaults)
+     * @return the rule configuration now applied
+     */
+    @PutMapping
+    public ResponseEntity<ValidationProperties> replaceRules(@RequestBody ValidationProperties properties) {
+        validationService.replaceRules(properties);
+        return ResponseEntity.ok(validationService.getRuleProperties());
+    }
+}
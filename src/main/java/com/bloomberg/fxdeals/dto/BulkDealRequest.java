@@ -1,8 +1,7 @@
 package com.bloomberg.fxdeals.dto;
 
-import jakarta.validation.Valid;
-import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.NotNull;
+import com.bloomberg.fxdeals.json.BulkDealRequestDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,15 +10,15 @@ import java.util.List;
 
 /**
  * DTO for bulk deal import requests
+ * 
+ * The deals list must be present and non-empty; this and the per-deal structural
+ * checks are enforced while the body is parsed by BulkDealRequestDeserializer.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonDeserialize(using = BulkDealRequestDeserializer.class)
 public class BulkDealRequest {
 
-    @NotNull(message = "Deals list is required")
-    @NotEmpty(message = "Deals list cannot be empty")
-    @Valid
     private List<DealRequest> deals;
 }
-
@@ -17,11 +17,19 @@ import java.util.List;
 @Builder
 public class BulkDealResponse {
 
+    /** Identifies this import in the rejected deal store (GET /api/v1/rejections?batchId=...) */
+    private String batchId;
     private int totalReceived;
     private int successfullyImported;
     private int skippedDuplicates;
     private int failed;
+    /** Deals that look like resends of another deal under a new unique ID (imported or not, per mode) */
+    private int suspectedDuplicates;
+    @Builder.Default
     private List<String> errors = new ArrayList<>();
+    @Builder.Default
+    private List<String> suspectedDuplicateDeals = new ArrayList<>();
+    @Builder.Default
     private List<DealResponse> importedDeals = new ArrayList<>();
 }
 
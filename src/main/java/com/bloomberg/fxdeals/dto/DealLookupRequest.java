@@ -0,0 +1,18 @@
+package com.bloomberg.fxdeals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for batch lookups of deals by unique ID
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealLookupRequest {
+
+    private List<String> dealUniqueIds;
+}
@@ -0,0 +1,31 @@
+package com.bloomberg.fxdeals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for batch lookup results
+ *
+ * Deals and missing IDs are listed in request order; repeated IDs are reported once.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DealLookupResponse {
+
+    private int requested;
+    private int found;
+    private int missing;
+
+    @Builder.Default
+    private List<DealResponse> deals = new ArrayList<>();
+
+    @Builder.Default
+    private List<String> missingDealUniqueIds = new ArrayList<>();
+}
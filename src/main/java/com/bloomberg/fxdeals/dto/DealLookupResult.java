@@ -0,0 +1,20 @@
+package com.bloomberg.fxdeals.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a streamed (application/x-ndjson) batch lookup
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DealLookupResult {
+
+    private String dealUniqueId;
+    private boolean found;
+    private DealResponse deal;
+}
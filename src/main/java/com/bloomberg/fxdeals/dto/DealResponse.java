@@ -1,11 +1,11 @@
 package com.bloomberg.fxdeals.dto;
 
+import com.bloomberg.fxdeals.model.FixedPointAmount;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -22,7 +22,7 @@ public class DealResponse {
     private String fromCurrencyIsoCode;
     private String toCurrencyIsoCode;
     private LocalDateTime dealTimestamp;
-    private BigDecimal dealAmount;
+    private FixedPointAmount dealAmount;
     private LocalDateTime createdAt;
 }
 
@@ -0,0 +1,55 @@
+package com.bloomberg.fxdeals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for approximate deal statistics over one or more tumbling windows
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DealStatisticsResponse {
+
+    private Instant windowStart;
+    private Instant windowEnd;
+    private int windows;
+
+    /** Deals received by the import endpoints (exact) */
+    private long received;
+    /** Deals committed (exact) */
+    private long imported;
+
+    /** Estimated distinct deal IDs among the received deals */
+    private long distinctDealIds;
+    /** Relative standard error of distinctDealIds */
+    private double distinctDealIdsRelativeError;
+
+    /** Most imported currency pairs, highest count first */
+    private List<PairCount> topPairs;
+    /** Upper bound on the overestimate of any pair count */
+    private long topPairsMaxError;
+
+    /** Fixed memory reserved for all retained windows */
+    private long memoryBudgetBytes;
+
+    /**
+     * Estimated count of one currency pair
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PairCount {
+        private String pair;
+        /** Estimated count, never below the true count */
+        private long count;
+        /** The true count is at least count - maxError */
+        private long maxError;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bloomberg.fxdeals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for the net position in one currency
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PositionResponse {
+
+    private String currency;
+    /** Sum of deal amounts where this is the to currency */
+    private BigDecimal bought;
+    /** Sum of deal amounts where this is the from currency */
+    private BigDecimal sold;
+    /** bought - sold */
+    private BigDecimal net;
+    private long dealCount;
+}
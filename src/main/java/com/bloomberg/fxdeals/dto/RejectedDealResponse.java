@@ -0,0 +1,36 @@
+package com.bloomberg.fxdeals.dto;
+
+import com.bloomberg.fxdeals.model.RejectedDeal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a deal recorded in the rejected deal store
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RejectedDealResponse {
+
+    private Long id;
+    private String batchId;
+    private int dealIndex;
+    private String dealUniqueId;
+    private RejectedDeal.Reason reason;
+    /** Failed validation rules for INVALID deals */
+    @Builder.Default
+    private List<String> errorCodes = new ArrayList<>();
+    private String message;
+    /** The deal as received, as JSON, unless payloadTruncated */
+    private String payload;
+    /** Whether the payload was cut to 2000 characters and is not valid JSON */
+    private boolean payloadTruncated;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,44 @@
+package com.bloomberg.fxdeals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result summary written next to each processed spool file
+ *
+ * status is DONE when the whole file was read (individual deals may still have
+ * failed) and ERROR when the file could not be read to the end; error then says why.
+ * Deal indexes in errors are positions in the file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpoolFileResult {
+
+    public enum Status { DONE, ERROR }
+
+    private String file;
+    private String format;
+    private Status status;
+    private String error;
+    private long totalReceived;
+    private long successfullyImported;
+    private long skippedDuplicates;
+    private long failed;
+    private long suspectedDuplicates;
+    /** Per-deal errors beyond fxdeals.spool.max-reported-errors */
+    private long omittedErrors;
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+    @Builder.Default
+    private List<String> suspectedDuplicateDeals = new ArrayList<>();
+    private LocalDateTime startedAt;
+    private long elapsedMillis;
+}
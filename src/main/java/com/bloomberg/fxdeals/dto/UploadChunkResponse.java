@@ -0,0 +1,24 @@
+package com.bloomberg.fxdeals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the result of sending one upload chunk
+ *
+ * When alreadyCommitted is true the chunk was a retry of committed work:
+ * nothing was imported and result is null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadChunkResponse {
+
+    private int chunkNumber;
+    private boolean alreadyCommitted;
+    private BulkDealResponse result;
+    private UploadSessionResponse session;
+}
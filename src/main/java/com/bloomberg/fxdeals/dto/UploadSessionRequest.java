@@ -0,0 +1,21 @@
+package com.bloomberg.fxdeals.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for opening a resumable upload session
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+
+    /**
+     * Total number of chunks the client intends to send (optional)
+     */
+    @Positive(message = "Expected chunks must be positive")
+    private Integer expectedChunks;
+}
@@ -0,0 +1,33 @@
+package com.bloomberg.fxdeals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing the progress of a resumable upload
+ *
+ * After a disconnect the client resumes with chunk number nextChunk;
+ * committedOffset is the number of deals covered by committed chunks.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessionResponse {
+
+    private String uploadId;
+    private String status;
+    private Integer expectedChunks;
+    private int nextChunk;
+    private Integer lastCommittedChunk;
+    private long committedOffset;
+    private long importedDeals;
+    private long duplicateDeals;
+    private long failedDeals;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
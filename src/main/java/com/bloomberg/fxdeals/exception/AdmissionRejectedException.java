@@ -0,0 +1,20 @@
+package com.bloomberg.fxdeals.exception;
+
+/**
+ * Thrown when an import request is rejected by admission control
+ *
+ * Mapped to 429 Too Many Requests with a Retry-After header.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,14 +1,18 @@
 package com.bloomberg.fxdeals.exception;
 
 import com.bloomberg.fxdeals.controller.FxDealController;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -47,6 +51,95 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    /**
+     * Handle request bodies that cannot be parsed
+     *
+     * Structural checks failed by the deal deserializers, and values rejected while
+     * binding other types, are reported per field like bean validation errors;
+     * malformed JSON gets a generic message.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> handleMessageNotReadableException(
+            HttpMessageNotReadableException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        if (ex.getCause() instanceof InvalidPayloadException payloadException) {
+            logger.warn("Validation errors: {}", payloadException.getFieldErrors());
+
+            response.put("errorCode", "VALIDATION_ERROR");
+            response.put("message", "Request validation failed");
+            response.put("errors", payloadException.getFieldErrors());
+        } else if (ex.getCause() instanceof JsonMappingException mappingException
+                && !mappingException.getPath().isEmpty()) {
+            Map<String, String> errors = new HashMap<>();
+            errors.put(fieldPath(mappingException), mappingException.getOriginalMessage());
+            logger.warn("Validation errors: {}", errors);
+
+            response.put("errorCode", "VALIDATION_ERROR");
+            response.put("message", "Request validation failed");
+            response.put("errors", errors);
+        } else {
+            logger.warn("Malformed request body: {}", ex.getMessage());
+            response.put("errorCode", "MALFORMED_REQUEST");
+            response.put("message", "Request body is not valid JSON");
+        }
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    /**
+     * Handle requests rejected by import admission control
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<FxDealController.ErrorResponse> handleAdmissionRejectedException(
+            AdmissionRejectedException ex) {
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(new FxDealController.ErrorResponse("TOO_MANY_REQUESTS", ex.getMessage()));
+    }
+
+    /**
+     * Handle features that are not ready to answer yet
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<FxDealController.ErrorResponse> handleServiceUnavailableException(
+            ServiceUnavailableException ex) {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(new FxDealController.ErrorResponse("SERVICE_UNAVAILABLE", ex.getMessage()));
+    }
+
+    /**
+     * Handle Idempotency-Key reuse: 409 while the first request is running,
+     * 422 when the key was used for a different payload
+     */
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<FxDealController.ErrorResponse> handleIdempotencyKeyConflictException(
+            IdempotencyKeyConflictException ex) {
+
+        logger.warn("Idempotency key conflict: {}", ex.getMessage());
+        if (ex.getReason() == IdempotencyKeyConflictException.Reason.IN_PROGRESS) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new FxDealController.ErrorResponse("IDEMPOTENCY_KEY_IN_PROGRESS", ex.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+            .body(new FxDealController.ErrorResponse("IDEMPOTENCY_KEY_MISMATCH", ex.getMessage()));
+    }
+
+    /**
+     * Handle lookups of resources that do not exist
+     */
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<FxDealController.ErrorResponse> handleResourceNotFoundException(
+            ResourceNotFoundException ex) {
+
+        logger.debug("Resource not found: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(new FxDealController.ErrorResponse("NOT_FOUND", ex.getMessage()));
+    }
+
     /**
      * Handle IllegalArgumentException
      */
@@ -71,6 +164,15 @@ public class GlobalExceptionHandler {
             .body(new FxDealController.ErrorResponse("ILLEGAL_STATE", ex.getMessage()));
     }
 
+    /**
+     * Handle paths with no endpoint, including endpoints switched off by configuration
+     */
+    @ExceptionHandler(NoResourceFoundException.class)
+    public ResponseEntity<FxDealController.ErrorResponse> handleNoResourceFound(NoResourceFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(new FxDealController.ErrorResponse("NOT_FOUND", "No endpoint at /" + ex.getResourcePath()));
+    }
+
     /**
      * Handle all other exceptions
      */
@@ -82,5 +184,22 @@ public class GlobalExceptionHandler {
                 "INTERNAL_ERROR", 
                 "An unexpected error occurred: " + ex.getMessage()));
     }
-}
 
+    /**
+     * Render a Jackson reference path in bean validation style, e.g. deals[2].dealAmount
+     */
+    private static String fieldPath(JsonMappingException ex) {
+        StringBuilder path = new StringBuilder();
+        for (JsonMappingException.Reference reference : ex.getPath()) {
+            if (reference.getFieldName() != null) {
+                if (!path.isEmpty()) {
+                    path.append('.');
+                }
+                path.append(reference.getFieldName());
+            } else if (reference.getIndex() >= 0) {
+                path.append('[').append(reference.getIndex()).append(']');
+            }
+        }
+        return path.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.bloomberg.fxdeals.exception;
+
+/**
+ * Thrown when an Idempotency-Key cannot be honoured
+ *
+ * Either a request with the same key is still being processed (mapped to 409
+ * Conflict), or the key was already used for a different payload (mapped to
+ * 422 Unprocessable Entity).
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public enum Reason {
+        IN_PROGRESS,
+        PAYLOAD_MISMATCH
+    }
+
+    private final Reason reason;
+
+    public IdempotencyKeyConflictException(String message, Reason reason) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bloomberg.fxdeals.exception;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+import java.util.Map;
+
+/**
+ * Thrown while deserializing a request body that is well-formed JSON but fails
+ * structural checks (missing fields, bad formats)
+ *
+ * Carries every field error found in the payload, keyed by bean-style path such as
+ * deals[2].fromCurrencyIsoCode. Mapped to 400 VALIDATION_ERROR.
+ */
+public class InvalidPayloadException extends JsonMappingException {
+
+    private final transient Map<String, String> fieldErrors;
+
+    public InvalidPayloadException(JsonParser parser, Map<String, String> fieldErrors) {
+        super(parser, "Request validation failed: " + fieldErrors);
+        this.fieldErrors = fieldErrors;
+    }
+
+    public Map<String, String> getFieldErrors() {
+        return fieldErrors;
+    }
+}
@@ -0,0 +1,13 @@
+package com.bloomberg.fxdeals.exception;
+
+/**
+ * Thrown when a requested resource does not exist
+ *
+ * Mapped to 404 Not Found.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
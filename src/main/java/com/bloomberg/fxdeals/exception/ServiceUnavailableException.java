@@ -0,0 +1,20 @@
+package com.bloomberg.fxdeals.exception;
+
+/**
+ * Thrown when a feature cannot answer yet, for example while it is rebuilt on startup
+ *
+ * Mapped to 503 Service Unavailable with a Retry-After header.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bloomberg.fxdeals.exception;
+
+/**
+ * Thrown when a deal is rejected as a probable resend of another deal under a new unique ID
+ *
+ * Extends IllegalStateException like exact duplicates; the single import endpoint
+ * reports it with its own error code.
+ */
+public class SuspectedDuplicateException extends IllegalStateException {
+
+    private final String originalDealUniqueId;
+
+    public SuspectedDuplicateException(String message, String originalDealUniqueId) {
+        super(message);
+        this.originalDealUniqueId = originalDealUniqueId;
+    }
+
+    public String getOriginalDealUniqueId() {
+        return originalDealUniqueId;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bloomberg.fxdeals.json;
+
+import com.bloomberg.fxdeals.dto.BulkDealRequest;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.exception.InvalidPayloadException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming deserializer for BulkDealRequest
+ *
+ * Reads the deals array element by element with DealRequestDeserializer, checking
+ * every deal as it is parsed, and rejects the whole payload with an
+ * InvalidPayloadException if the list is missing or empty or any deal fails the
+ * structural checks. Unknown fields are skipped.
+ */
+public class BulkDealRequestDeserializer extends StdDeserializer<BulkDealRequest> {
+
+    public BulkDealRequestDeserializer() {
+        super(BulkDealRequest.class);
+    }
+
+    @Override
+    public BulkDealRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartObjectToken()) {
+            return (BulkDealRequest) ctxt.handleUnexpectedToken(BulkDealRequest.class, p);
+        }
+
+        Map<String, String> errors = new LinkedHashMap<>();
+        List<DealRequest> deals = null;
+
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            JsonToken value = p.nextToken();
+            if (!"deals".equals(field) || value == JsonToken.VALUE_NULL) {
+                p.skipChildren();
+            } else if (value != JsonToken.START_ARRAY) {
+                errors.putIfAbsent("deals", "Deals list must be a JSON array");
+                p.skipChildren();
+            } else {
+                deals = new ArrayList<>();
+                for (int index = 0; p.nextToken() != JsonToken.END_ARRAY; index++) {
+                    deals.add(DealRequestDeserializer.readDeal(p, index, errors));
+                }
+            }
+        }
+
+        if (deals == null) {
+            errors.putIfAbsent("deals", "Deals list is required");
+        } else if (deals.isEmpty()) {
+            errors.putIfAbsent("deals", "Deals list cannot be empty");
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidPayloadException(p, errors);
+        }
+        return new BulkDealRequest(deals);
+    }
+}
@@ -0,0 +1,353 @@
+package com.bloomberg.fxdeals.json;
+
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.util.CurrencyCodes;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming reader for deal files dropped into the spool directory
+ *
+ * Reads one deal at a time, so a file of any size is never held in memory:
+ * - JSON: an array of deals, or an object with a "deals" array (the bulk request body)
+ * - NDJSON: one deal object per line
+ * - CSV: a header line naming the five DealRequest fields, then one deal per record;
+ *   fields may be double-quoted (RFC 4180) to hold commas, line breaks or "" for a quote
+ *
+ * A deal that fails the structural checks of DealRequestDeserializer is returned
+ * with its error message instead of failing the file. Malformed JSON or a CSV
+ * header without the required columns throws an IOException.
+ */
+public abstract class DealFileReader implements Closeable {
+
+    /**
+     * Supported file formats, chosen by file extension
+     */
+    public enum Format {
+        JSON, NDJSON, CSV;
+
+        /**
+         * @param fileName name of the file
+         * @return the format, or null if the extension is not supported
+         */
+        public static Format of(String fileName) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".json")) {
+                return JSON;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One deal read from the file
+     *
+     * @param index zero-based position of the deal in the file
+     * @param deal the deal as read (fields that failed to parse are null)
+     * @param error structural errors, or null if the deal is well formed
+     */
+    public record DealRecord(int index, DealRequest deal, String error) {
+    }
+
+    /**
+     * @param format file format
+     * @param in file contents (closed with the reader)
+     * @param jsonFactory factory for the JSON formats
+     * @return a reader positioned before the first deal
+     */
+    public static DealFileReader open(Format format, InputStream in, JsonFactory jsonFactory) throws IOException {
+        return switch (format) {
+            case JSON, NDJSON -> new JsonDealReader(jsonFactory.createParser(in), format == Format.JSON);
+            case CSV -> new CsvDealReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        };
+    }
+
+    /**
+     * @return the next deal, or null at the end of the file
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public abstract DealRecord next() throws IOException;
+
+    private static String joinErrors(Map<String, String> errors) {
+        return errors.isEmpty() ? null : String.join("; ", errors.values());
+    }
+
+    private static final class JsonDealReader extends DealFileReader {
+
+        private final JsonParser parser;
+        private final Map<String, String> errors = new LinkedHashMap<>();
+        private boolean inArray;
+        private boolean finished;
+        private int index;
+
+        private JsonDealReader(JsonParser parser, boolean array) throws IOException {
+            this.parser = parser;
+            if (array) {
+                openArray();
+            }
+        }
+
+        /**
+         * Position the parser inside the deals array of a JSON document
+         */
+        private void openArray() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+                    token = parser.nextToken();
+                    if ("deals".equals(field) && token == JsonToken.START_ARRAY) {
+                        inArray = true;
+                        return;
+                    }
+                    parser.skipChildren();
+                }
+                throw new IOException("JSON object has no \"deals\" array");
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of deals or an object with a \"deals\" array");
+            }
+            inArray = true;
+        }
+
+        @Override
+        public DealRecord next() throws IOException {
+            if (finished) {
+                return null;
+            }
+            JsonToken token = parser.nextToken();
+            if (token == null || (inArray && token == JsonToken.END_ARRAY)) {
+                finished = true;
+                return null;
+            }
+            errors.clear();
+            DealRequest deal = DealRequestDeserializer.readDeal(parser, index, errors);
+            return new DealRecord(index++, deal, joinErrors(errors));
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    private static final class CsvDealReader extends DealFileReader {
+
+        private static final List<String> COLUMNS = List.of(
+            "dealUniqueId", "fromCurrencyIsoCode", "toCurrencyIsoCode", "dealTimestamp", "dealAmount");
+        /** A quoted field is given up on once its record grows past this, so a stray quote cannot swallow the file */
+        private static final int MAX_RECORD_LENGTH = 8192;
+
+        private final BufferedReader reader;
+        private final int[] positions = new int[COLUMNS.size()];
+        private final Map<String, String> errors = new LinkedHashMap<>();
+        private int columnCount;
+        private int index;
+
+        private CsvDealReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            readHeader();
+        }
+
+        private void readHeader() throws IOException {
+            String header = nextLine();
+            if (header == null) {
+                throw new IOException("CSV file is empty");
+            }
+            List<String> names = split(header);
+            if (names == null) {
+                throw new IOException("CSV header has an unclosed quoted field");
+            }
+            columnCount = names.size();
+            for (int c = 0; c < COLUMNS.size(); c++) {
+                positions[c] = -1;
+                for (int i = 0; i < names.size(); i++) {
+                    if (COLUMNS.get(c).equalsIgnoreCase(names.get(i))) {
+                        positions[c] = i;
+                    }
+                }
+                if (positions[c] < 0) {
+                    throw new IOException("CSV header has no " + COLUMNS.get(c) + " column");
+                }
+            }
+        }
+
+        @Override
+        public DealRecord next() throws IOException {
+            String line = nextLine();
+            if (line == null) {
+                return null;
+            }
+            errors.clear();
+            DealRequest deal = new DealRequest();
+            List<String> values;
+            while ((values = split(line)) == null) {
+                // A quoted field continues on the next line
+                String more = line.length() < MAX_RECORD_LENGTH ? reader.readLine() : null;
+                if (more == null) {
+                    errors.put("line", "Quoted field is not closed");
+                    return new DealRecord(index++, deal, joinErrors(errors));
+                }
+                line = line + "\n" + more;
+            }
+            if (values.size() != columnCount) {
+                errors.put("line", "Expected " + columnCount + " columns but found " + values.size());
+                return new DealRecord(index++, deal, joinErrors(errors));
+            }
+
+            deal.setDealUniqueId(readDealUniqueId(values.get(positions[0])));
+            deal.setFromCurrencyIsoCode(readCurrency(values.get(positions[1]), "fromCurrencyIsoCode",
+                "From Currency"));
+            deal.setToCurrencyIsoCode(readCurrency(values.get(positions[2]), "toCurrencyIsoCode",
+                "To Currency"));
+            deal.setDealTimestamp(readTimestamp(values.get(positions[3])));
+            deal.setDealAmount(readAmount(values.get(positions[4])));
+            return new DealRecord(index++, deal, joinErrors(errors));
+        }
+
+        private String readDealUniqueId(String value) {
+            if (value.isBlank()) {
+                errors.put("dealUniqueId", "Deal Unique Id is required");
+                return null;
+            }
+            if (value.length() > 100) {
+                errors.put("dealUniqueId", "Deal Unique Id must not exceed 100 characters");
+            }
+            return value;
+        }
+
+        private String readCurrency(String value, String field, String label) {
+            int code = CurrencyCodes.indexOf(value);
+            if (code >= 0) {
+                return CurrencyCodes.codeOf(code);
+            }
+            if (value.isBlank()) {
+                errors.put(field, label + " ISO Code is required");
+                return null;
+            }
+            errors.put(field, value.length() != 3
+                ? label + " ISO Code must be exactly 3 characters"
+                : label + " ISO Code must be 3 uppercase letters");
+            return value;
+        }
+
+        private LocalDateTime readTimestamp(String value) {
+            if (value.isBlank()) {
+                errors.put("dealTimestamp", "Deal timestamp is required");
+                return null;
+            }
+            try {
+                return DealRequestDeserializer.parseTimestamp(value.toCharArray(), 0, value.length());
+            } catch (DateTimeException e) {
+                errors.put("dealTimestamp", "Deal timestamp must be an ISO-8601 date-time");
+                return null;
+            }
+        }
+
+        private FixedPointAmount readAmount(String value) {
+            if (value.isBlank()) {
+                errors.put("dealAmount", "Deal amount is required");
+                return null;
+            }
+            try {
+                return FixedPointAmount.parse(value);
+            } catch (NumberFormatException e) {
+                errors.put("dealAmount", "Deal amount must be a decimal number");
+            } catch (ArithmeticException e) {
+                errors.put("dealAmount", e.getMessage());
+            }
+            return null;
+        }
+
+        /**
+         * @return the next non-blank line, or null at the end of the file
+         */
+        private String nextLine() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            return line;
+        }
+
+        /**
+         * Split one CSV record into its fields
+         *
+         * Unquoted fields are trimmed. A field starting with a double quote runs to the
+         * matching closing quote and keeps its content as is, commas and line breaks
+         * included, with "" read as one quote; anything between the closing quote and
+         * the next comma is appended.
+         *
+         * @return the fields, or null if a quoted field is not closed by the end of the text
+         */
+        private static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            int length = text.length();
+            int i = 0;
+            while (true) {
+                int start = i;
+                while (i < length && Character.isWhitespace(text.charAt(i))) {
+                    i++;
+                }
+                if (i < length && text.charAt(i) == '"') {
+                    field.setLength(0);
+                    i++;
+                    while (true) {
+                        if (i >= length) {
+                            return null;
+                        }
+                        char c = text.charAt(i++);
+                        if (c != '"') {
+                            field.append(c);
+                        } else if (i < length && text.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    int end = text.indexOf(',', i);
+                    end = end < 0 ? length : end;
+                    fields.add(field.append(text.substring(i, end).strip()).toString());
+                    i = end;
+                } else {
+                    int end = text.indexOf(',', i);
+                    end = end < 0 ? length : end;
+                    fields.add(text.substring(start, end).trim());
+                    i = end;
+                }
+                if (i >= length) {
+                    return fields;
+                }
+                i++;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.bloomberg.fxdeals.json;
+
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.exception.InvalidPayloadException;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.util.CurrencyCodes;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streaming deserializer for DealRequest
+ *
+ * Reads the fields token by token instead of going through reflective bean binding,
+ * and performs the structural checks that bean validation used to run afterwards:
+ * required fields, identifier length, currency code format, timestamp format and
+ * amount scale. Rules that depend on configuration or the clock, such as how far in the
+ * future a timestamp may be, are left to DealValidationService. All problems in a payload are collected and reported together as an
+ * InvalidPayloadException, using the same messages as the former constraints.
+ *
+ * Fast paths:
+ * - currency codes are mapped to shared instances through CurrencyCodes
+ * - timestamps in the yyyy-MM-dd'T'HH:mm:ss[.SSSSSSSSS] layout are parsed by position;
+ *   other ISO-8601 local date-times fall back to LocalDateTime.parse
+ * - amounts are parsed into FixedPointAmount from the parser's text buffer
+ *
+ * Unknown fields are skipped. BulkDealRequestDeserializer reuses {@link #readDeal}
+ * for each array element.
+ */
+public class DealRequestDeserializer extends StdDeserializer<DealRequest> {
+
+    /** Stop recording field errors beyond this many per payload */
+    static final int MAX_ERRORS = 100;
+
+    private static final int MAX_DEAL_UNIQUE_ID_LENGTH = 100;
+
+    public DealRequestDeserializer() {
+        super(DealRequest.class);
+    }
+
+    @Override
+    public DealRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        Map<String, String> errors = new LinkedHashMap<>();
+        DealRequest deal = readDeal(p, -1, errors);
+        if (!errors.isEmpty()) {
+            throw new InvalidPayloadException(p, errors);
+        }
+        return deal;
+    }
+
+    /**
+     * Read one deal object, recording field errors instead of throwing
+     *
+     * @param p parser positioned on the deal's START_OBJECT (or null)
+     * @param index position in the enclosing deals array, or -1 for a top-level deal
+     * @param errors field errors collected so far, keyed by path
+     * @return the deal, or null if the token was JSON null
+     */
+    static DealRequest readDeal(JsonParser p, int index, Map<String, String> errors)
+            throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            addError(errors, index, null, "Deal is required");
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            addError(errors, index, null, "Deal must be a JSON object");
+            p.skipChildren();
+            return null;
+        }
+
+        DealRequest deal = new DealRequest();
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "dealUniqueId" -> deal.setDealUniqueId(readDealUniqueId(p, value, index, errors));
+                case "fromCurrencyIsoCode" ->
+                    deal.setFromCurrencyIsoCode(readCurrency(p, value, index, field, "From Currency", errors));
+                case "toCurrencyIsoCode" ->
+                    deal.setToCurrencyIsoCode(readCurrency(p, value, index, field, "To Currency", errors));
+                case "dealTimestamp" -> deal.setDealTimestamp(readTimestamp(p, value, index, errors));
+                case "dealAmount" -> deal.setDealAmount(readAmount(p, value, index, errors));
+                default -> p.skipChildren();
+            }
+        }
+
+        // Fields that were present but invalid already have an error, which addError keeps
+        if (deal.getDealUniqueId() == null) {
+            addError(errors, index, "dealUniqueId", "Deal Unique Id is required");
+        }
+        if (deal.getFromCurrencyIsoCode() == null) {
+            addError(errors, index, "fromCurrencyIsoCode", "From Currency ISO Code is required");
+        }
+        if (deal.getToCurrencyIsoCode() == null) {
+            addError(errors, index, "toCurrencyIsoCode", "To Currency ISO Code is required");
+        }
+        if (deal.getDealTimestamp() == null) {
+            addError(errors, index, "dealTimestamp", "Deal timestamp is required");
+        }
+        if (deal.getDealAmount() == null) {
+            addError(errors, index, "dealAmount", "Deal amount is required");
+        }
+        return deal;
+    }
+
+    private static String readDealUniqueId(JsonParser p, JsonToken value, int index, Map<String, String> errors)
+            throws IOException {
+        if (!isScalar(p, value, index, "dealUniqueId", "Deal Unique Id must be a string", errors)) {
+            return null;
+        }
+        String id = p.getText();
+        if (id.isBlank()) {
+            return null;
+        }
+        if (id.length() > MAX_DEAL_UNIQUE_ID_LENGTH) {
+            addError(errors, index, "dealUniqueId", "Deal Unique Id must not exceed 100 characters");
+        }
+        return id;
+    }
+
+    private static String readCurrency(JsonParser p, JsonToken value, int index, String field, String label,
+                                       Map<String, String> errors) throws IOException {
+        if (!isScalar(p, value, index, field, label + " ISO Code must be a string", errors)) {
+            return null;
+        }
+        char[] buffer = p.getTextCharacters();
+        int offset = p.getTextOffset();
+        int length = p.getTextLength();
+
+        int code = CurrencyCodes.indexOf(buffer, offset, length);
+        if (code >= 0) {
+            return CurrencyCodes.codeOf(code);
+        }
+
+        String text = p.getText();
+        if (text.isBlank()) {
+            return null;
+        }
+        addError(errors, index, field, length != 3
+            ? label + " ISO Code must be exactly 3 characters"
+            : label + " ISO Code must be 3 uppercase letters");
+        return text;
+    }
+
+    private static LocalDateTime readTimestamp(JsonParser p, JsonToken value, int index, Map<String, String> errors)
+            throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.VALUE_STRING) {
+            addError(errors, index, "dealTimestamp", "Deal timestamp must be an ISO-8601 date-time string");
+            p.skipChildren();
+            return null;
+        }
+
+        try {
+            return parseTimestamp(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        } catch (DateTimeException e) {
+            addError(errors, index, "dealTimestamp", "Deal timestamp must be an ISO-8601 date-time");
+            return null;
+        }
+    }
+
+    private static FixedPointAmount readAmount(JsonParser p, JsonToken value, int index, Map<String, String> errors)
+            throws IOException {
+        if (!isScalar(p, value, index, "dealAmount", "Deal amount must be a decimal number", errors)) {
+            return null;
+        }
+        try {
+            return FixedPointAmount.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        } catch (NumberFormatException e) {
+            addError(errors, index, "dealAmount", "Deal amount must be a decimal number");
+        } catch (ArithmeticException e) {
+            addError(errors, index, "dealAmount", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Parse an ISO-8601 local date-time, by position when it uses the canonical layout
+     *
+     * @throws DateTimeException if the text is not a valid local date-time
+     */
+    static LocalDateTime parseTimestamp(char[] buffer, int offset, int length) {
+        if ((length == 19 || (length >= 21 && length <= 29 && buffer[offset + 19] == '.'))
+                && buffer[offset + 4] == '-' && buffer[offset + 7] == '-' && buffer[offset + 10] == 'T'
+                && buffer[offset + 13] == ':' && buffer[offset + 16] == ':') {
+            int year = digits(buffer, offset, 4);
+            int month = digits(buffer, offset + 5, 2);
+            int day = digits(buffer, offset + 8, 2);
+            int hour = digits(buffer, offset + 11, 2);
+            int minute = digits(buffer, offset + 14, 2);
+            int second = digits(buffer, offset + 17, 2);
+            int nanos = 0;
+            if (length > 19) {
+                int fractionDigits = length - 20;
+                nanos = digits(buffer, offset + 20, fractionDigits);
+                for (int i = fractionDigits; i < 9; i++) {
+                    nanos *= 10;
+                }
+            }
+            if (year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0 && second >= 0 && nanos >= 0) {
+                return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+            }
+        }
+        return LocalDateTime.parse(new String(buffer, offset, length));
+    }
+
+    /**
+     * @return the decimal value of the digits, or -1 if any character is not a digit
+     */
+    private static int digits(char[] buffer, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = buffer[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Check that a field holds a scalar; nulls are treated as missing, containers as errors
+     */
+    private static boolean isScalar(JsonParser p, JsonToken value, int index, String field, String message,
+                                    Map<String, String> errors) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        if (value.isStructStart()) {
+            addError(errors, index, field, message);
+            p.skipChildren();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record the first error for a path, e.g. "deals[3].dealAmount" or "dealAmount"
+     *
+     * Later errors for the same path are ignored, so a field that was present but
+     * invalid is not also reported as missing.
+     */
+    static void addError(Map<String, String> errors, int index, String field, String message) {
+        if (errors.size() >= MAX_ERRORS) {
+            return;
+        }
+        String path;
+        if (index < 0) {
+            path = field == null ? "request" : field;
+        } else {
+            path = field == null ? "deals[" + index + "]" : "deals[" + index + "]." + field;
+        }
+        errors.putIfAbsent(path, message);
+    }
+}
@@ -0,0 +1,42 @@
+package com.bloomberg.fxdeals.json;
+
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a FixedPointAmount from a JSON number or numeric string
+ *
+ * The number is parsed from the parser's own text buffer, so amounts never pass
+ * through double or BigDecimal. Values with more than 4 significant decimal places
+ * or outside the long range are rejected as invalid formats.
+ */
+public class FixedPointAmountDeserializer extends StdScalarDeserializer<FixedPointAmount> {
+
+    public FixedPointAmountDeserializer() {
+        super(FixedPointAmount.class);
+    }
+
+    @Override
+    public FixedPointAmount deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+                && token != JsonToken.VALUE_STRING) {
+            return (FixedPointAmount) ctxt.handleUnexpectedToken(FixedPointAmount.class, p);
+        }
+
+        try {
+            return FixedPointAmount.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        } catch (NumberFormatException e) {
+            throw InvalidFormatException.from(p, "Deal amount must be a decimal number",
+                p.getText(), FixedPointAmount.class);
+        } catch (ArithmeticException e) {
+            throw InvalidFormatException.from(p, e.getMessage(), p.getText(), FixedPointAmount.class);
+        }
+    }
+}
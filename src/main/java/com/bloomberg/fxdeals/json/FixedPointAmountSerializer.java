@@ -0,0 +1,24 @@
+package com.bloomberg.fxdeals.json;
+
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a FixedPointAmount as a plain JSON number with 4 decimal places
+ */
+public class FixedPointAmountSerializer extends StdSerializer<FixedPointAmount> {
+
+    public FixedPointAmountSerializer() {
+        super(FixedPointAmount.class);
+    }
+
+    @Override
+    public void serialize(FixedPointAmount value, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeNumber(value.toString());
+    }
+}
@@ -0,0 +1,236 @@
+package com.bloomberg.fxdeals.model;
+
+import com.bloomberg.fxdeals.json.FixedPointAmountDeserializer;
+import com.bloomberg.fxdeals.json.FixedPointAmountSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+
+/**
+ * Monetary amount stored as a long scaled by 10^4
+ *
+ * Deal amounts have at most 4 decimal places, so they fit a scaled long exactly and
+ * comparisons, validation and aggregation can run on primitives instead of BigDecimal.
+ * The representable range is +/-922,337,203,685,477.5807, which covers the 1 trillion
+ * business cap with room to sum many deals; arithmetic throws ArithmeticException on
+ * overflow rather than wrapping.
+ *
+ * Instances are immutable. JSON uses a plain number with 4 decimals, and the database
+ * column stays numeric(19,4) through FixedPointAmountConverter.
+ */
+@JsonSerialize(using = FixedPointAmountSerializer.class)
+@JsonDeserialize(using = FixedPointAmountDeserializer.class)
+public final class FixedPointAmount implements Comparable<FixedPointAmount> {
+
+    public static final int SCALE = 4;
+    public static final long ONE = 10_000L;
+
+    public static final FixedPointAmount ZERO = new FixedPointAmount(0);
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    /** Digits before the decimal point of the largest amount, 922,337,203,685,477 */
+    private static final int MAX_INTEGER_DIGITS = 15;
+
+    private final long unscaled;
+
+    private FixedPointAmount(long unscaled) {
+        this.unscaled = unscaled;
+    }
+
+    /**
+     * @param unscaled amount multiplied by 10^4
+     * @return the amount
+     */
+    public static FixedPointAmount ofUnscaled(long unscaled) {
+        return unscaled == 0 ? ZERO : new FixedPointAmount(unscaled);
+    }
+
+    /**
+     * @param value decimal amount with at most 4 significant decimal places
+     * @return the amount
+     * @throws ArithmeticException if the value needs more than 4 decimal places or is out of range
+     */
+    public static FixedPointAmount of(BigDecimal value) {
+        BigDecimal scaled = value.stripTrailingZeros();
+        if (scaled.scale() > SCALE) {
+            throw new ArithmeticException("Deal amount cannot have more than 4 decimal places");
+        }
+        // Checked before setScale, which would expand an exponent such as 1e999999999 digit by digit
+        if ((long) scaled.precision() - scaled.scale() > MAX_INTEGER_DIGITS) {
+            throw new ArithmeticException("Deal amount is out of range");
+        }
+        try {
+            return ofUnscaled(scaled.setScale(SCALE).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Deal amount is out of range");
+        }
+    }
+
+    /**
+     * @param text decimal text such as "1000.50" or "-3"
+     * @return the amount
+     * @throws NumberFormatException if the text is not a decimal number
+     * @throws ArithmeticException if the value needs more than 4 decimal places or is out of range
+     */
+    public static FixedPointAmount parse(CharSequence text) {
+        return parse(text.toString().toCharArray(), 0, text.length());
+    }
+
+    /**
+     * Parse decimal text straight from a character buffer, without intermediate objects
+     *
+     * Plain notation is parsed directly; exponent notation falls back to BigDecimal,
+     * with the magnitude checked before the value is expanded.
+     *
+     * @param buffer characters holding the number
+     * @param offset index of the first character
+     * @param length number of characters
+     * @return the amount
+     * @throws NumberFormatException if the text is not a decimal number
+     * @throws ArithmeticException if the value needs more than 4 decimal places or is out of range
+     */
+    public static FixedPointAmount parse(char[] buffer, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        if (length == 0) {
+            throw new NumberFormatException("Empty amount");
+        }
+
+        boolean negative = false;
+        if (buffer[i] == '-' || buffer[i] == '+') {
+            negative = buffer[i] == '-';
+            i++;
+        }
+
+        long integerPart = 0;
+        int integerDigits = 0;
+        boolean overflow = false;
+        while (i < end && buffer[i] >= '0' && buffer[i] <= '9') {
+            if (integerPart > Long.MAX_VALUE / ONE) {
+                // Out of range unless an exponent follows; keep scanning for one
+                overflow = true;
+            } else {
+                integerPart = integerPart * 10 + (buffer[i] - '0');
+            }
+            integerDigits++;
+            i++;
+        }
+
+        long fraction = 0;
+        int fractionDigits = 0;
+        // A fifth significant decimal is only an error once it is clear no exponent shifts it
+        boolean tooPrecise = false;
+        if (i < end && buffer[i] == '.') {
+            i++;
+            while (i < end && buffer[i] >= '0' && buffer[i] <= '9') {
+                int digit = buffer[i] - '0';
+                if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + digit;
+                } else if (digit != 0) {
+                    tooPrecise = true;
+                }
+                fractionDigits++;
+                i++;
+            }
+        }
+
+        if (i < end && (buffer[i] == 'e' || buffer[i] == 'E')) {
+            return of(new BigDecimal(buffer, offset, length));
+        }
+        if (i != end || (integerDigits == 0 && fractionDigits == 0)) {
+            throw new NumberFormatException("Invalid amount: " + new String(buffer, offset, length));
+        }
+        if (tooPrecise) {
+            throw new ArithmeticException("Deal amount cannot have more than 4 decimal places");
+        }
+        if (overflow) {
+            throw new ArithmeticException("Deal amount is out of range");
+        }
+
+        try {
+            long unscaled = Math.addExact(Math.multiplyExact(integerPart, ONE),
+                fraction * POWERS_OF_TEN[SCALE - Math.min(fractionDigits, SCALE)]);
+            return ofUnscaled(negative ? -unscaled : unscaled);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Deal amount is out of range");
+        }
+    }
+
+    /**
+     * @return the amount multiplied by 10^4
+     */
+    public long unscaledValue() {
+        return unscaled;
+    }
+
+    public int signum() {
+        return Long.signum(unscaled);
+    }
+
+    /**
+     * @throws ArithmeticException on overflow
+     */
+    public FixedPointAmount add(FixedPointAmount other) {
+        return ofUnscaled(Math.addExact(unscaled, other.unscaled));
+    }
+
+    /**
+     * @throws ArithmeticException on overflow
+     */
+    public FixedPointAmount subtract(FixedPointAmount other) {
+        return ofUnscaled(Math.subtractExact(unscaled, other.unscaled));
+    }
+
+    /**
+     * @throws ArithmeticException on overflow
+     */
+    public FixedPointAmount negate() {
+        return ofUnscaled(Math.negateExact(unscaled));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaled, SCALE);
+    }
+
+    @Override
+    public int compareTo(FixedPointAmount other) {
+        return Long.compare(unscaled, other.unscaled);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof FixedPointAmount other && unscaled == other.unscaled);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(unscaled);
+    }
+
+    /**
+     * @return plain decimal text with exactly 4 decimal places, e.g. "1000.5000"
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(24);
+        appendTo(text);
+        return text.toString();
+    }
+
+    /**
+     * Append the plain decimal text to a builder
+     */
+    public void appendTo(StringBuilder text) {
+        long integerPart = unscaled / ONE;
+        long fraction = Math.abs(unscaled % ONE);
+        if (unscaled < 0 && integerPart == 0) {
+            text.append('-');
+        }
+        text.append(integerPart).append('.');
+        for (long p = ONE / 10; p > 0; p /= 10) {
+            text.append((char) ('0' + (fraction / p) % 10));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bloomberg.fxdeals.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps FixedPointAmount attributes to numeric(19,4) columns
+ */
+@Converter(autoApply = true)
+public class FixedPointAmountConverter implements AttributeConverter<FixedPointAmount, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(FixedPointAmount amount) {
+        return amount == null ? null : amount.toBigDecimal();
+    }
+
+    @Override
+    public FixedPointAmount convertToEntityAttribute(BigDecimal value) {
+        return value == null ? null : FixedPointAmount.of(value);
+    }
+}
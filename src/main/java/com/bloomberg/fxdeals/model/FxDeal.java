@@ -6,7 +6,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -24,11 +23,36 @@ import java.time.LocalDateTime;
 @Builder
 public class FxDeal {
 
+    /**
+     * Database sequence behind the id column
+     */
+    public static final String ID_SEQUENCE = "fx_deals_id_seq";
+
+    /**
+     * Ids reserved by each nextval of ID_SEQUENCE (its INCREMENT BY)
+     *
+     * A sequence value v reserves ids v to v + ID_ALLOCATION_SIZE - 1 (pooled-lo).
+     * Must match the increment the migrations give the sequence (V3).
+     */
+    public static final int ID_ALLOCATION_SIZE = 500;
+
+    /**
+     * Length of the deal_unique_id column
+     */
+    public static final int DEAL_UNIQUE_ID_LENGTH = 100;
+
+    /**
+     * Unique constraint on deal_unique_id; only its violations are duplicates
+     */
+    public static final String DEAL_UNIQUE_ID_CONSTRAINT = "uk_fx_deals_deal_unique_id";
+
+    /**
+     * Assigned by DealIdAllocator before the insert, the only source of ids
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "deal_unique_id", nullable = false, unique = true, length = 100)
+    @Column(name = "deal_unique_id", nullable = false, unique = true, length = DEAL_UNIQUE_ID_LENGTH)
     private String dealUniqueId;
 
     @Column(name = "from_currency_iso_code", nullable = false, length = 3)
@@ -41,7 +65,7 @@ public class FxDeal {
     private LocalDateTime dealTimestamp;
 
     @Column(name = "deal_amount", nullable = false, precision = 19, scale = 4)
-    private BigDecimal dealAmount;
+    private FixedPointAmount dealAmount;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,51 @@
+package com.bloomberg.fxdeals.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A deal a bulk import did not persist, as stored in rejected_deals
+ *
+ * Not a JPA entity: rows are written in JDBC batches by RejectedDealRecorder and
+ * read by RejectedDealRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RejectedDeal {
+
+    /**
+     * Why the deal was not imported
+     */
+    public enum Reason {
+        /** Failed validation; errorCodes lists the failed rules */
+        INVALID,
+        /** Already stored in fx_deals or the archive */
+        DUPLICATE,
+        /** Repeats a deal unique ID earlier in the same import */
+        DUPLICATE_IN_BATCH,
+        /** Looks like a resend of another deal, and suspects are rejected */
+        SUSPECTED_RESEND,
+        /** Could not be written */
+        FAILED
+    }
+
+    private Long id;
+    private String batchId;
+    private int dealIndex;
+    private String dealUniqueId;
+    private Reason reason;
+    /** Comma-separated error codes (validation rule names for INVALID) */
+    private String errorCodes;
+    private String message;
+    /** The deal as received, as JSON */
+    private String payload;
+    /** Whether the payload was cut to the column size (and is no longer valid JSON); set when read */
+    private boolean payloadTruncated;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,80 @@
+package com.bloomberg.fxdeals.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity tracking a resumable chunked upload
+ *
+ * Chunks are numbered from 0 and committed strictly in order, so the number of
+ * committed chunks is also the number of the next chunk the server expects.
+ * The version column guards against two clients committing the same chunk.
+ */
+@Entity
+@Table(name = "upload_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+
+    /**
+     * Lifecycle of an upload session
+     */
+    public enum Status {
+        OPEN,
+        COMPLETED
+    }
+
+    @Id
+    @Column(name = "upload_id", nullable = false, length = 36)
+    private String uploadId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "expected_chunks")
+    private Integer expectedChunks;
+
+    @Column(name = "committed_chunks", nullable = false)
+    private int committedChunks;
+
+    @Column(name = "committed_deals", nullable = false)
+    private long committedDeals;
+
+    @Column(name = "imported_deals", nullable = false)
+    private long importedDeals;
+
+    @Column(name = "duplicate_deals", nullable = false)
+    private long duplicateDeals;
+
+    @Column(name = "failed_deals", nullable = false)
+    private long failedDeals;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,389 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.config.ArchiveProperties;
+import com.bloomberg.fxdeals.model.FxDeal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cold tier of deals moved out of fx_deals, stored as DealSegment files
+ *
+ * A segment is written to a pending file first, then published: archived rows are
+ * deleted from fx_deals and, once that commits, the file is renamed into place.
+ * Both steps run under a write lock, so a reader that missed a deal in fx_deals
+ * and then takes the read lock is guaranteed to find it here. The delete transaction
+ * also records the segment in archive_segments; if the process stops before the
+ * rename, the pending file is resolved on startup: it is kept if its record exists
+ * (the delete committed) and discarded otherwise.
+ *
+ * Deletions by the retention purge take a separate lock, so lookups in the archive
+ * carry on while a purge batch commits; only withStableArchive waits for them.
+ *
+ * Segments found in the directory are always searched, even when the archival job
+ * is disabled.
+ */
+@Repository
+public class DealArchiveRepository implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DealArchiveRepository.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.dseg");
+    private static final String PENDING_SUFFIX = ".pending";
+
+    private final ArchiveProperties properties;
+    private final FxDealRepository dealRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+
+    private final List<DealSegment> segments = new CopyOnWriteArrayList<>();
+    private final ReadWriteLock publishLock = new ReentrantReadWriteLock();
+    /** Taken after publishLock when both are needed */
+    private final ReadWriteLock purgeLock = new ReentrantReadWriteLock();
+    private long nextSequence = 1;
+
+    public DealArchiveRepository(ArchiveProperties properties, FxDealRepository dealRepository,
+                                 JdbcTemplate jdbcTemplate) {
+        this.properties = properties;
+        this.dealRepository = dealRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = Path.of(properties.getPath());
+    }
+
+    /**
+     * Open existing segments and resolve pending files left by an interrupted run
+     */
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> pending = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean isPending = name.endsWith(PENDING_SUFFIX);
+                Matcher matcher = SEGMENT_NAME.matcher(isPending
+                    ? name.substring(0, name.length() - PENDING_SUFFIX.length())
+                    : name);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                nextSequence = Math.max(nextSequence, Long.parseLong(matcher.group(1)) + 1);
+                if (isPending) {
+                    pending.add(file);
+                } else {
+                    segments.add(DealSegment.open(file));
+                }
+            }
+        }
+        for (Path file : pending) {
+            resolvePending(file);
+        }
+        segments.sort(Comparator.comparing(DealSegment::getPath));
+        logger.info("Deal archive opened: {} segments, {} deals", segments.size(), getDealCount());
+    }
+
+    /**
+     * Write deals to a pending segment file; nothing is visible until {@link #publish}
+     *
+     * @param deals stored deals (sorted by dealUniqueId here)
+     * @return the pending file
+     */
+    public synchronized Path writePending(List<FxDeal> deals) throws IOException {
+        Files.createDirectories(directory);
+        List<FxDeal> sorted = new ArrayList<>(deals);
+        sorted.sort(Comparator.comparing(FxDeal::getDealUniqueId));
+        Path pending = directory.resolve(segmentName(nextSequence++) + PENDING_SUFFIX);
+        try {
+            DealSegment.write(pending, sorted, Math.max(1, properties.getBlockSize()),
+                Math.max(0, properties.getFilterBitsPerKey()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(pending);
+            throw e;
+        }
+        return pending;
+    }
+
+    /**
+     * Remove the archived deals from the database, then make the segment visible
+     *
+     * @param pending file returned by writePending
+     * @param removeFromDatabase deletes the segment's deals from fx_deals and calls
+     *                           {@link #recordPublished} in one transaction
+     * @throws IOException if the segment cannot be published; the deals are then only in the
+     *                     pending file, which is recovered on the next startup
+     */
+    public void publish(Path pending, Runnable removeFromDatabase) throws IOException {
+        publishLock.writeLock().lock();
+        try {
+            try {
+                removeFromDatabase.run();
+            } catch (RuntimeException e) {
+                Files.deleteIfExists(pending);
+                throw e;
+            }
+            Path target = pending.resolveSibling(pending.getFileName().toString().replace(PENDING_SUFFIX, ""));
+            Files.move(pending, target, StandardCopyOption.ATOMIC_MOVE);
+            segments.add(DealSegment.open(target));
+        } finally {
+            publishLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record that a pending segment's deals are being removed from fx_deals; must run in
+     * the transaction of the delete, so the record commits exactly when the delete does
+     *
+     * @param pending file returned by writePending
+     */
+    public void recordPublished(Path pending) throws IOException {
+        try (DealSegment segment = DealSegment.open(pending)) {
+            jdbcTemplate.update("INSERT INTO archive_segments (min_id, deal_count) VALUES (?, ?)",
+                segment.getMinId(), segment.getDealCount());
+        }
+    }
+
+    /**
+     * Find an archived deal
+     *
+     * @param dealUniqueId the unique deal identifier
+     * @return the deal if it is in a published segment
+     */
+    public Optional<FxDeal> findByDealUniqueId(String dealUniqueId) {
+        publishLock.readLock().lock();
+        try {
+            for (DealSegment segment : segments) {
+                FxDeal deal = segment.find(dealUniqueId);
+                if (deal != null) {
+                    return Optional.of(deal);
+                }
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read deal archive", e);
+        } finally {
+            publishLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the archived deals among the given unique IDs in one pass over the segments,
+     * inflating each block at most once however many of the IDs it holds
+     *
+     * @param dealUniqueIds unique IDs to look up
+     * @param consumer called once per archived deal, in no particular order
+     */
+    public void findByDealUniqueIds(Collection<String> dealUniqueIds, Consumer<FxDeal> consumer) {
+        if (dealUniqueIds.isEmpty()) {
+            return;
+        }
+        List<String> remaining = new ArrayList<>(new TreeSet<>(dealUniqueIds));
+        publishLock.readLock().lock();
+        try {
+            for (DealSegment segment : segments) {
+                Set<String> found = new HashSet<>();
+                segment.findAll(remaining, deal -> {
+                    found.add(deal.getDealUniqueId());
+                    consumer.accept(deal);
+                });
+                if (!found.isEmpty()) {
+                    // A deal is archived once, so no later segment holds it
+                    remaining.removeIf(found::contains);
+                    if (remaining.isEmpty()) {
+                        return;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read deal archive", e);
+        } finally {
+            publishLock.readLock().unlock();
+        }
+    }
+
+    public boolean existsByDealUniqueId(String dealUniqueId) {
+        return findByDealUniqueId(dealUniqueId).isPresent();
+    }
+
+    /**
+     * Stream every archived deal, segment by segment
+     */
+    public void forEach(Consumer<FxDeal> consumer) {
+        publishLock.readLock().lock();
+        try {
+            for (DealSegment segment : segments) {
+                segment.forEach(consumer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read deal archive", e);
+        } finally {
+            publishLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drop every segment whose newest deal is older than the cutoff, like dropping an
+     * expired partition; segments with a newer deal are kept whole
+     *
+     * @param cutoff exclusive upper bound on the deal timestamp
+     * @param onDropped receives the deals of each dropped segment, after its file is deleted
+     *                  and before any withStableArchive read can start
+     * @return number of deals dropped
+     */
+    public long dropSegmentsBefore(LocalDateTime cutoff, Consumer<List<FxDeal>> onDropped) {
+        long dropped = 0;
+        for (DealSegment segment : segments) {
+            LocalDateTime newest = segment.getMaxDealTimestamp();
+            if (newest == null || !newest.isBefore(cutoff)) {
+                continue;
+            }
+            List<FxDeal> deals = new ArrayList<>((int) segment.getDealCount());
+            publishLock.writeLock().lock();
+            try {
+                segment.forEach(deals::add);
+                segments.remove(segment);
+                segment.close();
+                Files.delete(segment.getPath());
+                logger.info("Dropped archive segment {} ({} deals, newest {})", segment.getPath(), deals.size(), newest);
+                onDropped.accept(deals);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to drop archive segment " + segment.getPath(), e);
+            } finally {
+                publishLock.writeLock().unlock();
+            }
+            dropped += deals.size();
+        }
+        return dropped;
+    }
+
+    /**
+     * Remove deals from fx_deals while no read that must see a consistent set of deals
+     * is running (see {@link #withStableArchive})
+     *
+     * Archive lookups are not blocked. The removal should also announce the deals it
+     * removed, so no such read starts between the delete and the announcement.
+     */
+    public void runExclusive(Runnable removal) {
+        purgeLock.writeLock().lock();
+        try {
+            removal.run();
+        } finally {
+            purgeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Run a read of the archive and fx_deals together while no segment is published
+     * and no deal is purged, so no deal moves or disappears in the middle of it
+     */
+    public <T> T withStableArchive(Supplier<T> read) {
+        publishLock.readLock().lock();
+        purgeLock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            purgeLock.readLock().unlock();
+            publishLock.readLock().unlock();
+        }
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getDealCount() {
+        long count = 0;
+        for (DealSegment segment : segments) {
+            count += segment.getDealCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return the highest surrogate id of any archived deal, or 0 if the archive is empty
+     */
+    public long getMaxId() {
+        long maxId = 0;
+        for (DealSegment segment : segments) {
+            maxId = Math.max(maxId, segment.getMaxId());
+        }
+        return maxId;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (DealSegment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    private void resolvePending(Path file) throws IOException {
+        DealSegment segment;
+        try {
+            segment = DealSegment.open(file);
+        } catch (IOException e) {
+            logger.warn("Discarding incomplete archive segment {}: {}", file, e.getMessage());
+            Files.delete(file);
+            return;
+        }
+        boolean deleted;
+        try {
+            if (segment.getVersion() >= 3) {
+                deleted = isPublished(segment.getMinId());
+            } else {
+                // Written before segments were recorded: the delete is atomic, so one archived
+                // deal tells whether it committed, unless the purge has removed it since
+                deleted = !dealRepository.existsById(segment.getMinId());
+            }
+        } finally {
+            segment.close();
+        }
+        if (deleted) {
+            Path target = file.resolveSibling(file.getFileName().toString().replace(PENDING_SUFFIX, ""));
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            segments.add(DealSegment.open(target));
+            logger.info("Recovered archive segment {} whose deals were already removed from fx_deals", target);
+        } else {
+            logger.info("Discarding archive segment {} whose deals are still in fx_deals", file);
+            Files.delete(file);
+        }
+    }
+
+    private boolean isPublished(long minId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM archive_segments WHERE min_id = ?",
+            Integer.class, minId);
+        return count != null && count > 0;
+    }
+
+    private static String segmentName(long sequence) {
+        return String.format("segment-%012d.dseg", sequence);
+    }
+}
@@ -0,0 +1,11 @@
+package com.bloomberg.fxdeals.repository;
+
+/**
+ * Projection of a deal's surrogate and business keys
+ */
+public interface DealKeyView {
+
+    Long getId();
+
+    String getDealUniqueId();
+}
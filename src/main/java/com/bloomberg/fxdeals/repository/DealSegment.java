@@ -0,0 +1,485 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable, compressed file of archived deals sorted by dealUniqueId
+ *
+ * Deals are grouped in blocks of a fixed number of records, each block gzip-compressed
+ * on its own. A sparse index holding the first key, offset and length of every block
+ * sits at the end of the file and is kept in memory once the segment is opened, so a
+ * lookup is a binary search in memory followed by reading and inflating one block.
+ * Since version 3 the index also holds a bloom filter of the keys, so a lookup of a
+ * deal that is not in the segment rarely touches a block at all.
+ *
+ * File layout: magic and version, the blocks, the index (block count, deal count,
+ * min and max surrogate id, newest deal timestamp since version 2, the key filter since
+ * version 3, one entry per block, last key), then the index offset and the magic again.
+ * A file whose trailer is missing is incomplete and rejected.
+ *
+ * Thread-safe: reads use positional channel reads.
+ */
+final class DealSegment implements Closeable {
+
+    private static final int MAGIC = 0x46584453; // "FXDS"
+    private static final int VERSION = 3;
+    private static final int MIN_VERSION = 1;
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final String[] firstKeys;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final String lastKey;
+    private final long dealCount;
+    private final long minId;
+    private final long maxId;
+    private final LocalDateTime maxDealTimestamp;
+    private final int version;
+    private final KeyFilter filter;
+
+    private DealSegment(Path path, FileChannel channel, String[] firstKeys, long[] offsets, int[] lengths,
+                        String lastKey, long dealCount, long minId, long maxId, LocalDateTime maxDealTimestamp,
+                        int version, KeyFilter filter) {
+        this.path = path;
+        this.channel = channel;
+        this.firstKeys = firstKeys;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.lastKey = lastKey;
+        this.dealCount = dealCount;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.maxDealTimestamp = maxDealTimestamp;
+        this.version = version;
+        this.filter = filter;
+    }
+
+    /**
+     * Write deals to a new segment file and force it to disk
+     *
+     * @param path file to create (must not exist)
+     * @param deals stored deals, sorted by dealUniqueId
+     * @param blockSize deals per compressed block
+     * @param filterBitsPerKey size of the key filter; 0 writes no filter
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path path, List<FxDeal> deals, int blockSize, int filterBitsPerKey) throws IOException {
+        if (deals.isEmpty()) {
+            throw new IllegalArgumentException("A segment needs at least one deal");
+        }
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            CountingOutputStream counting = new CountingOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(out), 64 * 1024));
+            DataOutputStream data = new DataOutputStream(counting);
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+
+            int blocks = (deals.size() + blockSize - 1) / blockSize;
+            long[] offsets = new long[blocks];
+            int[] lengths = new int[blocks];
+            long minId = Long.MAX_VALUE;
+            long maxId = Long.MIN_VALUE;
+            LocalDateTime maxDealTimestamp = LocalDateTime.MIN;
+            KeyFilter filter = KeyFilter.create(deals.size(), filterBitsPerKey);
+            ByteArrayOutputStream block = new ByteArrayOutputStream(blockSize * 64);
+            for (int b = 0; b < blocks; b++) {
+                block.reset();
+                try (DataOutputStream records = new DataOutputStream(new GZIPOutputStream(block))) {
+                    for (FxDeal deal : deals.subList(b * blockSize, Math.min((b + 1) * blockSize, deals.size()))) {
+                        writeDeal(records, deal);
+                        filter.add(deal.getDealUniqueId());
+                        minId = Math.min(minId, deal.getId());
+                        maxId = Math.max(maxId, deal.getId());
+                        if (deal.getDealTimestamp().isAfter(maxDealTimestamp)) {
+                            maxDealTimestamp = deal.getDealTimestamp();
+                        }
+                    }
+                }
+                offsets[b] = counting.count;
+                lengths[b] = block.size();
+                block.writeTo(data);
+            }
+
+            long indexOffset = counting.count;
+            data.writeInt(blocks);
+            data.writeLong(deals.size());
+            data.writeLong(minId);
+            data.writeLong(maxId);
+            writeTimestamp(data, maxDealTimestamp);
+            filter.write(data);
+            for (int b = 0; b < blocks; b++) {
+                data.writeUTF(deals.get(b * blockSize).getDealUniqueId());
+                data.writeLong(offsets[b]);
+                data.writeInt(lengths[b]);
+            }
+            data.writeUTF(deals.get(deals.size() - 1).getDealUniqueId());
+            data.writeLong(indexOffset);
+            data.writeInt(MAGIC);
+            data.flush();
+            out.force(true);
+        }
+    }
+
+    /**
+     * Open a complete segment file and load its sparse index
+     *
+     * @throws IOException if the file cannot be read or is not a complete segment
+     */
+    static DealSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < 2 * Integer.BYTES + TRAILER_BYTES) {
+                throw new IOException("Segment " + path + " is truncated");
+            }
+            ByteBuffer trailer = readFully(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            long indexOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC || indexOffset < 0 || indexOffset > size - TRAILER_BYTES) {
+                throw new IOException("Segment " + path + " is incomplete or not a deal segment");
+            }
+            ByteBuffer header = readFully(channel, 0, 2 * Integer.BYTES);
+            int version = header.getInt(0) == MAGIC ? header.getInt(Integer.BYTES) : -1;
+            if (version < MIN_VERSION || version > VERSION) {
+                throw new IOException("Segment " + path + " has an unsupported format");
+            }
+
+            ByteBuffer index = readFully(channel, indexOffset, (int) (size - TRAILER_BYTES - indexOffset));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(index.array()));
+            int blocks = in.readInt();
+            long dealCount = in.readLong();
+            long minId = in.readLong();
+            long maxId = in.readLong();
+            // Version 1 did not record deal timestamps
+            LocalDateTime maxDealTimestamp = version >= 2 ? readTimestamp(in) : null;
+            KeyFilter filter = version >= 3 ? KeyFilter.read(in) : KeyFilter.NONE;
+            String[] firstKeys = new String[blocks];
+            long[] offsets = new long[blocks];
+            int[] lengths = new int[blocks];
+            for (int b = 0; b < blocks; b++) {
+                firstKeys[b] = in.readUTF();
+                offsets[b] = in.readLong();
+                lengths[b] = in.readInt();
+            }
+            String lastKey = in.readUTF();
+            return new DealSegment(path, channel, firstKeys, offsets, lengths, lastKey, dealCount, minId, maxId,
+                maxDealTimestamp, version, filter);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the archived deal, or null if it is not in this segment
+     */
+    FxDeal find(String dealUniqueId) throws IOException {
+        if (!mightContain(dealUniqueId)) {
+            return null;
+        }
+        try (DataInputStream records = openBlock(blockOf(dealUniqueId))) {
+            while (true) {
+                FxDeal deal = nextDeal(records);
+                if (deal == null) {
+                    return null;
+                }
+                int order = deal.getDealUniqueId().compareTo(dealUniqueId);
+                if (order == 0) {
+                    return deal;
+                }
+                if (order > 0) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Find several deals in one sweep, inflating each block at most once
+     *
+     * @param sortedIds unique IDs in ascending order, without repeats
+     * @param consumer called for each deal of this segment among the IDs, in ID order
+     */
+    void findAll(List<String> sortedIds, Consumer<FxDeal> consumer) throws IOException {
+        int i = 0;
+        while (i < sortedIds.size()) {
+            String first = sortedIds.get(i);
+            if (!mightContain(first)) {
+                i++;
+                continue;
+            }
+            int block = blockOf(first);
+            String nextBlockKey = block + 1 < firstKeys.length ? firstKeys[block + 1] : null;
+            try (DataInputStream records = openBlock(block)) {
+                FxDeal deal = nextDeal(records);
+                while (i < sortedIds.size()
+                        && (nextBlockKey == null || sortedIds.get(i).compareTo(nextBlockKey) < 0)) {
+                    String id = sortedIds.get(i++);
+                    while (deal != null && deal.getDealUniqueId().compareTo(id) < 0) {
+                        deal = nextDeal(records);
+                    }
+                    if (deal != null && deal.getDealUniqueId().equals(id)) {
+                        consumer.accept(deal);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stream every deal of the segment, in dealUniqueId order
+     */
+    void forEach(Consumer<FxDeal> consumer) throws IOException {
+        for (int b = 0; b < firstKeys.length; b++) {
+            try (DataInputStream records = openBlock(b)) {
+                for (FxDeal deal = nextDeal(records); deal != null; deal = nextDeal(records)) {
+                    consumer.accept(deal);
+                }
+            }
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getDealCount() {
+        return dealCount;
+    }
+
+    long getMinId() {
+        return minId;
+    }
+
+    long getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * @return the file format version the segment was written with
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the newest deal timestamp in the segment, or null if the file does not record it
+     */
+    LocalDateTime getMaxDealTimestamp() {
+        return maxDealTimestamp;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean mightContain(String dealUniqueId) {
+        return firstKeys.length > 0 && dealUniqueId.compareTo(firstKeys[0]) >= 0
+            && dealUniqueId.compareTo(lastKey) <= 0 && filter.mightContain(dealUniqueId);
+    }
+
+    private int blockOf(String dealUniqueId) {
+        int found = Arrays.binarySearch(firstKeys, dealUniqueId);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /**
+     * @return the next deal of the block, or null at its end
+     */
+    private static FxDeal nextDeal(DataInputStream records) throws IOException {
+        try {
+            return readDeal(records);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private DataInputStream openBlock(int block) throws IOException {
+        ByteBuffer compressed = readFully(channel, offsets[block], lengths[block]);
+        return new DataInputStream(new BufferedInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(compressed.array()))));
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of segment file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeDeal(DataOutputStream out, FxDeal deal) throws IOException {
+        out.writeUTF(deal.getDealUniqueId());
+        out.writeLong(deal.getId());
+        out.writeUTF(deal.getFromCurrencyIsoCode());
+        out.writeUTF(deal.getToCurrencyIsoCode());
+        writeTimestamp(out, deal.getDealTimestamp());
+        out.writeLong(deal.getDealAmount().unscaledValue());
+        writeTimestamp(out, deal.getCreatedAt());
+    }
+
+    private static FxDeal readDeal(DataInputStream in) throws IOException {
+        return FxDeal.builder()
+            .dealUniqueId(in.readUTF())
+            .id(in.readLong())
+            .fromCurrencyIsoCode(in.readUTF())
+            .toCurrencyIsoCode(in.readUTF())
+            .dealTimestamp(readTimestamp(in))
+            .dealAmount(FixedPointAmount.ofUnscaled(in.readLong()))
+            .createdAt(readTimestamp(in))
+            .build();
+    }
+
+    private static void writeTimestamp(DataOutputStream out, LocalDateTime timestamp) throws IOException {
+        out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(timestamp.getNano());
+    }
+
+    private static LocalDateTime readTimestamp(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Bloom filter over the dealUniqueIds of a segment
+     *
+     * With 10 bits per key and 7 probes about 1% of the lookups for a missing deal still
+     * read a block. An empty filter (bits per key 0, or a segment older than version 3)
+     * answers "might contain" for every key.
+     */
+    static final class KeyFilter {
+
+        static final KeyFilter NONE = new KeyFilter(new long[0]);
+
+        private static final int PROBES = 7;
+
+        private final long[] words;
+
+        private KeyFilter(long[] words) {
+            this.words = words;
+        }
+
+        static KeyFilter create(int keys, int bitsPerKey) {
+            if (bitsPerKey <= 0) {
+                return NONE;
+            }
+            long bits = Math.max(64L, (long) keys * bitsPerKey);
+            return new KeyFilter(new long[(int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64)]);
+        }
+
+        static KeyFilter read(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            if (count == 0) {
+                return NONE;
+            }
+            long[] words = new long[count];
+            for (int i = 0; i < count; i++) {
+                words[i] = in.readLong();
+            }
+            return new KeyFilter(words);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+
+        void add(String key) {
+            if (words.length == 0) {
+                return;
+            }
+            long hash = hash(key);
+            long bits = (long) words.length * 64;
+            for (int i = 0; i < PROBES; i++) {
+                long bit = Math.floorMod(hash + i * (hash >>> 32), bits);
+                words[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(String key) {
+            if (words.length == 0) {
+                return true;
+            }
+            long hash = hash(key);
+            long bits = (long) words.length * 64;
+            for (int i = 0; i < PROBES; i++) {
+                long bit = Math.floorMod(hash + i * (hash >>> 32), bits);
+                if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * FNV-1a over the UTF-16 chars with a murmur3 finalizer, so both halves are well mixed
+         * for the double hashing above; stored in the file, so it must never change
+         */
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            return hash ^ (hash >>> 33);
+        }
+    }
+
+    /**
+     * Tracks the file offset of the buffered output
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.model.FxDeal;
+
+import java.util.List;
+
+/**
+ * Bulk write operations for FX Deals that bypass the JPA persistence context
+ */
+public interface FxDealBatchRepository {
+
+    /**
+     * Insert deals with a single JDBC batch
+     *
+     * The deals are not attached to any persistence context. All of them get the same
+     * created_at value. Runs in the caller's transaction; a constraint violation fails
+     * the whole batch.
+     *
+     * @param deals new deals, with ids assigned from a DealIdAllocator.IdRange
+     * @return the same deals, with createdAt set
+     * @throws IllegalArgumentException if a deal has no id
+     */
+    List<FxDeal> insertBatch(List<FxDeal> deals);
+}
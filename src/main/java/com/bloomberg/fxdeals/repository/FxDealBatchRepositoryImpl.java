@@ -0,0 +1,73 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.model.FxDeal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC batch implementation of FxDealBatchRepository
+ *
+ * Picked up by Spring Data as a fragment of FxDealRepository. Each call is one
+ * executeBatch round trip, so the call itself is the flush boundary: nothing is kept
+ * in a first-level cache and no dirty-checking snapshots are taken. Ids are assigned
+ * by the caller from DealIdAllocator, so no generated keys are read back and the
+ * driver is free to rewrite the batch into multi-row inserts.
+ */
+public class FxDealBatchRepositoryImpl implements FxDealBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO fx_deals "
+        + "(id, deal_unique_id, from_currency_iso_code, to_currency_iso_code, deal_timestamp, deal_amount, created_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public FxDealBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<FxDeal> insertBatch(List<FxDeal> deals) {
+        if (deals.isEmpty()) {
+            return deals;
+        }
+
+        // One timestamp for the whole batch instead of a clock read per entity
+        LocalDateTime createdAt = LocalDateTime.now();
+        for (FxDeal deal : deals) {
+            if (deal.getId() == null) {
+                throw new IllegalArgumentException("Deal " + deal.getDealUniqueId() + " has no id");
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                FxDeal deal = deals.get(i);
+                ps.setLong(1, deal.getId());
+                ps.setString(2, deal.getDealUniqueId());
+                ps.setString(3, deal.getFromCurrencyIsoCode());
+                ps.setString(4, deal.getToCurrencyIsoCode());
+                ps.setObject(5, deal.getDealTimestamp());
+                ps.setBigDecimal(6, deal.getDealAmount().toBigDecimal());
+                ps.setObject(7, createdAt);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deals.size();
+            }
+        });
+
+        for (FxDeal deal : deals) {
+            deal.setCreatedAt(createdAt);
+        }
+        return deals;
+    }
+}
@@ -1,19 +1,26 @@
 package com.bloomberg.fxdeals.repository;
 
 import com.bloomberg.fxdeals.model.FxDeal;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository interface for FX Deal operations
+ * 
+ * Bulk inserts come from the FxDealBatchRepository fragment, full-table
+ * streaming reads from the FxDealScanRepository fragment.
  */
 @Repository
-public interface FxDealRepository extends JpaRepository<FxDeal, Long> {
+public interface FxDealRepository extends JpaRepository<FxDeal, Long>, FxDealBatchRepository,
+        FxDealScanRepository {
 
     /**
      * Find a deal by its unique identifier
@@ -39,5 +46,54 @@ public interface FxDealRepository extends JpaRepository<FxDeal, Long> {
      */
     @Query("SELECT d FROM FxDeal d WHERE d.dealUniqueId IN :dealUniqueIds")
     List<FxDeal> findByDealUniqueIds(@Param("dealUniqueIds") List<String> dealUniqueIds);
-}
 
+    /**
+     * Find deal keys with an id above the given one, in id order (keyset pagination)
+     *
+     * @param id exclusive lower bound
+     * @param pageable page size (the page number should stay 0)
+     * @return keys of the next deals
+     */
+    List<DealKeyView> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Find deals with an id above the given one, in id order (keyset pagination)
+     *
+     * @param id exclusive lower bound
+     * @param maxId inclusive upper bound
+     * @param pageable page size (the page number should stay 0)
+     * @return the next deals
+     */
+    @Query("SELECT d FROM FxDeal d WHERE d.id > :id AND d.id <= :maxId ORDER BY d.id")
+    List<FxDeal> findDealsAfter(@Param("id") Long id, @Param("maxId") Long maxId, Pageable pageable);
+
+    /**
+     * Find deals with a deal timestamp before the cutoff and an id above the given one,
+     * in id order (keyset pagination)
+     *
+     * @param cutoff exclusive upper bound on the deal timestamp
+     * @param id exclusive lower bound on the surrogate id
+     * @param pageable page size (the page number should stay 0)
+     * @return the next deals to archive
+     */
+    @Query("SELECT d FROM FxDeal d WHERE d.dealTimestamp < :cutoff AND d.id > :id ORDER BY d.id")
+    List<FxDeal> findDealsBefore(@Param("cutoff") LocalDateTime cutoff, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Delete deals by surrogate id with a single statement
+     *
+     * @param ids surrogate ids
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM FxDeal d WHERE d.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Highest surrogate id currently stored
+     *
+     * @return the max id, or null if the table is empty
+     */
+    @Query("SELECT MAX(d.id) FROM FxDeal d")
+    Long findMaxId();
+}
@@ -0,0 +1,35 @@
+package com.bloomberg.fxdeals.repository;
+
+/**
+ * Streaming read of every stored deal, for rebuilding in-memory aggregates
+ */
+public interface FxDealScanRepository {
+
+    /**
+     * Stream the currency legs and amount of every deal up to the given id
+     *
+     * Rows are read with a forward-only cursor in pages of fetchSize, so memory use
+     * does not depend on the table size. Should run inside a transaction, which lets
+     * drivers such as PostgreSQL stream instead of buffering the whole result.
+     *
+     * @param maxId inclusive upper bound on the id, such as DealIdAllocator.completedThrough
+     * @param fetchSize rows fetched per round trip
+     * @param handler called once per deal, in no particular order
+     */
+    void scanDealAmounts(long maxId, int fetchSize, DealAmountHandler handler);
+
+    /**
+     * Receives one deal of a scan
+     */
+    @FunctionalInterface
+    interface DealAmountHandler {
+
+        /**
+         * @param id surrogate id
+         * @param fromCurrency sold currency ISO code
+         * @param toCurrency bought currency ISO code
+         * @param unscaledAmount deal amount multiplied by 10^4
+         */
+        void accept(long id, String fromCurrency, String toCurrency, long unscaledAmount);
+    }
+}
@@ -0,0 +1,42 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+
+/**
+ * JDBC implementation of FxDealScanRepository
+ *
+ * Picked up by Spring Data as a fragment of FxDealRepository. The upper id bound comes
+ * from the caller, so deals committed while the scan runs are left to it.
+ */
+public class FxDealScanRepositoryImpl implements FxDealScanRepository {
+
+    private static final String SCAN_SQL = "SELECT id, from_currency_iso_code, to_currency_iso_code, deal_amount "
+        + "FROM fx_deals WHERE id <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public FxDealScanRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void scanDealAmounts(long maxId, int fetchSize, DealAmountHandler handler) {
+        RowCallbackHandler rowHandler = rs -> handler.accept(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getString(3),
+            FixedPointAmount.of(rs.getBigDecimal(4)).unscaledValue());
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SCAN_SQL);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, maxId);
+            return statement;
+        }, rowHandler);
+    }
+}
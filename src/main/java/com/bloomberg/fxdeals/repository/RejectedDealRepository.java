@@ -0,0 +1,118 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.model.RejectedDeal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to rejected_deals
+ *
+ * Rows are appended in JDBC batches and read back in id order with keyset paging,
+ * filtered by batch ID (idx_rejected_deals_batch_id) and/or reason
+ * (idx_rejected_deals_reason_created_at).
+ */
+@Repository
+public class RejectedDealRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO rejected_deals "
+        + "(batch_id, deal_index, deal_unique_id, reason, error_codes, message, payload, payload_truncated, created_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_SQL = "SELECT id, batch_id, deal_index, deal_unique_id, reason, "
+        + "error_codes, message, payload, payload_truncated, created_at FROM rejected_deals WHERE id > ?";
+
+    private static final RowMapper<RejectedDeal> ROW_MAPPER = (rs, rowNum) -> RejectedDeal.builder()
+        .id(rs.getLong(1))
+        .batchId(rs.getString(2))
+        .dealIndex(rs.getInt(3))
+        .dealUniqueId(rs.getString(4))
+        .reason(RejectedDeal.Reason.valueOf(rs.getString(5)))
+        .errorCodes(rs.getString(6))
+        .message(rs.getString(7))
+        .payload(rs.getString(8))
+        .payloadTruncated(rs.getBoolean(9))
+        .createdAt(rs.getObject(10, LocalDateTime.class))
+        .build();
+
+    /** Column sizes from V4__create_rejected_deals.sql */
+    static final int MAX_DEAL_UNIQUE_ID = 255;
+    static final int MAX_ERROR_CODES = 500;
+    static final int MAX_TEXT = 2000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public RejectedDealRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert rejected deals in one JDBC batch, truncating text to the column sizes
+     *
+     * A truncated payload is no longer valid JSON and is stored with payload_truncated set.
+     *
+     * @param rejected rows to insert (ids are generated)
+     */
+    public void insertBatch(List<RejectedDeal> rejected) {
+        if (rejected.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rejected, rejected.size(), (statement, deal) -> {
+            statement.setString(1, deal.getBatchId());
+            statement.setInt(2, deal.getDealIndex());
+            statement.setString(3, truncate(deal.getDealUniqueId(), MAX_DEAL_UNIQUE_ID));
+            statement.setString(4, deal.getReason().name());
+            statement.setString(5, truncate(deal.getErrorCodes(), MAX_ERROR_CODES));
+            statement.setString(6, truncate(deal.getMessage(), MAX_TEXT));
+            statement.setString(7, truncate(deal.getPayload(), MAX_TEXT));
+            statement.setBoolean(8, deal.getPayload() != null && deal.getPayload().length() > MAX_TEXT);
+            statement.setObject(9, Timestamp.valueOf(deal.getCreatedAt()), Types.TIMESTAMP);
+        });
+    }
+
+    /**
+     * Find rejected deals in id order
+     *
+     * @param batchId only this import, or null for all
+     * @param reason only this reason, or null for all
+     * @param afterId exclusive lower bound on the id (0 for the first page)
+     * @param limit maximum number of rows
+     * @return the matching rows
+     */
+    public List<RejectedDeal> find(String batchId, RejectedDeal.Reason reason, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>(4);
+        args.add(afterId);
+        if (batchId != null) {
+            sql.append(" AND batch_id = ?");
+            args.add(batchId);
+        }
+        if (reason != null) {
+            sql.append(" AND reason = ?");
+            args.add(reason.name());
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * @param cutoff exclusive upper bound on created_at
+     * @return number of rows deleted
+     */
+    public int deleteCreatedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM rejected_deals WHERE created_at < ?", Timestamp.valueOf(cutoff));
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
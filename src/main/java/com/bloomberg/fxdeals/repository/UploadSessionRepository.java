@@ -0,0 +1,12 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for resumable upload sessions
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+}
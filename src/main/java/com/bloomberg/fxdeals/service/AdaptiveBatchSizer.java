@@ -0,0 +1,239 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.ImportProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chunk and JDBC batch sizes for bulk imports, tuned by hill climbing
+ *
+ * Starts from fxdeals.import.chunk-size and batch-size. Every full chunk written
+ * reports its size and commit time; after fxdeals.import.adaptive.window chunks the
+ * throughput (deals per second) of the window is compared with the window before
+ * the last move. If the move helped, the same size moves again in the same
+ * direction by step-factor; if not, the move is undone, that size's direction is
+ * reversed for its next turn and the other size (chunk or batch) is tuned next. The
+ * next window after an undo is a fresh baseline, so the climb follows load that
+ * changes during the day.
+ *
+ * A window whose mean chunk commit time exceeds max-chunk-latency shrinks the chunk
+ * regardless, to keep transactions short. Sizes stay within the configured bounds
+ * (widened to include the starting sizes) and the batch never exceeds the chunk.
+ * Chunks written with older sizes, partial chunks and chunks that hit a constraint
+ * are not measured.
+ */
+@Component
+public class AdaptiveBatchSizer implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveBatchSizer.class);
+
+    /**
+     * Sizes in force for a chunk; compared by identity to detect stale samples
+     */
+    public record Sizes(int chunkSize, int batchSize) {
+    }
+
+    private enum Dimension { CHUNK, BATCH }
+
+    private final boolean enabled;
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int window;
+    private final double stepFactor;
+    private final long maxChunkLatencyNanos;
+
+    private volatile Sizes current;
+    private volatile double lastThroughput;
+
+    // Climb state, guarded by this
+    private Dimension dimension = Dimension.CHUNK;
+    private final int[] directions = {1, 1};
+    private Sizes beforeMove;
+    private double baseline = Double.NaN;
+    private int windowChunks;
+    private long windowDeals;
+    private long windowNanos;
+
+    private final LongAdder increases = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+    private final LongAdder latencyShrinks = new LongAdder();
+
+    @Autowired
+    public AdaptiveBatchSizer(ImportProperties properties) {
+        ImportProperties.Adaptive adaptive = properties.getAdaptive();
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        int batchSize = Math.min(chunkSize, Math.max(1, properties.getBatchSize()));
+        this.enabled = adaptive.isEnabled();
+        this.minChunkSize = Math.max(1, Math.min(adaptive.getMinChunkSize(), chunkSize));
+        this.maxChunkSize = Math.max(adaptive.getMaxChunkSize(), chunkSize);
+        this.minBatchSize = Math.max(1, Math.min(adaptive.getMinBatchSize(), batchSize));
+        this.maxBatchSize = Math.max(adaptive.getMaxBatchSize(), batchSize);
+        this.window = Math.max(1, adaptive.getWindow());
+        this.stepFactor = Math.max(1.01, adaptive.getStepFactor());
+        Duration maxChunkLatency = adaptive.getMaxChunkLatency();
+        this.maxChunkLatencyNanos = maxChunkLatency == null ? Long.MAX_VALUE : maxChunkLatency.toNanos();
+        this.current = new Sizes(chunkSize, batchSize);
+    }
+
+    /**
+     * @return the sizes to use for the next chunk
+     */
+    public Sizes current() {
+        return current;
+    }
+
+    /**
+     * Report a chunk written and committed without conflicts
+     *
+     * @param sizes the sizes the chunk was written with
+     * @param deals deals in the chunk
+     * @param elapsedNanos time to write and commit the chunk
+     */
+    public void record(Sizes sizes, int deals, long elapsedNanos) {
+        if (!enabled || sizes != current || deals != sizes.chunkSize()) {
+            return;
+        }
+        synchronized (this) {
+            if (sizes != current) {
+                return;
+            }
+            windowChunks++;
+            windowDeals += deals;
+            windowNanos += elapsedNanos;
+            if (windowChunks >= window) {
+                adapt();
+            }
+        }
+    }
+
+    private void adapt() {
+        double throughput = windowDeals * 1e9 / Math.max(1, windowNanos);
+        long meanLatency = windowNanos / windowChunks;
+        windowChunks = 0;
+        windowDeals = 0;
+        windowNanos = 0;
+        lastThroughput = throughput;
+
+        if (meanLatency > maxChunkLatencyNanos && current.chunkSize() > minChunkSize) {
+            latencyShrinks.increment();
+            baseline = Double.NaN;
+            dimension = Dimension.CHUNK;
+            directions[Dimension.CHUNK.ordinal()] = -1;
+            move();
+            return;
+        }
+        if (Double.isNaN(baseline) || throughput > baseline) {
+            baseline = throughput;
+            if (!move()) {
+                turn();
+                move();
+            }
+            return;
+        }
+        // The last move did not help: undo it and climb the other way
+        logger.debug("Bulk import {} size change to {} gave {} deals/s, below {} deals/s; reverting",
+            dimension.name().toLowerCase(Locale.ROOT), current, (long) throughput, (long) baseline);
+        set(beforeMove);
+        (direction() > 0 ? decreases : increases).increment();
+        baseline = Double.NaN;
+        turn();
+    }
+
+    /**
+     * Step the current dimension in the current direction
+     *
+     * @return false if the size is already at its bound
+     */
+    private boolean move() {
+        Sizes from = current;
+        Sizes to;
+        if (dimension == Dimension.CHUNK) {
+            int chunk = step(from.chunkSize(), minChunkSize, maxChunkSize);
+            to = new Sizes(chunk, Math.min(chunk, from.batchSize()));
+        } else {
+            to = new Sizes(from.chunkSize(), step(from.batchSize(), Math.min(minBatchSize, from.chunkSize()),
+                Math.min(maxBatchSize, from.chunkSize())));
+        }
+        if (to.equals(from)) {
+            return false;
+        }
+        beforeMove = from;
+        set(to);
+        (direction() > 0 ? increases : decreases).increment();
+        return true;
+    }
+
+    private int step(int size, int min, int max) {
+        long next = direction() > 0 ? (long) Math.ceil(size * stepFactor) : (long) Math.floor(size / stepFactor);
+        return (int) Math.max(min, Math.min(max, next));
+    }
+
+    private int direction() {
+        return directions[dimension.ordinal()];
+    }
+
+    /**
+     * Reverse the direction of the current dimension and tune the other one next
+     */
+    private void turn() {
+        directions[dimension.ordinal()] = -direction();
+        dimension = dimension == Dimension.CHUNK ? Dimension.BATCH : Dimension.CHUNK;
+    }
+
+    private void set(Sizes sizes) {
+        logger.debug("Bulk import sizes now chunk {} batch {}", sizes.chunkSize(), sizes.batchSize());
+        current = sizes;
+    }
+
+    public int getChunkSize() {
+        return current.chunkSize();
+    }
+
+    public int getBatchSize() {
+        return current.batchSize();
+    }
+
+    /**
+     * @return throughput of the last measured window in deals per second, or 0 before the first
+     */
+    public double getLastThroughput() {
+        return lastThroughput;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fxdeals.import.chunk.size", this, AdaptiveBatchSizer::getChunkSize)
+            .description("Deals committed per bulk import transaction")
+            .register(registry);
+        Gauge.builder("fxdeals.import.batch.size", this, AdaptiveBatchSizer::getBatchSize)
+            .description("Deals written per JDBC batch during bulk imports")
+            .register(registry);
+        Gauge.builder("fxdeals.import.chunk.throughput", this, AdaptiveBatchSizer::getLastThroughput)
+            .description("Deals per second over the last measured window of bulk import chunks")
+            .baseUnit("deals/s")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.import.size.adjustments", increases, LongAdder::sum)
+            .description("Bulk import chunk or batch size changes")
+            .tag("direction", "up")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.import.size.adjustments", decreases, LongAdder::sum)
+            .description("Bulk import chunk or batch size changes")
+            .tag("direction", "down")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.import.size.latency.shrinks", latencyShrinks, LongAdder::sum)
+            .description("Chunk shrinks forced by fxdeals.import.adaptive.max-chunk-latency")
+            .register(registry);
+    }
+}
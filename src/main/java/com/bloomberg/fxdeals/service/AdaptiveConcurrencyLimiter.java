@@ -0,0 +1,183 @@
+package com.bloomberg.fxdeals.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limiter with a bounded wait queue
+ *
+ * Uses AIMD (additive increase, multiplicative decrease):
+ * - Each fast completion while the limit is in use raises the limit by one
+ * - Each slow or failed completion multiplies the limit by the backoff ratio
+ *
+ * Callers that find the limit exhausted wait in a bounded queue for at most
+ * the configured time; beyond that they are rejected immediately.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final int maxQueueSize;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitAvailable = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long rejected;
+    private double smoothedRequestNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      Duration latencyThreshold, int maxQueueSize, Duration maxWait) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limiter bounds must satisfy 1 <= min <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.maxQueueSize = Math.max(0, maxQueueSize);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Try to obtain a permit, waiting in the queue if the limit is reached
+     *
+     * @return true if a permit was granted, false if the caller must be rejected
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= maxQueueSize || maxWaitNanos <= 0) {
+                rejected++;
+                return false;
+            }
+
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejected++;
+                        return false;
+                    }
+                    remaining = permitAvailable.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected++;
+                return false;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return a permit and feed the observed outcome into the limit
+     *
+     * The limit reacts to the latency per unit of work, so that large calls are not
+     * mistaken for overload; the back-off suggested to rejected callers follows the
+     * latency of whole calls.
+     *
+     * @param elapsedNanos latency of the completed call
+     * @param units units of work the call carried (e.g. deals), at least 1
+     * @param failed whether the call failed in a way that indicates overload
+     */
+    public void release(long elapsedNanos, int units, boolean failed) {
+        long latencyNanos = elapsedNanos / Math.max(1, units);
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= (int) limit;
+            inFlight--;
+
+            smoothedRequestNanos = smoothedRequestNanos == 0
+                ? elapsedNanos
+                : smoothedRequestNanos * 0.9 + elapsedNanos * 0.1;
+
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1);
+                permitAvailable.signalAll();
+            }
+            permitAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Suggested client back-off (at least one second)
+     *
+     * Estimates how long the callers already queued, plus this one, take to pass
+     * through: with limit calls completing per smoothed call latency, that is
+     * (waiting + 1) x latency / limit. Unlike max-wait, which only bounds how long
+     * a queued caller holds on, this grows with the backlog and with slower calls.
+     *
+     * @return seconds a rejected caller should wait before retrying
+     */
+    public long getRetryAfterSeconds() {
+        lock.lock();
+        try {
+            double drainNanos = (waiting + 1) * smoothedRequestNanos / (int) limit;
+            return Math.max(1, (long) Math.ceil(drainNanos / TimeUnit.SECONDS.toNanos(1)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
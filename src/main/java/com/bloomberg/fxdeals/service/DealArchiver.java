@@ -0,0 +1,131 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.ArchiveProperties;
+import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves deals older than fxdeals.archive.age from fx_deals into archive segments
+ *
+ * Deals are read in id order, fxdeals.archive.segment-size at a time. Each batch is
+ * written to a segment file sorted by dealUniqueId, then deleted from fx_deals in one
+ * transaction, so a deal is always either in the table or in a published segment.
+ * Lookups fall back to the archive (see FxDealService#getDealByUniqueId).
+ */
+@Component
+public class DealArchiver implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DealArchiver.class);
+
+    private final FxDealRepository dealRepository;
+    private final DealArchiveRepository archiveRepository;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongAdder archived = new LongAdder();
+
+    public DealArchiver(FxDealRepository dealRepository, DealArchiveRepository archiveRepository,
+                        ArchiveProperties properties, PlatformTransactionManager transactionManager) {
+        this.dealRepository = dealRepository;
+        this.archiveRepository = archiveRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${fxdeals.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        if (properties.isEnabled()) {
+            try {
+                archive(LocalDateTime.now().minus(properties.getAge()));
+            } catch (RuntimeException e) {
+                logger.error("Deal archival failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Archive every deal with a deal timestamp before the cutoff
+     *
+     * @param cutoff exclusive upper bound on the deal timestamp
+     * @return number of deals archived
+     */
+    public synchronized long archive(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        int segmentSize = Math.max(1, properties.getSegmentSize());
+        long total = 0;
+        long lastId = 0;
+        while (true) {
+            List<FxDeal> deals = dealRepository.findDealsBefore(cutoff, lastId, PageRequest.of(0, segmentSize));
+            if (deals.isEmpty()) {
+                break;
+            }
+            lastId = deals.get(deals.size() - 1).getId();
+            archiveSegment(deals);
+            total += deals.size();
+            archived.add(deals.size());
+            if (deals.size() < segmentSize) {
+                break;
+            }
+        }
+        logger.info("Archived {} deals older than {} in {} ms ({} segments, {} archived deals in total)",
+            total, cutoff, (System.nanoTime() - start) / 1_000_000,
+            archiveRepository.getSegmentCount(), archiveRepository.getDealCount());
+        return total;
+    }
+
+    private void archiveSegment(List<FxDeal> deals) {
+        List<Long> ids = new ArrayList<>(deals.size());
+        for (FxDeal deal : deals) {
+            ids.add(deal.getId());
+        }
+        int deleteBatchSize = Math.max(1, properties.getDeleteBatchSize());
+        try {
+            Path pending = archiveRepository.writePending(deals);
+            archiveRepository.publish(pending, () -> transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < ids.size(); from += deleteBatchSize) {
+                    dealRepository.deleteByIds(ids.subList(from, Math.min(from + deleteBatchSize, ids.size())));
+                }
+                try {
+                    archiveRepository.recordPublished(pending);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read archive segment " + pending, e);
+                }
+            }));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive segment", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fxdeals.archive.segments", archiveRepository, DealArchiveRepository::getSegmentCount)
+            .description("Published archive segment files")
+            .register(registry);
+        Gauge.builder("fxdeals.archive.deals", archiveRepository, DealArchiveRepository::getDealCount)
+            .description("Deals held in archive segments")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.archive.archived", archived, LongAdder::sum)
+            .description("Deals moved from fx_deals to the archive by this instance")
+            .register(registry);
+    }
+}
@@ -0,0 +1,387 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.FeedProperties;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.exception.AdmissionRejectedException;
+import com.bloomberg.fxdeals.util.CurrencyCodes;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live feed of imported deals, streamed to subscribers as Server-Sent Events
+ *
+ * Committed deals (see DealsImportedEvent) are appended to an in-memory ring buffer
+ * with a sequence number. Each subscriber keeps its own cursor into the buffer and is
+ * drained by a small pool of sender threads, so a slow connection only delays itself.
+ * A subscriber whose cursor has been overwritten (it fell more than bufferSize deals
+ * behind) is disconnected; it can reconnect with Last-Event-ID and catch up.
+ *
+ * Each event carries the deal's surrogate id as its SSE id. Deals are published in id
+ * order (see DealIdAllocator), so an id is a valid resume point. A subscriber that
+ * resumes from an id is first sent the deals stored after it up to
+ * FxDealService.getPublishedThrough, read from the database in id order, then
+ * continues from the buffer position taken when it subscribed, where every deal above
+ * that bound arrives; deals already sent from the database are not repeated.
+ * Subscribers can restrict the feed to a set of currency pairs.
+ */
+@Component
+public class DealChangeFeed implements DisposableBean, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DealChangeFeed.class);
+
+    static final String DEAL_EVENT = "deal";
+
+    /** Buffer entries copied per lock acquisition while draining */
+    private static final int DRAIN_BATCH = 256;
+
+    private final FxDealService dealService;
+    private final FeedProperties properties;
+    private final Executor senders;
+
+    private final DealResponse[] buffer;
+    private final int mask;
+    private final Object bufferLock = new Object();
+    private volatile long head;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Autowired
+    public DealChangeFeed(FxDealService dealService, FeedProperties properties) {
+        this(dealService, properties, Executors.newFixedThreadPool(Math.max(1, properties.getSenderThreads()),
+            senderThreadFactory()));
+    }
+
+    DealChangeFeed(FxDealService dealService, FeedProperties properties, Executor senders) {
+        this.dealService = dealService;
+        this.properties = properties;
+        this.senders = senders;
+        int capacity = Integer.highestOneBit(Math.max(2, properties.getBufferSize()) - 1) << 1;
+        this.buffer = new DealResponse[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Append committed deals to the buffer and wake up subscribers
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDealsImported(DealsImportedEvent event) {
+        publish(event.deals());
+    }
+
+    void publish(List<DealResponse> deals) {
+        if (deals.isEmpty()) {
+            return;
+        }
+        synchronized (bufferLock) {
+            long next = head;
+            for (DealResponse deal : deals) {
+                buffer[(int) (next & mask)] = deal;
+                next++;
+            }
+            head = next;
+        }
+        published.add(deals.size());
+        for (Subscriber subscriber : subscribers) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Open a subscription
+     *
+     * @param lastEventId id of the last deal the client has seen, or null to receive new deals only
+     * @param pairs currency pairs such as "EUR/USD" to receive, or empty for all deals
+     * @return the emitter streaming the feed
+     * @throws IllegalArgumentException if a pair is not two ISO codes separated by '/'
+     * @throws AdmissionRejectedException if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Long lastEventId, List<String> pairs) {
+        Set<Integer> pairFilter = parsePairs(pairs);
+        if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new AdmissionRejectedException("Deal feed subscriber limit reached", 5);
+        }
+
+        SseEmitter emitter = newEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, pairFilter, head, lastEventId);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+
+        logger.debug("Deal feed subscriber added (resume from {}, pairs {})", lastEventId, pairs);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /**
+     * Keep idle connections open through proxies
+     */
+    @Scheduled(fixedDelayString = "${fxdeals.feed.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Send everything the subscriber has not seen yet; runs on one sender thread at a time
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            while (!subscriber.closed) {
+                if (subscriber.resumeFrom != null && !backfill(subscriber)) {
+                    return;
+                }
+                if (!sendBuffered(subscriber)) {
+                    return;
+                }
+                if (subscriber.heartbeatDue) {
+                    subscriber.heartbeatDue = false;
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+
+                subscriber.scheduled.set(false);
+                // Deals published after the last check but before the flag was cleared
+                if (subscriber.cursor == head || !subscriber.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Deal feed subscriber disconnected: {}", e.getMessage());
+            close(subscriber, null);
+        } catch (RuntimeException e) {
+            logger.warn("Deal feed subscriber failed: {}", e.getMessage(), e);
+            close(subscriber, e);
+        }
+    }
+
+    /**
+     * Send the deals stored after the subscriber's resume id from the database
+     *
+     * Stops at the published watermark: deals above it are published after the
+     * subscriber's buffer position was taken, so the buffer delivers them in order.
+     *
+     * @return false if the connection was closed
+     */
+    private boolean backfill(Subscriber subscriber) throws IOException {
+        long lastId = subscriber.resumeFrom;
+        long maxId = dealService.getPublishedThrough();
+        int sent = 0;
+        while (true) {
+            List<DealResponse> page = dealService.getDealsAfter(lastId, maxId, properties.getBackfillBatchSize());
+            for (DealResponse deal : page) {
+                subscriber.backfilled.add(deal.getId());
+                send(subscriber, deal);
+                lastId = deal.getId();
+            }
+            sent += page.size();
+            if (page.size() < properties.getBackfillBatchSize()) {
+                break;
+            }
+            if (sent >= properties.getMaxBackfill()) {
+                // The client reconnects with the last id it received and continues from there
+                logger.debug("Deal feed backfill limit reached at id {}, closing connection", lastId);
+                close(subscriber, null);
+                return false;
+            }
+        }
+        subscriber.resumeFrom = null;
+        // Deals published from here on cannot have been read by the backfill
+        subscriber.dedupUntil = head;
+        return true;
+    }
+
+    /**
+     * @return false if the subscriber fell behind and was dropped
+     */
+    private boolean sendBuffered(Subscriber subscriber) throws IOException {
+        List<DealResponse> batch = new ArrayList<>(DRAIN_BATCH);
+        while (true) {
+            long cursor = subscriber.cursor;
+            synchronized (bufferLock) {
+                if (head - cursor > buffer.length) {
+                    dropped.increment();
+                    logger.warn("Deal feed subscriber fell {} deals behind, disconnecting", head - cursor);
+                    close(subscriber, null);
+                    return false;
+                }
+                long end = Math.min(head, cursor + DRAIN_BATCH);
+                for (long seq = cursor; seq < end; seq++) {
+                    batch.add(buffer[(int) (seq & mask)]);
+                }
+            }
+            if (batch.isEmpty()) {
+                return true;
+            }
+
+            for (DealResponse deal : batch) {
+                if (cursor < subscriber.dedupUntil && subscriber.backfilled.contains(deal.getId())) {
+                    cursor++;
+                    continue;
+                }
+                send(subscriber, deal);
+                cursor++;
+            }
+            subscriber.cursor = cursor;
+            if (cursor >= subscriber.dedupUntil) {
+                subscriber.backfilled.clear();
+            }
+            batch.clear();
+        }
+    }
+
+    private void send(Subscriber subscriber, DealResponse deal) throws IOException {
+        if (subscriber.matches(deal)) {
+            subscriber.emitter.send(SseEmitter.event()
+                .id(String.valueOf(deal.getId()))
+                .name(DEAL_EVENT)
+                .data(deal));
+        }
+    }
+
+    private void close(Subscriber subscriber, Throwable error) {
+        subscriber.closed = true;
+        remove(subscriber);
+        if (error != null) {
+            subscriber.emitter.completeWithError(error);
+        } else {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return pair keys (from index * 26^3 + to index), or null to accept every pair
+     */
+    private static Set<Integer> parsePairs(List<String> pairs) {
+        if (pairs == null || pairs.isEmpty()) {
+            return null;
+        }
+        Set<Integer> keys = new HashSet<>();
+        for (String pair : pairs) {
+            int separator = pair.indexOf('/');
+            int from = separator == 3 ? CurrencyCodes.indexOf(pair.substring(0, 3)) : -1;
+            int to = separator == 3 ? CurrencyCodes.indexOf(pair.substring(4)) : -1;
+            if (from < 0 || to < 0) {
+                throw new IllegalArgumentException("Currency pair must look like EUR/USD: " + pair);
+            }
+            keys.add(from * CurrencyCodes.SIZE + to);
+        }
+        return keys;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void destroy() {
+        for (Subscriber subscriber : subscribers) {
+            close(subscriber, null);
+        }
+        if (senders instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fxdeals.feed.subscribers", this, DealChangeFeed::getSubscriberCount)
+            .description("Open deal feed connections")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.feed.published", published, LongAdder::sum)
+            .description("Deals appended to the feed buffer")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.feed.dropped", dropped, LongAdder::sum)
+            .description("Feed subscribers disconnected for falling behind the buffer")
+            .register(registry);
+    }
+
+    private static ThreadFactory senderThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "deal-feed-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Integer> pairs;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Set<Long> backfilled = new HashSet<>();
+
+        private volatile long cursor;
+        private volatile Long resumeFrom;
+        private volatile long dedupUntil;
+        private volatile boolean heartbeatDue;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, Set<Integer> pairs, long cursor, Long resumeFrom) {
+            this.emitter = emitter;
+            this.pairs = pairs;
+            this.cursor = cursor;
+            this.resumeFrom = resumeFrom;
+        }
+
+        private boolean matches(DealResponse deal) {
+            if (pairs == null) {
+                return true;
+            }
+            int from = CurrencyCodes.indexOf(deal.getFromCurrencyIsoCode());
+            int to = CurrencyCodes.indexOf(deal.getToCurrencyIsoCode());
+            return from >= 0 && to >= 0 && pairs.contains(from * CurrencyCodes.SIZE + to);
+        }
+    }
+}
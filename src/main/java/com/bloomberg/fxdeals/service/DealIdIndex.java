@@ -0,0 +1,217 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.DedupIndexProperties;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.DealIdAllocator;
+import com.bloomberg.fxdeals.repository.DealKeyView;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.bloomberg.fxdeals.util.Fingerprints;
+import com.bloomberg.fxdeals.util.MappedFingerprintSet;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent index of the fingerprints of every stored deal ID
+ *
+ * Answers "definitely not stored" without a database round trip, so the
+ * existsByDealUniqueId query only runs for IDs the index has seen. The index
+ * lives in a memory-mapped file; on startup it is mapped, then reconciled by
+ * adding every deal with an id above the persisted high-water mark. The mark
+ * never passes DealIdAllocator.completedThrough, so a deal that commits after a
+ * higher id is still above it. A rebuilt index also covers the deals moved to the
+ * archive.
+ *
+ * The index is an optimization only: until reconciliation finishes, or if the
+ * file cannot be used, every lookup reports "maybe stored" and the database
+ * check runs as before. The unique constraint on deal_unique_id stays the
+ * final authority on duplicates.
+ */
+@Component
+public class DealIdIndex implements ApplicationRunner, DisposableBean, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DealIdIndex.class);
+
+    private final FxDealRepository dealRepository;
+    private final DealArchiveRepository archiveRepository;
+    private final DealIdAllocator idAllocator;
+    private final DedupIndexProperties properties;
+
+    private final AtomicLong highWaterMark = new AtomicLong();
+    private final LongAdder skippedLookups = new LongAdder();
+
+    private volatile MappedFingerprintSet fingerprints;
+    private volatile boolean ready;
+
+    public DealIdIndex(FxDealRepository dealRepository, DealArchiveRepository archiveRepository,
+                       DealIdAllocator idAllocator, DedupIndexProperties properties) {
+        this.dealRepository = dealRepository;
+        this.archiveRepository = archiveRepository;
+        this.idAllocator = idAllocator;
+        this.properties = properties;
+    }
+
+    /**
+     * Map the index file and catch up with deals stored since its last checkpoint
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            logger.info("Deal ID index disabled, duplicate checks use the database only");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            Path path = Path.of(properties.getPath());
+            fingerprints = MappedFingerprintSet.open(path, properties.getInitialCapacity());
+
+            // Archived deals may include the highest id ever stored
+            Long dbMaxId = dealRepository.findMaxId();
+            long maxId = Math.max(dbMaxId != null ? dbMaxId : 0, archiveRepository.getMaxId());
+            if (fingerprints.getCheckpoint() > maxId) {
+                // The file is ahead of the database (restored or recreated), so it cannot be trusted
+                logger.warn("Deal ID index checkpoint {} is beyond the database max id {}, rebuilding",
+                    fingerprints.getCheckpoint(), maxId);
+                fingerprints.close();
+                Files.delete(path);
+                fingerprints = MappedFingerprintSet.open(path, properties.getInitialCapacity());
+            }
+
+            if (fingerprints.getCheckpoint() == 0) {
+                addArchivedDeals();
+            }
+            long from = Math.max(0, fingerprints.getCheckpoint() - properties.getReconcileOverlap());
+            long reconciled = reconcileFrom(from);
+
+            ready = true;
+            checkpoint();
+            logger.info("Deal ID index ready in {} ms: {} fingerprints, {} reconciled from id {}",
+                (System.nanoTime() - start) / 1_000_000, fingerprints.size(), reconciled, from);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Deal ID index unavailable, duplicate checks use the database only: {}", e.getMessage(), e);
+            ready = false;
+        }
+    }
+
+    /**
+     * Check whether a deal ID may already be stored
+     *
+     * @param dealUniqueId the unique deal identifier
+     * @return false only if the ID is definitely not stored
+     */
+    public boolean mightContain(String dealUniqueId) {
+        if (!ready) {
+            return true;
+        }
+        boolean present = fingerprints.contains(Fingerprints.of(dealUniqueId));
+        if (!present) {
+            skippedLookups.increment();
+        }
+        return present;
+    }
+
+    /**
+     * Record a newly stored deal
+     *
+     * @param id surrogate id assigned by the database
+     * @param dealUniqueId the unique deal identifier
+     */
+    public void recordStored(Long id, String dealUniqueId) {
+        MappedFingerprintSet current = fingerprints;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.add(Fingerprints.of(dealUniqueId));
+            if (id != null) {
+                highWaterMark.accumulateAndGet(id, Math::max);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to grow deal ID index, falling back to database checks: {}", e.getMessage(), e);
+            ready = false;
+        }
+    }
+
+    /**
+     * Flush the index and persist the high-water mark it now covers
+     */
+    @Scheduled(fixedDelayString = "${fxdeals.dedup.checkpoint-interval-ms:10000}")
+    public void checkpoint() {
+        if (ready) {
+            // Ids below an open range may still commit after the ids recorded above it
+            long mark = highWaterMark.get();
+            fingerprints.checkpoint(Math.min(mark, idAllocator.completedThrough(mark)));
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (fingerprints != null) {
+            checkpoint();
+            ready = false;
+            fingerprints.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fxdeals.dedup.index.size", this,
+                index -> index.fingerprints != null ? index.fingerprints.size() : 0)
+            .description("Deal ID fingerprints in the persistent index")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.dedup.index.skipped.lookups", skippedLookups, LongAdder::sum)
+            .description("Duplicate checks answered by the index without a database query")
+            .register(registry);
+    }
+
+    private void addArchivedDeals() throws IOException {
+        try {
+            archiveRepository.forEach(deal -> {
+                try {
+                    fingerprints.add(Fingerprints.of(deal.getDealUniqueId()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long reconcileFrom(long fromId) throws IOException {
+        long reconciled = 0;
+        long lastId = fromId;
+        while (true) {
+            List<DealKeyView> page = dealRepository.findByIdGreaterThanOrderByIdAsc(
+                lastId, PageRequest.of(0, properties.getReconcileBatchSize()));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (DealKeyView key : page) {
+                fingerprints.add(Fingerprints.of(key.getDealUniqueId()));
+                lastId = key.getId();
+            }
+            reconciled += page.size();
+        }
+        highWaterMark.accumulateAndGet(lastId, Math::max);
+        return reconciled;
+    }
+}
@@ -0,0 +1,196 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.LookupProperties;
+import com.bloomberg.fxdeals.dto.DealLookupResponse;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Looks up many deals by unique ID at once
+ *
+ * The IDs are de-duplicated and queried in chunks of fxdeals.lookup.chunk-size,
+ * one read-only transaction per chunk (served by the replica when routing is on).
+ * IDs of a chunk not in fx_deals are looked up in the deal archive together. Results are handed out
+ * chunk by chunk in request order, so a caller can stream them without holding
+ * the whole answer.
+ */
+@Service
+public class DealLookupService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DealLookupService.class);
+
+    private final FxDealRepository dealRepository;
+    private final DealArchiveRepository archiveRepository;
+    private final LookupProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final LongAdder found = new LongAdder();
+    private final LongAdder missing = new LongAdder();
+
+    @Autowired
+    public DealLookupService(FxDealRepository dealRepository, DealArchiveRepository archiveRepository,
+                             LookupProperties properties, PlatformTransactionManager transactionManager) {
+        this.dealRepository = dealRepository;
+        this.archiveRepository = archiveRepository;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Look up deals and collect the whole answer
+     *
+     * @param dealUniqueIds unique IDs to look up
+     * @return found deals and missing IDs, in request order
+     * @throws IllegalArgumentException if the list is empty or longer than fxdeals.lookup.max-ids
+     */
+    public DealLookupResponse lookup(List<String> dealUniqueIds) {
+        DealLookupResponse response = new DealLookupResponse();
+        int requested = lookup(dealUniqueIds, new ResultHandler() {
+            @Override
+            public void found(DealResponse deal) {
+                response.getDeals().add(deal);
+            }
+
+            @Override
+            public void missing(String dealUniqueId) {
+                response.getMissingDealUniqueIds().add(dealUniqueId);
+            }
+        });
+        response.setRequested(requested);
+        response.setFound(response.getDeals().size());
+        response.setMissing(response.getMissingDealUniqueIds().size());
+        return response;
+    }
+
+    /**
+     * Look up deals, reporting each distinct ID to the handler as soon as its chunk is read
+     *
+     * @param dealUniqueIds unique IDs to look up
+     * @param handler receives every distinct ID once, in request order
+     * @return number of distinct IDs looked up
+     * @throws IllegalArgumentException if the list is empty or longer than fxdeals.lookup.max-ids
+     */
+    public int lookup(List<String> dealUniqueIds, ResultHandler handler) {
+        List<String> ids = distinctIds(dealUniqueIds);
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        long start = System.nanoTime();
+        long foundBefore = found.sum();
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            Map<String, FxDeal> deals = findChunk(chunk);
+            for (String id : chunk) {
+                FxDeal deal = deals.get(id);
+                if (deal != null) {
+                    found.increment();
+                    handler.found(toResponse(deal));
+                } else {
+                    missing.increment();
+                    handler.missing(id);
+                }
+            }
+        }
+
+        logger.debug("Looked up {} deal IDs in {} ms, {} found", ids.size(),
+            (System.nanoTime() - start) / 1_000_000, found.sum() - foundBefore);
+        return ids.size();
+    }
+
+    /**
+     * @param dealUniqueIds unique IDs of a lookup request
+     * @throws IllegalArgumentException if the list is empty or longer than fxdeals.lookup.max-ids
+     */
+    public void checkRequest(List<String> dealUniqueIds) {
+        if (dealUniqueIds == null || dealUniqueIds.isEmpty()) {
+            throw new IllegalArgumentException("dealUniqueIds must not be empty");
+        }
+        if (dealUniqueIds.size() > properties.getMaxIds()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxIds()
+                + " deal IDs can be looked up at once, got " + dealUniqueIds.size());
+        }
+    }
+
+    private List<String> distinctIds(List<String> dealUniqueIds) {
+        checkRequest(dealUniqueIds);
+        LinkedHashSet<String> ids = new LinkedHashSet<>(dealUniqueIds.size() * 2);
+        for (String id : dealUniqueIds) {
+            if (id != null && !id.isBlank()) {
+                ids.add(id);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private Map<String, FxDeal> findChunk(List<String> chunk) {
+        Map<String, FxDeal> deals = new HashMap<>(chunk.size() * 2);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            for (FxDeal deal : dealRepository.findByDealUniqueIds(chunk)) {
+                deals.put(deal.getDealUniqueId(), deal);
+            }
+        });
+
+        if (deals.size() < chunk.size() && archiveRepository.getSegmentCount() > 0) {
+            List<String> misses = new ArrayList<>(chunk.size() - deals.size());
+            for (String id : chunk) {
+                if (!deals.containsKey(id)) {
+                    misses.add(id);
+                }
+            }
+            archiveRepository.findByDealUniqueIds(misses, deal -> deals.put(deal.getDealUniqueId(), deal));
+        }
+        return deals;
+    }
+
+    private static DealResponse toResponse(FxDeal deal) {
+        return DealResponse.builder()
+            .id(deal.getId())
+            .dealUniqueId(deal.getDealUniqueId())
+            .fromCurrencyIsoCode(deal.getFromCurrencyIsoCode())
+            .toCurrencyIsoCode(deal.getToCurrencyIsoCode())
+            .dealTimestamp(deal.getDealTimestamp())
+            .dealAmount(deal.getDealAmount())
+            .createdAt(deal.getCreatedAt())
+            .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fxdeals.lookup.ids", found, LongAdder::sum)
+            .tag("result", "found")
+            .description("Deal IDs looked up in batch")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.lookup.ids", missing, LongAdder::sum)
+            .tag("result", "missing")
+            .description("Deal IDs looked up in batch")
+            .register(registry);
+    }
+
+    /**
+     * Receives the result for each looked-up ID
+     */
+    public interface ResultHandler {
+
+        void found(DealResponse deal);
+
+        void missing(String dealUniqueId);
+    }
+}
@@ -0,0 +1,220 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.StatisticsProperties;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.dto.DealStatisticsResponse;
+import com.bloomberg.fxdeals.exception.ServiceUnavailableException;
+import com.bloomberg.fxdeals.util.CurrencyCodes;
+import com.bloomberg.fxdeals.util.Fingerprints;
+import com.bloomberg.fxdeals.util.HyperLogLog;
+import com.bloomberg.fxdeals.util.SpaceSavingSketch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-memory streaming statistics over tumbling windows
+ *
+ * Per window it keeps exact received/imported counters, a HyperLogLog of the deal
+ * IDs received by the import endpoints (retries and duplicates show up as the gap
+ * between received and distinct), and a Space-Saving summary of the currency pairs
+ * of committed deals. Queries can merge the current window with recent closed ones;
+ * both sketches merge without losing their error guarantees.
+ *
+ * Memory is bounded by (retained windows + 1) times the per-window sketch size,
+ * whatever the volume, so dashboards no longer need a GROUP BY over fx_deals.
+ */
+@Component
+public class DealStatistics {
+
+    private final StatisticsProperties properties;
+    private final LongSupplier clock;
+    private final long windowMillis;
+
+    private final Deque<Window> closedWindows = new ArrayDeque<>();
+    private Window current;
+
+    @Autowired
+    public DealStatistics(StatisticsProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    DealStatistics(StatisticsProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.windowMillis = Math.max(1, properties.getWindow().toMillis());
+        this.current = newWindow(windowStart());
+    }
+
+    /**
+     * Record deals received by an import endpoint, before validation
+     */
+    public void recordReceived(List<DealRequest> deals) {
+        if (!properties.isEnabled() || deals.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            Window window = currentWindow();
+            for (DealRequest deal : deals) {
+                if (deal != null && deal.getDealUniqueId() != null) {
+                    window.dealIds.add(Fingerprints.of(deal.getDealUniqueId()));
+                }
+            }
+            window.received += deals.size();
+        }
+    }
+
+    /**
+     * Record the currency pairs of committed deals
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDealsImported(DealsImportedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            Window window = currentWindow();
+            for (DealResponse deal : event.deals()) {
+                int from = CurrencyCodes.indexOf(deal.getFromCurrencyIsoCode());
+                int to = CurrencyCodes.indexOf(deal.getToCurrencyIsoCode());
+                if (from >= 0 && to >= 0) {
+                    window.pairs.add(from * CurrencyCodes.SIZE + to);
+                }
+            }
+            window.imported += event.deals().size();
+        }
+    }
+
+    /**
+     * Statistics over the current window and the closed windows before it
+     *
+     * @param windows number of windows to merge, including the current one
+     * @param top number of currency pairs to return
+     * @return merged statistics with their error bounds
+     * @throws IllegalArgumentException if windows or top is not positive
+     */
+    public DealStatisticsResponse snapshot(int windows, int top) {
+        if (!properties.isEnabled()) {
+            throw new ServiceUnavailableException("Deal statistics are disabled", 60);
+        }
+        if (windows < 1 || windows > properties.getRetainedWindows() + 1) {
+            throw new IllegalArgumentException("windows must be between 1 and " + (properties.getRetainedWindows() + 1));
+        }
+        if (top < 1) {
+            throw new IllegalArgumentException("top must be positive");
+        }
+
+        Window merged;
+        synchronized (this) {
+            merged = currentWindow().copy();
+            // Windows without traffic were never created; they count towards the span but add nothing
+            long from = merged.start - (windows - 1) * windowMillis;
+            Iterator<Window> older = closedWindows.descendingIterator();
+            while (older.hasNext()) {
+                Window window = older.next();
+                if (window.start < from) {
+                    break;
+                }
+                merged.mergeOlder(window);
+            }
+            merged.start = from;
+        }
+
+        List<DealStatisticsResponse.PairCount> topPairs = new ArrayList<>();
+        for (SpaceSavingSketch.Entry entry : merged.pairs.top(top)) {
+            topPairs.add(new DealStatisticsResponse.PairCount(pairName(entry.key()), entry.count(), entry.error()));
+        }
+
+        return DealStatisticsResponse.builder()
+            .windowStart(Instant.ofEpochMilli(merged.start))
+            .windowEnd(Instant.ofEpochMilli(merged.end))
+            .windows(windows)
+            .received(merged.received)
+            .imported(merged.imported)
+            .distinctDealIds(merged.dealIds.estimate())
+            .distinctDealIdsRelativeError(merged.dealIds.relativeStandardError())
+            .topPairs(topPairs)
+            .topPairsMaxError(merged.pairs.maxError())
+            .memoryBudgetBytes(memoryBudgetBytes())
+            .build();
+    }
+
+    /**
+     * @return bytes reserved by the sketches of all retained windows
+     */
+    public long memoryBudgetBytes() {
+        long perWindow = (1L << properties.getDistinctPrecision())
+            + SpaceSavingSketch.sizeInBytes(properties.getTopPairsCapacity());
+        return perWindow * (properties.getRetainedWindows() + 1);
+    }
+
+    /**
+     * @return the window covering now, closing expired windows first (caller holds the lock)
+     */
+    private Window currentWindow() {
+        long start = windowStart();
+        if (current.start != start) {
+            closedWindows.addLast(current);
+            while (closedWindows.size() > properties.getRetainedWindows()
+                    || (!closedWindows.isEmpty()
+                        && closedWindows.peekFirst().start < start - windowMillis * properties.getRetainedWindows())) {
+                closedWindows.removeFirst();
+            }
+            current = newWindow(start);
+        }
+        return current;
+    }
+
+    private long windowStart() {
+        return Math.floorDiv(clock.getAsLong(), windowMillis) * windowMillis;
+    }
+
+    private Window newWindow(long start) {
+        return new Window(start, start + windowMillis,
+            new HyperLogLog(properties.getDistinctPrecision()),
+            new SpaceSavingSketch(properties.getTopPairsCapacity()));
+    }
+
+    private static String pairName(int key) {
+        return CurrencyCodes.codeOf(key / CurrencyCodes.SIZE) + "/" + CurrencyCodes.codeOf(key % CurrencyCodes.SIZE);
+    }
+
+    private static final class Window {
+        private long start;
+        private final long end;
+        private final HyperLogLog dealIds;
+        private final SpaceSavingSketch pairs;
+        private long received;
+        private long imported;
+
+        private Window(long start, long end, HyperLogLog dealIds, SpaceSavingSketch pairs) {
+            this.start = start;
+            this.end = end;
+            this.dealIds = dealIds;
+            this.pairs = pairs;
+        }
+
+        private Window copy() {
+            Window copy = new Window(start, end, dealIds.copy(), pairs.copy());
+            copy.received = received;
+            copy.imported = imported;
+            return copy;
+        }
+
+        private void mergeOlder(Window older) {
+            dealIds.merge(older.dealIds);
+            pairs.merge(older.pairs);
+            received += older.received;
+            imported += older.imported;
+        }
+    }
+}
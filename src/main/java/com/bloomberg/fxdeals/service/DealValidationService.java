@@ -1,15 +1,20 @@
 package com.bloomberg.fxdeals.service;
 
+import com.bloomberg.fxdeals.config.ValidationProperties;
 import com.bloomberg.fxdeals.dto.DealRequest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service for validating FX Deal data
@@ -19,20 +24,37 @@ import java.util.regex.Pattern;
  * - Data type validation
  * - Format validation
  * - Business rule validation
+ *
+ * The rules come from fxdeals.validation.* and are compiled once into a
+ * ValidationRuleSet held in an AtomicReference, so a new rule set can be swapped
+ * in at runtime (ValidationRulesController) without locking the import path. Rejections are counted per rule
+ * and published as fxdeals.validation.rejections{rule=...}.
  */
 @Service
-public class DealValidationService {
+public class DealValidationService implements MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(DealValidationService.class);
-    
-    // ISO 4217 currency code pattern (3 uppercase letters)
-    private static final Pattern CURRENCY_CODE_PATTERN = Pattern.compile("^[A-Z]{3}$");
-    
-    // Common valid currency codes (subset of ISO 4217)
-    private static final List<String> VALID_CURRENCY_CODES = List.of(
-        "USD", "EUR", "GBP", "JPY", "AUD", "CAD", "CHF", "CNY", "HKD", "NZD",
-        "SEK", "NOK", "DKK", "PLN", "ZAR", "SGD", "MXN", "INR", "BRL", "KRW"
-    );
+
+    private final AtomicReference<ValidationRuleSet> rules;
+    /** Configuration the current rules were compiled from */
+    private volatile ValidationProperties ruleProperties;
+    private final LongAdder[] rejections = new LongAdder[ValidationRuleSet.Rule.values().length];
+
+    /**
+     * Validation with the default rules
+     */
+    public DealValidationService() {
+        this(new ValidationProperties());
+    }
+
+    @Autowired
+    public DealValidationService(ValidationProperties properties) {
+        this.rules = new AtomicReference<>(ValidationRuleSet.compile(properties));
+        this.ruleProperties = properties;
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+    }
 
     /**
      * Validate a single deal request
@@ -41,6 +63,17 @@ public class DealValidationService {
      * @return list of validation errors (empty if valid)
      */
     public List<String> validateDeal(DealRequest dealRequest) {
+        return validateDeal(dealRequest, null);
+    }
+
+    /**
+     * Validate a single deal request, also collecting the rules it fails
+     *
+     * @param dealRequest the deal request to validate
+     * @param failedRules receives the failed rules, from the same rule set as the errors
+     * @return list of validation errors (empty if valid)
+     */
+    public List<String> validateDeal(DealRequest dealRequest, List<ValidationRuleSet.Rule> failedRules) {
         List<String> errors = new ArrayList<>();
 
         if (dealRequest == null) {
@@ -48,30 +81,10 @@ public class DealValidationService {
             return errors;
         }
 
-        // Validate Deal Unique Id
-        validateDealUniqueId(dealRequest.getDealUniqueId(), errors);
-
-        // Validate From Currency ISO Code
-        validateCurrencyCode(dealRequest.getFromCurrencyIsoCode(), "From Currency", errors);
-
-        // Validate To Currency ISO Code
-        validateCurrencyCode(dealRequest.getToCurrencyIsoCode(), "To Currency", errors);
-
-        // Validate currency codes are different
-        if (dealRequest.getFromCurrencyIsoCode() != null && 
-            dealRequest.getToCurrencyIsoCode() != null &&
-            dealRequest.getFromCurrencyIsoCode().equals(dealRequest.getToCurrencyIsoCode())) {
-            errors.add("From Currency and To Currency must be different");
-        }
-
-        // Validate Deal Timestamp
-        validateDealTimestamp(dealRequest.getDealTimestamp(), errors);
-
-        // Validate Deal Amount
-        validateDealAmount(dealRequest.getDealAmount(), errors);
+        rules.get().validate(dealRequest, errors, rejections, failedRules);
 
         if (!errors.isEmpty()) {
-            logger.warn("Validation failed for deal {}: {}", 
+            logger.debug("Validation failed for deal {}: {}", 
                 dealRequest.getDealUniqueId(), errors);
         }
 
@@ -79,90 +92,39 @@ public class DealValidationService {
     }
 
     /**
-     * Validate deal unique ID
+     * @return the rule set currently applied, for callers that must not count rejections
      */
-    private void validateDealUniqueId(String dealUniqueId, List<String> errors) {
-        if (dealUniqueId == null || dealUniqueId.trim().isEmpty()) {
-            errors.add("Deal Unique Id is required and cannot be empty");
-        } else if (dealUniqueId.length() > 100) {
-            errors.add("Deal Unique Id must not exceed 100 characters");
-        } else if (dealUniqueId.trim().length() != dealUniqueId.length()) {
-            errors.add("Deal Unique Id cannot have leading or trailing whitespace");
-        }
+    ValidationRuleSet currentRules() {
+        return rules.get();
     }
 
     /**
-     * Validate currency ISO code
+     * Compile and swap in a new rule set; deals being validated finish with the old one
+     *
+     * @param properties new rule configuration
+     * @return the rule set that was replaced
+     * @throws IllegalArgumentException if the configuration is invalid (the current rules stay)
      */
-    private void validateCurrencyCode(String currencyCode, String fieldName, List<String> errors) {
-        if (currencyCode == null || currencyCode.trim().isEmpty()) {
-            errors.add(fieldName + " ISO Code is required");
-            return;
-        }
-
-        String trimmed = currencyCode.trim().toUpperCase();
-        
-        if (trimmed.length() != 3) {
-            errors.add(fieldName + " ISO Code must be exactly 3 characters");
-            return;
-        }
-
-        if (!CURRENCY_CODE_PATTERN.matcher(trimmed).matches()) {
-            errors.add(fieldName + " ISO Code must be 3 uppercase letters (A-Z)");
-            return;
-        }
-
-        // Optional: Validate against known currency codes
-        // This can be made configurable or removed if all ISO codes should be accepted
-        if (!VALID_CURRENCY_CODES.contains(trimmed)) {
-            logger.debug("Currency code {} is not in the common list, but format is valid", trimmed);
-        }
+    public synchronized ValidationRuleSet replaceRules(ValidationProperties properties) {
+        ValidationRuleSet replaced = rules.getAndSet(ValidationRuleSet.compile(properties));
+        ruleProperties = properties;
+        logger.info("Deal validation rules replaced: {}", properties);
+        return replaced;
     }
 
     /**
-     * Validate deal timestamp
+     * @return the configuration of the rules currently applied
      */
-    private void validateDealTimestamp(LocalDateTime dealTimestamp, List<String> errors) {
-        if (dealTimestamp == null) {
-            errors.add("Deal timestamp is required");
-            return;
-        }
-
-        LocalDateTime now = LocalDateTime.now();
-        if (dealTimestamp.isAfter(now)) {
-            errors.add("Deal timestamp cannot be in the future");
-        }
-
-        // Optional: Validate timestamp is not too old (e.g., more than 10 years)
-        LocalDateTime tenYearsAgo = now.minusYears(10);
-        if (dealTimestamp.isBefore(tenYearsAgo)) {
-            errors.add("Deal timestamp is too old (more than 10 years)");
-        }
+    public ValidationProperties getRuleProperties() {
+        return ruleProperties;
     }
 
     /**
-     * Validate deal amount
+     * @param rule a validation rule
+     * @return number of deals that failed the rule
      */
-    private void validateDealAmount(BigDecimal dealAmount, List<String> errors) {
-        if (dealAmount == null) {
-            errors.add("Deal amount is required");
-            return;
-        }
-
-        if (dealAmount.compareTo(BigDecimal.ZERO) <= 0) {
-            errors.add("Deal amount must be greater than 0");
-            return;
-        }
-
-        if (dealAmount.scale() > 4) {
-            errors.add("Deal amount cannot have more than 4 decimal places");
-        }
-
-        // Check for reasonable maximum value (e.g., 1 trillion)
-        BigDecimal maxAmount = new BigDecimal("1000000000000");
-        if (dealAmount.compareTo(maxAmount) > 0) {
-            errors.add("Deal amount exceeds maximum allowed value");
-        }
+    public long getRejections(ValidationRuleSet.Rule rule) {
+        return rejections[rule.ordinal()].sum();
     }
 
     /**
@@ -195,5 +157,14 @@ public class DealValidationService {
 
         return allErrors;
     }
-}
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ValidationRuleSet.Rule rule : ValidationRuleSet.Rule.values()) {
+            FunctionCounter.builder("fxdeals.validation.rejections", rejections[rule.ordinal()], LongAdder::sum)
+                .description("Deals rejected by a validation rule")
+                .tag("rule", rule.name().toLowerCase(Locale.ROOT))
+                .register(registry);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.WarmupProperties;
+import com.bloomberg.fxdeals.dto.BulkDealRequest;
+import com.bloomberg.fxdeals.dto.BulkDealResponse;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms up the import path and connection pools before the application takes traffic
+ *
+ * Runs as the last ApplicationRunner, so the readiness probe stays down until it
+ * has finished. Every Hikari pool is first filled to maximum-pool-size, then rounds
+ * of synthetic deals go through the paths a bulk import takes: JSON serialization and
+ * BulkDealRequestDeserializer, validation, the rolled-back insert of
+ * FxDealService.rehearseImport and serialization of the responses. An invalid copy
+ * of each deal is checked too, without counting rejections, so the failure branches
+ * of the rules get compiled as well, and a lookup of a missing deal warms the JPA
+ * read path. The hot methods are compiled and Jackson's serializers cached before
+ * the first client request.
+ *
+ * The work runs on its own thread and startup waits at most
+ * fxdeals.warmup.max-duration for it; after that the thread is interrupted and
+ * startup carries on. A round cut short this way is abandoned: its insert is rolled
+ * back as always, though a JDBC call that ignores the interrupt may still hold a
+ * connection briefly after the first requests arrive. A failure is logged and never fails startup. The
+ * time taken is logged and published as fxdeals.warmup.duration.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class DealWarmup implements ApplicationRunner, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DealWarmup.class);
+
+    private static final String[][] CURRENCY_PAIRS = {
+        {"EUR", "USD"}, {"GBP", "USD"}, {"USD", "JPY"}, {"USD", "CHF"}, {"AUD", "USD"}, {"EUR", "GBP"}
+    };
+
+    private final FxDealService dealService;
+    private final DealValidationService validationService;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<HikariDataSource> dataSources;
+    private final WarmupProperties properties;
+
+    private volatile boolean stopRequested;
+    private volatile boolean completed;
+    private volatile long durationNanos;
+    private volatile int rounds;
+    private volatile int connectionsOpened;
+
+    @Autowired
+    public DealWarmup(FxDealService dealService, DealValidationService validationService, ObjectMapper objectMapper,
+                      ObjectProvider<HikariDataSource> dataSources, WarmupProperties properties) {
+        this.dealService = dealService;
+        this.validationService = validationService;
+        this.objectMapper = objectMapper;
+        this.dataSources = dataSources;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            logger.info("Warmup disabled");
+            return;
+        }
+        warmUp();
+    }
+
+    /**
+     * Run the warmup, waiting at most fxdeals.warmup.max-duration
+     *
+     * @return true if every round ran within the time limit
+     */
+    boolean warmUp() {
+        long start = System.nanoTime();
+        Duration maxDuration = properties.getMaxDuration();
+        long timeoutNanos = maxDuration == null ? Long.MAX_VALUE : Math.max(0, maxDuration.toNanos());
+        CompletableFuture<Void> work = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                warmUp(start + timeoutNanos);
+                work.complete(null);
+            } catch (Throwable e) {
+                work.completeExceptionally(e);
+            }
+        }, "deal-warmup");
+        thread.setDaemon(true);
+        thread.start();
+
+        boolean timedOut = false;
+        try {
+            work.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut = true;
+            stopRequested = true;
+            thread.interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Warmup failed after {} rounds: {}", rounds, e.getCause().toString());
+        } catch (InterruptedException e) {
+            stopRequested = true;
+            thread.interrupt();
+            Thread.currentThread().interrupt();
+        }
+
+        durationNanos = System.nanoTime() - start;
+        boolean finished = !timedOut && rounds >= properties.getRounds();
+        completed = finished;
+        if (timedOut) {
+            logger.warn("Warmup stopped at the {} limit after {} of {} rounds; taking traffic partly warm",
+                maxDuration, rounds, properties.getRounds());
+        }
+        logger.info("Warmup took {} ms: {} connections opened, {} rounds of {} deals",
+            TimeUnit.NANOSECONDS.toMillis(durationNanos), connectionsOpened, rounds, properties.getDealsPerRound());
+        return finished;
+    }
+
+    private void warmUp(long deadline) throws IOException {
+        if (properties.isFillConnectionPools()) {
+            dataSources.orderedStream().forEach(this::fillPool);
+        }
+
+        String prefix = "WARMUP-" + UUID.randomUUID() + "-";
+        int dealsPerRound = Math.max(1, properties.getDealsPerRound());
+        for (int round = 0; round < properties.getRounds(); round++) {
+            if (stopRequested || System.nanoTime() - deadline >= 0) {
+                return;
+            }
+            runRound(prefix + round + "-", dealsPerRound);
+            rounds = round + 1;
+        }
+        dealService.getDealByUniqueId(prefix + "missing");
+    }
+
+    private void runRound(String idPrefix, int dealsPerRound) throws IOException {
+        List<DealRequest> deals = new ArrayList<>(dealsPerRound);
+        LocalDateTime timestamp = LocalDateTime.now().minusHours(1);
+        for (int i = 0; i < dealsPerRound; i++) {
+            String[] pair = CURRENCY_PAIRS[i % CURRENCY_PAIRS.length];
+            deals.add(new DealRequest(idPrefix + i, pair[0], pair[1], timestamp.minusSeconds(i),
+                FixedPointAmount.ofUnscaled(1_000_000L + i * 2_500L)));
+        }
+
+        // JSON binding as a bulk import request arrives
+        byte[] body = objectMapper.writeValueAsBytes(new BulkDealRequest(deals));
+        List<DealRequest> parsed = objectMapper.readValue(body, BulkDealRequest.class).getDeals();
+
+        // Failing rules build their messages, but rejections of synthetic deals are not counted
+        ValidationRuleSet rules = validationService.currentRules();
+        List<String> errors = new ArrayList<>();
+        for (DealRequest deal : parsed) {
+            rules.validate(invalidVariant(deal), errors, null);
+            errors.clear();
+        }
+
+        List<DealResponse> imported = dealService.rehearseImport(parsed);
+        BulkDealResponse response = BulkDealResponse.builder()
+            .batchId(idPrefix)
+            .totalReceived(parsed.size())
+            .successfullyImported(imported.size())
+            .errors(new ArrayList<>())
+            .importedDeals(imported)
+            .build();
+        objectMapper.writeValueAsBytes(response);
+    }
+
+    /**
+     * A copy of a valid deal that fails the currency, timestamp or amount rules
+     */
+    private static DealRequest invalidVariant(DealRequest deal) {
+        return new DealRequest(" " + deal.getDealUniqueId(), deal.getFromCurrencyIsoCode(),
+            deal.getFromCurrencyIsoCode(), deal.getDealTimestamp().plusYears(1), FixedPointAmount.ZERO);
+    }
+
+    /**
+     * Open every connection the pool allows at once, then return them idle
+     */
+    private void fillPool(HikariDataSource pool) {
+        List<Connection> held = new ArrayList<>(pool.getMaximumPoolSize());
+        try {
+            while (held.size() < pool.getMaximumPoolSize() && !stopRequested) {
+                held.add(pool.getConnection());
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not fill connection pool {}: {}", pool.getPoolName(), e.getMessage());
+        } finally {
+            connectionsOpened += held.size();
+            for (Connection connection : held) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    logger.debug("Could not return warmup connection to {}: {}", pool.getPoolName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public Duration getDuration() {
+        return Duration.ofNanos(durationNanos);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("fxdeals.warmup.duration", this, TimeUnit.NANOSECONDS, warmup -> warmup.durationNanos)
+            .description("Time the startup warmup delayed readiness")
+            .register(registry);
+        Gauge.builder("fxdeals.warmup.rounds", this, DealWarmup::getRounds)
+            .description("Rounds of synthetic deals run by the startup warmup")
+            .register(registry);
+        Gauge.builder("fxdeals.warmup.connections", this, warmup -> warmup.connectionsOpened)
+            .description("Connections opened by the startup warmup to fill the pools")
+            .register(registry);
+        Gauge.builder("fxdeals.warmup.completed", this, warmup -> warmup.completed ? 1 : 0)
+            .description("1 if the startup warmup ran all its rounds within max-duration")
+            .register(registry);
+    }
+}
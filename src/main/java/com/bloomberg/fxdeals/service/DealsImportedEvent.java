@@ -0,0 +1,17 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.dto.DealResponse;
+
+import java.util.List;
+
+/**
+ * Published by FxDealService for every transaction that stored deals
+ *
+ * Listeners should use {@code @TransactionalEventListener(fallbackExecution = true)}:
+ * single imports publish inside their transaction, so the event is delivered after
+ * commit; bulk chunks publish once their transaction has already committed.
+ *
+ * @param deals the deals stored by the transaction, in insert order
+ */
+public record DealsImportedEvent(List<DealResponse> deals) {
+}
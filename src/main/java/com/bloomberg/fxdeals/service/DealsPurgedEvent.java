@@ -0,0 +1,13 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.dto.DealResponse;
+
+import java.util.List;
+
+/**
+ * Published after deals have been permanently deleted by the retention purge
+ *
+ * @param deals the deleted deals
+ */
+public record DealsPurgedEvent(List<DealResponse> deals) {
+}
@@ -1,21 +1,45 @@
 package com.bloomberg.fxdeals.service;
 
+import com.bloomberg.fxdeals.config.ImportProperties;
+import com.bloomberg.fxdeals.config.TransactionConfig;
 import com.bloomberg.fxdeals.dto.BulkDealResponse;
 import com.bloomberg.fxdeals.dto.DealRequest;
 import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.exception.SuspectedDuplicateException;
 import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.model.RejectedDeal;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.DealIdAllocator;
 import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.bloomberg.fxdeals.util.LogRateLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -24,7 +48,14 @@ import java.util.stream.Collectors;
  * Handles deal import with:
  * - Validation
  * - Duplicate detection
+ * - Optional near-duplicate detection (resends under a new unique ID)
  * - No-rollback transaction handling (each deal saved independently)
+ * - Ids from the DealIdAllocator, with committed deals published in id order
+ * - JDBC batch writes for bulk imports, split across parallel writers for large imports,
+ *   with chunk and batch sizes tuned by the AdaptiveBatchSizer
+ * - A DealsImportedEvent per committed transaction
+ * - Every deal a bulk import does not persist queued for the rejected deal store
+ * - Lookups and duplicate checks that fall back to the deal archive
  */
 @Service
 public class FxDealService {
@@ -32,45 +63,91 @@ public class FxDealService {
     private static final Logger logger = LoggerFactory.getLogger(FxDealService.class);
 
     private final FxDealRepository dealRepository;
+    private final DealArchiveRepository archiveRepository;
     private final DealValidationService validationService;
+    private final DealIdIndex dealIdIndex;
+    private final DealIdAllocator idAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DealStatistics statistics;
+    private final NearDuplicateDetector nearDuplicates;
+    private final ImportLatencyMonitor latencyMonitor;
+    private final ImportWriterPool writerPool;
+    private final RejectedDealRecorder rejections;
+    private final AdaptiveBatchSizer batchSizer;
+    private final LogRateLimiter warningLogLimiter;
+    /** Single-deal import warnings the limit suppressed since the last one logged */
+    private final AtomicLong suppressedSingleWarnings = new AtomicLong();
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public FxDealService(FxDealRepository dealRepository, DealValidationService validationService) {
+    public FxDealService(FxDealRepository dealRepository, DealArchiveRepository archiveRepository,
+                         DealValidationService validationService,
+                         DealIdIndex dealIdIndex, DealIdAllocator idAllocator, ImportProperties importProperties,
+                         @Qualifier(TransactionConfig.BULK_IMPORT_TRANSACTION_MANAGER)
+                         PlatformTransactionManager transactionManager,
+                         ApplicationEventPublisher eventPublisher, DealStatistics statistics,
+                         NearDuplicateDetector nearDuplicates, ImportLatencyMonitor latencyMonitor,
+                         ImportWriterPool writerPool, RejectedDealRecorder rejections,
+                         AdaptiveBatchSizer batchSizer) {
         this.dealRepository = dealRepository;
+        this.archiveRepository = archiveRepository;
         this.validationService = validationService;
+        this.dealIdIndex = dealIdIndex;
+        this.idAllocator = idAllocator;
+        this.eventPublisher = eventPublisher;
+        this.statistics = statistics;
+        this.nearDuplicates = nearDuplicates;
+        this.latencyMonitor = latencyMonitor;
+        this.writerPool = writerPool;
+        this.rejections = rejections;
+        this.batchSizer = batchSizer;
+        this.warningLogLimiter = new LogRateLimiter(importProperties.getLogWarningsPerSecond());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     /**
      * Import a single deal
+     *
+     * The deal is inserted through the same JDBC path and id allocator as a bulk
+     * import, in its own transaction.
      * 
      * @param dealRequest the deal to import
      * @return DealResponse with imported deal information
      * @throws IllegalArgumentException if validation fails or deal already exists
+     * @throws SuspectedDuplicateException if the deal looks like a resend and suspects are rejected
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = Exception.class)
     public DealResponse importDeal(DealRequest dealRequest) {
-        logger.info("Importing deal with unique ID: {}", dealRequest.getDealUniqueId());
+        logger.debug("Importing deal with unique ID: {}", dealRequest.getDealUniqueId());
+        statistics.recordReceived(List.of(dealRequest));
 
-        // Validate the deal
-        List<String> validationErrors = validationService.validateDeal(dealRequest);
-        if (!validationErrors.isEmpty()) {
-            String errorMessage = String.join("; ", validationErrors);
-            logger.error("Validation failed for deal {}: {}", dealRequest.getDealUniqueId(), errorMessage);
-            throw new IllegalArgumentException("Validation failed: " + errorMessage);
-        }
-
-        // Check for duplicate
-        if (dealRepository.existsByDealUniqueId(dealRequest.getDealUniqueId())) {
-            logger.warn("Deal with unique ID {} already exists, skipping import", dealRequest.getDealUniqueId());
-            throw new IllegalStateException("Deal with unique ID " + dealRequest.getDealUniqueId() + " already exists");
+        FxDeal deal = prepareDeal(dealRequest);
+        String original = nearDuplicates.newBatch().check(deal);
+        if (original != null) {
+            String message = suspectMessage(original);
+            if (nearDuplicates.rejectsSuspects()) {
+                throw new SuspectedDuplicateException(message, original);
+            }
+            if (warningLogLimiter.tryAcquire(suppressedSingleWarnings)) {
+                logger.warn("Deal ({}): {} ({} similar warnings suppressed)", deal.getDealUniqueId(), message,
+                    suppressedSingleWarnings.getAndSet(0));
+            }
         }
-
-        // Convert and save
-        FxDeal deal = convertToEntity(dealRequest);
-        try {
-            FxDeal savedDeal = dealRepository.save(deal);
-            logger.info("Successfully imported deal with unique ID: {}", savedDeal.getDealUniqueId());
-            return convertToResponse(savedDeal);
+        try (DealIdAllocator.IdRange ids = idAllocator.open(1)) {
+            ids.assignTo(List.of(deal));
+            transactionTemplate.executeWithoutResult(status -> dealRepository.insertBatch(List.of(deal)));
+            logger.debug("Successfully imported deal with unique ID: {}", deal.getDealUniqueId());
+            DealResponse response = convertToResponse(deal);
+            ids.onCompleted(() -> published(List.of(response)));
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateDealId(e)) {
+                logger.error("Error saving deal {}: {}", dealRequest.getDealUniqueId(), e.getMessage(), e);
+                throw new RuntimeException("Failed to save deal: " + e.getMessage(), e);
+            }
+            // Stored concurrently (or missed by the index): the unique constraint has the final say
+            logger.debug("Unique constraint rejected deal {}: {}", dealRequest.getDealUniqueId(), e.getMessage());
+            throw new IllegalStateException("Deal with unique ID " + dealRequest.getDealUniqueId() + " already exists", e);
         } catch (Exception e) {
             logger.error("Error saving deal {}: {}", dealRequest.getDealUniqueId(), e.getMessage(), e);
             throw new RuntimeException("Failed to save deal: " + e.getMessage(), e);
@@ -80,26 +157,50 @@ public class FxDealService {
     /**
      * Import multiple deals in bulk
      * 
-     * Uses REQUIRES_NEW propagation to ensure each deal is saved independently
-     * No rollback is allowed - every valid deal is persisted
+     * Valid deals are committed in chunks, one transaction per chunk, and written
+     * inside it with plain JDBC batches, so no entity is kept in a persistence
+     * context. Chunk and batch sizes start at fxdeals.import.chunk-size and
+     * batch-size and are tuned by the AdaptiveBatchSizer from measured chunk times.
+     * A deal that hits the unique constraint (stored concurrently) is rolled back to
+     * a savepoint and reported, so every other valid deal is still persisted.
+     * Deals are not imported through importDeal, whose REQUIRES_NEW boundary would
+     * not apply to a self-invocation anyway.
+     *
+     * Imports of fxdeals.import.parallel-threshold deals or more are partitioned by
+     * hash of dealUniqueId across the ImportWriterPool: each partition's chunks are
+     * committed in order by one writer on its own connection, and the outcomes are
+     * merged back in request order.
+     *
+     * The response carries a batch ID under which every deal that was not imported
+     * is recorded by the RejectedDealRecorder.
      * 
      * @param dealRequests list of deals to import
      * @return BulkDealResponse with import statistics
      */
     public BulkDealResponse importDealsBulk(List<DealRequest> dealRequests) {
-        logger.info("Starting bulk import of {} deals", dealRequests.size());
+        logger.debug("Starting bulk import of {} deals", dealRequests.size());
+        long startNanos = System.nanoTime();
+        statistics.recordReceived(dealRequests);
 
         BulkDealResponse response = BulkDealResponse.builder()
+            .batchId(UUID.randomUUID().toString())
             .totalReceived(dealRequests.size())
             .successfullyImported(0)
             .skippedDuplicates(0)
             .failed(0)
+            .suspectedDuplicates(0)
             .errors(new ArrayList<>())
+            .suspectedDuplicateDeals(new ArrayList<>())
             .importedDeals(new ArrayList<>())
             .build();
 
         // Track processed deal IDs to detect duplicates within the batch
         Set<String> processedInBatch = new HashSet<>();
+        NearDuplicateDetector.Batch nearDuplicateBatch = nearDuplicates.newBatch();
+        // The warning limit is shared, but each import reports only its own suppressed lines
+        AtomicLong suppressedWarnings = new AtomicLong();
+        ChunkWriter writer = new ChunkWriter(response, suppressedWarnings, nearDuplicateBatch,
+            writerPool.shouldPartition(dealRequests.size()) ? writerPool.getWorkers() : 1);
 
         for (int i = 0; i < dealRequests.size(); i++) {
             DealRequest dealRequest = dealRequests.get(i);
@@ -111,54 +212,327 @@ public class FxDealService {
                     String error = String.format("Deal[%d] (%s): Duplicate deal ID in the same batch", i, dealId);
                     response.getErrors().add(error);
                     response.setFailed(response.getFailed() + 1);
-                    logger.warn(error);
+                    logWarning(error, suppressedWarnings);
+                    reject(response, i, dealRequest, RejectedDeal.Reason.DUPLICATE_IN_BATCH, error, List.of());
                     continue;
                 }
 
-                // Import the deal (each in its own transaction)
-                DealResponse importedDeal = importDeal(dealRequest);
-                response.getImportedDeals().add(importedDeal);
-                response.setSuccessfullyImported(response.getSuccessfullyImported() + 1);
+                FxDeal deal = prepareDeal(dealRequest);
                 processedInBatch.add(dealId);
-                logger.debug("Successfully imported deal[{}]: {}", i, dealId);
+                if (nearDuplicateBatch.resemblesUnwritten(deal)) {
+                    // Only a stored deal can be the original of a resend, so write the earlier one first
+                    writer.drain();
+                }
+                String original = nearDuplicateBatch.check(deal);
+                if (original != null) {
+                    String suspect = String.format("Deal[%d] (%s): %s", i, dealId,
+                        suspectMessage(original));
+                    response.getSuspectedDuplicateDeals().add(suspect);
+                    response.setSuspectedDuplicates(response.getSuspectedDuplicates() + 1);
+                    logWarning(suspect, suppressedWarnings);
+                    if (nearDuplicates.rejectsSuspects()) {
+                        reject(response, i, dealRequest, RejectedDeal.Reason.SUSPECTED_RESEND, suspect, List.of());
+                        continue;
+                    }
+                }
+
+                writer.add(new PendingDeal(i, dealRequest, deal));
+                if (original == null) {
+                    nearDuplicateBatch.queued(deal);
+                }
 
             } catch (IllegalStateException e) {
                 // Duplicate deal (already exists in DB)
-                String error = String.format("Deal[%d] (%s): %s", i, dealId, e.getMessage());
-                response.getErrors().add(error);
-                response.setSkippedDuplicates(response.getSkippedDuplicates() + 1);
-                logger.warn(error);
+                recordDuplicate(response, i, dealRequest, e.getMessage(), suppressedWarnings);
 
             } catch (IllegalArgumentException e) {
                 // Validation error
                 String error = String.format("Deal[%d] (%s): %s", i, dealId, e.getMessage());
                 response.getErrors().add(error);
                 response.setFailed(response.getFailed() + 1);
-                logger.warn(error);
+                logWarning(error, suppressedWarnings);
+                reject(response, i, dealRequest, RejectedDeal.Reason.INVALID, error,
+                    e instanceof InvalidDealException invalid ? invalid.failedRules : List.of());
 
             } catch (Exception e) {
                 // Other errors
-                String error = String.format("Deal[%d] (%s): Unexpected error - %s", i, dealId, e.getMessage());
-                response.getErrors().add(error);
-                response.setFailed(response.getFailed() + 1);
-                logger.error("Unexpected error importing deal[{}] {}: {}", i, dealId, e.getMessage(), e);
+                recordUnexpected(response, i, dealRequest, e, suppressedWarnings);
             }
         }
+        writer.finish();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        latencyMonitor.record(dealRequests.size(), elapsedNanos);
 
-        logger.info("Bulk import completed. Total: {}, Imported: {}, Duplicates: {}, Failed: {}",
+        logger.info("Bulk import completed in {} ms. Total: {}, Imported: {}, Duplicates: {}, Failed: {}, Suspected resends: {}, Suppressed warnings: {}",
+            TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
             response.getTotalReceived(),
             response.getSuccessfullyImported(),
             response.getSkippedDuplicates(),
-            response.getFailed());
+            response.getFailed(),
+            response.getSuspectedDuplicates(),
+            suppressedWarnings.get());
 
         return response;
     }
 
+    /**
+     * Validate a deal and check it is not already stored
+     *
+     * @return the entity to persist
+     * @throws IllegalArgumentException if validation fails (an InvalidDealException)
+     * @throws IllegalStateException if the deal already exists
+     */
+    private FxDeal prepareDeal(DealRequest dealRequest) {
+        List<ValidationRuleSet.Rule> failedRules = new ArrayList<>(2);
+        List<String> validationErrors = validationService.validateDeal(dealRequest, failedRules);
+        if (!validationErrors.isEmpty()) {
+            String errorMessage = String.join("; ", validationErrors);
+            logger.debug("Validation failed for deal {}: {}", dealRequest.getDealUniqueId(), errorMessage);
+            throw new InvalidDealException("Validation failed: " + errorMessage, failedRules);
+        }
+
+        // Check for duplicate (the index rules out most new IDs without a query);
+        // archived deals are no longer covered by the unique constraint
+        if (dealIdIndex.mightContain(dealRequest.getDealUniqueId())
+                && (dealRepository.existsByDealUniqueId(dealRequest.getDealUniqueId())
+                    || archiveRepository.existsByDealUniqueId(dealRequest.getDealUniqueId()))) {
+            logger.debug("Deal with unique ID {} already exists, skipping import", dealRequest.getDealUniqueId());
+            throw new IllegalStateException("Deal with unique ID " + dealRequest.getDealUniqueId() + " already exists");
+        }
+
+        return convertToEntity(dealRequest);
+    }
+
+    /**
+     * Run deals through the bulk import path in a transaction that is rolled back
+     *
+     * Validation, the duplicate check, entity mapping, the JDBC batch insert and the
+     * batch lookup query run as they do for an import, so DealWarmup can get them
+     * compiled and cached before traffic arrives. Nothing is committed, published or
+     * counted; the ids drawn from the allocator are skipped.
+     *
+     * @param dealRequests valid deals with unique IDs that are not stored
+     * @return the deals as inserted and read back before the rollback
+     */
+    List<DealResponse> rehearseImport(List<DealRequest> dealRequests) {
+        try (DealIdAllocator.IdRange ids = idAllocator.open(dealRequests.size())) {
+            return transactionTemplate.execute(status -> {
+                status.setRollbackOnly();
+                List<FxDeal> entities = new ArrayList<>(dealRequests.size());
+                List<String> dealIds = new ArrayList<>(dealRequests.size());
+                for (DealRequest dealRequest : dealRequests) {
+                    FxDeal deal = prepareDeal(dealRequest);
+                    entities.add(deal);
+                    dealIds.add(deal.getDealUniqueId());
+                }
+                dealRepository.existsByDealUniqueId(dealIds.get(0));
+                ids.assignTo(entities);
+                dealRepository.insertBatch(entities);
+                List<DealResponse> responses = new ArrayList<>(entities.size());
+                for (FxDeal deal : dealRepository.findByDealUniqueIds(dealIds)) {
+                    responses.add(convertToResponse(deal));
+                }
+                return responses;
+            });
+        }
+    }
+
+    /**
+     * Write a chunk of prepared deals in one transaction
+     *
+     * The chunk is inserted in JDBC batches, each behind a savepoint. If a batch
+     * violates a constraint, only that batch is rolled back and its deals are
+     * inserted one by one, each behind its own savepoint, so the conflicting deals
+     * are skipped and everything else in the chunk is committed together. A deal
+     * rejected by the deal_unique_id constraint is a duplicate; any other violation
+     * fails the deal.
+     * Ids are drawn for the whole chunk up front and kept by the row-by-row retry;
+     * the stored deals are published once every chunk with lower ids has completed.
+     * Safe to call from a writer thread: the response is only updated by the caller.
+     *
+     * @param sizes the sizes the chunk was cut with, used for its batches and
+     *              reported back to the AdaptiveBatchSizer with its timing
+     * @return the outcome of each deal, in chunk order
+     */
+    private List<WriteOutcome> writeChunk(List<PendingDeal> pending, AdaptiveBatchSizer.Sizes sizes) {
+        List<PendingDeal> stored = new ArrayList<>(pending.size());
+        List<WriteOutcome> rejected = new ArrayList<>();
+        int batchSize = sizes.batchSize();
+        long startNanos = System.nanoTime();
+        try (DealIdAllocator.IdRange ids = idAllocator.open(pending.size())) {
+            try {
+                ids.assignTo(entitiesOf(pending));
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (int from = 0; from < pending.size(); from += batchSize) {
+                        List<PendingDeal> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                        writeBatch(status, batch, stored, rejected);
+                    }
+                });
+            } catch (Exception e) {
+                // Nothing from this chunk was committed
+                return failed(pending, e);
+            }
+            if (rejected.isEmpty()) {
+                // Row-by-row retries would skew the measurement
+                batchSizer.record(sizes, pending.size(), System.nanoTime() - startNanos);
+            }
+
+            List<WriteOutcome> outcomes = new ArrayList<>(pending.size());
+            List<DealResponse> imported = new ArrayList<>(stored.size());
+            for (PendingDeal deal : stored) {
+                DealResponse dealResponse = convertToResponse(deal.entity());
+                imported.add(dealResponse);
+                outcomes.add(new WriteOutcome(deal, dealResponse, null));
+            }
+            if (!imported.isEmpty()) {
+                ids.onCompleted(() -> published(imported));
+            }
+            outcomes.addAll(rejected);
+            return outcomes;
+        }
+    }
+
+    /**
+     * Record committed deals in the ID index and publish them, in id order across writers
+     */
+    private void published(List<DealResponse> deals) {
+        for (DealResponse deal : deals) {
+            dealIdIndex.recordStored(deal.getId(), deal.getDealUniqueId());
+        }
+        eventPublisher.publishEvent(new DealsImportedEvent(deals));
+    }
+
+    private static List<WriteOutcome> failed(List<PendingDeal> pending, Exception e) {
+        List<WriteOutcome> outcomes = new ArrayList<>(pending.size());
+        for (PendingDeal deal : pending) {
+            outcomes.add(new WriteOutcome(deal, null, e));
+        }
+        return outcomes;
+    }
+
+    private void record(WriteOutcome outcome, BulkDealResponse response, AtomicLong suppressedWarnings) {
+        PendingDeal deal = outcome.deal();
+        if (outcome.imported() != null) {
+            response.getImportedDeals().add(outcome.imported());
+            response.setSuccessfullyImported(response.getSuccessfullyImported() + 1);
+        } else if (outcome.failure() != null) {
+            recordUnexpected(response, deal.index(), deal.request(), outcome.failure(), suppressedWarnings);
+        } else {
+            recordDuplicate(response, deal.index(), deal.request(),
+                "Deal with unique ID " + deal.entity().getDealUniqueId() + " already exists", suppressedWarnings);
+        }
+    }
+
+    /**
+     * Insert one JDBC batch inside the chunk transaction, falling back to row-by-row
+     * savepoints if the batch hits a constraint
+     *
+     * @param rejected receives the deals a constraint rejected: duplicates without a
+     *                 failure, other violations with theirs
+     */
+    private void writeBatch(TransactionStatus status, List<PendingDeal> batch,
+                            List<PendingDeal> stored, List<WriteOutcome> rejected) {
+        Object batchSavepoint = status.createSavepoint();
+        try {
+            dealRepository.insertBatch(entitiesOf(batch));
+            status.releaseSavepoint(batchSavepoint);
+            stored.addAll(batch);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            status.rollbackToSavepoint(batchSavepoint);
+            logger.debug("Batch of {} deals rejected by a constraint, retrying row by row: {}",
+                batch.size(), e.getMessage());
+        }
+
+        for (PendingDeal deal : batch) {
+            Object rowSavepoint = status.createSavepoint();
+            try {
+                dealRepository.insertBatch(List.of(deal.entity()));
+                status.releaseSavepoint(rowSavepoint);
+                stored.add(deal);
+            } catch (DataIntegrityViolationException e) {
+                status.rollbackToSavepoint(rowSavepoint);
+                rejected.add(new WriteOutcome(deal, null, isDuplicateDealId(e) ? null : e));
+            }
+        }
+    }
+
+    /**
+     * Whether the violation is of the deal_unique_id constraint rather than another
+     * one (not-null, check, primary key)
+     *
+     * Both PostgreSQL and H2 name the violated constraint in the message.
+     */
+    static boolean isDuplicateDealId(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null
+                    && message.toLowerCase(Locale.ROOT).contains(FxDeal.DEAL_UNIQUE_ID_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<FxDeal> entitiesOf(List<PendingDeal> deals) {
+        List<FxDeal> entities = new ArrayList<>(deals.size());
+        for (PendingDeal deal : deals) {
+            entities.add(deal.entity());
+        }
+        return entities;
+    }
+
+    private void recordDuplicate(BulkDealResponse response, int index, DealRequest dealRequest, String message,
+                                 AtomicLong suppressedWarnings) {
+        String error = String.format("Deal[%d] (%s): %s", index, dealRequest.getDealUniqueId(), message);
+        response.getErrors().add(error);
+        response.setSkippedDuplicates(response.getSkippedDuplicates() + 1);
+        logWarning(error, suppressedWarnings);
+        reject(response, index, dealRequest, RejectedDeal.Reason.DUPLICATE, error, List.of());
+    }
+
+    private void recordUnexpected(BulkDealResponse response, int index, DealRequest dealRequest, Exception e,
+                                  AtomicLong suppressedWarnings) {
+        String dealId = dealRequest.getDealUniqueId();
+        String error = String.format("Deal[%d] (%s): Unexpected error - %s", index, dealId, e.getMessage());
+        response.getErrors().add(error);
+        response.setFailed(response.getFailed() + 1);
+        if (warningLogLimiter.tryAcquire(suppressedWarnings)) {
+            logger.error("Unexpected error importing deal[{}] {}: {}", index, dealId, e.getMessage(), e);
+        }
+        reject(response, index, dealRequest, RejectedDeal.Reason.FAILED, error, List.of());
+    }
+
+    /**
+     * Queue a deal that was not imported for the rejected deal store (never blocks)
+     */
+    private void reject(BulkDealResponse response, int index, DealRequest dealRequest, RejectedDeal.Reason reason,
+                        String error, List<ValidationRuleSet.Rule> failedRules) {
+        rejections.record(response.getBatchId(), index, dealRequest, reason, error, failedRules);
+    }
+
+    private String suspectMessage(String original) {
+        return String.format("Suspected resend of deal %s (same currency pair and amount, timestamp within %s)%s",
+            original, nearDuplicates.getTimestampTolerance(), nearDuplicates.rejectsSuspects() ? ", not imported" : "");
+    }
+
+    /**
+     * Log a per-deal warning of a bulk import, subject to the per-second rate limit
+     *
+     * @param suppressedWarnings counts the import's warnings the limit suppressed
+     */
+    private void logWarning(String message, AtomicLong suppressedWarnings) {
+        if (warningLogLimiter.tryAcquire(suppressedWarnings)) {
+            logger.warn(message);
+        }
+    }
+
     /**
      * Get all deals
      * 
      * @return list of all deals
      */
+    @Transactional(readOnly = true)
     public List<DealResponse> getAllDeals() {
         logger.debug("Retrieving all deals");
         return dealRepository.findAll().stream()
@@ -166,19 +540,65 @@ public class FxDealService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Get all deals, including the archived ones
+     *
+     * @return deals in fx_deals followed by archived deals
+     */
+    @Transactional(readOnly = true)
+    public List<DealResponse> getAllDealsIncludingArchive() {
+        logger.debug("Retrieving all deals including the archive");
+        return archiveRepository.withStableArchive(() -> {
+            List<DealResponse> deals = new ArrayList<>(getAllDeals());
+            archiveRepository.forEach(deal -> deals.add(convertToResponse(deal)));
+            return deals;
+        });
+    }
+
     /**
      * Get a deal by unique ID
      * 
      * @param dealUniqueId the unique deal identifier
-     * @return DealResponse if found
+     * @return DealResponse if found in fx_deals or the archive
      */
+    @Transactional(readOnly = true)
     public DealResponse getDealByUniqueId(String dealUniqueId) {
         logger.debug("Retrieving deal with unique ID: {}", dealUniqueId);
         return dealRepository.findByDealUniqueId(dealUniqueId)
+            .or(() -> archiveRepository.findByDealUniqueId(dealUniqueId))
             .map(this::convertToResponse)
             .orElse(null);
     }
 
+    /**
+     * Get the id up to which every committed deal has been published
+     *
+     * Deals with a higher id are still to be delivered as a DealsImportedEvent,
+     * even if some of them are committed already.
+     *
+     * @return the published watermark
+     */
+    @Transactional(readOnly = true)
+    public long getPublishedThrough() {
+        Long maxId = dealRepository.findMaxId();
+        return idAllocator.completedThrough(maxId != null ? maxId : 0);
+    }
+
+    /**
+     * Get deals stored after the given id, in id order
+     *
+     * @param id exclusive lower bound on the surrogate id
+     * @param maxId inclusive upper bound, such as getPublishedThrough()
+     * @param limit maximum number of deals
+     * @return the next deals
+     */
+    @Transactional(readOnly = true)
+    public List<DealResponse> getDealsAfter(long id, long maxId, int limit) {
+        return dealRepository.findDealsAfter(id, maxId, PageRequest.of(0, limit)).stream()
+            .map(this::convertToResponse)
+            .collect(Collectors.toList());
+    }
+
     /**
      * Convert DealRequest to FxDeal entity
      */
@@ -206,5 +626,149 @@ public class FxDealService {
             .createdAt(deal.getCreatedAt())
             .build();
     }
-}
 
+    /**
+     * Buffers prepared deals into chunks and writes them
+     *
+     * With one partition each full chunk is written on the calling thread and
+     * recorded at once. With more, deals are partitioned by hash of dealUniqueId and
+     * each partition's chunks are chained on the writer pool, so a partition is
+     * written by one writer at a time; at most MAX_QUEUED_CHUNKS chunks per partition
+     * are held in memory before the caller waits for the oldest.
+     */
+    private final class ChunkWriter {
+
+        private static final int MAX_QUEUED_CHUNKS = 2;
+
+        private final BulkDealResponse response;
+        private final AtomicLong suppressedWarnings;
+        private final NearDuplicateDetector.Batch nearDuplicateBatch;
+        private final int partitions;
+        private final List<List<PendingDeal>> buffers;
+        private final List<Deque<QueuedChunk>> queued;
+        private final List<WriteOutcome> outcomes = new ArrayList<>();
+
+        ChunkWriter(BulkDealResponse response, AtomicLong suppressedWarnings,
+                    NearDuplicateDetector.Batch nearDuplicateBatch, int partitions) {
+            this.response = response;
+            this.suppressedWarnings = suppressedWarnings;
+            this.nearDuplicateBatch = nearDuplicateBatch;
+            this.partitions = partitions;
+            this.buffers = new ArrayList<>(partitions);
+            this.queued = new ArrayList<>(partitions);
+            for (int p = 0; p < partitions; p++) {
+                buffers.add(new ArrayList<>());
+                queued.add(new ArrayDeque<>());
+            }
+        }
+
+        void add(PendingDeal deal) {
+            int partition = partitions == 1 ? 0 : Math.floorMod(deal.entity().getDealUniqueId().hashCode(), partitions);
+            List<PendingDeal> buffer = buffers.get(partition);
+            buffer.add(deal);
+            AdaptiveBatchSizer.Sizes sizes = batchSizer.current();
+            if (buffer.size() >= sizes.chunkSize()) {
+                flush(partition, sizes);
+            }
+        }
+
+        /**
+         * Write every buffered deal and wait for the chunks in flight, so the outcome of
+         * each deal added so far is known to the near-duplicate batch
+         */
+        void drain() {
+            for (int p = 0; p < partitions; p++) {
+                flush(p, batchSizer.current());
+            }
+            for (Deque<QueuedChunk> partitionQueue : queued) {
+                while (!partitionQueue.isEmpty()) {
+                    collect(partitionQueue.removeFirst());
+                }
+            }
+        }
+
+        /**
+         * Write the remaining deals and record every outcome in request order
+         */
+        void finish() {
+            drain();
+            if (partitions == 1) {
+                return;
+            }
+            outcomes.sort(Comparator.comparingInt(outcome -> outcome.deal().index()));
+            for (WriteOutcome outcome : outcomes) {
+                record(outcome, response, suppressedWarnings);
+            }
+        }
+
+        /**
+         * @param sizes the sizes the chunk was cut with, carried with it to writeChunk
+         */
+        private void flush(int partition, AdaptiveBatchSizer.Sizes sizes) {
+            List<PendingDeal> chunk = buffers.get(partition);
+            if (chunk.isEmpty()) {
+                return;
+            }
+            buffers.set(partition, new ArrayList<>());
+            if (partitions == 1) {
+                for (WriteOutcome outcome : writeChunk(chunk, sizes)) {
+                    nearDuplicateBatch.settled(outcome.deal().entity(), outcome.imported() != null);
+                    record(outcome, response, suppressedWarnings);
+                }
+                return;
+            }
+
+            Deque<QueuedChunk> partitionQueue = queued.get(partition);
+            if (partitionQueue.size() >= MAX_QUEUED_CHUNKS) {
+                collect(partitionQueue.removeFirst());
+            }
+            QueuedChunk previous = partitionQueue.peekLast();
+            CompletableFuture<List<WriteOutcome>> written = previous == null
+                ? CompletableFuture.supplyAsync(() -> writeChunk(chunk, sizes), writerPool.getExecutor())
+                : previous.written().handleAsync((ignored, e) -> writeChunk(chunk, sizes), writerPool.getExecutor());
+            partitionQueue.addLast(new QueuedChunk(chunk, written));
+        }
+
+        private void collect(QueuedChunk queuedChunk) {
+            List<WriteOutcome> written;
+            try {
+                written = queuedChunk.written().join();
+            } catch (CompletionException | CancellationException e) {
+                Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                written = failed(queuedChunk.chunk(), cause);
+            }
+            for (WriteOutcome outcome : written) {
+                nearDuplicateBatch.settled(outcome.deal().entity(), outcome.imported() != null);
+            }
+            outcomes.addAll(written);
+        }
+    }
+
+    /**
+     * A validation failure with the rules that failed, captured with the messages
+     */
+    private static final class InvalidDealException extends IllegalArgumentException {
+
+        private final transient List<ValidationRuleSet.Rule> failedRules;
+
+        InvalidDealException(String message, List<ValidationRuleSet.Rule> failedRules) {
+            super(message);
+            this.failedRules = failedRules;
+        }
+    }
+
+    private record QueuedChunk(List<PendingDeal> chunk, CompletableFuture<List<WriteOutcome>> written) {
+    }
+
+    /**
+     * Outcome of writing one deal: imported (with its response), a duplicate, or failed
+     */
+    private record WriteOutcome(PendingDeal deal, DealResponse imported, Exception failure) {
+    }
+
+    /**
+     * A validated deal waiting for the next batch write, with its position in the request
+     */
+    private record PendingDeal(int index, DealRequest request, FxDeal entity) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.IdempotencyProperties;
+import com.bloomberg.fxdeals.dto.BulkDealResponse;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.exception.IdempotencyKeyConflictException;
+import com.bloomberg.fxdeals.util.Fingerprints;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for the import endpoints
+ *
+ * The first request with a key runs normally; its outcome is remembered together
+ * with a 64-bit fingerprint of the payload. A retry with the same key and payload
+ * gets the remembered response back, marked with an Idempotent-Replayed header,
+ * without validating or touching the database again.
+ *
+ * The store is in memory, bounded (least recently used keys are evicted first) and
+ * entries expire after a TTL. Bulk results are kept as a summary: counts and errors,
+ * without the importedDeals list. Server errors (5xx) are not remembered, so the
+ * request can be retried.
+ */
+@Service
+public class IdempotencyService implements MeterBinder {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Entry> entries;
+    private final LongAdder replays = new LongAdder();
+
+    @Autowired
+    public IdempotencyService(IdempotencyProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    IdempotencyService(IdempotencyProperties properties, LongSupplier nanoClock) {
+        this.enabled = properties.isEnabled();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.nanoClock = nanoClock;
+        int maxEntries = properties.getMaxEntries();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Run an import once per idempotency key
+     *
+     * @param scope endpoint the key belongs to (keys are not shared between endpoints)
+     * @param key value of the Idempotency-Key header, or null to run without idempotency
+     * @param fingerprint fingerprint of the request payload
+     * @param action the import, producing the response for every outcome it handles
+     * @return the response of the action, or the remembered response for a replayed key
+     * @throws IdempotencyKeyConflictException if the key is in use by a running request
+     *         or was used for a different payload
+     * @throws IllegalArgumentException if the key is blank or too long
+     */
+    public ResponseEntity<?> execute(String scope, String key, long fingerprint, Supplier<ResponseEntity<?>> action) {
+        if (!enabled || key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String storeKey = scope + ':' + key;
+        StoredResponse stored = begin(storeKey, fingerprint);
+        if (stored != null) {
+            replays.increment();
+            logger.debug("Replaying result for {} {}", IDEMPOTENCY_KEY_HEADER, key);
+            return ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body());
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            forget(storeKey);
+            throw e;
+        }
+
+        if (response.getStatusCode().is5xxServerError()) {
+            forget(storeKey);
+        } else {
+            complete(storeKey, new StoredResponse(response.getStatusCode(), summarize(response.getBody())));
+        }
+        return response;
+    }
+
+    /**
+     * @return the stored response to replay, or null if the caller should run the request
+     */
+    private StoredResponse begin(String storeKey, long fingerprint) {
+        synchronized (entries) {
+            long now = nanoClock.getAsLong();
+            Entry entry = entries.get(storeKey);
+            if (entry != null && now - entry.expiresAt > 0) {
+                entries.remove(storeKey);
+                entry = null;
+            }
+
+            if (entry == null) {
+                entries.put(storeKey, new Entry(fingerprint, now + ttlNanos));
+                return null;
+            }
+            if (entry.fingerprint != fingerprint) {
+                throw new IdempotencyKeyConflictException(
+                    IDEMPOTENCY_KEY_HEADER + " was already used for a different request",
+                    IdempotencyKeyConflictException.Reason.PAYLOAD_MISMATCH);
+            }
+            if (entry.response == null) {
+                throw new IdempotencyKeyConflictException(
+                    "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed",
+                    IdempotencyKeyConflictException.Reason.IN_PROGRESS);
+            }
+            return entry.response;
+        }
+    }
+
+    private void complete(String storeKey, StoredResponse response) {
+        synchronized (entries) {
+            Entry entry = entries.get(storeKey);
+            if (entry != null) {
+                entry.response = response;
+                entry.expiresAt = nanoClock.getAsLong() + ttlNanos;
+            }
+        }
+    }
+
+    private void forget(String storeKey) {
+        synchronized (entries) {
+            entries.remove(storeKey);
+        }
+    }
+
+    /**
+     * Keep bulk results compact: the counts and errors, not every imported deal
+     */
+    private static Object summarize(Object body) {
+        if (body instanceof BulkDealResponse bulk) {
+            return BulkDealResponse.builder()
+                .batchId(bulk.getBatchId())
+                .totalReceived(bulk.getTotalReceived())
+                .successfullyImported(bulk.getSuccessfullyImported())
+                .skippedDuplicates(bulk.getSkippedDuplicates())
+                .failed(bulk.getFailed())
+                .suspectedDuplicates(bulk.getSuspectedDuplicates())
+                .errors(List.copyOf(bulk.getErrors()))
+                .suspectedDuplicateDeals(List.copyOf(bulk.getSuspectedDuplicateDeals()))
+                .importedDeals(List.of())
+                .build();
+        }
+        return body;
+    }
+
+    /**
+     * @return number of keys currently remembered (including running requests)
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getReplayCount() {
+        return replays.sum();
+    }
+
+    /**
+     * Fingerprint of a single deal payload
+     */
+    public static long fingerprint(DealRequest deal) {
+        if (deal == null) {
+            return 0;
+        }
+        long hash = fingerprintOf(deal.getDealUniqueId());
+        hash = Fingerprints.mix(hash ^ fingerprintOf(deal.getFromCurrencyIsoCode()));
+        hash = Fingerprints.mix(hash ^ fingerprintOf(deal.getToCurrencyIsoCode()));
+        LocalDateTime timestamp = deal.getDealTimestamp();
+        if (timestamp != null) {
+            hash = Fingerprints.mix(hash ^ timestamp.toEpochSecond(ZoneOffset.UTC));
+            hash = Fingerprints.mix(hash ^ timestamp.getNano());
+        }
+        if (deal.getDealAmount() != null) {
+            hash = Fingerprints.mix(hash ^ deal.getDealAmount().unscaledValue());
+        }
+        return hash;
+    }
+
+    /**
+     * Order-sensitive fingerprint of a list of deal payloads
+     */
+    public static long fingerprint(List<DealRequest> deals) {
+        long hash = deals.size();
+        for (DealRequest deal : deals) {
+            hash = Fingerprints.mix(hash * 31 + fingerprint(deal));
+        }
+        return hash;
+    }
+
+    private static long fingerprintOf(String value) {
+        return value == null ? 0 : Fingerprints.of(value);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fxdeals.idempotency.entries", this, IdempotencyService::size)
+            .description("Idempotency keys currently remembered")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.idempotency.replays", this, IdempotencyService::getReplayCount)
+            .description("Import requests answered from a remembered result")
+            .register(registry);
+    }
+
+    private static final class Entry {
+        private final long fingerprint;
+        private long expiresAt;
+        private StoredResponse response;
+
+        private Entry(long fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private record StoredResponse(HttpStatusCode status, Object body) {
+    }
+}
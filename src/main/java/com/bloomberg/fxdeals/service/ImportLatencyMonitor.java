@@ -0,0 +1,59 @@
+package com.bloomberg.fxdeals.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Smoothed per-deal latency of recent bulk imports
+ *
+ * Lets background jobs that compete with imports for the database (such as the
+ * retention purge) back off when they slow imports down.
+ */
+@Component
+public class ImportLatencyMonitor {
+
+    private static final double SMOOTHING = 0.2;
+
+    private final LongSupplier nanoClock;
+
+    private double smoothedNanosPerDeal;
+    private long lastSampleAt;
+    private boolean sampled;
+
+    @Autowired
+    public ImportLatencyMonitor() {
+        this(System::nanoTime);
+    }
+
+    ImportLatencyMonitor(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @param deals deals in the completed bulk import
+     * @param elapsedNanos time the import took
+     */
+    public synchronized void record(int deals, long elapsedNanos) {
+        if (deals <= 0) {
+            return;
+        }
+        double perDeal = (double) elapsedNanos / deals;
+        smoothedNanosPerDeal = sampled ? smoothedNanosPerDeal * (1 - SMOOTHING) + perDeal * SMOOTHING : perDeal;
+        lastSampleAt = nanoClock.getAsLong();
+        sampled = true;
+    }
+
+    /**
+     * @param maxAge how old the latest sample may be
+     * @return smoothed per-deal latency, or 0 if no bulk import completed within maxAge
+     */
+    public synchronized long recentNanosPerDeal(Duration maxAge) {
+        if (!sampled || nanoClock.getAsLong() - lastSampleAt > maxAge.toNanos()) {
+            return 0;
+        }
+        return (long) smoothedNanosPerDeal;
+    }
+}
@@ -0,0 +1,104 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.ImportProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writer threads shared by large bulk imports
+ *
+ * Each writer holds at most one connection while it commits a chunk. The number of
+ * writers is fxdeals.import.writers, capped at fxdeals.import.max-pool-share of the
+ * primary Hikari pool, and the threads are shared by all concurrent imports, so
+ * parallel writes never take more than that share of the pool between them.
+ */
+@Component
+public class ImportWriterPool implements DisposableBean, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportWriterPool.class);
+
+    private final int workers;
+    private final int parallelThreshold;
+    private final ExecutorService executor;
+    private final AtomicInteger busy = new AtomicInteger();
+
+    @Autowired
+    public ImportWriterPool(ImportProperties properties,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        int poolShare = Math.max(1, (int) (poolSize * properties.getMaxPoolShare()));
+        this.workers = Math.max(1, Math.min(properties.getWriters(), poolShare));
+        this.parallelThreshold = Math.max(1, properties.getParallelThreshold());
+        this.executor = workers > 1 ? Executors.newFixedThreadPool(workers, writerThreadFactory()) : null;
+        logger.info("Bulk imports of {} deals or more are written by {} parallel writers (pool size {})",
+            parallelThreshold, workers, poolSize);
+    }
+
+    /**
+     * @param deals deals in the import
+     * @return whether the import is large enough to be split across the writers
+     */
+    public boolean shouldPartition(int deals) {
+        return executor != null && deals >= parallelThreshold;
+    }
+
+    /**
+     * @return number of partitions (and writer threads) a large import is split into
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * @return executor for chunk writes; tracks how many writers are busy
+     */
+    public Executor getExecutor() {
+        return task -> executor.execute(() -> {
+            busy.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                busy.decrementAndGet();
+            }
+        });
+    }
+
+    public int getBusyWriters() {
+        return busy.get();
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fxdeals.import.writers.busy", this, ImportWriterPool::getBusyWriters)
+            .description("Parallel bulk import writers currently committing a chunk")
+            .register(registry);
+    }
+
+    private static ThreadFactory writerThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "deal-writer-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,272 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.NearDuplicateProperties;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.util.CurrencyCodes;
+import com.bloomberg.fxdeals.util.Fingerprints;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Detects deals resent under a new unique ID
+ *
+ * Recently imported deals are indexed by a 64-bit hash of (currency pair, amount,
+ * deal timestamp rounded down to the tolerance). A candidate is looked up in its own
+ * and both neighbouring timestamp buckets, and matches when the timestamps are at
+ * most the tolerance apart, so a check is three hash lookups whatever the volume.
+ *
+ * The index is fed with committed deals (DealsImportedEvent), keeps them for the
+ * configured window and never holds more than maxEntries; it starts empty on each
+ * boot. Deals in the same request are checked against each other through a
+ * {@link Batch}, where only a deal that was written counts as an original.
+ * Exact duplicates by unique ID are handled elsewhere.
+ */
+@Component
+public class NearDuplicateDetector implements MeterBinder {
+
+    private final NearDuplicateProperties properties;
+    private final LongSupplier nanoClock;
+    private final long toleranceMillis;
+    private final long windowNanos;
+
+    private final LinkedHashMap<Long, Indexed> index = new LinkedHashMap<>();
+    private final LongAdder suspects = new LongAdder();
+
+    @Autowired
+    public NearDuplicateDetector(NearDuplicateProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    NearDuplicateDetector(NearDuplicateProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.toleranceMillis = Math.max(1, properties.getTimestampTolerance().toMillis());
+        this.windowNanos = properties.getWindow().toNanos();
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() != NearDuplicateProperties.Mode.OFF;
+    }
+
+    /**
+     * @return true if suspects are rejected rather than imported
+     */
+    public boolean rejectsSuspects() {
+        return properties.getMode() == NearDuplicateProperties.Mode.REJECT;
+    }
+
+    public Duration getTimestampTolerance() {
+        return properties.getTimestampTolerance();
+    }
+
+    /**
+     * Start checking the deals of one request against each other and the index
+     */
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    /**
+     * Index committed deals
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDealsImported(DealsImportedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (index) {
+            long now = nanoClock.getAsLong();
+            for (DealResponse deal : event.deals()) {
+                long millis = epochMillis(deal.getDealTimestamp());
+                long key = key(deal.getFromCurrencyIsoCode(), deal.getToCurrencyIsoCode(), deal.getDealAmount(),
+                    Math.floorDiv(millis, toleranceMillis));
+                // Re-insert so the entry moves to the young end of the eviction order
+                index.remove(key);
+                index.put(key, new Indexed(deal.getDealUniqueId(), millis, now));
+            }
+            evict(now);
+        }
+    }
+
+    /**
+     * @return number of deals currently indexed
+     */
+    public int size() {
+        synchronized (index) {
+            return index.size();
+        }
+    }
+
+    public long getSuspectCount() {
+        return suspects.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fxdeals.near.duplicates.index.size", this, NearDuplicateDetector::size)
+            .description("Recently imported deals indexed for near-duplicate detection")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.near.duplicates.suspected", suspects, LongAdder::sum)
+            .description("Deals flagged or rejected as probable resends under a new unique ID")
+            .register(registry);
+    }
+
+    private String findIndexed(long[] keys, long millis, String dealUniqueId) {
+        synchronized (index) {
+            long now = nanoClock.getAsLong();
+            for (long key : keys) {
+                Indexed match = index.get(key);
+                if (match != null && now - match.indexedAt <= windowNanos
+                        && Math.abs(match.timestampMillis - millis) <= toleranceMillis
+                        && !match.dealUniqueId.equals(dealUniqueId)) {
+                    return match.dealUniqueId;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void evict(long now) {
+        Iterator<Indexed> oldest = index.values().iterator();
+        while (oldest.hasNext()) {
+            Indexed entry = oldest.next();
+            if (index.size() <= properties.getMaxEntries() && now - entry.indexedAt <= windowNanos) {
+                break;
+            }
+            oldest.remove();
+        }
+    }
+
+    private long[] candidateKeys(FxDeal deal, long millis) {
+        long bucket = Math.floorDiv(millis, toleranceMillis);
+        String from = deal.getFromCurrencyIsoCode();
+        String to = deal.getToCurrencyIsoCode();
+        FixedPointAmount amount = deal.getDealAmount();
+        return new long[] {key(from, to, amount, bucket), key(from, to, amount, bucket - 1),
+            key(from, to, amount, bucket + 1)};
+    }
+
+    private static long key(String from, String to, FixedPointAmount amount, long bucket) {
+        long pair = (long) CurrencyCodes.indexOf(from) * CurrencyCodes.SIZE + CurrencyCodes.indexOf(to);
+        long hash = Fingerprints.mix(pair);
+        hash = Fingerprints.mix(hash ^ amount.unscaledValue());
+        return Fingerprints.mix(hash ^ bucket);
+    }
+
+    private static long epochMillis(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1000 + timestamp.getNano() / 1_000_000;
+    }
+
+    /**
+     * Near-duplicate checks for the deals of one request
+     *
+     * A deal that passes the check is {@link #queued} until its write settles; only
+     * then, and only if it was stored, can later deals of the request match it. A
+     * caller that finds a deal {@link #resemblesUnwritten resembling} a queued one
+     * should settle the queued writes before checking it.
+     *
+     * Not thread-safe; use one batch per request.
+     */
+    public final class Batch {
+
+        private final Map<Long, Indexed> written = new HashMap<>();
+        private final Map<Long, Indexed> unwritten = new HashMap<>();
+
+        private Batch() {
+        }
+
+        /**
+         * Check a validated deal against the index and the deals of the request written so far
+         *
+         * @param deal entity prepared for import (normalized currency codes)
+         * @return the unique ID of the deal it resembles, or null if none
+         */
+        public String check(FxDeal deal) {
+            if (!isEnabled()) {
+                return null;
+            }
+            long millis = epochMillis(deal.getDealTimestamp());
+            long[] keys = candidateKeys(deal, millis);
+
+            String match = findIndexed(keys, millis, deal.getDealUniqueId());
+            if (match == null) {
+                match = find(written, keys, millis);
+            }
+            if (match != null) {
+                suspects.increment();
+            }
+            return match;
+        }
+
+        /**
+         * @return true if a deal of the request still waiting to be written may match this one
+         */
+        public boolean resemblesUnwritten(FxDeal deal) {
+            if (!isEnabled() || unwritten.isEmpty()) {
+                return false;
+            }
+            long millis = epochMillis(deal.getDealTimestamp());
+            return find(unwritten, candidateKeys(deal, millis), millis) != null;
+        }
+
+        /**
+         * Remember a deal that passed the check and is about to be written
+         */
+        public void queued(FxDeal deal) {
+            if (isEnabled()) {
+                long millis = epochMillis(deal.getDealTimestamp());
+                unwritten.put(candidateKeys(deal, millis)[0], new Indexed(deal.getDealUniqueId(), millis, 0));
+            }
+        }
+
+        /**
+         * Record the outcome of a queued deal's write
+         *
+         * @param stored true if the deal was stored, false if it was a duplicate or failed
+         */
+        public void settled(FxDeal deal, boolean stored) {
+            if (unwritten.isEmpty()) {
+                return;
+            }
+            long millis = epochMillis(deal.getDealTimestamp());
+            long key = candidateKeys(deal, millis)[0];
+            Indexed queued = unwritten.get(key);
+            if (queued != null && queued.dealUniqueId.equals(deal.getDealUniqueId())) {
+                unwritten.remove(key);
+                if (stored) {
+                    written.put(key, queued);
+                }
+            }
+        }
+
+        private String find(Map<Long, Indexed> deals, long[] keys, long millis) {
+            for (long key : keys) {
+                Indexed earlier = deals.get(key);
+                if (earlier != null && Math.abs(earlier.timestampMillis - millis) <= toleranceMillis) {
+                    return earlier.dealUniqueId;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Indexed(String dealUniqueId, long timestampMillis, long indexedAt) {
+    }
+}
@@ -0,0 +1,316 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.PositionProperties;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.dto.PositionResponse;
+import com.bloomberg.fxdeals.exception.ServiceUnavailableException;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.DealIdAllocator;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.bloomberg.fxdeals.util.CurrencyCodes;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running net position per currency over all imported deals
+ *
+ * For every deal the amount counts as sold in the from currency and bought in the
+ * to currency (deal amounts are notionals; no exchange rate is applied). Counters are
+ * LongAdders in a table indexed by CurrencyCodes, so concurrent imports update them
+ * without locking and a read walks a fixed-size array instead of summing fx_deals.
+ * Amounts are accumulated as whole units and 10^-4 fractions in separate adders, which
+ * keeps the totals exact without overflowing a long.
+ *
+ * On startup the table is rebuilt with one streaming pass over the deal archive and
+ * fx_deals, with archival paused so no deal is counted twice or missed. The pass
+ * stops at DealIdAllocator.completedThrough, below which every deal has been both
+ * committed and published; deals published meanwhile are queued and applied
+ * afterwards if their id is above it, whatever order they committed in. Until then
+ * reads fail with ServiceUnavailableException. Deals deleted by the
+ * retention purge are subtracted again. A read sums each
+ * counter separately, so it may see part of an import that is being applied.
+ */
+@Component
+public class PositionEngine implements ApplicationRunner, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionEngine.class);
+
+    private final FxDealRepository dealRepository;
+    private final DealArchiveRepository archiveRepository;
+    private final DealIdAllocator idAllocator;
+    private final PositionProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicReferenceArray<CurrencyPosition> positions = new AtomicReferenceArray<>(CurrencyCodes.SIZE);
+    private final Object rebuildLock = new Object();
+
+    private volatile boolean ready;
+    private List<DealResponse> pendingDuringRebuild = new ArrayList<>();
+    private List<DealResponse> purgedDuringRebuild = new ArrayList<>();
+
+    public PositionEngine(FxDealRepository dealRepository, DealArchiveRepository archiveRepository,
+                          DealIdAllocator idAllocator, PositionProperties properties,
+                          PlatformTransactionManager transactionManager) {
+        this.dealRepository = dealRepository;
+        this.archiveRepository = archiveRepository;
+        this.idAllocator = idAllocator;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Rebuild all positions from the archive and fx_deals
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            logger.info("Position engine disabled");
+            return;
+        }
+
+        long start = System.nanoTime();
+        long[] scanned = new long[1];
+        try {
+            long coveredId = archiveRepository.withStableArchive(() -> {
+                // Purges announce their deals before releasing the archive, so the ones
+                // queued so far were never part of this scan
+                synchronized (rebuildLock) {
+                    purgedDuringRebuild.clear();
+                }
+                archiveRepository.forEach(deal -> {
+                    apply(deal.getFromCurrencyIsoCode(), deal.getToCurrencyIsoCode(),
+                        deal.getDealAmount().unscaledValue());
+                    scanned[0]++;
+                });
+                return readOnlyTransaction.execute(status -> {
+                    // Deals above the bound may have committed, but their events are still to come
+                    Long maxId = dealRepository.findMaxId();
+                    long bound = idAllocator.completedThrough(maxId != null ? maxId : 0);
+                    dealRepository.scanDealAmounts(bound, properties.getRebuildFetchSize(),
+                        (id, from, to, amount) -> {
+                            apply(from, to, amount);
+                            scanned[0]++;
+                        });
+                    return bound;
+                });
+            });
+
+            int queued;
+            synchronized (rebuildLock) {
+                queued = pendingDuringRebuild.size();
+                for (DealResponse deal : pendingDuringRebuild) {
+                    if (deal.getId() != null && deal.getId() > coveredId) {
+                        apply(deal);
+                    }
+                }
+                // Purges queued since wait for the scan to finish, so every one of these was counted
+                for (DealResponse deal : purgedDuringRebuild) {
+                    remove(deal);
+                }
+                pendingDuringRebuild = null;
+                purgedDuringRebuild = null;
+                ready = true;
+            }
+            logger.info("Positions rebuilt in {} ms from {} deals ({} imported during the rebuild)",
+                (System.nanoTime() - start) / 1_000_000, scanned[0], queued);
+        } catch (RuntimeException e) {
+            logger.error("Position rebuild failed, positions are unavailable: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Add committed deals to the positions
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDealsImported(DealsImportedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!ready) {
+            synchronized (rebuildLock) {
+                if (!ready) {
+                    if (pendingDuringRebuild != null) {
+                        pendingDuringRebuild.addAll(event.deals());
+                    }
+                    return;
+                }
+            }
+        }
+        for (DealResponse deal : event.deals()) {
+            apply(deal);
+        }
+    }
+
+    /**
+     * Subtract deals deleted by the retention purge
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDealsPurged(DealsPurgedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!ready) {
+            synchronized (rebuildLock) {
+                if (!ready) {
+                    if (purgedDuringRebuild != null) {
+                        purgedDuringRebuild.addAll(event.deals());
+                    }
+                    return;
+                }
+            }
+        }
+        for (DealResponse deal : event.deals()) {
+            remove(deal);
+        }
+    }
+
+    /**
+     * @return positions of every currency that appears in a deal, ordered by currency code
+     * @throws ServiceUnavailableException while positions are being rebuilt
+     */
+    public List<PositionResponse> getPositions() {
+        checkReady();
+        List<PositionResponse> result = new ArrayList<>();
+        for (int i = 0; i < CurrencyCodes.SIZE; i++) {
+            CurrencyPosition position = positions.get(i);
+            if (position != null) {
+                result.add(position.toResponse(CurrencyCodes.codeOf(i)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param currency ISO currency code
+     * @return the currency's position, or null if no deal involves it
+     * @throws ServiceUnavailableException while positions are being rebuilt
+     */
+    public PositionResponse getPosition(String currency) {
+        checkReady();
+        int index = CurrencyCodes.indexOf(currency);
+        CurrencyPosition position = index >= 0 ? positions.get(index) : null;
+        return position != null ? position.toResponse(CurrencyCodes.codeOf(index)) : null;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void checkReady() {
+        if (!ready) {
+            throw new ServiceUnavailableException(properties.isEnabled()
+                ? "Positions are being rebuilt"
+                : "Position engine is disabled", 5);
+        }
+    }
+
+    private void apply(DealResponse deal) {
+        apply(deal.getFromCurrencyIsoCode(), deal.getToCurrencyIsoCode(), deal.getDealAmount().unscaledValue());
+    }
+
+    private void remove(DealResponse deal) {
+        apply(deal.getFromCurrencyIsoCode(), deal.getToCurrencyIsoCode(), deal.getDealAmount().unscaledValue(), -1);
+    }
+
+    private void apply(String from, String to, long unscaledAmount) {
+        apply(from, to, unscaledAmount, 1);
+    }
+
+    /**
+     * @param sign 1 to add the deal, -1 to take it out again
+     */
+    private void apply(String from, String to, long unscaledAmount, int sign) {
+        int fromIndex = CurrencyCodes.indexOf(from);
+        int toIndex = CurrencyCodes.indexOf(to);
+        if (fromIndex < 0 || toIndex < 0) {
+            logger.warn("Ignoring deal with unexpected currency codes {}/{} in positions", from, to);
+            return;
+        }
+        long units = Math.floorDiv(unscaledAmount, FixedPointAmount.ONE);
+        long fraction = Math.floorMod(unscaledAmount, FixedPointAmount.ONE);
+        positionOf(fromIndex).sold(sign * units, sign * fraction, sign);
+        positionOf(toIndex).bought(sign * units, sign * fraction, sign);
+    }
+
+    private CurrencyPosition positionOf(int index) {
+        CurrencyPosition position = positions.get(index);
+        if (position == null) {
+            positions.compareAndSet(index, null, new CurrencyPosition());
+            position = positions.get(index);
+        }
+        return position;
+    }
+
+    private int currencyCount() {
+        int count = 0;
+        for (int i = 0; i < CurrencyCodes.SIZE; i++) {
+            if (positions.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fxdeals.positions.currencies", this, PositionEngine::currencyCount)
+            .description("Currencies with a net position")
+            .register(registry);
+    }
+
+    /**
+     * Striped counters for one currency
+     */
+    private static final class CurrencyPosition {
+        private final LongAdder boughtUnits = new LongAdder();
+        private final LongAdder boughtFraction = new LongAdder();
+        private final LongAdder soldUnits = new LongAdder();
+        private final LongAdder soldFraction = new LongAdder();
+        private final LongAdder deals = new LongAdder();
+
+        private void bought(long units, long fraction, int dealDelta) {
+            boughtUnits.add(units);
+            boughtFraction.add(fraction);
+            deals.add(dealDelta);
+        }
+
+        private void sold(long units, long fraction, int dealDelta) {
+            soldUnits.add(units);
+            soldFraction.add(fraction);
+            deals.add(dealDelta);
+        }
+
+        private PositionResponse toResponse(String currency) {
+            BigDecimal bought = total(boughtUnits, boughtFraction);
+            BigDecimal sold = total(soldUnits, soldFraction);
+            return PositionResponse.builder()
+                .currency(currency)
+                .bought(bought)
+                .sold(sold)
+                .net(bought.subtract(sold))
+                .dealCount(deals.sum())
+                .build();
+        }
+
+        private static BigDecimal total(LongAdder units, LongAdder fraction) {
+            return BigDecimal.valueOf(units.sum()).add(BigDecimal.valueOf(fraction.sum(), FixedPointAmount.SCALE));
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.RejectionProperties;
+import com.bloomberg.fxdeals.config.TransactionConfig;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.dto.RejectedDealResponse;
+import com.bloomberg.fxdeals.model.RejectedDeal;
+import com.bloomberg.fxdeals.repository.RejectedDealRepository;
+import com.bloomberg.fxdeals.util.LogRateLimiter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records deals a bulk import did not persist in rejected_deals
+ *
+ * The import thread only offers a small record to a bounded queue and never waits:
+ * when the queue is full the rejection is dropped and counted. A single writer
+ * thread drains the queue and inserts whatever has accumulated, up to
+ * fxdeals.rejections.batch-size rows, in one JDBC batch and transaction, so batches
+ * grow with the rejection rate. The failed rules of an invalid deal are queued as
+ * captured by its validation; payload serialization is left to the writer thread.
+ * A batch that cannot be written is dropped and counted; the import is never
+ * affected.
+ */
+@Component
+public class RejectedDealRecorder implements DisposableBean, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RejectedDealRecorder.class);
+
+    /** How often an idle writer checks for shutdown */
+    private static final long IDLE_POLL_MILLIS = 200;
+
+    private final RejectedDealRepository repository;
+    private final RejectionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Rejection> queue;
+    private final int batchSize;
+    private final LogRateLimiter errorLogLimiter = new LogRateLimiter(1);
+    private final AtomicLong suppressedErrorLogs = new AtomicLong();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder droppedOverflow = new LongAdder();
+    private final LongAdder droppedError = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    @Autowired
+    public RejectedDealRecorder(RejectedDealRepository repository, RejectionProperties properties,
+                                ObjectMapper objectMapper,
+                                @Qualifier(TransactionConfig.BULK_IMPORT_TRANSACTION_MANAGER)
+                                PlatformTransactionManager transactionManager) {
+        this(repository, properties, objectMapper, new TransactionTemplate(transactionManager));
+        if (properties.isEnabled()) {
+            writer = new Thread(this::run, "rejected-deal-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Without a writer thread; queued rejections are written by drain()
+     */
+    RejectedDealRecorder(RejectedDealRepository repository, RejectionProperties properties, ObjectMapper objectMapper,
+                         TransactionTemplate transactionTemplate) {
+        this.repository = repository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.batchSize = Math.max(1, properties.getBatchSize());
+    }
+
+    /**
+     * Queue a rejected deal for the store, without blocking
+     *
+     * @param batchId import the deal belongs to
+     * @param index position of the deal in the import
+     * @param deal the deal as received
+     * @param reason why it was not imported
+     * @param message the error reported to the client
+     * @param failedRules the validation rules an INVALID deal failed (empty otherwise)
+     * @return false if recording is disabled or the queue is full (the rejection is dropped)
+     */
+    public boolean record(String batchId, int index, DealRequest deal, RejectedDeal.Reason reason, String message,
+                          List<ValidationRuleSet.Rule> failedRules) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        if (queue.offer(new Rejection(batchId, index, deal, reason, message, failedRules, LocalDateTime.now()))) {
+            return true;
+        }
+        droppedOverflow.increment();
+        return false;
+    }
+
+    private void run() {
+        List<Rejection> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Rejection first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Write every queued rejection on the calling thread
+     */
+    void drain() {
+        List<Rejection> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Rejection> batch) {
+        try {
+            List<RejectedDeal> rows = new ArrayList<>(batch.size());
+            for (Rejection rejection : batch) {
+                rows.add(toRow(rejection));
+            }
+            transactionTemplate.executeWithoutResult(status -> repository.insertBatch(rows));
+            recorded.add(rows.size());
+        } catch (RuntimeException e) {
+            droppedError.add(batch.size());
+            if (errorLogLimiter.tryAcquire(suppressedErrorLogs)) {
+                logger.warn("Dropped {} rejected deals that could not be stored: {} ({} similar warnings suppressed)",
+                    batch.size(), e.getMessage(), suppressedErrorLogs.getAndSet(0));
+            }
+        }
+    }
+
+    private RejectedDeal toRow(Rejection rejection) {
+        DealRequest deal = rejection.deal();
+        return RejectedDeal.builder()
+            .batchId(rejection.batchId())
+            .dealIndex(rejection.index())
+            .dealUniqueId(deal.getDealUniqueId())
+            .reason(rejection.reason())
+            .errorCodes(codes(rejection.failedRules()))
+            .message(rejection.message())
+            .payload(toJson(deal))
+            .createdAt(rejection.createdAt())
+            .build();
+    }
+
+    private static String codes(List<ValidationRuleSet.Rule> rules) {
+        if (rules == null || rules.isEmpty()) {
+            return null;
+        }
+        StringJoiner codes = new StringJoiner(",");
+        for (ValidationRuleSet.Rule rule : rules) {
+            codes.add(rule.name());
+        }
+        return codes.toString();
+    }
+
+    private String toJson(DealRequest deal) {
+        try {
+            return objectMapper.writeValueAsString(deal);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Query the rejected deal store in id order
+     *
+     * Rejections still queued for the writer are not returned yet.
+     *
+     * @param batchId only this import, or null for all
+     * @param reason only this reason, or null for all
+     * @param afterId exclusive lower bound on the id (0 for the first page)
+     * @param limit maximum number of rejections, capped at fxdeals.rejections.max-page-size
+     * @return the matching rejections
+     * @throws IllegalArgumentException if limit is not positive
+     */
+    public List<RejectedDealResponse> find(String batchId, RejectedDeal.Reason reason, long afterId, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        List<RejectedDeal> rows = repository.find(batchId, reason, afterId,
+            Math.min(limit, Math.max(1, properties.getMaxPageSize())));
+        List<RejectedDealResponse> responses = new ArrayList<>(rows.size());
+        for (RejectedDeal row : rows) {
+            responses.add(RejectedDealResponse.builder()
+                .id(row.getId())
+                .batchId(row.getBatchId())
+                .dealIndex(row.getDealIndex())
+                .dealUniqueId(row.getDealUniqueId())
+                .reason(row.getReason())
+                .errorCodes(row.getErrorCodes() == null ? new ArrayList<>() : List.of(row.getErrorCodes().split(",")))
+                .message(row.getMessage())
+                .payload(row.getPayload())
+                .payloadTruncated(row.isPayloadTruncated())
+                .createdAt(row.getCreatedAt())
+                .build());
+        }
+        return responses;
+    }
+
+    /**
+     * Delete rejections older than fxdeals.rejections.max-age
+     */
+    @Scheduled(cron = "${fxdeals.rejections.purge-cron:0 30 3 * * *}")
+    public void purgeExpired() {
+        Duration maxAge = properties.getMaxAge();
+        if (!properties.isEnabled() || maxAge == null || maxAge.isZero() || maxAge.isNegative()) {
+            return;
+        }
+        try {
+            int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minus(maxAge));
+            purged.add(deleted);
+            logger.info("Deleted {} rejected deals older than {}", deleted, maxAge);
+        } catch (RuntimeException e) {
+            logger.error("Rejected deal purge failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stop the writer once it has written everything queued
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getDropped() {
+        return droppedOverflow.sum() + droppedError.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fxdeals.rejections.recorded", recorded, LongAdder::sum)
+            .description("Rejected deals written to the rejected deal store")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.rejections.dropped", droppedOverflow, LongAdder::sum)
+            .description("Rejected deals not stored")
+            .tag("cause", "overflow")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.rejections.dropped", droppedError, LongAdder::sum)
+            .description("Rejected deals not stored")
+            .tag("cause", "error")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.rejections.purged", purged, LongAdder::sum)
+            .description("Expired rejected deals deleted")
+            .register(registry);
+        Gauge.builder("fxdeals.rejections.queue.size", this, RejectedDealRecorder::getQueueSize)
+            .description("Rejected deals waiting for the writer")
+            .register(registry);
+    }
+
+    private record Rejection(String batchId, int index, DealRequest deal, RejectedDeal.Reason reason,
+                             String message, List<ValidationRuleSet.Rule> failedRules, LocalDateTime createdAt) {
+    }
+}
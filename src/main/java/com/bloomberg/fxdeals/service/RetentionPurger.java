@@ -0,0 +1,249 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.RetentionProperties;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.DealIdAllocator;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes deals older than fxdeals.retention.age
+ *
+ * Archive segments whose newest deal has expired are dropped as whole files, the
+ * equivalent of dropping a partition. Deals still in fx_deals are deleted in keyset
+ * batches (id order), one short transaction per batch, so no statement holds locks
+ * or produces WAL for more than one batch.
+ *
+ * Between batches the purge pauses. It watches the per-deal latency of recent bulk
+ * imports: above fxdeals.retention.import-latency-budget it halves the batch and
+ * doubles the pause (up to max-pause); below it the batch grows back additively
+ * and the pause decays to its base value.
+ *
+ * Each purged batch is published as a DealsPurgedEvent so in-memory aggregates
+ * drop the deals too, inside the same exclusive section as the delete (see
+ * DealArchiveRepository.runExclusive), so a position rebuild sees either both or
+ * neither. Only deals already published as imported are purged (up to
+ * DealIdAllocator.completedThrough), so a purge event never overtakes the import
+ * event of the same deal.
+ */
+@Component
+public class RetentionPurger implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionPurger.class);
+
+    private static final Duration RECENT_IMPORTS = Duration.ofSeconds(30);
+
+    private final FxDealRepository dealRepository;
+    private final DealArchiveRepository archiveRepository;
+    private final DealIdAllocator idAllocator;
+    private final RetentionProperties properties;
+    private final ImportLatencyMonitor latencyMonitor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Pauser pauser;
+
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder backoffs = new LongAdder();
+    private volatile int batchSize;
+    private volatile boolean running;
+
+    @Autowired
+    public RetentionPurger(FxDealRepository dealRepository, DealArchiveRepository archiveRepository,
+                           DealIdAllocator idAllocator, RetentionProperties properties,
+                           ImportLatencyMonitor latencyMonitor, ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager) {
+        this(dealRepository, archiveRepository, idAllocator, properties, latencyMonitor, eventPublisher,
+            transactionManager, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    RetentionPurger(FxDealRepository dealRepository, DealArchiveRepository archiveRepository,
+                    DealIdAllocator idAllocator, RetentionProperties properties, ImportLatencyMonitor latencyMonitor,
+                    ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                    Pauser pauser) {
+        this.dealRepository = dealRepository;
+        this.archiveRepository = archiveRepository;
+        this.idAllocator = idAllocator;
+        this.properties = properties;
+        this.latencyMonitor = latencyMonitor;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pauser = pauser;
+        this.batchSize = maxBatchSize();
+    }
+
+    @Scheduled(cron = "${fxdeals.retention.cron:0 0 3 * * *}")
+    public void scheduledPurge() {
+        if (properties.isEnabled()) {
+            try {
+                purge(LocalDateTime.now().minus(properties.getAge()));
+            } catch (RuntimeException e) {
+                logger.error("Retention purge failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Delete every deal with a deal timestamp before the cutoff
+     *
+     * @param cutoff exclusive upper bound on the deal timestamp
+     * @return number of deals deleted
+     */
+    public synchronized long purge(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        running = true;
+        try {
+            long fromArchive = archiveRepository.dropSegmentsBefore(cutoff, this::purged);
+            deleted.add(fromArchive);
+
+            batchSize = maxBatchSize();
+            long pauseNanos = properties.getPause().toNanos();
+            long fromTable = 0;
+            long lastId = 0;
+            Long maxId = dealRepository.findMaxId();
+            long publishedThrough = idAllocator.completedThrough(maxId != null ? maxId : 0);
+            while (true) {
+                int requested = batchSize;
+                List<FxDeal> page = dealRepository.findDealsBefore(cutoff, lastId, PageRequest.of(0, requested));
+                List<FxDeal> batch = page;
+                while (!batch.isEmpty() && batch.get(batch.size() - 1).getId() > publishedThrough) {
+                    batch = batch.subList(0, batch.size() - 1);
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+                deleteBatch(batch);
+                fromTable += batch.size();
+                if (page.size() < requested || batch.size() < page.size()) {
+                    break;
+                }
+
+                pauseNanos = adapt(pauseNanos);
+                try {
+                    pauser.pause(pauseNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.warn("Retention purge interrupted after {} deals", fromTable);
+                    break;
+                }
+            }
+
+            logger.info("Retention purge before {} deleted {} deals from fx_deals and {} from the archive in {} ms",
+                cutoff, fromTable, fromArchive, (System.nanoTime() - start) / 1_000_000);
+            return fromTable + fromArchive;
+        } finally {
+            running = false;
+        }
+    }
+
+    private void deleteBatch(List<FxDeal> batch) {
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (FxDeal deal : batch) {
+            ids.add(deal.getId());
+        }
+        archiveRepository.runExclusive(() -> {
+            transactionTemplate.executeWithoutResult(status -> dealRepository.deleteByIds(ids));
+            purged(batch);
+        });
+        deleted.add(batch.size());
+        batches.increment();
+    }
+
+    /**
+     * Resize the next batch and pause from the latency of recent imports (AIMD)
+     *
+     * @return the pause before the next batch
+     */
+    private long adapt(long pauseNanos) {
+        long basePause = properties.getPause().toNanos();
+        long latency = latencyMonitor.recentNanosPerDeal(RECENT_IMPORTS);
+        if (latency > properties.getImportLatencyBudget().toNanos()) {
+            backoffs.increment();
+            batchSize = Math.max(minBatchSize(), batchSize / 2);
+            return Math.min(properties.getMaxPause().toNanos(), Math.max(1, pauseNanos) * 2);
+        }
+        batchSize = Math.min(maxBatchSize(), batchSize + minBatchSize());
+        return Math.max(basePause, pauseNanos / 2);
+    }
+
+    private void purged(List<FxDeal> deals) {
+        List<DealResponse> responses = new ArrayList<>(deals.size());
+        for (FxDeal deal : deals) {
+            responses.add(DealResponse.builder()
+                .id(deal.getId())
+                .dealUniqueId(deal.getDealUniqueId())
+                .fromCurrencyIsoCode(deal.getFromCurrencyIsoCode())
+                .toCurrencyIsoCode(deal.getToCurrencyIsoCode())
+                .dealTimestamp(deal.getDealTimestamp())
+                .dealAmount(deal.getDealAmount())
+                .createdAt(deal.getCreatedAt())
+                .build());
+        }
+        eventPublisher.publishEvent(new DealsPurgedEvent(responses));
+    }
+
+    private int maxBatchSize() {
+        return Math.max(1, properties.getMaxBatchSize());
+    }
+
+    private int minBatchSize() {
+        return Math.max(1, Math.min(properties.getMinBatchSize(), maxBatchSize()));
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fxdeals.retention.deleted", deleted, LongAdder::sum)
+            .description("Expired deals deleted from fx_deals and the archive")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.retention.batches", batches, LongAdder::sum)
+            .description("Delete batches committed by the retention purge")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.retention.backoffs", backoffs, LongAdder::sum)
+            .description("Times the retention purge backed off because imports were slow")
+            .register(registry);
+        Gauge.builder("fxdeals.retention.batch.size", this, RetentionPurger::getBatchSize)
+            .description("Current retention purge batch size")
+            .register(registry);
+        Gauge.builder("fxdeals.retention.running", this, purger -> purger.isRunning() ? 1 : 0)
+            .description("1 while a retention purge is running")
+            .register(registry);
+    }
+
+    /**
+     * Waits between batches
+     */
+    @FunctionalInterface
+    interface Pauser {
+        void pause(long nanos) throws InterruptedException;
+    }
+}
@@ -0,0 +1,414 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.SpoolProperties;
+import com.bloomberg.fxdeals.dto.BulkDealResponse;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.dto.SpoolFileResult;
+import com.bloomberg.fxdeals.json.DealFileReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Imports deal files dropped into the spool directory (fxdeals.spool.path)
+ *
+ * A WatchService reports new files in the directory. Each file is claimed by an
+ * atomic rename into processing/, so a file is only ever imported once even if it
+ * is reported twice, then read as a stream (JSON, NDJSON or CSV by extension) and
+ * passed to FxDealService.importDealsBulk in batches of fxdeals.spool.batch-size.
+ * Finally it is moved to done/ (read to the end) or error/ (unreadable) together
+ * with a &lt;name&gt;.result.json summary. Up to fxdeals.spool.workers files are
+ * imported at the same time.
+ *
+ * A file dropped under the name of one still being imported waits in the directory
+ * and is imported once the earlier one has been filed away.
+ *
+ * Upstream systems must write a file elsewhere (or under a name starting with a
+ * dot or ending in .tmp or .part) and rename it into the directory when complete.
+ * Files left in processing/ by a crash are moved back at startup and imported
+ * again; deals already stored are then reported as duplicates.
+ */
+@Component
+public class SpoolDirectoryWatcher implements ApplicationRunner, DisposableBean, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpoolDirectoryWatcher.class);
+
+    static final String PROCESSING = "processing";
+    static final String DONE = "done";
+    static final String ERROR = "error";
+    static final String RESULT_SUFFIX = ".result.json";
+
+    private final FxDealService dealService;
+    private final SpoolProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Executor workers;
+
+    private final Path inbox;
+    private final Path processing;
+    private final Path done;
+    private final Path error;
+
+    private final LongAdder filesDone = new LongAdder();
+    private final LongAdder filesFailed = new LongAdder();
+    private final LongAdder dealsImported = new LongAdder();
+    private final AtomicInteger active = new AtomicInteger();
+    /** Names of files waiting for the import of a file of the same name to finish */
+    private final Set<String> deferred = ConcurrentHashMap.newKeySet();
+
+    private volatile WatchService watchService;
+
+    @Autowired
+    public SpoolDirectoryWatcher(FxDealService dealService, SpoolProperties properties, ObjectMapper objectMapper) {
+        this(dealService, properties, objectMapper,
+            Executors.newFixedThreadPool(Math.max(1, properties.getWorkers()), threadFactory("spool-worker-")));
+    }
+
+    SpoolDirectoryWatcher(FxDealService dealService, SpoolProperties properties, ObjectMapper objectMapper,
+                          Executor workers) {
+        this.dealService = dealService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.workers = workers;
+        this.inbox = Paths.get(properties.getPath());
+        this.processing = inbox.resolve(PROCESSING);
+        this.done = inbox.resolve(DONE);
+        this.error = inbox.resolve(ERROR);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        start();
+    }
+
+    /**
+     * Create the folders, recover interrupted files, start watching and import what is already there
+     */
+    void start() throws IOException {
+        Files.createDirectories(processing);
+        Files.createDirectories(done);
+        Files.createDirectories(error);
+        recoverInterrupted();
+
+        watchService = FileSystems.getDefault().newWatchService();
+        inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+        Thread watcher = threadFactory("spool-watcher-").newThread(this::watch);
+        watcher.start();
+        logger.info("Watching spool directory {} with {} workers", inbox.toAbsolutePath(), properties.getWorkers());
+
+        // Files dropped before the watch was registered
+        scanInbox();
+    }
+
+    private void watch() {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        scanInbox();
+                    } else {
+                        submit(inbox.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    logger.error("Spool directory {} is no longer accessible, stopped watching", inbox);
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queue every file currently in the spool directory
+     */
+    void scanInbox() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox)) {
+            for (Path file : files) {
+                submit(file);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to list spool directory {}: {}", inbox, e.getMessage(), e);
+        }
+    }
+
+    private void submit(Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(".") || name.endsWith(".tmp") || name.endsWith(".part") || !Files.isRegularFile(file)) {
+            return;
+        }
+        workers.execute(() -> process(file));
+    }
+
+    /**
+     * Claim, import and file away one spooled file
+     */
+    void process(Path file) {
+        String name = file.getFileName().toString();
+        Path claimed = processing.resolve(name);
+        if (Files.exists(claimed)) {
+            // A rename onto it would replace a file still being imported; queued again once that one is done
+            logger.warn("Spool file {} is already being imported, importing the new copy after it", name);
+            deferred.add(name);
+            if (Files.exists(claimed) || !deferred.remove(name)) {
+                return;
+            }
+            // The earlier import finished in the meantime
+        }
+        try {
+            Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            // Claimed by another worker (the file was reported twice)
+            return;
+        } catch (IOException e) {
+            logger.error("Failed to claim spool file {}: {}", file, e.getMessage(), e);
+            return;
+        }
+
+        active.incrementAndGet();
+        try {
+            SpoolFileResult result = ingest(claimed);
+            boolean readFully = result.getStatus() == SpoolFileResult.Status.DONE;
+            (readFully ? filesDone : filesFailed).increment();
+            fileAway(claimed, readFully ? done : error, result);
+            if (deferred.remove(name)) {
+                submit(inbox.resolve(name));
+            }
+            logger.info("Spool file {} {}: {} deals, {} imported, {} duplicates, {} failed in {} ms{}",
+                result.getFile(), readFully ? "imported" : "failed", result.getTotalReceived(),
+                result.getSuccessfullyImported(), result.getSkippedDuplicates(), result.getFailed(),
+                result.getElapsedMillis(), readFully ? "" : " (" + result.getError() + ")");
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * Read the file and import its deals batch by batch
+     */
+    SpoolFileResult ingest(Path file) {
+        long start = System.nanoTime();
+        String name = file.getFileName().toString();
+        DealFileReader.Format format = DealFileReader.Format.of(name);
+        SpoolFileResult result = SpoolFileResult.builder()
+            .file(name)
+            .format(format == null ? null : format.name())
+            .status(SpoolFileResult.Status.DONE)
+            .startedAt(LocalDateTime.now())
+            .build();
+
+        if (format == null) {
+            result.setStatus(SpoolFileResult.Status.ERROR);
+            result.setError("Unsupported file type (expected .json, .ndjson, .jsonl or .csv)");
+            return result;
+        }
+
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<DealRequest> batch = new ArrayList<>(batchSize);
+        List<Integer> positions = new ArrayList<>(batchSize);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file));
+             DealFileReader reader = DealFileReader.open(format, in, objectMapper.getFactory())) {
+            for (DealFileReader.DealRecord record = reader.next(); record != null; record = reader.next()) {
+                result.setTotalReceived(result.getTotalReceived() + 1);
+                if (record.error() != null) {
+                    result.setFailed(result.getFailed() + 1);
+                    String dealId = record.deal() == null ? null : record.deal().getDealUniqueId();
+                    report(result.getErrors(), result,
+                        String.format("Deal[%d] (%s): Validation failed: %s", record.index(), dealId, record.error()));
+                    continue;
+                }
+                batch.add(record.deal());
+                positions.add(record.index());
+                if (batch.size() >= batchSize) {
+                    importBatch(batch, positions, result);
+                }
+            }
+            importBatch(batch, positions, result);
+        } catch (IOException | RuntimeException e) {
+            fail(result, e);
+        }
+        try {
+            // Deals read before a failure are still imported
+            importBatch(batch, positions, result);
+        } catch (RuntimeException e) {
+            fail(result, e);
+        }
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    private static void fail(SpoolFileResult result, Exception e) {
+        if (result.getStatus() == SpoolFileResult.Status.DONE) {
+            result.setStatus(SpoolFileResult.Status.ERROR);
+            result.setError(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private void importBatch(List<DealRequest> batch, List<Integer> positions, SpoolFileResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        BulkDealResponse response = dealService.importDealsBulk(batch);
+        result.setSuccessfullyImported(result.getSuccessfullyImported() + response.getSuccessfullyImported());
+        result.setSkippedDuplicates(result.getSkippedDuplicates() + response.getSkippedDuplicates());
+        result.setFailed(result.getFailed() + response.getFailed());
+        result.setSuspectedDuplicates(result.getSuspectedDuplicates() + response.getSuspectedDuplicates());
+        dealsImported.add(response.getSuccessfullyImported());
+        for (String message : response.getErrors()) {
+            report(result.getErrors(), result, inFile(message, positions));
+        }
+        for (String message : response.getSuspectedDuplicateDeals()) {
+            report(result.getSuspectedDuplicateDeals(), result, inFile(message, positions));
+        }
+        batch.clear();
+        positions.clear();
+    }
+
+    private void report(List<String> messages, SpoolFileResult result, String message) {
+        if (messages.size() < properties.getMaxReportedErrors()) {
+            messages.add(message);
+        } else {
+            result.setOmittedErrors(result.getOmittedErrors() + 1);
+        }
+    }
+
+    /**
+     * Replace the batch position in a "Deal[i] ..." message with the deal's position in the file
+     */
+    private static String inFile(String message, List<Integer> positions) {
+        int close = message.indexOf(']');
+        if (!message.startsWith("Deal[") || close < 0) {
+            return message;
+        }
+        try {
+            int position = Integer.parseInt(message, 5, close, 10);
+            return "Deal[" + positions.get(position) + message.substring(close);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return message;
+        }
+    }
+
+    private void fileAway(Path claimed, Path folder, SpoolFileResult result) {
+        String name = claimed.getFileName().toString();
+        Path target = folder.resolve(name);
+        if (Files.exists(target)) {
+            // A file of the same name was spooled before; keep both
+            name = name + "." + System.currentTimeMillis();
+            target = folder.resolve(name);
+        }
+        try {
+            Files.move(claimed, target, StandardCopyOption.ATOMIC_MOVE);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(folder.resolve(name + RESULT_SUFFIX).toFile(),
+                result);
+        } catch (IOException e) {
+            logger.error("Failed to move spool file {} to {}: {}", claimed, folder, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Move files whose import was interrupted back into the spool directory
+     */
+    private void recoverInterrupted() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(processing)) {
+            for (Path file : files) {
+                logger.warn("Spool file {} was interrupted, importing it again", file.getFileName());
+                Files.move(file, inbox.resolve(file.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+    }
+
+    public long getFilesDone() {
+        return filesDone.sum();
+    }
+
+    public long getFilesFailed() {
+        return filesFailed.sum();
+    }
+
+    public int getActiveFiles() {
+        return active.get();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+        if (workers instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fxdeals.spool.files", filesDone, LongAdder::sum)
+            .description("Spool files imported")
+            .tag("outcome", "done")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.spool.files", filesFailed, LongAdder::sum)
+            .description("Spool files imported")
+            .tag("outcome", "error")
+            .register(registry);
+        FunctionCounter.builder("fxdeals.spool.deals.imported", dealsImported, LongAdder::sum)
+            .description("Deals imported from spool files")
+            .register(registry);
+        Gauge.builder("fxdeals.spool.active", this, SpoolDirectoryWatcher::getActiveFiles)
+            .description("Spool files being imported")
+            .register(registry);
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
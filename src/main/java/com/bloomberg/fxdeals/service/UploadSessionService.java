@@ -0,0 +1,206 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.dto.BulkDealResponse;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.dto.UploadChunkResponse;
+import com.bloomberg.fxdeals.dto.UploadSessionResponse;
+import com.bloomberg.fxdeals.exception.ResourceNotFoundException;
+import com.bloomberg.fxdeals.model.UploadSession;
+import com.bloomberg.fxdeals.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for resumable chunked uploads
+ *
+ * A client opens a session, then sends numbered chunks of deals in order.
+ * After each chunk is imported the session checkpoint (committed chunks and
+ * deal offset) is advanced. A client that loses its connection asks for the
+ * session status and continues from nextChunk, so a retry only costs the
+ * chunks that were never committed.
+ *
+ * If the server fails between importing a chunk and checkpointing it, the
+ * resent chunk is imported again and its deals are reported as duplicates.
+ */
+@Service
+public class UploadSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionService.class);
+
+    private final UploadSessionRepository sessionRepository;
+    private final FxDealService dealService;
+
+    @Autowired
+    public UploadSessionService(UploadSessionRepository sessionRepository, FxDealService dealService) {
+        this.sessionRepository = sessionRepository;
+        this.dealService = dealService;
+    }
+
+    /**
+     * Open a new upload session
+     *
+     * @param expectedChunks total number of chunks the client will send, or null if unknown
+     * @return the new session
+     */
+    public UploadSessionResponse openSession(Integer expectedChunks) {
+        UploadSession session = UploadSession.builder()
+            .uploadId(UUID.randomUUID().toString())
+            .status(UploadSession.Status.OPEN)
+            .expectedChunks(expectedChunks)
+            .build();
+
+        UploadSession saved = sessionRepository.save(session);
+        logger.info("Opened upload session {} (expected chunks: {})", saved.getUploadId(), expectedChunks);
+        return convertToResponse(saved);
+    }
+
+    /**
+     * Get the checkpoint of an upload session
+     *
+     * @param uploadId the upload session identifier
+     * @return session progress
+     * @throws ResourceNotFoundException if the session does not exist
+     */
+    public UploadSessionResponse getSession(String uploadId) {
+        return convertToResponse(findSession(uploadId));
+    }
+
+    /**
+     * Import one chunk of an upload and checkpoint it
+     *
+     * Chunks below the checkpoint are acknowledged without any work. A chunk
+     * beyond the checkpoint is rejected because it would leave a gap.
+     *
+     * @param uploadId the upload session identifier
+     * @param chunkNumber zero-based chunk number
+     * @param deals deals in the chunk
+     * @return chunk result and updated session progress
+     * @throws ResourceNotFoundException if the session does not exist
+     * @throws IllegalStateException if the session is completed or the chunk is out of order
+     */
+    public UploadChunkResponse uploadChunk(String uploadId, int chunkNumber, List<DealRequest> deals) {
+        UploadSession session = findSession(uploadId);
+
+        if (chunkNumber < session.getCommittedChunks()) {
+            logger.debug("Chunk {} of upload {} already committed, skipping", chunkNumber, uploadId);
+            return UploadChunkResponse.builder()
+                .chunkNumber(chunkNumber)
+                .alreadyCommitted(true)
+                .session(convertToResponse(session))
+                .build();
+        }
+
+        checkAcceptsChunk(session, chunkNumber);
+
+        BulkDealResponse result = dealService.importDealsBulk(deals);
+
+        UploadSession checkpointed = checkpoint(uploadId, chunkNumber, deals.size(), result);
+        logger.info("Committed chunk {} of upload {}: {} deals, offset now {}",
+            chunkNumber, uploadId, deals.size(), checkpointed.getCommittedDeals());
+
+        return UploadChunkResponse.builder()
+            .chunkNumber(chunkNumber)
+            .alreadyCommitted(false)
+            .result(result)
+            .session(convertToResponse(checkpointed))
+            .build();
+    }
+
+    /**
+     * Mark an upload session as complete; no further chunks are accepted
+     *
+     * @param uploadId the upload session identifier
+     * @return final session progress
+     * @throws ResourceNotFoundException if the session does not exist
+     * @throws IllegalStateException if expected chunks are still missing
+     */
+    public UploadSessionResponse completeSession(String uploadId) {
+        UploadSession session = findSession(uploadId);
+
+        if (session.getStatus() == UploadSession.Status.COMPLETED) {
+            return convertToResponse(session);
+        }
+        if (session.getExpectedChunks() != null && session.getCommittedChunks() < session.getExpectedChunks()) {
+            throw new IllegalStateException(String.format(
+                "Upload %s has %d of %d chunks committed; resume from chunk %d",
+                uploadId, session.getCommittedChunks(), session.getExpectedChunks(), session.getCommittedChunks()));
+        }
+
+        session.setStatus(UploadSession.Status.COMPLETED);
+        UploadSession saved = saveCheckpoint(session);
+        logger.info("Completed upload session {}: {} deals in {} chunks",
+            uploadId, saved.getCommittedDeals(), saved.getCommittedChunks());
+        return convertToResponse(saved);
+    }
+
+    /**
+     * Advance the checkpoint, re-reading the session so concurrent senders of the same chunk
+     * cannot both commit it
+     */
+    private UploadSession checkpoint(String uploadId, int chunkNumber, int dealCount, BulkDealResponse result) {
+        UploadSession session = findSession(uploadId);
+        checkAcceptsChunk(session, chunkNumber);
+
+        session.setCommittedChunks(chunkNumber + 1);
+        session.setCommittedDeals(session.getCommittedDeals() + dealCount);
+        session.setImportedDeals(session.getImportedDeals() + result.getSuccessfullyImported());
+        session.setDuplicateDeals(session.getDuplicateDeals() + result.getSkippedDuplicates());
+        session.setFailedDeals(session.getFailedDeals() + result.getFailed());
+        return saveCheckpoint(session);
+    }
+
+    private UploadSession saveCheckpoint(UploadSession session) {
+        try {
+            return sessionRepository.save(session);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new IllegalStateException(
+                "Upload " + session.getUploadId() + " was updated concurrently; fetch its status and resume", e);
+        }
+    }
+
+    private void checkAcceptsChunk(UploadSession session, int chunkNumber) {
+        if (session.getStatus() != UploadSession.Status.OPEN) {
+            throw new IllegalStateException("Upload " + session.getUploadId() + " is already completed");
+        }
+        if (chunkNumber != session.getCommittedChunks()) {
+            throw new IllegalStateException(String.format(
+                "Upload %s expects chunk %d next, received chunk %d",
+                session.getUploadId(), session.getCommittedChunks(), chunkNumber));
+        }
+        if (session.getExpectedChunks() != null && chunkNumber >= session.getExpectedChunks()) {
+            throw new IllegalStateException(String.format(
+                "Upload %s declared %d chunks, received chunk %d",
+                session.getUploadId(), session.getExpectedChunks(), chunkNumber));
+        }
+    }
+
+    private UploadSession findSession(String uploadId) {
+        return sessionRepository.findById(uploadId)
+            .orElseThrow(() -> new ResourceNotFoundException("Upload session " + uploadId + " not found"));
+    }
+
+    /**
+     * Convert UploadSession entity to UploadSessionResponse
+     */
+    private UploadSessionResponse convertToResponse(UploadSession session) {
+        return UploadSessionResponse.builder()
+            .uploadId(session.getUploadId())
+            .status(session.getStatus().name())
+            .expectedChunks(session.getExpectedChunks())
+            .nextChunk(session.getCommittedChunks())
+            .lastCommittedChunk(session.getCommittedChunks() > 0 ? session.getCommittedChunks() - 1 : null)
+            .committedOffset(session.getCommittedDeals())
+            .importedDeals(session.getImportedDeals())
+            .duplicateDeals(session.getDuplicateDeals())
+            .failedDeals(session.getFailedDeals())
+            .createdAt(session.getCreatedAt())
+            .updatedAt(session.getUpdatedAt())
+            .build();
+    }
+}
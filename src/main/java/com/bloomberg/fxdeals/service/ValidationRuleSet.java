@@ -0,0 +1,277 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.ValidationProperties;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.util.CurrencyCodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deal validation rules compiled from ValidationProperties
+ *
+ * Immutable. Everything configurable is resolved at compile time: limits become
+ * primitives, the currency list becomes a flag per CurrencyCodes index and every
+ * error message is built once, so validating a deal makes no lookups in maps or
+ * properties and allocates nothing unless it fails.
+ */
+public final class ValidationRuleSet {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValidationRuleSet.class);
+
+    /**
+     * Rejection reasons, each with its own counter
+     */
+    public enum Rule {
+        DEAL_ID_REQUIRED,
+        DEAL_ID_TOO_LONG,
+        DEAL_ID_WHITESPACE,
+        CURRENCY_REQUIRED,
+        CURRENCY_LENGTH,
+        CURRENCY_FORMAT,
+        CURRENCY_UNKNOWN,
+        SAME_CURRENCY,
+        TIMESTAMP_REQUIRED,
+        TIMESTAMP_IN_FUTURE,
+        TIMESTAMP_TOO_OLD,
+        AMOUNT_REQUIRED,
+        AMOUNT_NOT_POSITIVE,
+        AMOUNT_TOO_LARGE,
+        AMOUNT_PRECISION
+    }
+
+    private final int maxDealIdLength;
+    private final boolean[] knownCurrencies;
+    private final boolean rejectUnknownCurrencies;
+    private final Period maxAge;
+    private final Duration futureTolerance;
+    private final long maxAmountUnscaled;
+    private final long amountStep;
+
+    private final String dealIdTooLong;
+    private final String timestampTooOld;
+    private final String amountPrecision;
+    private final CurrencyMessages from;
+    private final CurrencyMessages to;
+
+    private ValidationRuleSet(ValidationProperties properties) {
+        if (properties.getMaxDealIdLength() < 1 || properties.getMaxDealIdLength() > FxDeal.DEAL_UNIQUE_ID_LENGTH) {
+            throw new IllegalArgumentException("fxdeals.validation.max-deal-id-length must be between 1 and "
+                + FxDeal.DEAL_UNIQUE_ID_LENGTH + " (the deal_unique_id column)");
+        }
+        if (properties.getMaxDecimalPlaces() < 0 || properties.getMaxDecimalPlaces() > FixedPointAmount.SCALE) {
+            throw new IllegalArgumentException("fxdeals.validation.max-decimal-places must be between 0 and "
+                + FixedPointAmount.SCALE);
+        }
+        if (properties.getMaxAmount() == null || properties.getMaxAmount().signum() <= 0) {
+            throw new IllegalArgumentException("fxdeals.validation.max-amount must be positive");
+        }
+        if (properties.getCurrencies() == null) {
+            throw new IllegalArgumentException("fxdeals.validation.currencies must not be null");
+        }
+        if (properties.getMaxAge() == null || properties.getMaxAge().isNegative()) {
+            throw new IllegalArgumentException("fxdeals.validation.max-age must not be null or negative");
+        }
+        if (properties.getFutureTolerance() == null || properties.getFutureTolerance().isNegative()) {
+            throw new IllegalArgumentException("fxdeals.validation.future-tolerance must not be null or negative");
+        }
+
+        this.maxDealIdLength = properties.getMaxDealIdLength();
+        this.knownCurrencies = new boolean[CurrencyCodes.SIZE];
+        for (String code : properties.getCurrencies()) {
+            int index = CurrencyCodes.indexOf(code == null ? null : code.trim().toUpperCase());
+            if (index < 0) {
+                throw new IllegalArgumentException("fxdeals.validation.currencies: invalid currency code " + code);
+            }
+            knownCurrencies[index] = true;
+        }
+        this.rejectUnknownCurrencies = properties.isRejectUnknownCurrencies();
+        this.maxAge = properties.getMaxAge();
+        this.futureTolerance = properties.getFutureTolerance();
+        this.maxAmountUnscaled = unscaledCap(properties.getMaxAmount());
+        this.amountStep = pow10(FixedPointAmount.SCALE - properties.getMaxDecimalPlaces());
+
+        this.dealIdTooLong = "Deal Unique Id must not exceed " + maxDealIdLength + " characters";
+        this.timestampTooOld = "Deal timestamp is too old (more than " + describe(maxAge) + ")";
+        this.amountPrecision = "Deal amount must have at most " + properties.getMaxDecimalPlaces() + " decimal places";
+        this.from = new CurrencyMessages("From Currency");
+        this.to = new CurrencyMessages("To Currency");
+    }
+
+    /**
+     * @param properties rule configuration
+     * @return the compiled rules
+     * @throws IllegalArgumentException if the configuration is invalid
+     */
+    public static ValidationRuleSet compile(ValidationProperties properties) {
+        return new ValidationRuleSet(properties);
+    }
+
+    /**
+     * Apply every rule to a deal
+     *
+     * @param deal deal to check (not null)
+     * @param errors receives one message per failed rule
+     * @param rejections counters indexed by Rule ordinal, or null to count nothing
+     */
+    void validate(DealRequest deal, List<String> errors, LongAdder[] rejections) {
+        validate(deal, errors, rejections, null);
+    }
+
+    /**
+     * @param errors receives messages, or null
+     * @param rejections counters to increment, or null
+     * @param failed receives failed rules, or null
+     */
+    void validate(DealRequest deal, List<String> errors, LongAdder[] rejections, List<Rule> failed) {
+        String dealId = deal.getDealUniqueId();
+        if (dealId == null || dealId.trim().isEmpty()) {
+            reject(Rule.DEAL_ID_REQUIRED, "Deal Unique Id is required and cannot be empty", errors, rejections, failed);
+        } else if (dealId.length() > maxDealIdLength) {
+            reject(Rule.DEAL_ID_TOO_LONG, dealIdTooLong, errors, rejections, failed);
+        } else if (dealId.trim().length() != dealId.length()) {
+            reject(Rule.DEAL_ID_WHITESPACE, "Deal Unique Id cannot have leading or trailing whitespace",
+                errors, rejections, failed);
+        }
+
+        String fromCode = deal.getFromCurrencyIsoCode();
+        String toCode = deal.getToCurrencyIsoCode();
+        validateCurrency(fromCode, from, errors, rejections, failed);
+        validateCurrency(toCode, to, errors, rejections, failed);
+        if (fromCode != null && fromCode.equals(toCode)) {
+            reject(Rule.SAME_CURRENCY, "From Currency and To Currency must be different", errors, rejections, failed);
+        }
+
+        LocalDateTime timestamp = deal.getDealTimestamp();
+        if (timestamp == null) {
+            reject(Rule.TIMESTAMP_REQUIRED, "Deal timestamp is required", errors, rejections, failed);
+        } else {
+            LocalDateTime now = LocalDateTime.now();
+            if (timestamp.isAfter(now.plus(futureTolerance))) {
+                reject(Rule.TIMESTAMP_IN_FUTURE, "Deal timestamp cannot be in the future", errors, rejections, failed);
+            }
+            if (timestamp.isBefore(now.minus(maxAge))) {
+                reject(Rule.TIMESTAMP_TOO_OLD, timestampTooOld, errors, rejections, failed);
+            }
+        }
+
+        FixedPointAmount amount = deal.getDealAmount();
+        if (amount == null) {
+            reject(Rule.AMOUNT_REQUIRED, "Deal amount is required", errors, rejections, failed);
+        } else {
+            long unscaled = amount.unscaledValue();
+            if (unscaled <= 0) {
+                reject(Rule.AMOUNT_NOT_POSITIVE, "Deal amount must be greater than 0", errors, rejections, failed);
+            } else if (unscaled > maxAmountUnscaled) {
+                reject(Rule.AMOUNT_TOO_LARGE, "Deal amount exceeds maximum allowed value", errors, rejections, failed);
+            } else if (unscaled % amountStep != 0) {
+                reject(Rule.AMOUNT_PRECISION, amountPrecision, errors, rejections, failed);
+            }
+        }
+    }
+
+    /**
+     * Codes are trimmed and upper-cased before the checks, as the importer stores them
+     */
+    private void validateCurrency(String code, CurrencyMessages messages, List<String> errors, LongAdder[] rejections,
+                                  List<Rule> failed) {
+        if (code == null || code.trim().isEmpty()) {
+            reject(Rule.CURRENCY_REQUIRED, messages.required, errors, rejections, failed);
+            return;
+        }
+        String trimmed = code.trim();
+        if (trimmed.length() != 3) {
+            reject(Rule.CURRENCY_LENGTH, messages.length, errors, rejections, failed);
+            return;
+        }
+
+        int index = 0;
+        for (int i = 0; i < 3; i++) {
+            int c = trimmed.charAt(i);
+            // Upper-case ASCII letters without a locale-dependent toUpperCase
+            c -= (c >= 'a' && c <= 'z') ? 'a' - 'A' : 0;
+            if (c < 'A' || c > 'Z') {
+                reject(Rule.CURRENCY_FORMAT, messages.format, errors, rejections, failed);
+                return;
+            }
+            index = index * 26 + (c - 'A');
+        }
+
+        if (!knownCurrencies[index]) {
+            if (rejectUnknownCurrencies) {
+                reject(Rule.CURRENCY_UNKNOWN, messages.unknown, errors, rejections, failed);
+            } else {
+                logger.debug("Currency code {} is not in the configured list, but format is valid",
+                    CurrencyCodes.codeOf(index));
+            }
+        }
+    }
+
+    private static void reject(Rule rule, String message, List<String> errors, LongAdder[] rejections,
+                               List<Rule> failed) {
+        if (errors != null) {
+            errors.add(message);
+        }
+        if (rejections != null) {
+            rejections[rule.ordinal()].increment();
+        }
+        if (failed != null) {
+            failed.add(rule);
+        }
+    }
+
+    private static long unscaledCap(BigDecimal maxAmount) {
+        BigDecimal unscaled = maxAmount.movePointRight(FixedPointAmount.SCALE);
+        return unscaled.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0
+            ? Long.MAX_VALUE
+            : unscaled.longValue();
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    private static String describe(Period period) {
+        List<String> parts = new ArrayList<>(3);
+        addPart(parts, period.getYears(), "year");
+        addPart(parts, period.getMonths(), "month");
+        addPart(parts, period.getDays(), "day");
+        return parts.isEmpty() ? "0 days" : String.join(" ", parts);
+    }
+
+    private static void addPart(List<String> parts, int value, String unit) {
+        if (value != 0) {
+            parts.add(value + " " + unit + (value == 1 ? "" : "s"));
+        }
+    }
+
+    /**
+     * Error messages for one currency field
+     */
+    private static final class CurrencyMessages {
+        private final String required;
+        private final String length;
+        private final String format;
+        private final String unknown;
+
+        private CurrencyMessages(String fieldName) {
+            this.required = fieldName + " ISO Code is required";
+            this.length = fieldName + " ISO Code must be exactly 3 characters";
+            this.format = fieldName + " ISO Code must be 3 uppercase letters (A-Z)";
+            this.unknown = fieldName + " ISO Code is not a supported currency";
+        }
+    }
+}
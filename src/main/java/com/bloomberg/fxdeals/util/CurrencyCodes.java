@@ -0,0 +1,70 @@
+package com.bloomberg.fxdeals.util;
+
+/**
+ * Dictionary of three-letter currency codes
+ *
+ * Every code made of three uppercase ASCII letters maps to a dense index in
+ * [0, 26^3), and each index to one shared String instance. Parsers can therefore
+ * recognise a code straight from a character buffer and reuse the canonical String
+ * instead of allocating a new one per field. Indexes also work as array offsets for
+ * per-currency tables.
+ *
+ * Strings are created lazily on first use. Two threads may race to create the same
+ * entry; both results are equal, so the race only costs an extra allocation.
+ */
+public final class CurrencyCodes {
+
+    /** Number of distinct codes (26^3) */
+    public static final int SIZE = 26 * 26 * 26;
+
+    private static final String[] CODES = new String[SIZE];
+
+    private CurrencyCodes() {
+    }
+
+    /**
+     * @param buffer characters holding the code
+     * @param offset index of the first character
+     * @param length number of characters
+     * @return the code's index, or -1 if it is not exactly three uppercase letters
+     */
+    public static int indexOf(char[] buffer, int offset, int length) {
+        if (length != 3) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = offset; i < offset + 3; i++) {
+            char c = buffer[i];
+            if (c < 'A' || c > 'Z') {
+                return -1;
+            }
+            index = index * 26 + (c - 'A');
+        }
+        return index;
+    }
+
+    /**
+     * @param code candidate code
+     * @return the code's index, or -1 if it is not exactly three uppercase letters
+     */
+    public static int indexOf(CharSequence code) {
+        if (code == null || code.length() != 3) {
+            return -1;
+        }
+        return indexOf(new char[] {code.charAt(0), code.charAt(1), code.charAt(2)}, 0, 3);
+    }
+
+    /**
+     * @param index index returned by {@link #indexOf}
+     * @return the shared String for that code
+     */
+    public static String codeOf(int index) {
+        String code = CODES[index];
+        if (code == null) {
+            code = new String(new char[] {
+                (char) ('A' + index / 676), (char) ('A' + index / 26 % 26), (char) ('A' + index % 26)});
+            CODES[index] = code;
+        }
+        return code;
+    }
+}
@@ -0,0 +1,43 @@
+package com.bloomberg.fxdeals.util;
+
+/**
+ * 64-bit fingerprints of identifiers
+ *
+ * FNV-1a over the UTF-16 code units followed by the MurmurHash3 finalizer, which
+ * spreads the bits well enough for open addressing and makes accidental collisions
+ * negligible (about 1 in 2^64 per pair). Fingerprint matches are still confirmed
+ * against the database, so a collision only costs an extra lookup.
+ */
+public final class Fingerprints {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Fingerprints() {
+    }
+
+    /**
+     * @param value identifier to fingerprint
+     * @return 64-bit fingerprint
+     */
+    public static long of(CharSequence value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash ^ value.length());
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer
+     */
+    public static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
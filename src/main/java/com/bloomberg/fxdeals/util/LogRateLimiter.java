@@ -0,0 +1,48 @@
+package com.bloomberg.fxdeals.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiter for repetitive log lines
+ *
+ * Allows at most a fixed number of lines per second. Each caller passes its own
+ * counter for the lines it suppresses, so callers sharing the limit report only
+ * their own lines, in a summary or in the next line they do log.
+ */
+public class LogRateLimiter {
+
+    private final int permitsPerSecond;
+
+    private long windowStartNanos = System.nanoTime();
+    private int usedInWindow;
+
+    public LogRateLimiter(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    /**
+     * @param suppressedByCaller incremented when the line should be suppressed
+     * @return true if the caller may log now, false if the line should be suppressed
+     */
+    public boolean tryAcquire(AtomicLong suppressedByCaller) {
+        if (acquire()) {
+            return true;
+        }
+        suppressedByCaller.incrementAndGet();
+        return false;
+    }
+
+    private synchronized boolean acquire() {
+        long now = System.nanoTime();
+        if (now - windowStartNanos >= TimeUnit.SECONDS.toNanos(1)) {
+            windowStartNanos = now;
+            usedInWindow = 0;
+        }
+        if (usedInWindow < permitsPerSecond) {
+            usedInWindow++;
+            return true;
+        }
+        return false;
+    }
+}
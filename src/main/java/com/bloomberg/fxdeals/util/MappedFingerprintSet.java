@@ -0,0 +1,290 @@
+package com.bloomberg.fxdeals.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistent set of 64-bit fingerprints stored in a memory-mapped file
+ *
+ * Open addressing with linear probing over a power-of-two table of longs; the
+ * table lives off-heap in the page cache, so opening an existing file costs a
+ * mmap call rather than a rebuild. A slot value of 0 means empty (fingerprint 0
+ * is stored as 1). The table doubles into a new file once it is 70% full.
+ *
+ * File layout: a 64-byte header (magic, capacity, size, checkpoint) followed by
+ * the slots. The checkpoint is an opaque long owned by the caller (for example a
+ * database high-water mark); it is persisted only by {@link #checkpoint(long)},
+ * after the slots have been forced to disk, so a checkpoint never covers
+ * fingerprints that could be lost in a crash.
+ *
+ * Thread-safe: lookups share a read lock, inserts and growth take the write lock.
+ */
+public class MappedFingerprintSet implements Closeable {
+
+    private static final long MAGIC = 0x4658444544555031L; // "FXDEDUP1"
+    private static final int HEADER_BYTES = 64;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 16;
+    private static final int CHECKPOINT_OFFSET = 24;
+
+    // Each mapped region holds 2^27 slots (1 GiB), keeping offsets within int range
+    private static final int REGION_SHIFT = 27;
+    private static final long REGION_SLOTS = 1L << REGION_SHIFT;
+    private static final long REGION_MASK = REGION_SLOTS - 1;
+
+    private static final double MAX_LOAD = 0.7;
+    private static final long MIN_CAPACITY = 1024;
+
+    private final Path path;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private MappedByteBuffer[] regions;
+    private long capacity;
+    private long mask;
+    private long size;
+
+    private MappedFingerprintSet(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Open the set stored at the given path, creating it if it does not exist
+     *
+     * @param path file holding the set
+     * @param initialCapacity minimum number of slots for a new file (rounded up to a power of two)
+     * @return the opened set
+     * @throws IOException if the file cannot be created, mapped, or is not a fingerprint set
+     */
+    public static MappedFingerprintSet open(Path path, long initialCapacity) throws IOException {
+        MappedFingerprintSet set = new MappedFingerprintSet(path);
+        if (Files.exists(path) && Files.size(path) > 0) {
+            set.map();
+        } else {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            createFile(path, tableSizeFor(initialCapacity));
+            set.map();
+        }
+        return set;
+    }
+
+    /**
+     * @param fingerprint fingerprint to look up
+     * @return true if the fingerprint may have been added, false if it definitely was not
+     */
+    public boolean contains(long fingerprint) {
+        long value = normalize(fingerprint);
+        lock.readLock().lock();
+        try {
+            long slot = value & mask;
+            while (true) {
+                long current = readSlot(slot);
+                if (current == 0) {
+                    return false;
+                }
+                if (current == value) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add a fingerprint, growing the table if needed
+     *
+     * @param fingerprint fingerprint to add
+     * @return true if it was not already present
+     * @throws IOException if the table had to grow and the new file could not be written
+     */
+    public boolean add(long fingerprint) throws IOException {
+        long value = normalize(fingerprint);
+        lock.writeLock().lock();
+        try {
+            if (size + 1 > (long) (capacity * MAX_LOAD)) {
+                grow();
+            }
+            if (!insert(value)) {
+                return false;
+            }
+            size++;
+            header.putLong(SIZE_OFFSET, size);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the checkpoint value persisted by the last call to {@link #checkpoint(long)}
+     */
+    public long getCheckpoint() {
+        lock.readLock().lock();
+        try {
+            return header.getLong(CHECKPOINT_OFFSET);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Force all slots to disk, then durably record the checkpoint value
+     *
+     * @param value caller-defined position covered by the fingerprints now on disk
+     */
+    public void checkpoint(long value) {
+        lock.writeLock().lock();
+        try {
+            for (MappedByteBuffer region : regions) {
+                region.force();
+            }
+            header.putLong(SIZE_OFFSET, size);
+            header.putLong(CHECKPOINT_OFFSET, value);
+            header.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long capacity() {
+        lock.readLock().lock();
+        try {
+            return capacity;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean insert(long value) {
+        long slot = value & mask;
+        while (true) {
+            long current = readSlot(slot);
+            if (current == 0) {
+                writeSlot(slot, value);
+                return true;
+            }
+            if (current == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Rehash into a file twice the size, then atomically replace the current file
+     */
+    private void grow() throws IOException {
+        long newCapacity = capacity << 1;
+        Path tmp = path.resolveSibling(path.getFileName() + ".grow");
+        createFile(tmp, newCapacity);
+
+        MappedFingerprintSet grown = new MappedFingerprintSet(tmp);
+        grown.map();
+        for (long slot = 0; slot < capacity; slot++) {
+            long value = readSlot(slot);
+            if (value != 0) {
+                grown.insert(value);
+            }
+        }
+        grown.size = size;
+        grown.checkpoint(getCheckpointUnlocked());
+        grown.close();
+
+        channel.close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map();
+    }
+
+    private long getCheckpointUnlocked() {
+        return header.getLong(CHECKPOINT_OFFSET);
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (header.getLong(0) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a fingerprint set file: " + path);
+        }
+
+        capacity = header.getLong(CAPACITY_OFFSET);
+        mask = capacity - 1;
+        size = header.getLong(SIZE_OFFSET);
+
+        int regionCount = (int) ((capacity + REGION_SLOTS - 1) >>> REGION_SHIFT);
+        regions = new MappedByteBuffer[regionCount];
+        for (int i = 0; i < regionCount; i++) {
+            long firstSlot = (long) i << REGION_SHIFT;
+            long slots = Math.min(REGION_SLOTS, capacity - firstSlot);
+            regions[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                HEADER_BYTES + firstSlot * Long.BYTES, slots * Long.BYTES);
+        }
+    }
+
+    private long readSlot(long slot) {
+        return regions[(int) (slot >>> REGION_SHIFT)].getLong((int) (slot & REGION_MASK) * Long.BYTES);
+    }
+
+    private void writeSlot(long slot, long value) {
+        regions[(int) (slot >>> REGION_SHIFT)].putLong((int) (slot & REGION_MASK) * Long.BYTES, value);
+    }
+
+    private static void createFile(Path file, long capacity) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES);
+        head.putLong(0, MAGIC);
+        head.putLong(CAPACITY_OFFSET, capacity);
+
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(head, 0);
+            // Extending the file to its full length yields zero-filled (empty) slots
+            out.write(ByteBuffer.allocate(1), HEADER_BYTES + capacity * Long.BYTES - 1);
+            out.force(true);
+        }
+    }
+
+    private static long tableSizeFor(long requested) {
+        long capacity = Math.max(MIN_CAPACITY, requested);
+        return Long.highestOneBit(capacity - 1) << 1;
+    }
+
+    private static long normalize(long fingerprint) {
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+}
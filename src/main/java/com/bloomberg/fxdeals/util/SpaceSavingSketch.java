@@ -0,0 +1,174 @@
+package com.bloomberg.fxdeals.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter summary over int keys
+ *
+ * Tracks at most {@code capacity} keys. When a new key arrives and the table is full,
+ * it replaces the key with the smallest count and inherits that count as its error.
+ * Guarantees, for a stream of N increments:
+ * - every key with a true count above N / capacity is tracked
+ * - a tracked key's count overestimates its true count by at most its error,
+ *   and every error is at most N / capacity
+ *
+ * Not thread-safe.
+ */
+public final class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<Integer, Counter> counters;
+    private long total;
+
+    /**
+     * @param capacity maximum number of keys tracked
+     */
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Space-Saving capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void add(int key) {
+        add(key, 1);
+    }
+
+    /**
+     * @param key item
+     * @param count occurrences to add (positive)
+     */
+    public void add(int key, long count) {
+        total += count;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += count;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter(key, count, 0));
+            return;
+        }
+        Counter min = minCounter();
+        counters.remove(min.key);
+        counters.put(key, new Counter(key, min.count + count, min.count));
+    }
+
+    /**
+     * Fold another summary into this one
+     *
+     * A key missing from a full summary may still have occurred up to that summary's
+     * minimum count, which is added to both its count and its error. The merged result
+     * keeps the guarantees above for the combined stream.
+     */
+    public void merge(SpaceSavingSketch other) {
+        long thisFloor = counters.size() < capacity ? 0 : minCounter().count;
+        long otherFloor = other.counters.size() < other.capacity ? 0 : other.minCounter().count;
+
+        Map<Integer, Counter> merged = new HashMap<>(counters.size() + other.counters.size());
+        for (Counter counter : counters.values()) {
+            Counter match = other.counters.get(counter.key);
+            merged.put(counter.key, match != null
+                ? new Counter(counter.key, counter.count + match.count, counter.error + match.error)
+                : new Counter(counter.key, counter.count + otherFloor, counter.error + otherFloor));
+        }
+        for (Counter counter : other.counters.values()) {
+            if (!merged.containsKey(counter.key)) {
+                merged.put(counter.key,
+                    new Counter(counter.key, counter.count + thisFloor, counter.error + thisFloor));
+            }
+        }
+
+        counters.clear();
+        merged.values().stream()
+            .sorted(Comparator.comparingLong((Counter c) -> c.count).reversed())
+            .limit(capacity)
+            .forEach(c -> counters.put(c.key, c));
+        total += other.total;
+    }
+
+    /**
+     * @param n number of keys
+     * @return up to n tracked keys with the highest counts, highest first
+     */
+    public List<Entry> top(int n) {
+        List<Entry> entries = new ArrayList<>(counters.size());
+        for (Counter counter : counters.values()) {
+            entries.add(new Entry(counter.key, counter.count, counter.error));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparingInt(Entry::key));
+        return entries.size() > n ? entries.subList(0, n) : entries;
+    }
+
+    /**
+     * @return total increments seen (N)
+     */
+    public long total() {
+        return total;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the worst-case overestimate of any count, N / capacity
+     */
+    public long maxError() {
+        return total / capacity;
+    }
+
+    public SpaceSavingSketch copy() {
+        SpaceSavingSketch copy = new SpaceSavingSketch(capacity);
+        for (Counter counter : counters.values()) {
+            copy.counters.put(counter.key, new Counter(counter.key, counter.count, counter.error));
+        }
+        copy.total = total;
+        return copy;
+    }
+
+    /**
+     * @param capacity maximum number of keys tracked
+     * @return approximate heap footprint at full capacity (map entry, boxed key and counter per key)
+     */
+    public static long sizeInBytes(int capacity) {
+        return 16L + capacity * 96L;
+    }
+
+    private Counter minCounter() {
+        Counter min = null;
+        for (Counter counter : counters.values()) {
+            if (min == null || counter.count < min.count) {
+                min = counter;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * A tracked key
+     *
+     * @param key the item
+     * @param count estimated count (never below the true count)
+     * @param error maximum overestimate included in count
+     */
+    public record Entry(int key, long count, long error) {
+    }
+
+    private static final class Counter {
+        private final int key;
+        private long count;
+        private final long error;
+
+        private Counter(int key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
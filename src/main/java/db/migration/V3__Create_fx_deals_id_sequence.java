@@ -0,0 +1,35 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Move fx_deals.id from an identity column to a pooled sequence
+ *
+ * Each nextval reserves a block of 500 ids (the pooled-lo scheme of DealIdAllocator),
+ * so inserts no longer read a generated key per row and can be batched. The sequence
+ * starts after the highest existing id, which plain SQL cannot express portably across
+ * PostgreSQL and H2, hence a Java migration. The increment is written out rather than
+ * taken from FxDeal.ID_ALLOCATION_SIZE so that this migration, once applied, never
+ * changes; a new allocation size needs its own migration altering the sequence.
+ */
+public class V3__Create_fx_deals_id_sequence extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long start = 1;
+            try (ResultSet maxId = statement.executeQuery("SELECT MAX(id) FROM fx_deals")) {
+                if (maxId.next()) {
+                    start = maxId.getLong(1) + 1;
+                }
+            }
+            statement.execute("CREATE SEQUENCE fx_deals_id_seq START WITH " + start + " INCREMENT BY 500");
+            // Every writer supplies the id now; a leftover identity default would hand out colliding ids
+            statement.execute("ALTER TABLE fx_deals ALTER COLUMN id DROP IDENTITY");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package db.migration;
+
+import com.bloomberg.fxdeals.model.FxDeal;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Give the unique constraint on fx_deals.deal_unique_id its V1 name everywhere
+ *
+ * FxDealService tells a duplicate deal from other constraint violations by the
+ * constraint named in the error. Databases baselined from the old ddl-auto=update
+ * schema carry a Hibernate-generated name instead, which is looked up in
+ * information_schema and renamed (on PostgreSQL this renames the index the errors
+ * name as well); a missing constraint is created.
+ */
+public class V5__Name_fx_deals_deal_unique_id_constraint extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            String current = null;
+            try (ResultSet constraints = statement.executeQuery(
+                    "SELECT tc.constraint_name FROM information_schema.table_constraints tc"
+                    + " JOIN information_schema.key_column_usage kcu"
+                    + " ON kcu.constraint_name = tc.constraint_name AND kcu.table_schema = tc.table_schema"
+                    + " WHERE LOWER(tc.table_name) = 'fx_deals' AND tc.table_schema = CURRENT_SCHEMA"
+                    + " AND tc.constraint_type = 'UNIQUE' AND LOWER(kcu.column_name) = 'deal_unique_id'")) {
+                if (constraints.next()) {
+                    current = constraints.getString(1);
+                }
+            }
+            if (current == null) {
+                statement.execute("ALTER TABLE fx_deals ADD CONSTRAINT " + FxDeal.DEAL_UNIQUE_ID_CONSTRAINT
+                    + " UNIQUE (deal_unique_id)");
+            } else if (!current.equalsIgnoreCase(FxDeal.DEAL_UNIQUE_ID_CONSTRAINT)) {
+                statement.execute("ALTER TABLE fx_deals RENAME CONSTRAINT \"" + current + "\" TO "
+                    + FxDeal.DEAL_UNIQUE_ID_CONSTRAINT);
+            }
+        }
+    }
+}
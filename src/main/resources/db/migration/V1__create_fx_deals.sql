@@ -0,0 +1,28 @@
+-- Baseline schema, as previously created by hibernate.ddl-auto=update.
+-- Databases that already have these tables are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and start from V2.
+
+CREATE TABLE fx_deals (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    deal_unique_id          VARCHAR(100)   NOT NULL,
+    from_currency_iso_code  VARCHAR(3)     NOT NULL,
+    to_currency_iso_code    VARCHAR(3)     NOT NULL,
+    deal_timestamp          TIMESTAMP      NOT NULL,
+    deal_amount             NUMERIC(19, 4) NOT NULL,
+    created_at              TIMESTAMP      NOT NULL,
+    CONSTRAINT uk_fx_deals_deal_unique_id UNIQUE (deal_unique_id)
+);
+
+CREATE TABLE upload_sessions (
+    upload_id         VARCHAR(36) NOT NULL PRIMARY KEY,
+    status            VARCHAR(16) NOT NULL,
+    expected_chunks   INTEGER,
+    committed_chunks  INTEGER     NOT NULL,
+    committed_deals   BIGINT      NOT NULL,
+    imported_deals    BIGINT      NOT NULL,
+    duplicate_deals   BIGINT      NOT NULL,
+    failed_deals      BIGINT      NOT NULL,
+    created_at        TIMESTAMP   NOT NULL,
+    updated_at        TIMESTAMP   NOT NULL,
+    version           BIGINT      NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Retention purge and archiving select expired deals by deal_timestamp;
+-- without this index each batch scans fx_deals from the last id onwards.
+CREATE INDEX IF NOT EXISTS idx_fx_deals_deal_timestamp ON fx_deals (deal_timestamp);
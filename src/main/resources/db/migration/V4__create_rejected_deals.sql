@@ -0,0 +1,16 @@
+-- Audit store for deals a bulk import did not persist, written asynchronously
+-- by RejectedDealRecorder. Payloads and messages are truncated to the column sizes.
+CREATE TABLE IF NOT EXISTS rejected_deals (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    batch_id VARCHAR(36) NOT NULL,
+    deal_index INTEGER NOT NULL,
+    deal_unique_id VARCHAR(255),
+    reason VARCHAR(32) NOT NULL,
+    error_codes VARCHAR(500),
+    message VARCHAR(2000),
+    payload VARCHAR(2000),
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_rejected_deals_batch_id ON rejected_deals (batch_id);
+CREATE INDEX IF NOT EXISTS idx_rejected_deals_reason_created_at ON rejected_deals (reason, created_at);
@@ -0,0 +1,3 @@
+-- A payload longer than the column is stored cut short, which is no longer valid
+-- JSON; the flag tells readers not to parse it.
+ALTER TABLE rejected_deals ADD COLUMN payload_truncated BOOLEAN DEFAULT FALSE NOT NULL;
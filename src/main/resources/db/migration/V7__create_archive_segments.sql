@@ -0,0 +1,9 @@
+-- Commit record of archive segments, inserted in the transaction that deletes a
+-- segment's deals from fx_deals. A segment file left pending by a crash is kept on
+-- startup exactly when its row exists. Keyed by the segment's lowest surrogate id,
+-- which no other segment can hold since a deal is archived once.
+CREATE TABLE IF NOT EXISTS archive_segments (
+    min_id BIGINT PRIMARY KEY,
+    deal_count BIGINT NOT NULL,
+    published_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
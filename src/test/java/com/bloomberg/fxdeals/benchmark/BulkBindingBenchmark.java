@@ -0,0 +1,126 @@
+package com.bloomberg.fxdeals.benchmark;
+
+import com.bloomberg.fxdeals.dto.BulkDealRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Valid;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cost of turning a bulk import body into validated DealRequests: reflective bean
+ * binding followed by a bean validation pass (the previous setup, reproduced here
+ * with equivalent annotated classes) versus the streaming deserializers
+ *
+ * Not part of the regular test run; execute with:
+ *   mvn test -Dtest=BulkBindingBenchmark
+ */
+class BulkBindingBenchmark {
+
+    private static final int DEALS_PER_BATCH = 10_000;
+    private static final int ROUNDS = 20;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void compareBindingStrategies() throws Exception {
+        byte[] body = createBody();
+
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            Validator validator = factory.getValidator();
+            double reflective = measure("reflective binding + bean validation", () -> {
+                LegacyBulkDealRequest request = objectMapper.readValue(body, LegacyBulkDealRequest.class);
+                if (!validator.validate(request).isEmpty()) {
+                    throw new IllegalStateException("Benchmark payload should be valid");
+                }
+            });
+            double streaming = measure("streaming deserializers", () ->
+                objectMapper.readValue(body, BulkDealRequest.class));
+
+            System.out.printf("Speed-up: %.2fx%n", streaming / reflective);
+        }
+    }
+
+    private double measure(String name, Binding binding) throws Exception {
+        double best = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            binding.run();
+            double dealsPerSecond = DEALS_PER_BATCH / ((System.nanoTime() - start) / 1e9);
+            best = Math.max(best, dealsPerSecond);
+        }
+        System.out.printf("%-55s %,12.0f deals/s%n", name, best);
+        return best;
+    }
+
+    private byte[] createBody() {
+        String[] currencies = {"USD", "EUR", "GBP", "JPY", "CHF", "AUD"};
+        StringBuilder json = new StringBuilder("{\"deals\":[");
+        for (int i = 0; i < DEALS_PER_BATCH; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"dealUniqueId\":\"BENCH-").append(i)
+                .append("\",\"fromCurrencyIsoCode\":\"").append(currencies[i % currencies.length])
+                .append("\",\"toCurrencyIsoCode\":\"").append(currencies[(i + 1) % currencies.length])
+                .append("\",\"dealTimestamp\":\"2024-01-15T10:30:").append(String.format("%02d", i % 60))
+                .append("\",\"dealAmount\":").append(1000 + i).append(".25}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Binding {
+        void run() throws Exception;
+    }
+
+    @Data
+    static class LegacyBulkDealRequest {
+        @NotNull
+        @NotEmpty
+        @Valid
+        private List<LegacyDealRequest> deals;
+    }
+
+    @Data
+    static class LegacyDealRequest {
+        @NotBlank
+        @Size(max = 100)
+        private String dealUniqueId;
+
+        @NotBlank
+        @Size(min = 3, max = 3)
+        @Pattern(regexp = "^[A-Z]{3}$")
+        private String fromCurrencyIsoCode;
+
+        @NotBlank
+        @Size(min = 3, max = 3)
+        @Pattern(regexp = "^[A-Z]{3}$")
+        private String toCurrencyIsoCode;
+
+        @NotNull
+        @PastOrPresent
+        private LocalDateTime dealTimestamp;
+
+        @NotNull
+        @DecimalMin("0.0001")
+        @Digits(integer = 15, fraction = 4)
+        private BigDecimal dealAmount;
+    }
+}
@@ -0,0 +1,166 @@
+package com.bloomberg.fxdeals.benchmark;
+
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.repository.DealIdAllocator;
+import com.bloomberg.fxdeals.repository.FxDealBatchRepositoryImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cost of inserting deals in JDBC batches with ids from an identity column (the
+ * previous insertBatch, reading one generated key per row) versus ids allocated
+ * client-side from the pooled fx_deals_id_seq
+ *
+ * Runs against in-memory H2 unless -Dbenchmark.url (with benchmark.user and
+ * benchmark.password) points at another database, such as a scratch PostgreSQL;
+ * the benchmark drops and recreates fx_deals there.
+ *
+ * Not part of the regular test run; execute with:
+ *   mvn test -Dtest=IdGenerationBenchmark
+ */
+class IdGenerationBenchmark {
+
+    private static final int DEALS_PER_ROUND = 20_000;
+    private static final int BATCH_SIZE = 500;
+    private static final int ROUNDS = 10;
+
+    private static final String COLUMNS = "deal_unique_id VARCHAR(100) NOT NULL UNIQUE, "
+        + "from_currency_iso_code VARCHAR(3) NOT NULL, to_currency_iso_code VARCHAR(3) NOT NULL, "
+        + "deal_timestamp TIMESTAMP NOT NULL, deal_amount NUMERIC(19, 4) NOT NULL, created_at TIMESTAMP NOT NULL";
+
+    @Test
+    void compareIdStrategies() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+            System.getProperty("benchmark.url", "jdbc:h2:mem:id-benchmark"),
+            System.getProperty("benchmark.user", "sa"),
+            System.getProperty("benchmark.password", ""), true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+            double identity = measure("identity column + generated keys", jdbcTemplate, transactionTemplate,
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY", jdbc -> new LegacyBatchInserter(jdbc)::insert);
+            double sequence = measure("pooled sequence (500 ids per nextval)", jdbcTemplate, transactionTemplate,
+                "id BIGINT PRIMARY KEY",
+                IdGenerationBenchmark::sequenceInserter);
+
+            System.out.printf("Speed-up: %.2fx%n", sequence / identity);
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private double measure(String name, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           String idColumn, Function<JdbcTemplate, Function<List<FxDeal>, List<FxDeal>>> factory) {
+        double best = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS fx_deals");
+            jdbcTemplate.execute("DROP SEQUENCE IF EXISTS " + FxDeal.ID_SEQUENCE);
+            jdbcTemplate.execute("CREATE TABLE fx_deals (" + idColumn + ", " + COLUMNS + ")");
+            jdbcTemplate.execute("CREATE SEQUENCE " + FxDeal.ID_SEQUENCE + " START WITH 1 INCREMENT BY "
+                + FxDeal.ID_ALLOCATION_SIZE);
+            // A fresh inserter per round: blocks held by an allocator belong to the dropped sequence
+            Function<List<FxDeal>, List<FxDeal>> inserter = factory.apply(jdbcTemplate);
+
+            List<FxDeal> deals = createDeals();
+            long start = System.nanoTime();
+            for (int from = 0; from < deals.size(); from += BATCH_SIZE) {
+                List<FxDeal> batch = deals.subList(from, Math.min(deals.size(), from + BATCH_SIZE));
+                transactionTemplate.execute(status -> inserter.apply(batch));
+            }
+            double dealsPerSecond = deals.size() / ((System.nanoTime() - start) / 1e9);
+            best = Math.max(best, dealsPerSecond);
+        }
+        jdbcTemplate.execute("DROP TABLE fx_deals");
+        jdbcTemplate.execute("DROP SEQUENCE " + FxDeal.ID_SEQUENCE);
+        System.out.printf("%-55s %,12.0f deals/s%n", name, best);
+        return best;
+    }
+
+    private static Function<List<FxDeal>, List<FxDeal>> sequenceInserter(JdbcTemplate jdbcTemplate) {
+        DealIdAllocator allocator = new DealIdAllocator(jdbcTemplate);
+        FxDealBatchRepositoryImpl repository = new FxDealBatchRepositoryImpl(jdbcTemplate);
+        return batch -> {
+            try (DealIdAllocator.IdRange ids = allocator.open(batch.size())) {
+                ids.assignTo(batch);
+                return repository.insertBatch(batch);
+            }
+        };
+    }
+
+    private List<FxDeal> createDeals() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 15, 10, 30);
+        List<FxDeal> deals = new ArrayList<>(DEALS_PER_ROUND);
+        for (int i = 0; i < DEALS_PER_ROUND; i++) {
+            deals.add(FxDeal.builder()
+                .dealUniqueId("BENCH-" + i)
+                .fromCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealTimestamp(timestamp.plusSeconds(i))
+                .dealAmount(FixedPointAmount.ofUnscaled(10_000L + i))
+                .build());
+        }
+        return deals;
+    }
+
+    /**
+     * FxDealBatchRepositoryImpl.insertBatch as it was with an identity id column
+     */
+    static class LegacyBatchInserter {
+
+        private static final String INSERT_SQL = "INSERT INTO fx_deals "
+            + "(deal_unique_id, from_currency_iso_code, to_currency_iso_code, deal_timestamp, deal_amount, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+        private final JdbcTemplate jdbcTemplate;
+
+        LegacyBatchInserter(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        List<FxDeal> insert(List<FxDeal> deals) {
+            LocalDateTime createdAt = LocalDateTime.now();
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        FxDeal deal = deals.get(i);
+                        ps.setString(1, deal.getDealUniqueId());
+                        ps.setString(2, deal.getFromCurrencyIsoCode());
+                        ps.setString(3, deal.getToCurrencyIsoCode());
+                        ps.setObject(4, deal.getDealTimestamp());
+                        ps.setBigDecimal(5, deal.getDealAmount().toBigDecimal());
+                        ps.setObject(6, createdAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return deals.size();
+                    }
+                },
+                keyHolder);
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < deals.size(); i++) {
+                deals.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+                deals.get(i).setCreatedAt(createdAt);
+            }
+            return deals;
+        }
+    }
+}
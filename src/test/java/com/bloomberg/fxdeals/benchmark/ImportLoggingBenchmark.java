@@ -0,0 +1,175 @@
+package com.bloomberg.fxdeals.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.bloomberg.fxdeals.config.ArchiveProperties;
+import com.bloomberg.fxdeals.config.CountingAsyncAppender;
+import com.bloomberg.fxdeals.config.DedupIndexProperties;
+import com.bloomberg.fxdeals.config.ImportProperties;
+import com.bloomberg.fxdeals.config.NearDuplicateProperties;
+import com.bloomberg.fxdeals.config.StatisticsProperties;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.DealIdAllocator;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.bloomberg.fxdeals.service.AdaptiveBatchSizer;
+import com.bloomberg.fxdeals.service.DealIdIndex;
+import com.bloomberg.fxdeals.service.DealStatistics;
+import com.bloomberg.fxdeals.service.DealValidationService;
+import com.bloomberg.fxdeals.service.FxDealService;
+import com.bloomberg.fxdeals.service.ImportLatencyMonitor;
+import com.bloomberg.fxdeals.service.ImportWriterPool;
+import com.bloomberg.fxdeals.service.NearDuplicateDetector;
+import com.bloomberg.fxdeals.service.RejectedDealRecorder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput of FxDealService.importDealsBulk under the development and production
+ * logging setups
+ *
+ * Not part of the regular test run; execute with:
+ *   mvn test -Dtest=ImportLoggingBenchmark
+ */
+class ImportLoggingBenchmark {
+
+    private static final int DEALS_PER_BATCH = 20_000;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path logDir;
+
+    @Test
+    void compareLoggingModes() {
+        List<DealRequest> deals = createDeals();
+
+        double perDealSync = measure("per-deal lines, synchronous file appender",
+            Level.DEBUG, false, Integer.MAX_VALUE, deals);
+        double summaryAsync = measure("batch summary + sampled warnings, async appender",
+            Level.INFO, true, 20, deals);
+
+        System.out.printf("Speed-up: %.2fx%n", summaryAsync / perDealSync);
+        System.out.printf("Async events dropped: %d%n", CountingAsyncAppender.getDroppedCount());
+    }
+
+    private double measure(String name, Level level, boolean async, int warningsPerSecond,
+                           List<DealRequest> deals) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger appLogger = context.getLogger("com.bloomberg.fxdeals");
+        Appender<ILoggingEvent> appender = createAppender(context, name, async);
+        appLogger.detachAndStopAllAppenders();
+        appLogger.setAdditive(false);
+        appLogger.setLevel(level);
+        appLogger.addAppender(appender);
+
+        ImportProperties properties = new ImportProperties();
+        properties.setLogWarningsPerSecond(warningsPerSecond);
+        FxDealRepository repository = createRepository();
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        DealArchiveRepository archive = new DealArchiveRepository(new ArchiveProperties(), repository,
+            mock(JdbcTemplate.class));
+        DealIdAllocator idAllocator = createIdAllocator();
+        FxDealService service = new FxDealService(repository, archive, new DealValidationService(),
+            new DealIdIndex(repository, archive, idAllocator, new DedupIndexProperties()), idAllocator, properties,
+            transactionManager,
+            event -> { }, new DealStatistics(new StatisticsProperties()),
+            new NearDuplicateDetector(new NearDuplicateProperties()), new ImportLatencyMonitor(),
+            new ImportWriterPool(properties, 10), mock(RejectedDealRecorder.class),
+            new AdaptiveBatchSizer(properties));
+
+        double best = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            service.importDealsBulk(deals);
+            double dealsPerSecond = deals.size() / ((System.nanoTime() - start) / 1e9);
+            best = Math.max(best, dealsPerSecond);
+        }
+
+        appLogger.detachAndStopAllAppenders();
+        System.out.printf("%-55s %,12.0f deals/s%n", name, best);
+        return best;
+    }
+
+    private Appender<ILoggingEvent> createAppender(LoggerContext context, String name, boolean async) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setName("file-" + name);
+        file.setFile(logDir.resolve(name.hashCode() + ".log").toString());
+        file.setEncoder(encoder);
+        file.start();
+        if (!async) {
+            return file;
+        }
+
+        CountingAsyncAppender asyncAppender = new CountingAsyncAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setQueueSize(8192);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addAppender(file);
+        asyncAppender.start();
+        return asyncAppender;
+    }
+
+    private DealIdAllocator createIdAllocator() {
+        AtomicLong sequence = new AtomicLong(1);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+            .thenAnswer(invocation -> sequence.getAndAdd(FxDeal.ID_ALLOCATION_SIZE));
+        return new DealIdAllocator(jdbcTemplate);
+    }
+
+    private FxDealRepository createRepository() {
+        FxDealRepository repository = mock(FxDealRepository.class);
+        // Every fifth deal is reported as already stored, to exercise the warning path
+        when(repository.existsByDealUniqueId(anyString()))
+            .thenAnswer(invocation -> invocation.<String>getArgument(0).hashCode() % 5 == 0);
+        when(repository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<FxDeal> batch = invocation.getArgument(0);
+            LocalDateTime createdAt = LocalDateTime.now();
+            for (FxDeal deal : batch) {
+                deal.setCreatedAt(createdAt);
+            }
+            return batch;
+        });
+        return repository;
+    }
+
+    private List<DealRequest> createDeals() {
+        List<DealRequest> deals = new ArrayList<>(DEALS_PER_BATCH);
+        LocalDateTime timestamp = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < DEALS_PER_BATCH; i++) {
+            deals.add(new DealRequest("BENCH-" + i, "USD", "EUR", timestamp, FixedPointAmount.parse("1000.50")));
+        }
+        return deals;
+    }
+}
@@ -0,0 +1,167 @@
+package com.bloomberg.fxdeals.benchmark;
+
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.service.DealValidationService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Cost of validating deals with the hard-coded rules (the previous
+ * DealValidationService, reproduced here) versus the compiled rule set
+ *
+ * Every fourth deal breaks one rule, so both the accepting and the rejecting
+ * paths are measured.
+ *
+ * Not part of the regular test run; execute with:
+ *   mvn test -Dtest=ValidationBenchmark
+ */
+class ValidationBenchmark {
+
+    private static final int DEALS_PER_BATCH = 100_000;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void compareValidators() {
+        List<DealRequest> deals = createDeals();
+        LegacyDealValidationService legacy = new LegacyDealValidationService();
+        DealValidationService compiled = new DealValidationService();
+
+        double hardCoded = measure("hard-coded rules", deals, legacy::validateDeal);
+        double ruleSet = measure("compiled rule set", deals, compiled::validateDeal);
+
+        System.out.printf("Speed-up: %.2fx%n", ruleSet / hardCoded);
+    }
+
+    private double measure(String name, List<DealRequest> deals, Function<DealRequest, List<String>> validator) {
+        double best = 0;
+        long errors = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (DealRequest deal : deals) {
+                errors += validator.apply(deal).size();
+            }
+            double dealsPerSecond = deals.size() / ((System.nanoTime() - start) / 1e9);
+            best = Math.max(best, dealsPerSecond);
+        }
+        System.out.printf("%-55s %,12.0f deals/s (%d errors)%n", name, best, errors / ROUNDS);
+        return best;
+    }
+
+    private List<DealRequest> createDeals() {
+        String[] currencies = {"USD", "EUR", "GBP", "JPY", "CHF", "AUD", "usd", "THB"};
+        LocalDateTime now = LocalDateTime.now().minusMinutes(1);
+        List<DealRequest> deals = new ArrayList<>(DEALS_PER_BATCH);
+        for (int i = 0; i < DEALS_PER_BATCH; i++) {
+            DealRequest deal = new DealRequest();
+            deal.setDealUniqueId("BENCH-" + i);
+            deal.setFromCurrencyIsoCode(currencies[i % currencies.length]);
+            deal.setToCurrencyIsoCode(i % 4 == 1 ? "EU1" : currencies[(i + 1) % currencies.length]);
+            deal.setDealTimestamp(i % 4 == 2 ? now.plusDays(1) : now.minusSeconds(i));
+            deal.setDealAmount(i % 4 == 3 ? FixedPointAmount.ZERO : FixedPointAmount.ofUnscaled(10_000L + i));
+            deals.add(deal);
+        }
+        return deals;
+    }
+
+    /**
+     * DealValidationService as it was before the rules became configurable
+     */
+    static class LegacyDealValidationService {
+
+        private static final Logger logger = LoggerFactory.getLogger(LegacyDealValidationService.class);
+
+        private static final Pattern CURRENCY_CODE_PATTERN = Pattern.compile("^[A-Z]{3}$");
+
+        private static final List<String> VALID_CURRENCY_CODES = List.of(
+            "USD", "EUR", "GBP", "JPY", "AUD", "CAD", "CHF", "CNY", "HKD", "NZD",
+            "SEK", "NOK", "DKK", "PLN", "ZAR", "SGD", "MXN", "INR", "BRL", "KRW"
+        );
+
+        private static final long MAX_AMOUNT_UNSCALED = 1_000_000_000_000L * FixedPointAmount.ONE;
+
+        List<String> validateDeal(DealRequest dealRequest) {
+            List<String> errors = new ArrayList<>();
+            if (dealRequest == null) {
+                errors.add("Deal request cannot be null");
+                return errors;
+            }
+            validateDealUniqueId(dealRequest.getDealUniqueId(), errors);
+            validateCurrencyCode(dealRequest.getFromCurrencyIsoCode(), "From Currency", errors);
+            validateCurrencyCode(dealRequest.getToCurrencyIsoCode(), "To Currency", errors);
+            if (dealRequest.getFromCurrencyIsoCode() != null &&
+                dealRequest.getToCurrencyIsoCode() != null &&
+                dealRequest.getFromCurrencyIsoCode().equals(dealRequest.getToCurrencyIsoCode())) {
+                errors.add("From Currency and To Currency must be different");
+            }
+            validateDealTimestamp(dealRequest.getDealTimestamp(), errors);
+            validateDealAmount(dealRequest.getDealAmount(), errors);
+            return errors;
+        }
+
+        private void validateDealUniqueId(String dealUniqueId, List<String> errors) {
+            if (dealUniqueId == null || dealUniqueId.trim().isEmpty()) {
+                errors.add("Deal Unique Id is required and cannot be empty");
+            } else if (dealUniqueId.length() > 100) {
+                errors.add("Deal Unique Id must not exceed 100 characters");
+            } else if (dealUniqueId.trim().length() != dealUniqueId.length()) {
+                errors.add("Deal Unique Id cannot have leading or trailing whitespace");
+            }
+        }
+
+        private void validateCurrencyCode(String currencyCode, String fieldName, List<String> errors) {
+            if (currencyCode == null || currencyCode.trim().isEmpty()) {
+                errors.add(fieldName + " ISO Code is required");
+                return;
+            }
+            String trimmed = currencyCode.trim().toUpperCase();
+            if (trimmed.length() != 3) {
+                errors.add(fieldName + " ISO Code must be exactly 3 characters");
+                return;
+            }
+            if (!CURRENCY_CODE_PATTERN.matcher(trimmed).matches()) {
+                errors.add(fieldName + " ISO Code must be 3 uppercase letters (A-Z)");
+                return;
+            }
+            if (!VALID_CURRENCY_CODES.contains(trimmed)) {
+                logger.debug("Currency code {} is not in the common list, but format is valid", trimmed);
+            }
+        }
+
+        private void validateDealTimestamp(LocalDateTime dealTimestamp, List<String> errors) {
+            if (dealTimestamp == null) {
+                errors.add("Deal timestamp is required");
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (dealTimestamp.isAfter(now)) {
+                errors.add("Deal timestamp cannot be in the future");
+            }
+            if (dealTimestamp.isBefore(now.minusYears(10))) {
+                errors.add("Deal timestamp is too old (more than 10 years)");
+            }
+        }
+
+        private void validateDealAmount(FixedPointAmount dealAmount, List<String> errors) {
+            if (dealAmount == null) {
+                errors.add("Deal amount is required");
+                return;
+            }
+            long unscaled = dealAmount.unscaledValue();
+            if (unscaled <= 0) {
+                errors.add("Deal amount must be greater than 0");
+                return;
+            }
+            if (unscaled > MAX_AMOUNT_UNSCALED) {
+                errors.add("Deal amount exceeds maximum allowed value");
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.bloomberg.fxdeals.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for read/write routing, using two in-memory H2 databases
+ * as primary and replica stand-ins
+ */
+class ReplicationRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    /** The application's routing, JPA and transaction configuration, with pool sizes set through properties */
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class))
+        .withUserConfiguration(DataSourceRoutingConfig.class, TransactionConfig.class, RoleReaderConfig.class)
+        .withPropertyValues(
+            "fxdeals.datasource.routing.enabled=true",
+            "spring.datasource.url=" + PRIMARY_URL,
+            "spring.datasource.username=sa",
+            "spring.datasource.hikari.maximum-pool-size=4",
+            "fxdeals.datasource.replica.jdbc-url=" + REPLICA_URL,
+            "fxdeals.datasource.replica.username=sa",
+            "fxdeals.datasource.replica.maximum-pool-size=2",
+            "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "spring.jpa.hibernate.ddl-auto=none");
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        primary = createPool(PRIMARY_URL, "primary");
+        replica = createPool(REPLICA_URL, "replica");
+
+        DataSource routing = DataSourceRoutingConfig.createRoutingDataSource(primary, replica);
+        jdbcTemplate = new JdbcTemplate(routing);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routing));
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void testReadOnlyTransaction_RoutesToReplica() {
+        transactionTemplate.setReadOnly(true);
+
+        String role = transactionTemplate.execute(status -> currentRole());
+
+        assertThat(role).isEqualTo("replica");
+    }
+
+    @Test
+    void testReadWriteTransaction_RoutesToPrimary() {
+        String role = transactionTemplate.execute(status -> currentRole());
+
+        assertThat(role).isEqualTo("primary");
+    }
+
+    @Test
+    void testNoTransaction_RoutesToPrimary() {
+        assertThat(currentRole()).isEqualTo("primary");
+    }
+
+    @Test
+    void testPools_SizedFromTheirOwnProperties() {
+        contextRunner.run(context -> {
+            HikariDataSource primaryPool = context.getBean("primaryDataSource", HikariDataSource.class);
+            HikariDataSource replicaPool = context.getBean("replicaDataSource", HikariDataSource.class);
+
+            assertThat(primaryPool.getPoolName()).isEqualTo(DataSourceRoutingConfig.PRIMARY_POOL_NAME);
+            assertThat(primaryPool.getMaximumPoolSize()).isEqualTo(4);
+            assertThat(replicaPool.getPoolName()).isEqualTo(DataSourceRoutingConfig.REPLICA_POOL_NAME);
+            assertThat(replicaPool.getMaximumPoolSize()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void testReadOnlyTransactional_ThroughJpaTransactionManager_RoutesToReplica() {
+        contextRunner.run(context -> {
+            assertThat(context.getBean("transactionManager")).isInstanceOf(JpaTransactionManager.class);
+            RoleReader reader = context.getBean(RoleReader.class);
+
+            assertThat(reader.readOnlyRole()).isEqualTo("replica");
+            assertThat(reader.readWriteRole()).isEqualTo("primary");
+        });
+    }
+
+    private String currentRole() {
+        return jdbcTemplate.queryForObject("SELECT role FROM node_role", String.class);
+    }
+
+    private HikariDataSource createPool(String url, String role) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setPoolName("test-" + role);
+
+        JdbcTemplate setup = new JdbcTemplate(dataSource);
+        setup.execute("CREATE TABLE IF NOT EXISTS node_role (role VARCHAR(16))");
+        setup.execute("DELETE FROM node_role");
+        setup.update("INSERT INTO node_role (role) VALUES (?)", role);
+        return dataSource;
+    }
+
+    @Configuration
+    static class RoleReaderConfig {
+
+        @Bean
+        RoleReader roleReader() {
+            return new RoleReader();
+        }
+    }
+
+    /**
+     * Reads node_role through JPA, the way the lookup services read deals
+     */
+    static class RoleReader {
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Transactional(readOnly = true)
+        public String readOnlyRole() {
+            return role();
+        }
+
+        @Transactional
+        public String readWriteRole() {
+            return role();
+        }
+
+        private String role() {
+            return (String) entityManager.createNativeQuery("SELECT role FROM node_role").getSingleResult();
+        }
+    }
+}
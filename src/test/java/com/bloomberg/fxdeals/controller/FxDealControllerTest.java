@@ -1,24 +1,42 @@
 package com.bloomberg.fxdeals.controller;
 
+import com.bloomberg.fxdeals.config.AdmissionProperties;
+import com.bloomberg.fxdeals.config.IdempotencyProperties;
 import com.bloomberg.fxdeals.dto.BulkDealRequest;
 import com.bloomberg.fxdeals.dto.BulkDealResponse;
+import com.bloomberg.fxdeals.dto.DealLookupRequest;
+import com.bloomberg.fxdeals.dto.DealLookupResponse;
 import com.bloomberg.fxdeals.dto.DealRequest;
 import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.exception.AdmissionRejectedException;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.service.DealLookupService;
 import com.bloomberg.fxdeals.service.FxDealService;
+import com.bloomberg.fxdeals.service.IdempotencyService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -26,7 +44,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 /**
  * Unit tests for FxDealController
  */
-@WebMvcTest(FxDealController.class)
+@WebMvcTest(controllers = FxDealController.class, properties = "fxdeals.admission.max-wait=0s")
+@Import({IdempotencyService.class, IdempotencyProperties.class, AdmissionProperties.class})
 class FxDealControllerTest {
 
     @Autowired
@@ -35,9 +54,15 @@ class FxDealControllerTest {
     @MockBean
     private FxDealService dealService;
 
+    @MockBean
+    private DealLookupService lookupService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ImportAdmissionInterceptor admissionInterceptor;
+
     private DealRequest validDealRequest;
     private DealResponse dealResponse;
 
@@ -48,7 +73,7 @@ class FxDealControllerTest {
         validDealRequest.setFromCurrencyIsoCode("USD");
         validDealRequest.setToCurrencyIsoCode("EUR");
         validDealRequest.setDealTimestamp(LocalDateTime.now().minusHours(1));
-        validDealRequest.setDealAmount(new BigDecimal("1000.50"));
+        validDealRequest.setDealAmount(FixedPointAmount.parse("1000.50"));
 
         dealResponse = DealResponse.builder()
             .id(1L)
@@ -86,6 +111,34 @@ class FxDealControllerTest {
                 .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
     }
 
+    @Test
+    void testImportDeal_TooManyDecimalPlaces_ReturnsBadRequest() throws Exception {
+        String body = objectMapper.writeValueAsString(validDealRequest)
+            .replace("1000.5000", "1000.12345");
+
+        mockMvc.perform(post("/api/v1/deals")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"))
+                .andExpect(jsonPath("$.errors.dealAmount")
+                    .value("Deal amount cannot have more than 4 decimal places"));
+    }
+
+    @Test
+    void testImportDeal_TimestampAheadByClockSkew_ReachesService() throws Exception {
+        // Whether it is too far ahead depends on fxdeals.validation.future-tolerance, checked by the service
+        validDealRequest.setDealTimestamp(LocalDateTime.now().plusSeconds(2));
+        when(dealService.importDeal(any(DealRequest.class))).thenReturn(dealResponse);
+
+        mockMvc.perform(post("/api/v1/deals")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validDealRequest)))
+                .andExpect(status().isCreated());
+
+        verify(dealService).importDeal(any(DealRequest.class));
+    }
+
     @Test
     void testImportDeal_DuplicateDeal_ReturnsConflict() throws Exception {
         when(dealService.importDeal(any(DealRequest.class)))
@@ -121,6 +174,110 @@ class FxDealControllerTest {
                 .andExpect(jsonPath("$.successfullyImported").value(1));
     }
 
+    @Test
+    void testImportDealsBulk_InvalidDeal_ReturnsBadRequest() throws Exception {
+        DealRequest invalidDeal = new DealRequest("DEAL-002", "USD", "usd",
+            validDealRequest.getDealTimestamp(), validDealRequest.getDealAmount());
+        BulkDealRequest bulkRequest = new BulkDealRequest();
+        bulkRequest.setDeals(List.of(validDealRequest, invalidDeal));
+
+        mockMvc.perform(post("/api/v1/deals/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bulkRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"))
+                .andExpect(jsonPath("$.errors['deals[1].toCurrencyIsoCode']")
+                    .value("To Currency ISO Code must be 3 uppercase letters"));
+    }
+
+    @Test
+    void testImportDealsBulk_AdmissionSaturated_ReturnsTooManyRequests() throws Exception {
+        BulkDealRequest bulkRequest = new BulkDealRequest();
+        bulkRequest.setDeals(List.of(validDealRequest));
+
+        // Hold every permit of the real interceptor, as imports in flight would
+        List<MockHttpServletRequest> inFlight = new ArrayList<>();
+        try {
+            while (true) {
+                MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/deals/bulk");
+                try {
+                    admissionInterceptor.preHandle(request, new MockHttpServletResponse(), null);
+                } catch (AdmissionRejectedException e) {
+                    break;
+                }
+                inFlight.add(request);
+            }
+            assertThat(inFlight).isNotEmpty();
+
+            mockMvc.perform(post("/api/v1/deals/bulk")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(bulkRequest)))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.errorCode").value("TOO_MANY_REQUESTS"));
+        } finally {
+            for (MockHttpServletRequest request : inFlight) {
+                admissionInterceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+            }
+        }
+        verify(dealService, never()).importDealsBulk(any(List.class));
+    }
+
+    @Test
+    void testImportDealsBulk_SameIdempotencyKey_ReplaysResult() throws Exception {
+        BulkDealRequest bulkRequest = new BulkDealRequest();
+        bulkRequest.setDeals(List.of(validDealRequest));
+
+        when(dealService.importDealsBulk(any(List.class))).thenReturn(BulkDealResponse.builder()
+            .totalReceived(1)
+            .successfullyImported(1)
+            .skippedDuplicates(0)
+            .failed(0)
+            .errors(List.of())
+            .importedDeals(List.of(dealResponse))
+            .build());
+        String body = objectMapper.writeValueAsString(bulkRequest);
+
+        mockMvc.perform(post("/api/v1/deals/bulk")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "bulk-replay-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyService.REPLAYED_HEADER));
+
+        mockMvc.perform(post("/api/v1/deals/bulk")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "bulk-replay-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.successfullyImported").value(1))
+                .andExpect(jsonPath("$.importedDeals").isEmpty());
+
+        verify(dealService, times(1)).importDealsBulk(any(List.class));
+    }
+
+    @Test
+    void testImportDeal_IdempotencyKeyReusedForOtherPayload_ReturnsUnprocessableEntity() throws Exception {
+        when(dealService.importDeal(any(DealRequest.class))).thenReturn(dealResponse);
+
+        mockMvc.perform(post("/api/v1/deals")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "deal-mismatch-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validDealRequest)))
+                .andExpect(status().isCreated());
+
+        validDealRequest.setDealAmount(FixedPointAmount.parse("2000"));
+        mockMvc.perform(post("/api/v1/deals")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "deal-mismatch-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validDealRequest)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorCode").value("IDEMPOTENCY_KEY_MISMATCH"));
+
+        verify(dealService, times(1)).importDeal(any(DealRequest.class));
+    }
+
     @Test
     void testGetAllDeals_ReturnsOk() throws Exception {
         when(dealService.getAllDeals()).thenReturn(List.of(dealResponse));
@@ -147,5 +304,50 @@ class FxDealControllerTest {
         mockMvc.perform(get("/api/v1/deals/DEAL-999"))
                 .andExpect(status().isNotFound());
     }
-}
 
+    @Test
+    void testLookupDeals_ReturnsFoundAndMissing() throws Exception {
+        when(lookupService.lookup(List.of("DEAL-001", "DEAL-404"))).thenReturn(DealLookupResponse.builder()
+            .requested(2).found(1).missing(1)
+            .deals(List.of(dealResponse))
+            .missingDealUniqueIds(List.of("DEAL-404"))
+            .build());
+
+        mockMvc.perform(post("/api/v1/deals/lookup")
+                .accept(MediaType.ALL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new DealLookupRequest(List.of("DEAL-001", "DEAL-404")))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.found").value(1))
+                .andExpect(jsonPath("$.deals[0].dealUniqueId").value("DEAL-001"))
+                .andExpect(jsonPath("$.missingDealUniqueIds[0]").value("DEAL-404"));
+    }
+
+    @Test
+    void testLookupDeals_Ndjson_StreamsOneLinePerId() throws Exception {
+        List<String> ids = List.of("DEAL-001", "DEAL-404");
+        doAnswer(invocation -> {
+            DealLookupService.ResultHandler handler = invocation.getArgument(1);
+            handler.found(dealResponse);
+            handler.missing("DEAL-404");
+            return 2;
+        }).when(lookupService).lookup(eq(ids), any(DealLookupService.ResultHandler.class));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/deals/lookup")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new DealLookupRequest(ids))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("\"dealUniqueId\":\"DEAL-001\"", "\"found\":true", "\"deal\":{");
+        assertThat(lines.get(1)).isEqualTo("{\"dealUniqueId\":\"DEAL-404\",\"found\":false}");
+    }
+}
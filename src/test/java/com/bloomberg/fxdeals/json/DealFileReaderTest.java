@@ -0,0 +1,126 @@
+package com.bloomberg.fxdeals.json;
+
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for DealFileReader
+ */
+class DealFileReaderTest {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    void testNext_Ndjson_ReadsEachLineAndReportsInvalidDeals() throws IOException {
+        String file = """
+            {"dealUniqueId":"N1","fromCurrencyIsoCode":"USD","toCurrencyIsoCode":"EUR","dealTimestamp":"2024-01-15T10:30:00","dealAmount":10}
+            {"dealUniqueId":"N2","fromCurrencyIsoCode":"usd","toCurrencyIsoCode":"EUR","dealTimestamp":"2024-01-15T10:30:00","dealAmount":10}
+            {"dealUniqueId":"N3","fromCurrencyIsoCode":"GBP","toCurrencyIsoCode":"JPY","dealTimestamp":"2024-01-15T10:30:00","dealAmount":"5.25"}
+            """;
+
+        List<DealFileReader.DealRecord> records = readAll(DealFileReader.Format.NDJSON, file);
+
+        assertThat(records).extracting(DealFileReader.DealRecord::index).containsExactly(0, 1, 2);
+        assertThat(records.get(0).error()).isNull();
+        assertThat(records.get(1).error()).isEqualTo("From Currency ISO Code must be 3 uppercase letters");
+        assertThat(records.get(2).deal().getDealAmount()).isEqualTo(FixedPointAmount.parse("5.25"));
+    }
+
+    @Test
+    void testNext_JsonBulkBody_ReadsDealsArray() throws IOException {
+        String file = """
+            {"source":"upstream","deals":[
+              {"dealUniqueId":"J1","fromCurrencyIsoCode":"USD","toCurrencyIsoCode":"EUR","dealTimestamp":"2024-01-15T10:30:00","dealAmount":10},
+              {"dealUniqueId":"J2","fromCurrencyIsoCode":"EUR","toCurrencyIsoCode":"USD","dealTimestamp":"2024-01-15T10:31:00","dealAmount":20}
+            ]}""";
+
+        List<DealFileReader.DealRecord> records = readAll(DealFileReader.Format.JSON, file);
+
+        assertThat(records).extracting(record -> record.deal().getDealUniqueId()).containsExactly("J1", "J2");
+        assertThat(records).allSatisfy(record -> assertThat(record.error()).isNull());
+    }
+
+    @Test
+    void testNext_Csv_MapsColumnsByHeader() throws IOException {
+        String file = """
+            dealAmount,dealUniqueId,fromCurrencyIsoCode,toCurrencyIsoCode,dealTimestamp
+            100.5,"C1",USD,EUR,2024-01-15T10:30:00
+
+            abc,C2,USD,EUR,2024-01-15T10:30:00
+            """;
+
+        List<DealFileReader.DealRecord> records = readAll(DealFileReader.Format.CSV, file);
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).error()).isNull();
+        assertThat(records.get(0).deal().getDealUniqueId()).isEqualTo("C1");
+        assertThat(records.get(0).deal().getDealTimestamp()).isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30));
+        assertThat(records.get(0).deal().getDealAmount()).isEqualTo(FixedPointAmount.parse("100.5"));
+        assertThat(records.get(1).error()).isEqualTo("Deal amount must be a decimal number");
+    }
+
+    @Test
+    void testNext_CsvQuotedFields_KeepCommasQuotesAndLineBreaks() throws IOException {
+        String file = """
+            dealUniqueId,fromCurrencyIsoCode,toCurrencyIsoCode,dealTimestamp,dealAmount
+            "C1,a",USD,EUR,2024-01-15T10:30:00,10
+            "C2 ""x""\", USD ,EUR,2024-01-15T10:30:00,10
+            "C3
+            b",USD,EUR,2024-01-15T10:30:00,"10"
+            C4,USD,EUR,2024-01-15T10:30:00,10
+            """;
+
+        List<DealFileReader.DealRecord> records = readAll(DealFileReader.Format.CSV, file);
+
+        assertThat(records).extracting(DealFileReader.DealRecord::error).containsOnlyNulls();
+        assertThat(records).extracting(record -> record.deal().getDealUniqueId())
+            .containsExactly("C1,a", "C2 \"x\"", "C3\nb", "C4");
+        assertThat(records.get(1).deal().getFromCurrencyIsoCode()).isEqualTo("USD");
+    }
+
+    @Test
+    void testNext_CsvUnclosedQuote_ReportedAsInvalidDeal() throws IOException {
+        String file = """
+            dealUniqueId,fromCurrencyIsoCode,toCurrencyIsoCode,dealTimestamp,dealAmount
+            C1,USD,EUR,2024-01-15T10:30:00,10
+            "C2,USD,EUR,2024-01-15T10:30:00,10
+            """;
+
+        List<DealFileReader.DealRecord> records = readAll(DealFileReader.Format.CSV, file);
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).error()).isNull();
+        assertThat(records.get(1).error()).isEqualTo("Quoted field is not closed");
+    }
+
+    @Test
+    void testOpen_CsvHeaderWithoutRequiredColumn_Throws() {
+        String file = "dealUniqueId,fromCurrencyIsoCode,toCurrencyIsoCode,dealTimestamp\n";
+
+        assertThatThrownBy(() -> readAll(DealFileReader.Format.CSV, file))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("dealAmount");
+    }
+
+    private List<DealFileReader.DealRecord> readAll(DealFileReader.Format format, String content) throws IOException {
+        List<DealFileReader.DealRecord> records = new ArrayList<>();
+        try (DealFileReader reader = DealFileReader.open(format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), jsonFactory)) {
+            for (DealFileReader.DealRecord record = reader.next(); record != null; record = reader.next()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,128 @@
+package com.bloomberg.fxdeals.json;
+
+import com.bloomberg.fxdeals.dto.BulkDealRequest;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.exception.InvalidPayloadException;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Unit tests for DealRequestDeserializer and BulkDealRequestDeserializer
+ */
+class DealRequestDeserializerTest {
+
+    private static final String VALID_DEAL = """
+        {"dealUniqueId":"DEAL-001","fromCurrencyIsoCode":"USD","toCurrencyIsoCode":"EUR",
+         "dealTimestamp":"2024-01-15T10:30:00","dealAmount":1000.50}""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testReadDeal_ValidPayload_BindsAllFields() throws Exception {
+        DealRequest deal = objectMapper.readValue(VALID_DEAL, DealRequest.class);
+
+        assertThat(deal.getDealUniqueId()).isEqualTo("DEAL-001");
+        assertThat(deal.getFromCurrencyIsoCode()).isEqualTo("USD");
+        assertThat(deal.getToCurrencyIsoCode()).isEqualTo("EUR");
+        assertThat(deal.getDealTimestamp()).isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30));
+        assertThat(deal.getDealAmount()).isEqualTo(FixedPointAmount.parse("1000.5"));
+    }
+
+    @Test
+    void testReadDeal_CurrencyCodesAreShared() throws Exception {
+        DealRequest first = objectMapper.readValue(VALID_DEAL, DealRequest.class);
+        DealRequest second = objectMapper.readValue(VALID_DEAL, DealRequest.class);
+
+        assertThat(first.getFromCurrencyIsoCode()).isSameAs(second.getFromCurrencyIsoCode());
+        assertThat(first.getToCurrencyIsoCode()).isSameAs(second.getToCurrencyIsoCode());
+    }
+
+    @Test
+    void testReadDeal_TimestampLayouts() throws Exception {
+        assertThat(readTimestamp("2024-01-15T10:30:00.123"))
+            .isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_000_000));
+        assertThat(readTimestamp("2024-01-15T10:30:00.123456789"))
+            .isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_789));
+        // Not the canonical layout, handled by the ISO fallback
+        assertThat(readTimestamp("2024-01-15T10:30"))
+            .isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30));
+    }
+
+    @Test
+    void testReadDeal_InvalidFields_ReportsAllErrors() {
+        String json = """
+            {"dealUniqueId":"  ","fromCurrencyIsoCode":"usd","toCurrencyIsoCode":"EURO",
+             "dealTimestamp":"2024-02-30T10:30:00","dealAmount":1.12345,"comment":{"ignored":[1,2]}}""";
+
+        InvalidPayloadException ex = catchThrowableOfType(
+            () -> objectMapper.readValue(json, DealRequest.class), InvalidPayloadException.class);
+
+        assertThat(ex.getFieldErrors())
+            .containsEntry("dealUniqueId", "Deal Unique Id is required")
+            .containsEntry("fromCurrencyIsoCode", "From Currency ISO Code must be 3 uppercase letters")
+            .containsEntry("toCurrencyIsoCode", "To Currency ISO Code must be exactly 3 characters")
+            .containsEntry("dealTimestamp", "Deal timestamp must be an ISO-8601 date-time")
+            .containsEntry("dealAmount", "Deal amount cannot have more than 4 decimal places")
+            .hasSize(5);
+    }
+
+    @Test
+    void testReadDeal_MissingFields_ReportsErrorsButLeavesFutureTimestampToValidation() {
+        String json = """
+            {"dealUniqueId":"DEAL-001","fromCurrencyIsoCode":"USD",
+             "dealTimestamp":"%s"}""".formatted(LocalDateTime.now().plusDays(1).withNano(0));
+
+        InvalidPayloadException ex = catchThrowableOfType(
+            () -> objectMapper.readValue(json, DealRequest.class), InvalidPayloadException.class);
+
+        assertThat(ex.getFieldErrors())
+            .containsEntry("toCurrencyIsoCode", "To Currency ISO Code is required")
+            .containsEntry("dealAmount", "Deal amount is required")
+            .hasSize(2);
+    }
+
+    @Test
+    void testReadBulk_ValidPayload_BindsEveryDeal() throws Exception {
+        String json = "{\"deals\":[" + VALID_DEAL + "," + VALID_DEAL.replace("DEAL-001", "DEAL-002") + "]}";
+
+        BulkDealRequest bulk = objectMapper.readValue(json, BulkDealRequest.class);
+
+        assertThat(bulk.getDeals()).extracting(DealRequest::getDealUniqueId)
+            .containsExactly("DEAL-001", "DEAL-002");
+    }
+
+    @Test
+    void testReadBulk_InvalidElements_ReportsIndexedPaths() {
+        String json = "{\"deals\":[" + VALID_DEAL + ",null," + VALID_DEAL.replace("\"EUR\"", "\"US\"") + "]}";
+
+        InvalidPayloadException ex = catchThrowableOfType(
+            () -> objectMapper.readValue(json, BulkDealRequest.class), InvalidPayloadException.class);
+
+        assertThat(ex.getFieldErrors())
+            .containsEntry("deals[1]", "Deal is required")
+            .containsEntry("deals[2].toCurrencyIsoCode", "To Currency ISO Code must be exactly 3 characters")
+            .hasSize(2);
+    }
+
+    @Test
+    void testReadBulk_MissingOrEmptyList_ReportsError() {
+        InvalidPayloadException missing = catchThrowableOfType(
+            () -> objectMapper.readValue("{}", BulkDealRequest.class), InvalidPayloadException.class);
+        InvalidPayloadException empty = catchThrowableOfType(
+            () -> objectMapper.readValue("{\"deals\":[]}", BulkDealRequest.class), InvalidPayloadException.class);
+
+        assertThat(missing.getFieldErrors()).containsEntry("deals", "Deals list is required");
+        assertThat(empty.getFieldErrors()).containsEntry("deals", "Deals list cannot be empty");
+    }
+
+    private LocalDateTime readTimestamp(String timestamp) throws Exception {
+        return objectMapper.readValue(VALID_DEAL.replace("2024-01-15T10:30:00", timestamp), DealRequest.class)
+            .getDealTimestamp();
+    }
+}
@@ -0,0 +1,116 @@
+package com.bloomberg.fxdeals.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for FixedPointAmount and its codecs
+ */
+class FixedPointAmountTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testParse_PlainDecimals_ScalesToLong() {
+        assertThat(FixedPointAmount.parse("1000.5").unscaledValue()).isEqualTo(10_005_000L);
+        assertThat(FixedPointAmount.parse("1000.50").unscaledValue()).isEqualTo(10_005_000L);
+        assertThat(FixedPointAmount.parse("0.0001").unscaledValue()).isEqualTo(1L);
+        assertThat(FixedPointAmount.parse("-3").unscaledValue()).isEqualTo(-30_000L);
+        assertThat(FixedPointAmount.parse("12.340000").unscaledValue()).isEqualTo(123_400L);
+        assertThat(FixedPointAmount.parse("1.5E+3").unscaledValue()).isEqualTo(15_000_000L);
+    }
+
+    @Test
+    void testParse_ExponentShiftsExtraDecimals_Accepted() {
+        // Double.toString and Jackson write amounts of 1e7 and more in this form
+        assertThat(FixedPointAmount.parse("1.2345678E7")).isEqualTo(FixedPointAmount.parse("12345678"));
+        assertThat(FixedPointAmount.parse("1.23456e2")).isEqualTo(FixedPointAmount.parse("123.456"));
+        assertThat(FixedPointAmount.parse("0.00005e1")).isEqualTo(FixedPointAmount.parse("0.0005"));
+        assertThatThrownBy(() -> FixedPointAmount.parse("1.23456e-1"))
+            .isInstanceOf(ArithmeticException.class)
+            .hasMessageContaining("4 decimal places");
+    }
+
+    @Test
+    void testParse_InvalidInput_Throws() {
+        assertThatThrownBy(() -> FixedPointAmount.parse("1.00001"))
+            .isInstanceOf(ArithmeticException.class)
+            .hasMessageContaining("more than 4 decimal places");
+        assertThatThrownBy(() -> FixedPointAmount.parse("1000000000000000000"))
+            .isInstanceOf(ArithmeticException.class)
+            .hasMessageContaining("out of range");
+        assertThatThrownBy(() -> FixedPointAmount.parse("99999999999999999999999"))
+            .isInstanceOf(ArithmeticException.class)
+            .hasMessageContaining("out of range");
+        assertThatThrownBy(() -> FixedPointAmount.parse("12a"))
+            .isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> FixedPointAmount.parse("-"))
+            .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void testParse_HugeExponent_RejectedWithoutExpanding() {
+        assertThatThrownBy(() -> FixedPointAmount.parse("1e999999999"))
+            .isInstanceOf(ArithmeticException.class)
+            .hasMessageContaining("out of range");
+        assertThatThrownBy(() -> FixedPointAmount.parse("1e16"))
+            .isInstanceOf(ArithmeticException.class)
+            .hasMessageContaining("out of range");
+        assertThatThrownBy(() -> FixedPointAmount.parse("1e-999999999"))
+            .isInstanceOf(ArithmeticException.class)
+            .hasMessageContaining("more than 4 decimal places");
+        assertThat(FixedPointAmount.parse("100000000000000000000e-10").unscaledValue())
+            .isEqualTo(100_000_000_000_000L);
+    }
+
+    @Test
+    void testArithmetic_Overflow_Throws() {
+        FixedPointAmount max = FixedPointAmount.ofUnscaled(Long.MAX_VALUE);
+
+        assertThat(FixedPointAmount.parse("1.25").add(FixedPointAmount.parse("2.75")))
+            .isEqualTo(FixedPointAmount.parse("4"));
+        assertThat(FixedPointAmount.parse("1").subtract(FixedPointAmount.parse("1.5")))
+            .isEqualTo(FixedPointAmount.parse("-0.5"));
+        assertThatThrownBy(() -> max.add(FixedPointAmount.ofUnscaled(1)))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPointAmount.ofUnscaled(Long.MIN_VALUE).negate())
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void testToString_AlwaysFourDecimals() {
+        assertThat(FixedPointAmount.parse("1000.5")).hasToString("1000.5000");
+        assertThat(FixedPointAmount.parse("-0.25")).hasToString("-0.2500");
+        assertThat(FixedPointAmount.ZERO).hasToString("0.0000");
+        assertThat(FixedPointAmount.parse("7.0001").toBigDecimal()).isEqualByComparingTo("7.0001");
+    }
+
+    @Test
+    void testJson_RoundTrip() throws Exception {
+        assertThat(objectMapper.writeValueAsString(FixedPointAmount.parse("1000.5"))).isEqualTo("1000.5000");
+        assertThat(objectMapper.readValue("1000.25", FixedPointAmount.class))
+            .isEqualTo(FixedPointAmount.parse("1000.25"));
+        assertThat(objectMapper.readValue("42", FixedPointAmount.class))
+            .isEqualTo(FixedPointAmount.parse("42"));
+        assertThat(objectMapper.readValue("\"0.1\"", FixedPointAmount.class))
+            .isEqualTo(FixedPointAmount.parse("0.1"));
+        assertThatThrownBy(() -> objectMapper.readValue("1.12345", FixedPointAmount.class))
+            .isInstanceOf(InvalidFormatException.class);
+    }
+
+    @Test
+    void testConverter_RoundTripsNumericColumn() {
+        FixedPointAmountConverter converter = new FixedPointAmountConverter();
+
+        BigDecimal column = converter.convertToDatabaseColumn(FixedPointAmount.parse("1000.5"));
+        assertThat(column).isEqualTo(new BigDecimal("1000.5000"));
+        assertThat(converter.convertToEntityAttribute(column)).isEqualTo(FixedPointAmount.parse("1000.5"));
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+}
@@ -0,0 +1,187 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.config.ArchiveProperties;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DealArchiveRepository and the DealSegment file format
+ */
+class DealArchiveRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private final FxDealRepository dealRepository = mock(FxDealRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private ArchiveProperties properties;
+    private DealArchiveRepository archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new ArchiveProperties();
+        properties.setPath(directory.toString());
+        properties.setBlockSize(4);
+        archive = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        archive.destroy();
+    }
+
+    @Test
+    void testPublish_DealsFoundThroughSparseIndex() throws IOException {
+        List<FxDeal> deals = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            deals.add(deal(i + 1, "D" + (1000 - i * 7)));
+        }
+        List<Long> removed = new ArrayList<>();
+
+        archive.publish(archive.writePending(deals), () -> removed.add(1L));
+
+        assertThat(removed).hasSize(1);
+        assertThat(archive.getSegmentCount()).isEqualTo(1);
+        assertThat(archive.getDealCount()).isEqualTo(50);
+        assertThat(archive.getMaxId()).isEqualTo(50);
+        for (FxDeal deal : deals) {
+            assertThat(archive.findByDealUniqueId(deal.getDealUniqueId())).contains(deal);
+        }
+        assertThat(archive.findByDealUniqueId("D999")).isEmpty();
+        assertThat(archive.findByDealUniqueId("A")).isEmpty();
+        assertThat(archive.findByDealUniqueId("Z")).isEmpty();
+
+        List<String> streamed = new ArrayList<>();
+        archive.forEach(deal -> streamed.add(deal.getDealUniqueId()));
+        assertThat(streamed).hasSize(50).isSorted();
+    }
+
+    @Test
+    void testFindByDealUniqueIds_FindsAcrossSegmentsAndBlocks() throws IOException {
+        List<FxDeal> first = new ArrayList<>();
+        List<FxDeal> second = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            first.add(deal(i + 1, "A" + (100 + i)));
+            second.add(deal(i + 21, "B" + (100 + i)));
+        }
+        archive.publish(archive.writePending(first), () -> { });
+        archive.publish(archive.writePending(second), () -> { });
+        List<String> found = new ArrayList<>();
+
+        archive.findByDealUniqueIds(List.of("B119", "A100", "A103", "A104", "A150", "B107", "C1", "A119"),
+            deal -> found.add(deal.getDealUniqueId()));
+
+        assertThat(found).containsExactlyInAnyOrder("A100", "A103", "A104", "A119", "B107", "B119");
+    }
+
+    @Test
+    void testKeyFilter_AddedKeysAlwaysFoundAndFewFalsePositives() {
+        DealSegment.KeyFilter filter = DealSegment.KeyFilter.create(10_000, 10);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("DEAL-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("DEAL-" + i)).isTrue();
+            if (filter.mightContain("MISSING-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+        assertThat(DealSegment.KeyFilter.create(10, 0).mightContain("ANY")).isTrue();
+    }
+
+    @Test
+    void testPublish_FilterDisabled_DealsStillFound() throws IOException {
+        properties.setFilterBitsPerKey(0);
+
+        archive.publish(archive.writePending(List.of(deal(1, "D1"), deal(2, "D3"))), () -> { });
+
+        assertThat(archive.findByDealUniqueId("D3")).isPresent();
+        assertThat(archive.findByDealUniqueId("D2")).isEmpty();
+    }
+
+    @Test
+    void testRecordPublished_InsertsSegmentRecord() throws IOException {
+        Path pending = archive.writePending(List.of(deal(7, "D7"), deal(5, "D5")));
+
+        archive.recordPublished(pending);
+
+        verify(jdbcTemplate).update("INSERT INTO archive_segments (min_id, deal_count) VALUES (?, ?)", 5L, 2L);
+    }
+
+    @Test
+    void testPublish_DatabaseDeleteFails_SegmentDiscarded() throws IOException {
+        Path pending = archive.writePending(List.of(deal(1, "D1")));
+
+        assertThatThrownBy(() -> archive.publish(pending, () -> {
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(pending).doesNotExist();
+        assertThat(archive.findByDealUniqueId("D1")).isEmpty();
+    }
+
+    @Test
+    void testOpen_PendingSegments_KeptOnlyIfRecordedAsPublished() throws IOException {
+        archive.publish(archive.writePending(List.of(deal(1, "D1"))), () -> { });
+        archive.writePending(List.of(deal(2, "D2")));
+        archive.writePending(List.of(deal(3, "D3")));
+        Files.writeString(directory.resolve("segment-000000000009.dseg.pending"), "torn");
+        archive.destroy();
+        // Deal 3 is gone from fx_deals too (purged), but its segment was never recorded
+        when(dealRepository.existsById(2L)).thenReturn(false);
+        when(dealRepository.existsById(3L)).thenReturn(false);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(2L))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(3L))).thenReturn(0);
+
+        archive = open();
+
+        assertThat(archive.findByDealUniqueId("D1")).isPresent();
+        assertThat(archive.findByDealUniqueId("D2")).isPresent();
+        assertThat(archive.findByDealUniqueId("D3")).isEmpty();
+        assertThat(archive.getSegmentCount()).isEqualTo(2);
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString())).noneMatch(name -> name.endsWith(".pending"));
+        }
+    }
+
+    private DealArchiveRepository open() throws IOException {
+        DealArchiveRepository repository = new DealArchiveRepository(properties, dealRepository, jdbcTemplate);
+        repository.afterPropertiesSet();
+        return repository;
+    }
+
+    private static FxDeal deal(long id, String dealUniqueId) {
+        return FxDeal.builder()
+            .id(id)
+            .dealUniqueId(dealUniqueId)
+            .fromCurrencyIsoCode("USD")
+            .toCurrencyIsoCode("EUR")
+            .dealTimestamp(LocalDateTime.of(2020, 1, 15, 10, 30, 0, 123_456_789))
+            .dealAmount(FixedPointAmount.ofUnscaled(10_000L * id + 5))
+            .createdAt(LocalDateTime.of(2020, 1, 15, 10, 30, 1))
+            .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.bloomberg.fxdeals.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DealIdAllocator ranges and their completion order
+ */
+class DealIdAllocatorTest {
+
+    private static final int BLOCK_SIZE = 4;
+
+    private DealIdAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicLong sequence = new AtomicLong(1);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+            .thenAnswer(invocation -> sequence.getAndAdd(BLOCK_SIZE));
+        allocator = new DealIdAllocator(jdbcTemplate, BLOCK_SIZE);
+    }
+
+    @Test
+    void testOpen_IdsAscendAcrossBlocks() {
+        try (DealIdAllocator.IdRange first = allocator.open(3);
+             DealIdAllocator.IdRange second = allocator.open(3)) {
+            assertThat(allocator.completedThrough(0)).isZero();
+        }
+
+        assertThat(allocator.completedThrough(0)).isEqualTo(6);
+    }
+
+    @Test
+    void testClose_CompletionsRunInIdOrder() {
+        List<String> completed = new ArrayList<>();
+        DealIdAllocator.IdRange first = allocator.open(2);
+        DealIdAllocator.IdRange second = allocator.open(2);
+        DealIdAllocator.IdRange third = allocator.open(2);
+
+        second.onCompleted(() -> completed.add("second"));
+        second.close();
+        third.onCompleted(() -> completed.add("third"));
+        third.close();
+
+        // Committed above an open range: not completed yet
+        assertThat(completed).isEmpty();
+        assertThat(allocator.completedThrough(6)).isZero();
+
+        first.onCompleted(() -> completed.add("first"));
+        first.close();
+
+        assertThat(completed).containsExactly("first", "second", "third");
+        assertThat(allocator.completedThrough(6)).isEqualTo(6);
+    }
+
+    @Test
+    void testClose_WithoutCompletion_SkipsRange() {
+        List<String> completed = new ArrayList<>();
+        DealIdAllocator.IdRange rolledBack = allocator.open(2);
+        DealIdAllocator.IdRange committed = allocator.open(2);
+        committed.onCompleted(() -> completed.add("committed"));
+        committed.close();
+
+        rolledBack.close();
+
+        assertThat(completed).containsExactly("committed");
+    }
+
+    @Test
+    void testCompletedThrough_NothingOpen_CoversEarlierProcesses() {
+        assertThat(allocator.completedThrough(1200)).isEqualTo(1200);
+    }
+}
@@ -0,0 +1,118 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the JDBC batch insert path, against an in-memory H2 database
+ */
+class FxDealBatchRepositoryImplTest {
+
+    private static final int BLOCK_SIZE = 4;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private DealIdAllocator idAllocator;
+    private FxDealBatchRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:batch-insert;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE fx_deals ("
+            + "id BIGINT PRIMARY KEY, "
+            + "deal_unique_id VARCHAR(100) NOT NULL, "
+            + "from_currency_iso_code VARCHAR(3) NOT NULL, "
+            + "to_currency_iso_code VARCHAR(3) NOT NULL, "
+            + "deal_timestamp TIMESTAMP NOT NULL, "
+            + "deal_amount NUMERIC(19, 4) NOT NULL, "
+            + "created_at TIMESTAMP NOT NULL, "
+            + "CONSTRAINT uk_fx_deals_deal_unique_id UNIQUE (deal_unique_id))");
+        jdbcTemplate.execute("CREATE SEQUENCE fx_deals_id_seq START WITH 1 INCREMENT BY " + BLOCK_SIZE);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        idAllocator = new DealIdAllocator(jdbcTemplate, BLOCK_SIZE);
+        repository = new FxDealBatchRepositoryImpl(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE fx_deals");
+        jdbcTemplate.execute("DROP SEQUENCE fx_deals_id_seq");
+    }
+
+    @Test
+    void testInsertBatch_KeepsIdsAndSharesCreatedAt() {
+        List<FxDeal> saved = insert(List.of(deal("DEAL-001"), deal("DEAL-002"), deal("DEAL-003")));
+
+        assertThat(saved).extracting(FxDeal::getId).containsExactly(1L, 2L, 3L);
+        assertThat(saved).extracting(FxDeal::getCreatedAt).containsOnly(saved.get(0).getCreatedAt());
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT deal_amount FROM fx_deals WHERE id = ?", BigDecimal.class, saved.get(1).getId()))
+            .isEqualByComparingTo("1000.5");
+    }
+
+    @Test
+    void testInsertBatch_IdsFromSequenceBlocks() {
+        List<FxDeal> first = insert(List.of(deal("DEAL-001"), deal("DEAL-002"), deal("DEAL-003")));
+        List<FxDeal> second = insert(List.of(deal("DEAL-004"), deal("DEAL-005"), deal("DEAL-006")));
+
+        assertThat(first).extracting(FxDeal::getId).containsExactly(1L, 2L, 3L);
+        assertThat(second).extracting(FxDeal::getId).containsExactly(4L, 5L, 6L);
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR fx_deals_id_seq", Long.class))
+            .isEqualTo(1L + 2 * BLOCK_SIZE);
+    }
+
+    @Test
+    void testInsertBatch_DuplicateKey_RollsBackWholeBatch() {
+        insert(List.of(deal("DEAL-002")));
+
+        // FxDealService tells duplicates from other violations by the constraint name
+        assertThatThrownBy(() -> insert(List.of(deal("DEAL-001"), deal("DEAL-002"), deal("DEAL-003"))))
+            .isInstanceOf(DataIntegrityViolationException.class)
+            .satisfies(e -> assertThat(e.getMessage().toLowerCase(Locale.ROOT))
+                .contains(FxDeal.DEAL_UNIQUE_ID_CONSTRAINT));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM fx_deals", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void testInsertBatch_WithoutId_Rejected() {
+        assertThatThrownBy(() -> transactionTemplate.execute(status ->
+                repository.insertBatch(List.of(deal("DEAL-001")))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<FxDeal> insert(List<FxDeal> deals) {
+        try (DealIdAllocator.IdRange ids = idAllocator.open(deals.size())) {
+            ids.assignTo(deals);
+            return transactionTemplate.execute(status -> repository.insertBatch(deals));
+        }
+    }
+
+    private FxDeal deal(String dealUniqueId) {
+        return FxDeal.builder()
+            .dealUniqueId(dealUniqueId)
+            .fromCurrencyIsoCode("USD")
+            .toCurrencyIsoCode("EUR")
+            .dealTimestamp(LocalDateTime.now().minusHours(1))
+            .dealAmount(FixedPointAmount.parse("1000.50"))
+            .build();
+    }
+}
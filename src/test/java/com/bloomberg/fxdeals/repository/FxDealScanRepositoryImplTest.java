@@ -0,0 +1,59 @@
+package com.bloomberg.fxdeals.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the streaming deal scan, against an in-memory H2 database
+ */
+class FxDealScanRepositoryImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private FxDealScanRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:deal-scan;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE fx_deals ("
+            + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "from_currency_iso_code VARCHAR(3) NOT NULL, "
+            + "to_currency_iso_code VARCHAR(3) NOT NULL, "
+            + "deal_amount NUMERIC(19, 4) NOT NULL)");
+        repository = new FxDealScanRepositoryImpl(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE fx_deals");
+    }
+
+    @Test
+    void testScanDealAmounts_EmptyTable_CallsNothing() {
+        List<String> rows = new ArrayList<>();
+
+        repository.scanDealAmounts(10, 10, (id, from, to, amount) -> rows.add(from + to));
+
+        assertThat(rows).isEmpty();
+    }
+
+    @Test
+    void testScanDealAmounts_StreamsEveryDealUpToMaxId() {
+        jdbcTemplate.update("INSERT INTO fx_deals (from_currency_iso_code, to_currency_iso_code, deal_amount) "
+            + "VALUES ('USD', 'EUR', 1000.5), ('GBP', 'JPY', 0.0001), ('EUR', 'USD', 42)");
+        List<String> rows = new ArrayList<>();
+
+        repository.scanDealAmounts(2, 2, (id, from, to, amount) -> rows.add(from + to + amount));
+
+        assertThat(rows).containsExactlyInAnyOrder("USDEUR10005000", "GBPJPY1");
+    }
+}
@@ -0,0 +1,103 @@
+package com.bloomberg.fxdeals.repository;
+
+import com.bloomberg.fxdeals.model.RejectedDeal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RejectedDealRepository, against an in-memory H2 database built by the migration
+ */
+class RejectedDealRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    private JdbcTemplate jdbcTemplate;
+    private RejectedDealRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:rejected-deals;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V4__create_rejected_deals.sql"),
+            new ClassPathResource("db/migration/V6__flag_truncated_rejected_deal_payloads.sql"))
+            .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new RejectedDealRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE rejected_deals");
+    }
+
+    @Test
+    void testFind_FiltersByBatchAndReasonInIdOrder() {
+        repository.insertBatch(List.of(
+            rejected("B1", 0, RejectedDeal.Reason.INVALID, NOW),
+            rejected("B1", 1, RejectedDeal.Reason.DUPLICATE, NOW),
+            rejected("B2", 0, RejectedDeal.Reason.INVALID, NOW),
+            rejected("B1", 2, RejectedDeal.Reason.INVALID, NOW)));
+
+        List<RejectedDeal> batch = repository.find("B1", null, 0, 10);
+        assertThat(batch).extracting(RejectedDeal::getDealIndex).containsExactly(0, 1, 2);
+        assertThat(batch.get(0).getErrorCodes()).isEqualTo("SAME_CURRENCY");
+        assertThat(batch.get(0).getCreatedAt()).isEqualTo(NOW);
+        assertThat(batch.get(0).isPayloadTruncated()).isFalse();
+
+        assertThat(repository.find(null, RejectedDeal.Reason.INVALID, 0, 10))
+            .extracting(RejectedDeal::getBatchId).containsExactly("B1", "B2", "B1");
+        assertThat(repository.find("B1", RejectedDeal.Reason.INVALID, 0, 10))
+            .extracting(RejectedDeal::getDealIndex).containsExactly(0, 2);
+
+        List<RejectedDeal> firstPage = repository.find(null, null, 0, 3);
+        assertThat(repository.find(null, null, firstPage.get(2).getId(), 3)).hasSize(1);
+    }
+
+    @Test
+    void testInsertBatch_TruncatesLongText() {
+        RejectedDeal deal = rejected("B1", 0, RejectedDeal.Reason.INVALID, NOW);
+        deal.setDealUniqueId("X".repeat(1000));
+        deal.setPayload("{" + "\"a\":1,".repeat(1000) + "}");
+
+        repository.insertBatch(List.of(deal));
+
+        RejectedDeal stored = repository.find("B1", null, 0, 1).get(0);
+        assertThat(stored.getDealUniqueId()).hasSize(RejectedDealRepository.MAX_DEAL_UNIQUE_ID);
+        assertThat(stored.getPayload()).hasSize(RejectedDealRepository.MAX_TEXT);
+        assertThat(stored.isPayloadTruncated()).isTrue();
+    }
+
+    @Test
+    void testDeleteCreatedBefore_RemovesExpiredRows() {
+        repository.insertBatch(List.of(
+            rejected("B1", 0, RejectedDeal.Reason.INVALID, NOW.minusDays(40)),
+            rejected("B1", 1, RejectedDeal.Reason.INVALID, NOW)));
+
+        assertThat(repository.deleteCreatedBefore(NOW.minusDays(30))).isEqualTo(1);
+        assertThat(repository.find(null, null, 0, 10)).extracting(RejectedDeal::getDealIndex).containsExactly(1);
+    }
+
+    private static RejectedDeal rejected(String batchId, int index, RejectedDeal.Reason reason,
+                                         LocalDateTime createdAt) {
+        return RejectedDeal.builder()
+            .batchId(batchId)
+            .dealIndex(index)
+            .dealUniqueId("DEAL-" + index)
+            .reason(reason)
+            .errorCodes(reason == RejectedDeal.Reason.INVALID ? "SAME_CURRENCY" : null)
+            .message("Deal[" + index + "] (DEAL-" + index + "): rejected")
+            .payload("{\"dealUniqueId\":\"DEAL-" + index + "\"}")
+            .createdAt(createdAt)
+            .build();
+    }
+}
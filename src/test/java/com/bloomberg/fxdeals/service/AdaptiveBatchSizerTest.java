@@ -0,0 +1,95 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.ImportProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for AdaptiveBatchSizer, against a simulated database
+ */
+class AdaptiveBatchSizerTest {
+
+    private ImportProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ImportProperties();
+        properties.setChunkSize(1000);
+        properties.setBatchSize(500);
+        properties.getAdaptive().setWindow(4);
+    }
+
+    @Test
+    void testRecord_ClimbsTowardsTheFastestSizes() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(properties);
+
+        for (int chunk = 0; chunk < 4000; chunk++) {
+            AdaptiveBatchSizer.Sizes sizes = sizer.current();
+            sizer.record(sizes, sizes.chunkSize(), simulatedNanos(sizes));
+        }
+
+        // Per-deal cost 5/c + 1/b + c/1e6 + b/1e6 ms is lowest at c = 2236, b = 1000
+        assertThat(sizer.getChunkSize()).isBetween(1400, 3500);
+        assertThat(sizer.getBatchSize()).isBetween(600, 1600);
+        assertThat(sizer.getBatchSize()).isLessThanOrEqualTo(sizer.getChunkSize());
+        assertThat(sizer.getLastThroughput()).isPositive();
+    }
+
+    @Test
+    void testRecord_SlowChunks_ShrinkWithinBounds() {
+        properties.getAdaptive().setMaxChunkLatency(Duration.ofMillis(1));
+        properties.getAdaptive().setMinChunkSize(200);
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(properties);
+
+        for (int chunk = 0; chunk < 200; chunk++) {
+            AdaptiveBatchSizer.Sizes sizes = sizer.current();
+            sizer.record(sizes, sizes.chunkSize(), simulatedNanos(sizes));
+        }
+
+        assertThat(sizer.getChunkSize()).isEqualTo(200);
+        assertThat(sizer.getBatchSize()).isLessThanOrEqualTo(200);
+    }
+
+    @Test
+    void testRecord_PartialOversizedOrStaleChunks_NotMeasured() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(properties);
+        AdaptiveBatchSizer.Sizes initial = sizer.current();
+
+        for (int chunk = 0; chunk < 20; chunk++) {
+            sizer.record(initial, 10, 1_000_000);
+            sizer.record(initial, 1500, 1_000_000);
+            sizer.record(new AdaptiveBatchSizer.Sizes(1000, 500), 1000, 1_000_000);
+        }
+
+        assertThat(sizer.current()).isSameAs(initial);
+        assertThat(sizer.getLastThroughput()).isZero();
+    }
+
+    @Test
+    void testRecord_Disabled_SizesFixed() {
+        properties.getAdaptive().setEnabled(false);
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(properties);
+
+        for (int chunk = 0; chunk < 100; chunk++) {
+            AdaptiveBatchSizer.Sizes sizes = sizer.current();
+            sizer.record(sizes, sizes.chunkSize(), simulatedNanos(sizes));
+        }
+
+        assertThat(sizer.getChunkSize()).isEqualTo(1000);
+        assertThat(sizer.getBatchSize()).isEqualTo(500);
+    }
+
+    /**
+     * 5 ms per commit, 1 ms per batch round trip, and lock and buffer costs growing with both sizes
+     */
+    private static long simulatedNanos(AdaptiveBatchSizer.Sizes sizes) {
+        double c = sizes.chunkSize();
+        double b = sizes.batchSize();
+        double millis = 5 + c / b + c * c / 1e6 + c * b / 1e6;
+        return (long) (millis * 1_000_000);
+    }
+}
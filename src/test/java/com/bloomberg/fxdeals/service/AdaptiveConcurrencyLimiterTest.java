@@ -0,0 +1,161 @@
+package com.bloomberg.fxdeals.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void testTryAcquire_WithinLimit_GrantsPermits() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(2, 0, Duration.ZERO);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void testTryAcquire_LimitReachedWithoutQueue_RejectsImmediately() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(1, 0, Duration.ZERO);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void testTryAcquire_QueuedCaller_TimesOutAfterMaxWait() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(1, 5, Duration.ofMillis(50));
+        limiter.tryAcquire();
+
+        long start = System.nanoTime();
+        boolean acquired = limiter.tryAcquire();
+
+        assertThat(acquired).isFalse();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(40).toNanos());
+        assertThat(limiter.getWaiting()).isZero();
+    }
+
+    @Test
+    void testTryAcquire_QueuedCaller_AdmittedOnRelease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(1, 5, Duration.ofSeconds(5));
+        limiter.tryAcquire();
+
+        Thread releaser = new Thread(() -> {
+            sleep(50);
+            limiter.release(FAST, 1, false);
+        });
+        releaser.start();
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        releaser.join();
+    }
+
+    @Test
+    void testRelease_SlowCalls_DecreaseLimitMultiplicatively() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(10, 0, Duration.ZERO);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW, 1, false);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(5);
+    }
+
+    @Test
+    void testRelease_FailedCalls_NeverGoBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(4, 0, Duration.ZERO);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, 1, true);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void testRelease_FastCallsUnderLoad_IncreaseLimitUpToMaximum() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(2, 0, Duration.ZERO);
+
+        for (int i = 0; i < 50; i++) {
+            int permits = limiter.getLimit();
+            for (int p = 0; p < permits; p++) {
+                limiter.tryAcquire();
+            }
+            for (int p = 0; p < permits; p++) {
+                limiter.release(FAST, 1, false);
+            }
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void testRelease_FastCallsWithIdleCapacity_KeepLimit() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(10, 0, Duration.ZERO);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, 1, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void testRelease_LargeCallFastPerUnit_KeepsLimit() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(10, 0, Duration.ZERO);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW, 1000, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void testGetRetryAfterSeconds_FollowsCallLatencyOverLimit() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(4, 0, Duration.ZERO);
+        assertThat(limiter.getRetryAfterSeconds()).isEqualTo(1);
+
+        limiter.tryAcquire();
+        limiter.release(Duration.ofSeconds(8).toNanos(), 1000, false);
+
+        // One caller (this one) over a limit of 4, at 8s per call
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getRetryAfterSeconds()).isEqualTo(2);
+    }
+
+    @Test
+    void testConstructor_InvalidBounds_ThrowsException() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(1, 5, 2, 0.9,
+                Duration.ofMillis(10), 0, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(int initialLimit, int maxQueue, Duration maxWait) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 20, 0.5,
+            Duration.ofMillis(100), maxQueue, maxWait);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.FeedProperties;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.exception.AdmissionRejectedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DealChangeFeed
+ */
+class DealChangeFeedTest {
+
+    private final FxDealService dealService = mock(FxDealService.class);
+    private final FeedProperties properties = new FeedProperties();
+    private final Queue<Runnable> pendingSends = new ArrayDeque<>();
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    private boolean sendImmediately;
+    private DealChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBufferSize(8);
+        properties.setMaxSubscribers(2);
+        sendImmediately = true;
+        feed = new DealChangeFeed(dealService, properties, task -> {
+            if (sendImmediately) {
+                task.run();
+            } else {
+                pendingSends.add(task);
+            }
+        }) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @Test
+    void testPublish_StreamsDealsToSubscriber() {
+        feed.subscribe(null, null);
+
+        feed.publish(List.of(deal(1, "USD", "EUR"), deal(2, "GBP", "JPY")));
+
+        assertThat(emitters.get(0).ids).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void testPublish_PairFilter_SendsMatchingDealsOnly() {
+        feed.subscribe(null, List.of("GBP/JPY"));
+
+        feed.publish(List.of(deal(1, "USD", "EUR"), deal(2, "GBP", "JPY"), deal(3, "JPY", "GBP")));
+
+        assertThat(emitters.get(0).ids).containsExactly(2L);
+    }
+
+    @Test
+    void testSubscribe_WithLastEventId_BackfillsFromDatabaseWithoutRepeats() {
+        when(dealService.getPublishedThrough()).thenReturn(12L);
+        when(dealService.getDealsAfter(eq(10L), eq(12L), anyInt()))
+            .thenReturn(List.of(deal(11, "USD", "EUR"), deal(12, "USD", "EUR")));
+        sendImmediately = false;
+
+        feed.subscribe(10L, null);
+        // Deal 12 committed while the subscriber was connecting, so it is in both the database and the buffer
+        feed.publish(List.of(deal(12, "USD", "EUR"), deal(13, "USD", "EUR")));
+        runPendingSends();
+
+        assertThat(emitters.get(0).ids).containsExactly(11L, 12L, 13L);
+    }
+
+    @Test
+    void testSubscribe_WithLastEventId_BackfillStopsAtPublishedWatermark() {
+        // Deal 13 is committed, but deal 12 below it is not yet, so neither has been published
+        when(dealService.getPublishedThrough()).thenReturn(11L);
+        when(dealService.getDealsAfter(eq(10L), eq(11L), anyInt())).thenReturn(List.of(deal(11, "USD", "EUR")));
+        sendImmediately = false;
+
+        feed.subscribe(10L, null);
+        runPendingSends();
+        feed.publish(List.of(deal(12, "USD", "EUR"), deal(13, "USD", "EUR")));
+        runPendingSends();
+
+        assertThat(emitters.get(0).ids).containsExactly(11L, 12L, 13L);
+    }
+
+    @Test
+    void testPublish_SubscriberFallsBehindBuffer_IsDisconnected() {
+        sendImmediately = false;
+        feed.subscribe(null, null);
+
+        List<DealResponse> deals = new ArrayList<>();
+        for (int i = 1; i <= 9; i++) {
+            deals.add(deal(i, "USD", "EUR"));
+        }
+        feed.publish(deals);
+        runPendingSends();
+
+        assertThat(emitters.get(0).ids).isEmpty();
+        assertThat(emitters.get(0).completed).isTrue();
+        assertThat(feed.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void testSubscribe_InvalidPair_ThrowsIllegalArgument() {
+        assertThatThrownBy(() -> feed.subscribe(null, List.of("EURUSD")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(feed.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void testSubscribe_LimitReached_Rejects() {
+        feed.subscribe(null, null);
+        feed.subscribe(null, null);
+
+        assertThatThrownBy(() -> feed.subscribe(null, null))
+            .isInstanceOf(AdmissionRejectedException.class);
+    }
+
+    private void runPendingSends() {
+        while (!pendingSends.isEmpty()) {
+            pendingSends.poll().run();
+        }
+    }
+
+    private static DealResponse deal(long id, String from, String to) {
+        return DealResponse.builder()
+            .id(id)
+            .dealUniqueId("DEAL-" + id)
+            .fromCurrencyIsoCode(from)
+            .toCurrencyIsoCode(to)
+            .build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<Long> ids = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof DealResponse deal) {
+                    ids.add(deal.getId());
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+}
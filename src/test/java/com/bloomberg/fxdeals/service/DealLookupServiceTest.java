@@ -0,0 +1,119 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.LookupProperties;
+import com.bloomberg.fxdeals.dto.DealLookupResponse;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DealLookupService
+ */
+class DealLookupServiceTest {
+
+    private final FxDealRepository dealRepository = mock(FxDealRepository.class);
+    private final DealArchiveRepository archiveRepository = mock(DealArchiveRepository.class);
+    private final List<List<String>> queriedChunks = new ArrayList<>();
+
+    private LookupProperties properties;
+    private DealLookupService lookupService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LookupProperties();
+        properties.setChunkSize(2);
+        properties.setMaxIds(10);
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        lookupService = new DealLookupService(dealRepository, archiveRepository, properties, transactionManager);
+
+        // DEAL-1 and DEAL-3 are stored in fx_deals
+        when(dealRepository.findByDealUniqueIds(anyList())).thenAnswer(invocation -> {
+            List<String> ids = invocation.getArgument(0);
+            queriedChunks.add(List.copyOf(ids));
+            return ids.stream().filter(Set.of("DEAL-1", "DEAL-3")::contains).map(DealLookupServiceTest::deal).toList();
+        });
+    }
+
+    @Test
+    void testLookup_ChunksDistinctIdsAndKeepsRequestOrder() {
+        DealLookupResponse response = lookupService.lookup(List.of("DEAL-3", "DEAL-2", "DEAL-3", "DEAL-1", "DEAL-4"));
+
+        assertThat(queriedChunks).containsExactly(List.of("DEAL-3", "DEAL-2"), List.of("DEAL-1", "DEAL-4"));
+        assertThat(response.getRequested()).isEqualTo(4);
+        assertThat(response.getDeals()).extracting(DealResponse::getDealUniqueId).containsExactly("DEAL-3", "DEAL-1");
+        assertThat(response.getMissingDealUniqueIds()).containsExactly("DEAL-2", "DEAL-4");
+        assertThat(response.getFound()).isEqualTo(2);
+        assertThat(response.getMissing()).isEqualTo(2);
+        verify(archiveRepository, never()).findByDealUniqueIds(anyCollection(), any());
+    }
+
+    @Test
+    void testLookup_FallsBackToArchiveForMissingIdsOfEachChunkAtOnce() {
+        properties.setChunkSize(3);
+        List<Collection<String>> archiveQueries = new ArrayList<>();
+        when(archiveRepository.getSegmentCount()).thenReturn(1);
+        doAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            Consumer<FxDeal> consumer = invocation.getArgument(1);
+            archiveQueries.add(List.copyOf(ids));
+            consumer.accept(deal("DEAL-2"));
+            return null;
+        }).when(archiveRepository).findByDealUniqueIds(anyCollection(), any());
+
+        DealLookupResponse response = lookupService.lookup(List.of("DEAL-1", "DEAL-2", "DEAL-4"));
+
+        assertThat(response.getDeals()).extracting(DealResponse::getDealUniqueId).containsExactly("DEAL-1", "DEAL-2");
+        assertThat(response.getMissingDealUniqueIds()).containsExactly("DEAL-4");
+        assertThat(archiveQueries).containsExactly(List.of("DEAL-2", "DEAL-4"));
+        verify(archiveRepository, never()).findByDealUniqueId(any());
+    }
+
+    @Test
+    void testLookup_EmptyOrTooManyIds_Rejected() {
+        assertThatThrownBy(() -> lookupService.lookup(List.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> lookupService.lookup(Collections.nCopies(11, "DEAL-1")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("At most 10");
+    }
+
+    private static FxDeal deal(String dealUniqueId) {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 15, 10, 30);
+        return FxDeal.builder()
+            .id((long) dealUniqueId.hashCode())
+            .dealUniqueId(dealUniqueId)
+            .fromCurrencyIsoCode("USD")
+            .toCurrencyIsoCode("EUR")
+            .dealTimestamp(timestamp)
+            .dealAmount(FixedPointAmount.ofUnscaled(10_000L))
+            .createdAt(timestamp)
+            .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.StatisticsProperties;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.dto.DealStatisticsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for DealStatistics
+ */
+class DealStatisticsTest {
+
+    private final AtomicLong clock = new AtomicLong(Duration.ofHours(1).toMillis());
+    private DealStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        StatisticsProperties properties = new StatisticsProperties();
+        properties.setWindow(Duration.ofMinutes(1));
+        properties.setRetainedWindows(3);
+        statistics = new DealStatistics(properties, clock::get);
+    }
+
+    @Test
+    void testSnapshot_CurrentWindow_ReportsCountsAndTopPairs() {
+        statistics.recordReceived(List.of(request("D1"), request("D2"), request("D1")));
+        statistics.onDealsImported(new DealsImportedEvent(List.of(
+            deal("EUR", "USD"), deal("EUR", "USD"), deal("GBP", "JPY"))));
+
+        DealStatisticsResponse snapshot = statistics.snapshot(1, 1);
+
+        assertThat(snapshot.getReceived()).isEqualTo(3);
+        assertThat(snapshot.getDistinctDealIds()).isEqualTo(2);
+        assertThat(snapshot.getImported()).isEqualTo(3);
+        assertThat(snapshot.getTopPairs()).hasSize(1);
+        assertThat(snapshot.getTopPairs().get(0).getPair()).isEqualTo("EUR/USD");
+        assertThat(snapshot.getTopPairs().get(0).getCount()).isEqualTo(2);
+        assertThat(snapshot.getMemoryBudgetBytes()).isPositive();
+    }
+
+    @Test
+    void testSnapshot_SeveralWindows_MergesRecentWindowsOnly() {
+        statistics.onDealsImported(new DealsImportedEvent(List.of(deal("EUR", "USD"))));
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+        statistics.onDealsImported(new DealsImportedEvent(List.of(deal("EUR", "USD"))));
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+        statistics.onDealsImported(new DealsImportedEvent(List.of(deal("GBP", "JPY"))));
+
+        assertThat(statistics.snapshot(1, 5).getImported()).isEqualTo(1);
+        assertThat(statistics.snapshot(2, 5).getImported()).isEqualTo(2);
+        DealStatisticsResponse all = statistics.snapshot(3, 5);
+        assertThat(all.getImported()).isEqualTo(3);
+        assertThat(all.getTopPairs().get(0).getPair()).isEqualTo("EUR/USD");
+        assertThat(all.getWindowEnd().toEpochMilli() - all.getWindowStart().toEpochMilli())
+            .isEqualTo(Duration.ofMinutes(3).toMillis());
+    }
+
+    @Test
+    void testSnapshot_TooManyWindows_ThrowsIllegalArgument() {
+        assertThatThrownBy(() -> statistics.snapshot(5, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static DealRequest request(String id) {
+        DealRequest request = new DealRequest();
+        request.setDealUniqueId(id);
+        return request;
+    }
+
+    private static DealResponse deal(String from, String to) {
+        return DealResponse.builder().fromCurrencyIsoCode(from).toCurrencyIsoCode(to).build();
+    }
+}
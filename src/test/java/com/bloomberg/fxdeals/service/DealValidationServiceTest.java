@@ -1,26 +1,25 @@
 package com.bloomberg.fxdeals.service;
 
+import com.bloomberg.fxdeals.config.ValidationProperties;
 import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.Period;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Unit tests for DealValidationService
  */
-@ExtendWith(MockitoExtension.class)
 class DealValidationServiceTest {
 
-    @InjectMocks
-    private DealValidationService validationService;
+    private final DealValidationService validationService = new DealValidationService();
 
     private DealRequest validDealRequest;
 
@@ -31,7 +30,7 @@ class DealValidationServiceTest {
         validDealRequest.setFromCurrencyIsoCode("USD");
         validDealRequest.setToCurrencyIsoCode("EUR");
         validDealRequest.setDealTimestamp(LocalDateTime.now().minusHours(1));
-        validDealRequest.setDealAmount(new BigDecimal("1000.50"));
+        validDealRequest.setDealAmount(FixedPointAmount.parse("1000.50"));
     }
 
     @Test
@@ -120,6 +119,20 @@ class DealValidationServiceTest {
         assertThat(errors).anyMatch(e -> e.contains("cannot be in the future"));
     }
 
+    @Test
+    void testValidateDeal_TimestampWithinFutureTolerance_ReturnsNoErrors() {
+        ValidationProperties properties = new ValidationProperties();
+        properties.setFutureTolerance(Duration.ofMinutes(1));
+        validationService.replaceRules(properties);
+
+        validDealRequest.setDealTimestamp(LocalDateTime.now().plusSeconds(30));
+        assertThat(validationService.validateDeal(validDealRequest)).isEmpty();
+
+        validDealRequest.setDealTimestamp(LocalDateTime.now().plusMinutes(5));
+        assertThat(validationService.validateDeal(validDealRequest))
+            .containsExactly("Deal timestamp cannot be in the future");
+    }
+
     @Test
     void testValidateDeal_MissingAmount_ReturnsError() {
         validDealRequest.setDealAmount(null);
@@ -130,7 +143,7 @@ class DealValidationServiceTest {
 
     @Test
     void testValidateDeal_ZeroAmount_ReturnsError() {
-        validDealRequest.setDealAmount(BigDecimal.ZERO);
+        validDealRequest.setDealAmount(FixedPointAmount.ZERO);
         List<String> errors = validationService.validateDeal(validDealRequest);
         assertThat(errors).isNotEmpty();
         assertThat(errors).anyMatch(e -> e.contains("must be greater than 0"));
@@ -138,18 +151,25 @@ class DealValidationServiceTest {
 
     @Test
     void testValidateDeal_NegativeAmount_ReturnsError() {
-        validDealRequest.setDealAmount(new BigDecimal("-100"));
+        validDealRequest.setDealAmount(FixedPointAmount.parse("-100"));
         List<String> errors = validationService.validateDeal(validDealRequest);
         assertThat(errors).isNotEmpty();
         assertThat(errors).anyMatch(e -> e.contains("must be greater than 0"));
     }
 
     @Test
-    void testValidateDeal_TooManyDecimalPlaces_ReturnsError() {
-        validDealRequest.setDealAmount(new BigDecimal("1000.12345"));
+    void testValidateDeal_TooManyDecimalPlaces_RejectedWhenParsed() {
+        // Scale is enforced by FixedPointAmount, so such a request never reaches validation
+        assertThatThrownBy(() -> FixedPointAmount.parse("1000.12345"))
+            .isInstanceOf(ArithmeticException.class)
+            .hasMessageContaining("more than 4 decimal places");
+    }
+
+    @Test
+    void testValidateDeal_AmountAboveMaximum_ReturnsError() {
+        validDealRequest.setDealAmount(FixedPointAmount.parse("1000000000000.0001"));
         List<String> errors = validationService.validateDeal(validDealRequest);
-        assertThat(errors).isNotEmpty();
-        assertThat(errors).anyMatch(e -> e.contains("more than 4 decimal places"));
+        assertThat(errors).anyMatch(e -> e.contains("exceeds maximum allowed value"));
     }
 
     @Test
@@ -161,6 +181,85 @@ class DealValidationServiceTest {
         assertThat(errors).isEmpty();
     }
 
+    @Test
+    void testValidateDeal_ConfiguredRules_AppliedAndCountedPerRule() {
+        ValidationProperties properties = new ValidationProperties();
+        properties.setMaxDealIdLength(5);
+        properties.setCurrencies(List.of("USD", "EUR"));
+        properties.setRejectUnknownCurrencies(true);
+        properties.setMaxDecimalPlaces(2);
+        DealValidationService service = new DealValidationService(properties);
+        validDealRequest.setToCurrencyIsoCode("gbp");
+        validDealRequest.setDealAmount(FixedPointAmount.parse("1000.505"));
+
+        List<String> errors = service.validateDeal(validDealRequest);
+
+        assertThat(errors).containsExactly(
+            "Deal Unique Id must not exceed 5 characters",
+            "To Currency ISO Code is not a supported currency",
+            "Deal amount must have at most 2 decimal places");
+        assertThat(service.getRejections(ValidationRuleSet.Rule.DEAL_ID_TOO_LONG)).isEqualTo(1);
+        assertThat(service.getRejections(ValidationRuleSet.Rule.CURRENCY_UNKNOWN)).isEqualTo(1);
+        assertThat(service.getRejections(ValidationRuleSet.Rule.AMOUNT_PRECISION)).isEqualTo(1);
+        assertThat(service.getRejections(ValidationRuleSet.Rule.AMOUNT_TOO_LARGE)).isZero();
+    }
+
+    @Test
+    void testReplaceRules_SwapsRuleSet() {
+        validDealRequest.setDealTimestamp(LocalDateTime.now().minusYears(2));
+        assertThat(validationService.validateDeal(validDealRequest)).isEmpty();
+
+        ValidationProperties properties = new ValidationProperties();
+        properties.setMaxAge(Period.ofYears(1));
+        validationService.replaceRules(properties);
+
+        assertThat(validationService.validateDeal(validDealRequest))
+            .containsExactly("Deal timestamp is too old (more than 1 year)");
+        assertThat(validationService.getRuleProperties()).isSameAs(properties);
+    }
+
+    @Test
+    void testReplaceRules_DealIdLongerThanColumn_Rejected() {
+        ValidationProperties properties = new ValidationProperties();
+        properties.setMaxDealIdLength(101);
+
+        assertThatThrownBy(() -> validationService.replaceRules(properties))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("max-deal-id-length");
+    }
+
+    @Test
+    void testReplaceRules_InvalidConfiguration_KeepsCurrentRules() {
+        ValidationProperties properties = new ValidationProperties();
+        properties.setCurrencies(List.of("US1"));
+
+        assertThatThrownBy(() -> validationService.replaceRules(properties))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("US1");
+        assertThat(validationService.validateDeal(validDealRequest)).isEmpty();
+    }
+
+    @Test
+    void testReplaceRules_NullOrNegativeLimits_Rejected() {
+        ValidationProperties nullTolerance = new ValidationProperties();
+        nullTolerance.setFutureTolerance(null);
+        ValidationProperties negativeAge = new ValidationProperties();
+        negativeAge.setMaxAge(Period.ofDays(-1));
+        ValidationProperties nullCurrencies = new ValidationProperties();
+        nullCurrencies.setCurrencies(null);
+
+        assertThatThrownBy(() -> validationService.replaceRules(nullTolerance))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("future-tolerance");
+        assertThatThrownBy(() -> validationService.replaceRules(negativeAge))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("max-age");
+        assertThatThrownBy(() -> validationService.replaceRules(nullCurrencies))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("currencies");
+        assertThat(validationService.validateDeal(validDealRequest)).isEmpty();
+    }
+
     @Test
     void testValidateDeals_MultipleValidDeals_ReturnsNoErrors() {
         DealRequest deal1 = createValidDeal("DEAL-001");
@@ -176,7 +275,7 @@ class DealValidationServiceTest {
         DealRequest deal1 = createValidDeal("DEAL-001");
         DealRequest deal2 = new DealRequest(); // Invalid
         DealRequest deal3 = createValidDeal("DEAL-003");
-        deal3.setDealAmount(BigDecimal.ZERO); // Invalid amount
+        deal3.setDealAmount(FixedPointAmount.ZERO); // Invalid amount
 
         List<DealRequest> deals = List.of(deal1, deal2, deal3);
         List<String> errors = validationService.validateDeals(deals);
@@ -205,7 +304,7 @@ class DealValidationServiceTest {
         deal.setFromCurrencyIsoCode("USD");
         deal.setToCurrencyIsoCode("EUR");
         deal.setDealTimestamp(LocalDateTime.now().minusHours(1));
-        deal.setDealAmount(new BigDecimal("1000.50"));
+        deal.setDealAmount(FixedPointAmount.parse("1000.50"));
         return deal;
     }
 }
@@ -0,0 +1,141 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.WarmupProperties;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DealWarmup
+ */
+class DealWarmupTest {
+
+    private final FxDealService dealService = mock(FxDealService.class);
+    private final DealValidationService validationService = new DealValidationService();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final HikariDataSource pool = mock(HikariDataSource.class);
+    private final List<List<DealRequest>> rehearsed = new ArrayList<>();
+
+    private WarmupProperties properties;
+    private DealWarmup warmup;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        properties = new WarmupProperties();
+        properties.setRounds(3);
+        properties.setDealsPerRound(10);
+        properties.setMaxDuration(Duration.ofSeconds(10));
+
+        doAnswer(invocation -> {
+            List<DealRequest> deals = invocation.getArgument(0);
+            rehearsed.add(deals);
+            List<DealResponse> responses = new ArrayList<>();
+            for (DealRequest deal : deals) {
+                responses.add(DealResponse.builder().dealUniqueId(deal.getDealUniqueId()).build());
+            }
+            return responses;
+        }).when(dealService).rehearseImport(anyList());
+        when(pool.getMaximumPoolSize()).thenReturn(4);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ObjectProvider<HikariDataSource> dataSources = mock(ObjectProvider.class);
+        when(dataSources.orderedStream()).thenAnswer(invocation -> Stream.of(pool));
+
+        warmup = new DealWarmup(dealService, validationService, objectMapper, dataSources, properties);
+    }
+
+    @Test
+    void testWarmUp_RunsAllRoundsAndFillsPools() throws Exception {
+        assertThat(warmup.warmUp()).isTrue();
+
+        assertThat(warmup.isCompleted()).isTrue();
+        assertThat(warmup.getRounds()).isEqualTo(3);
+        assertThat(warmup.getDuration()).isPositive();
+        assertThat(rehearsed).hasSize(3).allSatisfy(deals -> {
+            assertThat(deals).hasSize(10);
+            assertThat(deals).allSatisfy(deal -> {
+                assertThat(deal.getDealUniqueId()).startsWith("WARMUP-");
+                assertThat(validationService.validateDeal(deal)).isEmpty();
+            });
+        });
+        verify(pool, times(4)).getConnection();
+        verify(dealService).getDealByUniqueId(startsWith("WARMUP-"));
+        // Invalid variants are checked without counting rejections
+        for (ValidationRuleSet.Rule rule : ValidationRuleSet.Rule.values()) {
+            assertThat(validationService.getRejections(rule)).isZero();
+        }
+    }
+
+    @Test
+    void testWarmUp_StopsAtMaxDuration() {
+        properties.setRounds(1000);
+        properties.setMaxDuration(Duration.ofMillis(200));
+        doAnswer(invocation -> {
+            Thread.sleep(50);
+            return List.of();
+        }).when(dealService).rehearseImport(anyList());
+
+        long start = System.nanoTime();
+        assertThat(warmup.warmUp()).isFalse();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(warmup.isCompleted()).isFalse();
+        assertThat(warmup.getRounds()).isBetween(1, 999);
+        assertThat(warmup.getDuration()).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    void testWarmUp_TimedOut_RoundInProgressInterrupted() throws InterruptedException {
+        properties.setMaxDuration(Duration.ofMillis(100));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return List.of();
+        }).when(dealService).rehearseImport(anyList());
+
+        assertThat(warmup.warmUp()).isFalse();
+
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(warmup.getRounds()).isZero();
+    }
+
+    @Test
+    void testWarmUp_FailureDoesNotFailStartup() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("database unavailable");
+        }).when(dealService).rehearseImport(anyList());
+
+        assertThat(warmup.warmUp()).isFalse();
+
+        assertThat(warmup.isCompleted()).isFalse();
+        assertThat(warmup.getRounds()).isZero();
+    }
+}
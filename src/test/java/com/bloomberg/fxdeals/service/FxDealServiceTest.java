@@ -1,25 +1,43 @@
 package com.bloomberg.fxdeals.service;
 
+import com.bloomberg.fxdeals.config.ImportProperties;
+import com.bloomberg.fxdeals.config.NearDuplicateProperties;
 import com.bloomberg.fxdeals.dto.BulkDealResponse;
 import com.bloomberg.fxdeals.dto.DealRequest;
 import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.exception.SuspectedDuplicateException;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
 import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.model.RejectedDeal;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.DealIdAllocator;
 import com.bloomberg.fxdeals.repository.FxDealRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.InstanceOfAssertFactories.STRING;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,12 +46,54 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class FxDealServiceTest {
 
+    private static final String DUPLICATE_DEAL_ID =
+        "duplicate key value violates unique constraint \"uk_fx_deals_deal_unique_id\"";
+
     @Mock
     private FxDealRepository dealRepository;
 
+    @Mock
+    private DealArchiveRepository archiveRepository;
+
     @Mock
     private DealValidationService validationService;
 
+    @Mock
+    private DealIdIndex dealIdIndex;
+
+    @Spy
+    private DealIdAllocator idAllocator = new DealIdAllocator(sequence());
+
+    @Spy
+    private ImportProperties importProperties = new ImportProperties();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DealStatistics statistics;
+
+    @Mock
+    private ImportLatencyMonitor latencyMonitor;
+
+    @Mock
+    private ImportWriterPool writerPool;
+
+    @Mock
+    private RejectedDealRecorder rejections;
+
+    @Spy
+    private AdaptiveBatchSizer batchSizer = new AdaptiveBatchSizer(importProperties);
+
+    @Spy
+    private NearDuplicateDetector nearDuplicates = new NearDuplicateDetector(new NearDuplicateProperties());
+
     @InjectMocks
     private FxDealService dealService;
 
@@ -42,12 +102,15 @@ class FxDealServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(dealIdIndex.mightContain(anyString())).thenReturn(true);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+
         validDealRequest = new DealRequest();
         validDealRequest.setDealUniqueId("DEAL-001");
         validDealRequest.setFromCurrencyIsoCode("USD");
         validDealRequest.setToCurrencyIsoCode("EUR");
         validDealRequest.setDealTimestamp(LocalDateTime.now().minusHours(1));
-        validDealRequest.setDealAmount(new BigDecimal("1000.50"));
+        validDealRequest.setDealAmount(FixedPointAmount.parse("1000.50"));
 
         savedDeal = FxDeal.builder()
             .id(1L)
@@ -62,47 +125,88 @@ class FxDealServiceTest {
 
     @Test
     void testImportDeal_ValidDeal_Success() {
-        when(validationService.validateDeal(any(DealRequest.class))).thenReturn(List.of());
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
         when(dealRepository.existsByDealUniqueId("DEAL-001")).thenReturn(false);
-        when(dealRepository.save(any(FxDeal.class))).thenReturn(savedDeal);
+        stubInsertBatch();
 
         DealResponse response = dealService.importDeal(validDealRequest);
 
         assertThat(response).isNotNull();
+        assertThat(response.getId()).isEqualTo(1L);
         assertThat(response.getDealUniqueId()).isEqualTo("DEAL-001");
         assertThat(response.getFromCurrencyIsoCode()).isEqualTo("USD");
         assertThat(response.getToCurrencyIsoCode()).isEqualTo("EUR");
 
-        verify(validationService).validateDeal(validDealRequest);
+        verify(validationService).validateDeal(same(validDealRequest), anyList());
         verify(dealRepository).existsByDealUniqueId("DEAL-001");
-        verify(dealRepository).save(any(FxDeal.class));
+        verify(dealRepository).insertBatch(anyList());
+        verify(transactionManager).commit(transactionStatus);
+        verify(eventPublisher).publishEvent(any(DealsImportedEvent.class));
     }
 
     @Test
     void testImportDeal_ValidationFails_ThrowsException() {
-        when(validationService.validateDeal(any(DealRequest.class)))
+        when(validationService.validateDeal(any(DealRequest.class), anyList()))
             .thenReturn(List.of("Invalid currency code"));
 
         assertThatThrownBy(() -> dealService.importDeal(validDealRequest))
             .isInstanceOf(IllegalArgumentException.class)
             .hasMessageContaining("Validation failed");
 
-        verify(validationService).validateDeal(validDealRequest);
-        verify(dealRepository, never()).save(any());
+        verify(validationService).validateDeal(same(validDealRequest), anyList());
+        verify(dealRepository, never()).insertBatch(anyList());
     }
 
     @Test
     void testImportDeal_DuplicateDeal_ThrowsException() {
-        when(validationService.validateDeal(any(DealRequest.class))).thenReturn(List.of());
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
         when(dealRepository.existsByDealUniqueId("DEAL-001")).thenReturn(true);
 
         assertThatThrownBy(() -> dealService.importDeal(validDealRequest))
             .isInstanceOf(IllegalStateException.class)
             .hasMessageContaining("already exists");
 
-        verify(validationService).validateDeal(validDealRequest);
+        verify(validationService).validateDeal(same(validDealRequest), anyList());
         verify(dealRepository).existsByDealUniqueId("DEAL-001");
-        verify(dealRepository, never()).save(any());
+        verify(dealRepository, never()).insertBatch(anyList());
+    }
+
+    @Test
+    void testImportDeal_IndexRulesOutId_SkipsExistsQuery() {
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealIdIndex.mightContain("DEAL-001")).thenReturn(false);
+        stubInsertBatch();
+
+        DealResponse response = dealService.importDeal(validDealRequest);
+
+        assertThat(response.getDealUniqueId()).isEqualTo("DEAL-001");
+        verify(dealRepository, never()).existsByDealUniqueId(anyString());
+        verify(dealIdIndex).recordStored(1L, "DEAL-001");
+    }
+
+    @Test
+    void testImportDeal_UniqueConstraintViolation_ThrowsDuplicate() {
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealIdIndex.mightContain("DEAL-001")).thenReturn(false);
+        when(dealRepository.insertBatch(anyList()))
+            .thenThrow(new DataIntegrityViolationException(DUPLICATE_DEAL_ID));
+
+        assertThatThrownBy(() -> dealService.importDeal(validDealRequest))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("already exists");
+    }
+
+    @Test
+    void testImportDeal_OtherConstraintViolation_ThrowsFailure() {
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealIdIndex.mightContain("DEAL-001")).thenReturn(false);
+        when(dealRepository.insertBatch(anyList()))
+            .thenThrow(new DataIntegrityViolationException("null value in column \"deal_amount\" violates not-null constraint"));
+
+        assertThatThrownBy(() -> dealService.importDeal(validDealRequest))
+            .isInstanceOf(RuntimeException.class)
+            .isNotInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Failed to save deal");
     }
 
     @Test
@@ -111,20 +215,9 @@ class FxDealServiceTest {
         DealRequest deal2 = createValidDeal("DEAL-002");
         List<DealRequest> deals = List.of(deal1, deal2);
 
-        when(validationService.validateDeal(any(DealRequest.class))).thenReturn(List.of());
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
         when(dealRepository.existsByDealUniqueId(anyString())).thenReturn(false);
-        when(dealRepository.save(any(FxDeal.class))).thenAnswer(invocation -> {
-            FxDeal deal = invocation.getArgument(0);
-            return FxDeal.builder()
-                .id(deal.getDealUniqueId().equals("DEAL-001") ? 1L : 2L)
-                .dealUniqueId(deal.getDealUniqueId())
-                .fromCurrencyIsoCode(deal.getFromCurrencyIsoCode())
-                .toCurrencyIsoCode(deal.getToCurrencyIsoCode())
-                .dealTimestamp(deal.getDealTimestamp())
-                .dealAmount(deal.getDealAmount())
-                .createdAt(LocalDateTime.now())
-                .build();
-        });
+        stubInsertBatch();
 
         BulkDealResponse response = dealService.importDealsBulk(deals);
 
@@ -133,6 +226,142 @@ class FxDealServiceTest {
         assertThat(response.getSkippedDuplicates()).isEqualTo(0);
         assertThat(response.getFailed()).isEqualTo(0);
         assertThat(response.getImportedDeals()).hasSize(2);
+        assertThat(response.getImportedDeals()).extracting(DealResponse::getId).containsExactly(1L, 2L);
+        verify(dealRepository).insertBatch(anyList());
+    }
+
+    @Test
+    void testImportDealsBulk_CommitsPerChunkInBatches() {
+        importProperties.setChunkSize(4);
+        importProperties.setBatchSize(2);
+        dealService = new FxDealService(dealRepository, archiveRepository, validationService, dealIdIndex,
+            idAllocator, importProperties, transactionManager, eventPublisher, statistics, nearDuplicates,
+            latencyMonitor, writerPool, rejections, new AdaptiveBatchSizer(importProperties));
+        List<DealRequest> deals = List.of(createValidDeal("DEAL-001"), createValidDeal("DEAL-002"),
+            createValidDeal("DEAL-003"), createValidDeal("DEAL-004"), createValidDeal("DEAL-005"));
+
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealRepository.existsByDealUniqueId(anyString())).thenReturn(false);
+        stubInsertBatch();
+
+        BulkDealResponse response = dealService.importDealsBulk(deals);
+
+        assertThat(response.getSuccessfullyImported()).isEqualTo(5);
+        // Chunks of 4 and 1 deals, the first written as two batches of 2
+        verify(dealRepository, times(3)).insertBatch(anyList());
+        verify(transactionManager, times(2)).commit(transactionStatus);
+        verify(transactionStatus, never()).rollbackToSavepoint(any());
+        verify(eventPublisher, times(2)).publishEvent(any(DealsImportedEvent.class));
+    }
+
+    @Test
+    void testImportDealsBulk_LargeImport_PartitionedAcrossWriters() {
+        importProperties.setChunkSize(2);
+        importProperties.setWriters(3);
+        importProperties.setParallelThreshold(10);
+        ImportWriterPool pool = new ImportWriterPool(importProperties, 10);
+        dealService = new FxDealService(dealRepository, archiveRepository, validationService, dealIdIndex,
+            idAllocator, importProperties, transactionManager, eventPublisher, statistics, nearDuplicates,
+            latencyMonitor, pool, rejections, new AdaptiveBatchSizer(importProperties));
+        List<DealRequest> deals = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            deals.add(createValidDeal("DEAL-" + i));
+        }
+
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealRepository.existsByDealUniqueId(anyString())).thenReturn(false);
+        List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        when(dealRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<FxDeal> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(FxDeal::getDealUniqueId).toList());
+            return batch;
+        });
+
+        try {
+            BulkDealResponse response = dealService.importDealsBulk(deals);
+
+            assertThat(response.getSuccessfullyImported()).isEqualTo(20);
+            // Merged back in request order
+            assertThat(response.getImportedDeals()).extracting(DealResponse::getDealUniqueId)
+                .containsExactlyElementsOf(deals.stream().map(DealRequest::getDealUniqueId).toList());
+            // Every chunk holds deals of a single partition
+            assertThat(batches).allSatisfy(batch -> assertThat(batch)
+                .extracting(dealId -> Math.floorMod(dealId.hashCode(), 3))
+                .containsOnly(Math.floorMod(batch.get(0).hashCode(), 3)));
+            assertThat(batches).flatExtracting(batch -> batch).hasSize(20);
+        } finally {
+            pool.destroy();
+        }
+    }
+
+    @Test
+    void testImportWriterPool_CappedByConnectionPool() {
+        importProperties.setWriters(8);
+
+        ImportWriterPool pool = new ImportWriterPool(importProperties, 10);
+        try {
+            assertThat(pool.getWorkers()).isEqualTo(5);
+            assertThat(pool.shouldPartition(importProperties.getParallelThreshold() - 1)).isFalse();
+            assertThat(pool.shouldPartition(importProperties.getParallelThreshold())).isTrue();
+        } finally {
+            pool.destroy();
+        }
+    }
+
+    @Test
+    void testImportDealsBulk_ConstraintViolation_RollsBackToSavepoints() {
+        List<DealRequest> deals = List.of(createValidDeal("DEAL-001"), createValidDeal("DEAL-002"),
+            createValidDeal("DEAL-003"));
+
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealRepository.existsByDealUniqueId(anyString())).thenReturn(false);
+        // DEAL-002 was stored concurrently, after the exists check
+        when(dealRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<FxDeal> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(deal -> deal.getDealUniqueId().equals("DEAL-002"))) {
+                throw new DuplicateKeyException(DUPLICATE_DEAL_ID);
+            }
+            return batch;
+        });
+
+        BulkDealResponse response = dealService.importDealsBulk(deals);
+
+        assertThat(response.getSuccessfullyImported()).isEqualTo(2);
+        assertThat(response.getSkippedDuplicates()).isEqualTo(1);
+        assertThat(response.getErrors()).containsExactly("Deal[1] (DEAL-002): Deal with unique ID DEAL-002 already exists");
+        assertThat(response.getImportedDeals()).extracting(DealResponse::getDealUniqueId)
+            .containsExactly("DEAL-001", "DEAL-003");
+        // The row-by-row retry keeps the ids drawn for the chunk
+        assertThat(response.getImportedDeals()).extracting(DealResponse::getId).containsExactly(1L, 3L);
+        verify(dealRepository, times(4)).insertBatch(anyList());
+        verify(dealIdIndex, never()).recordStored(anyLong(), eq("DEAL-002"));
+        // The batch and the conflicting row are rolled back to savepoints; the chunk still commits once
+        verify(transactionStatus, times(2)).rollbackToSavepoint(any());
+        verify(transactionManager).commit(transactionStatus);
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    @Test
+    void testImportDealsBulk_OtherConstraintViolation_FailsOnlyThatDeal() {
+        List<DealRequest> deals = List.of(createValidDeal("DEAL-001"), createValidDeal("DEAL-002"));
+
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealRepository.existsByDealUniqueId(anyString())).thenReturn(false);
+        when(dealRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<FxDeal> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(deal -> deal.getDealUniqueId().equals("DEAL-002"))) {
+                throw new DataIntegrityViolationException("check constraint \"chk_fx_deals_amount\" violated");
+            }
+            return batch;
+        });
+
+        BulkDealResponse response = dealService.importDealsBulk(deals);
+
+        assertThat(response.getSuccessfullyImported()).isEqualTo(1);
+        assertThat(response.getSkippedDuplicates()).isZero();
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement().asString()
+            .startsWith("Deal[1] (DEAL-002): Unexpected error");
     }
 
     @Test
@@ -141,10 +370,10 @@ class FxDealServiceTest {
         DealRequest deal2 = createValidDeal("DEAL-002");
         List<DealRequest> deals = List.of(deal1, deal2);
 
-        when(validationService.validateDeal(any(DealRequest.class))).thenReturn(List.of());
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
         when(dealRepository.existsByDealUniqueId("DEAL-001")).thenReturn(false);
         when(dealRepository.existsByDealUniqueId("DEAL-002")).thenReturn(true); // Duplicate
-        when(dealRepository.save(any(FxDeal.class))).thenReturn(savedDeal);
+        stubInsertBatch();
 
         BulkDealResponse response = dealService.importDealsBulk(deals);
 
@@ -160,10 +389,14 @@ class FxDealServiceTest {
         DealRequest deal2 = createValidDeal("DEAL-002");
         List<DealRequest> deals = List.of(deal1, deal2);
 
-        when(validationService.validateDeal(deal1)).thenReturn(List.of());
-        when(validationService.validateDeal(deal2)).thenReturn(List.of("Invalid currency"));
+        when(validationService.validateDeal(same(deal1), anyList())).thenReturn(List.of());
+        when(validationService.validateDeal(same(deal2), anyList())).thenAnswer(invocation -> {
+            List<ValidationRuleSet.Rule> failedRules = invocation.getArgument(1);
+            failedRules.add(ValidationRuleSet.Rule.CURRENCY_FORMAT);
+            return List.of("Invalid currency");
+        });
         when(dealRepository.existsByDealUniqueId("DEAL-001")).thenReturn(false);
-        when(dealRepository.save(any(FxDeal.class))).thenReturn(savedDeal);
+        stubInsertBatch();
 
         BulkDealResponse response = dealService.importDealsBulk(deals);
 
@@ -171,6 +404,11 @@ class FxDealServiceTest {
         assertThat(response.getSuccessfullyImported()).isEqualTo(1);
         assertThat(response.getFailed()).isEqualTo(1);
         assertThat(response.getErrors()).isNotEmpty();
+        assertThat(response.getBatchId()).isNotBlank();
+        // The failed rules are captured by the validation itself, not worked out again later
+        verify(rejections).record(eq(response.getBatchId()), eq(1), same(deal2), eq(RejectedDeal.Reason.INVALID),
+            contains("Invalid currency"), eq(List.of(ValidationRuleSet.Rule.CURRENCY_FORMAT)));
+        verify(rejections, times(1)).record(any(), anyInt(), any(), any(), any(), anyList());
     }
 
     @Test
@@ -179,9 +417,9 @@ class FxDealServiceTest {
         DealRequest deal2 = createValidDeal("DEAL-001"); // Duplicate in batch
         List<DealRequest> deals = List.of(deal1, deal2);
 
-        when(validationService.validateDeal(any(DealRequest.class))).thenReturn(List.of());
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
         when(dealRepository.existsByDealUniqueId("DEAL-001")).thenReturn(false);
-        when(dealRepository.save(any(FxDeal.class))).thenReturn(savedDeal);
+        stubInsertBatch();
 
         BulkDealResponse response = dealService.importDealsBulk(deals);
 
@@ -191,6 +429,97 @@ class FxDealServiceTest {
         assertThat(response.getErrors()).anyMatch(e -> e.contains("Duplicate deal ID in the same batch"));
     }
 
+    @Test
+    void testImportDealsBulk_NearDuplicateRejected_NotImported() {
+        dealService = withNearDuplicates(NearDuplicateProperties.Mode.REJECT);
+        DealRequest resend = createValidDeal("DEAL-002");
+        resend.setDealTimestamp(validDealRequest.getDealTimestamp());
+        DealRequest first = createValidDeal("DEAL-001");
+        first.setDealTimestamp(validDealRequest.getDealTimestamp());
+        DealRequest otherAmount = createValidDeal("DEAL-003");
+        otherAmount.setDealAmount(FixedPointAmount.parse("2000.00"));
+
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealRepository.existsByDealUniqueId(anyString())).thenReturn(false);
+        stubInsertBatch();
+
+        BulkDealResponse response = dealService.importDealsBulk(List.of(first, resend, otherAmount));
+
+        assertThat(response.getSuccessfullyImported()).isEqualTo(2);
+        assertThat(response.getFailed()).isZero();
+        assertThat(response.getSuspectedDuplicates()).isEqualTo(1);
+        assertThat(response.getSuspectedDuplicateDeals())
+            .singleElement(STRING)
+            .contains("Deal[1] (DEAL-002)", "Suspected resend of deal DEAL-001");
+        assertThat(response.getImportedDeals()).extracting(DealResponse::getDealUniqueId)
+            .containsExactly("DEAL-001", "DEAL-003");
+        verify(rejections).record(eq(response.getBatchId()), eq(1), same(resend),
+            eq(RejectedDeal.Reason.SUSPECTED_RESEND), contains("Suspected resend of deal DEAL-001"), eq(List.of()));
+    }
+
+    @Test
+    void testImportDealsBulk_EarlierDealNotStored_LaterOneNotASuspect() {
+        dealService = withNearDuplicates(NearDuplicateProperties.Mode.REJECT);
+        DealRequest first = createValidDeal("DEAL-001");
+        first.setDealTimestamp(validDealRequest.getDealTimestamp());
+        DealRequest similar = createValidDeal("DEAL-002");
+        similar.setDealTimestamp(validDealRequest.getDealTimestamp());
+
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealRepository.existsByDealUniqueId(anyString())).thenReturn(false);
+        // DEAL-001 was stored concurrently, so this request does not store it
+        when(dealRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<FxDeal> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(deal -> deal.getDealUniqueId().equals("DEAL-001"))) {
+                throw new DuplicateKeyException(DUPLICATE_DEAL_ID);
+            }
+            return batch;
+        });
+
+        BulkDealResponse response = dealService.importDealsBulk(List.of(first, similar));
+
+        assertThat(response.getSkippedDuplicates()).isEqualTo(1);
+        assertThat(response.getSuspectedDuplicates()).isZero();
+        assertThat(response.getImportedDeals()).extracting(DealResponse::getDealUniqueId).containsExactly("DEAL-002");
+    }
+
+    @Test
+    void testImportDeal_NearDuplicateOfImportedDeal_Rejected() {
+        NearDuplicateDetector detector = new NearDuplicateDetector(
+            nearDuplicateProperties(NearDuplicateProperties.Mode.REJECT));
+        detector.onDealsImported(new DealsImportedEvent(List.of(DealResponse.builder()
+            .id(1L)
+            .dealUniqueId("DEAL-000")
+            .fromCurrencyIsoCode("USD")
+            .toCurrencyIsoCode("EUR")
+            .dealTimestamp(validDealRequest.getDealTimestamp().plusNanos(400_000_000))
+            .dealAmount(validDealRequest.getDealAmount())
+            .build())));
+        dealService = new FxDealService(dealRepository, archiveRepository, validationService, dealIdIndex,
+            idAllocator, importProperties, transactionManager, eventPublisher, statistics, detector, latencyMonitor,
+            writerPool, rejections, new AdaptiveBatchSizer(importProperties));
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealRepository.existsByDealUniqueId("DEAL-001")).thenReturn(false);
+
+        assertThatThrownBy(() -> dealService.importDeal(validDealRequest))
+            .isInstanceOf(SuspectedDuplicateException.class)
+            .hasMessageContaining("DEAL-000");
+        verify(dealRepository, never()).insertBatch(anyList());
+    }
+
+    private FxDealService withNearDuplicates(NearDuplicateProperties.Mode mode) {
+        return new FxDealService(dealRepository, archiveRepository, validationService, dealIdIndex,
+            idAllocator, importProperties, transactionManager, eventPublisher, statistics,
+            new NearDuplicateDetector(nearDuplicateProperties(mode)), latencyMonitor, writerPool,
+            rejections, new AdaptiveBatchSizer(importProperties));
+    }
+
+    private static NearDuplicateProperties nearDuplicateProperties(NearDuplicateProperties.Mode mode) {
+        NearDuplicateProperties properties = new NearDuplicateProperties();
+        properties.setMode(mode);
+        return properties;
+    }
+
     @Test
     void testGetAllDeals_ReturnsAllDeals() {
         FxDeal deal2 = FxDeal.builder()
@@ -199,7 +528,7 @@ class FxDealServiceTest {
             .fromCurrencyIsoCode("GBP")
             .toCurrencyIsoCode("JPY")
             .dealTimestamp(LocalDateTime.now())
-            .dealAmount(new BigDecimal("2000.00"))
+            .dealAmount(FixedPointAmount.parse("2000.00"))
             .createdAt(LocalDateTime.now())
             .build();
 
@@ -222,6 +551,28 @@ class FxDealServiceTest {
         assertThat(response.getDealUniqueId()).isEqualTo("DEAL-001");
     }
 
+    @Test
+    void testGetDealByUniqueId_Archived_FallsBackToArchive() {
+        when(dealRepository.findByDealUniqueId("DEAL-001")).thenReturn(Optional.empty());
+        when(archiveRepository.findByDealUniqueId("DEAL-001")).thenReturn(Optional.of(savedDeal));
+
+        DealResponse response = dealService.getDealByUniqueId("DEAL-001");
+
+        assertThat(response.getDealUniqueId()).isEqualTo("DEAL-001");
+    }
+
+    @Test
+    void testImportDeal_ArchivedDeal_ThrowsDuplicate() {
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        when(dealRepository.existsByDealUniqueId("DEAL-001")).thenReturn(false);
+        when(archiveRepository.existsByDealUniqueId("DEAL-001")).thenReturn(true);
+
+        assertThatThrownBy(() -> dealService.importDeal(validDealRequest))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("already exists");
+        verify(dealRepository, never()).insertBatch(anyList());
+    }
+
     @Test
     void testGetDealByUniqueId_NotExists_ReturnsNull() {
         when(dealRepository.findByDealUniqueId("DEAL-999")).thenReturn(Optional.empty());
@@ -231,13 +582,54 @@ class FxDealServiceTest {
         assertThat(response).isNull();
     }
 
+    @Test
+    void testRehearseImport_InsertsAndReadsBackInRolledBackTransaction() {
+        List<DealRequest> deals = List.of(createValidDeal("WARMUP-1"), createValidDeal("WARMUP-2"));
+        when(validationService.validateDeal(any(DealRequest.class), anyList())).thenReturn(List.of());
+        List<FxDeal> inserted = new ArrayList<>();
+        when(dealRepository.findByDealUniqueIds(List.of("WARMUP-1", "WARMUP-2"))).thenReturn(inserted);
+        when(dealRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<FxDeal> batch = invocation.getArgument(0);
+            inserted.addAll(batch);
+            return batch;
+        });
+
+        List<DealResponse> responses = dealService.rehearseImport(deals);
+
+        assertThat(responses).extracting(DealResponse::getDealUniqueId).containsExactly("WARMUP-1", "WARMUP-2");
+        assertThat(responses).extracting(DealResponse::getId).doesNotContainNull().doesNotHaveDuplicates();
+        verify(transactionStatus).setRollbackOnly();
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(dealIdIndex, never()).recordStored(anyLong(), anyString());
+        verify(rejections, never()).record(any(), anyInt(), any(), any(), any(), anyList());
+    }
+
+    private void stubInsertBatch() {
+        when(dealRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<FxDeal> batch = invocation.getArgument(0);
+            batch.forEach(deal -> deal.setCreatedAt(LocalDateTime.now()));
+            return batch;
+        });
+    }
+
+    /**
+     * A JdbcTemplate answering nextval of fx_deals_id_seq, starting at 1
+     */
+    private static JdbcTemplate sequence() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicLong next = new AtomicLong(1);
+        lenient().when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+            .thenAnswer(invocation -> next.getAndAdd(FxDeal.ID_ALLOCATION_SIZE));
+        return jdbcTemplate;
+    }
+
     private DealRequest createValidDeal(String dealId) {
         DealRequest deal = new DealRequest();
         deal.setDealUniqueId(dealId);
         deal.setFromCurrencyIsoCode("USD");
         deal.setToCurrencyIsoCode("EUR");
         deal.setDealTimestamp(LocalDateTime.now().minusHours(1));
-        deal.setDealAmount(new BigDecimal("1000.50"));
+        deal.setDealAmount(FixedPointAmount.parse("1000.50"));
         return deal;
     }
 }
@@ -0,0 +1,138 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.IdempotencyProperties;
+import com.bloomberg.fxdeals.dto.BulkDealResponse;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.exception.IdempotencyKeyConflictException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for IdempotencyService
+ */
+class IdempotencyServiceTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void testExecute_SameKey_ReplaysStoredResponse() {
+        IdempotencyService service = createService(10, Duration.ofMinutes(1));
+
+        ResponseEntity<?> first = service.execute("deal", "k1", 42, this::created);
+        ResponseEntity<?> second = service.execute("deal", "k1", 42, this::created);
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+        assertThat(second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(service.getReplayCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_DifferentPayload_ThrowsMismatch() {
+        IdempotencyService service = createService(10, Duration.ofMinutes(1));
+        service.execute("deal", "k1", 42, this::created);
+
+        assertThatThrownBy(() -> service.execute("deal", "k1", 43, this::created))
+            .isInstanceOf(IdempotencyKeyConflictException.class)
+            .extracting("reason").isEqualTo(IdempotencyKeyConflictException.Reason.PAYLOAD_MISMATCH);
+    }
+
+    @Test
+    void testExecute_KeyStillRunning_ThrowsInProgress() {
+        IdempotencyService service = createService(10, Duration.ofMinutes(1));
+
+        service.execute("bulk", "k1", 42, () -> {
+            assertThatThrownBy(() -> service.execute("bulk", "k1", 42, this::created))
+                .isInstanceOf(IdempotencyKeyConflictException.class)
+                .extracting("reason").isEqualTo(IdempotencyKeyConflictException.Reason.IN_PROGRESS);
+            return created();
+        });
+    }
+
+    @Test
+    void testExecute_ServerError_IsNotRemembered() {
+        IdempotencyService service = createService(10, Duration.ofMinutes(1));
+
+        service.execute("deal", "k1", 42, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.internalServerError().build();
+        });
+        service.execute("deal", "k1", 42, this::created);
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testExecute_AfterTtl_RunsAgain() {
+        IdempotencyService service = createService(10, Duration.ofSeconds(30));
+        service.execute("deal", "k1", 42, this::created);
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        service.execute("deal", "k1", 43, this::created);
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testExecute_StoreFull_EvictsLeastRecentlyUsed() {
+        IdempotencyService service = createService(2, Duration.ofMinutes(1));
+        service.execute("deal", "k1", 1, this::created);
+        service.execute("deal", "k2", 2, this::created);
+        service.execute("deal", "k1", 1, this::created);
+        service.execute("deal", "k3", 3, this::created);
+
+        service.execute("deal", "k2", 2, this::created);
+
+        assertThat(service.size()).isEqualTo(2);
+        assertThat(calls.get()).isEqualTo(4);
+    }
+
+    @Test
+    void testExecute_BulkResult_StoredWithoutImportedDeals() {
+        IdempotencyService service = createService(10, Duration.ofMinutes(1));
+        BulkDealResponse response = BulkDealResponse.builder()
+            .totalReceived(1)
+            .successfullyImported(1)
+            .skippedDuplicates(0)
+            .failed(0)
+            .errors(List.of())
+            .importedDeals(List.of(DealResponse.builder().dealUniqueId("DEAL-001").build()))
+            .build();
+
+        service.execute("bulk", "k1", 42, () -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+        BulkDealResponse replayed = (BulkDealResponse) service.execute("bulk", "k1", 42, this::created).getBody();
+
+        assertThat(replayed.getSuccessfullyImported()).isEqualTo(1);
+        assertThat(replayed.getImportedDeals()).isEmpty();
+    }
+
+    @Test
+    void testExecute_BlankKey_ThrowsIllegalArgument() {
+        IdempotencyService service = createService(10, Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> service.execute("deal", " ", 42, this::created))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ResponseEntity<?> created() {
+        return ResponseEntity.status(HttpStatus.CREATED).body("call-" + calls.incrementAndGet());
+    }
+
+    private IdempotencyService createService(int maxEntries, Duration ttl) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(maxEntries);
+        properties.setTtl(ttl);
+        return new IdempotencyService(properties, clock::get);
+    }
+}
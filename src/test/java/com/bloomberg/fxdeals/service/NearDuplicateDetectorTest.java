@@ -0,0 +1,136 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.NearDuplicateProperties;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for NearDuplicateDetector
+ */
+class NearDuplicateDetectorTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2026, 3, 2, 10, 15, 30, 900_000_000);
+
+    private final AtomicLong clock = new AtomicLong();
+    private NearDuplicateProperties properties;
+    private NearDuplicateDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        properties = new NearDuplicateProperties();
+        properties.setMode(NearDuplicateProperties.Mode.FLAG);
+        properties.setTimestampTolerance(Duration.ofSeconds(1));
+        properties.setWindow(Duration.ofMinutes(10));
+        properties.setMaxEntries(100);
+        detector = new NearDuplicateDetector(properties, clock::get);
+    }
+
+    @Test
+    void testCheck_ResendAcrossBucketBoundary_Matches() {
+        imported("D1", "EUR", "USD", "1000.50", TIMESTAMP);
+
+        // 0.3s later, in the next one-second bucket
+        assertThat(detector.newBatch().check(deal("D2", "EUR", "USD", "1000.50", TIMESTAMP.plusNanos(300_000_000))))
+            .isEqualTo("D1");
+        assertThat(detector.getSuspectCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testCheck_DifferentAmountPairOrTime_NoMatch() {
+        imported("D1", "EUR", "USD", "1000.50", TIMESTAMP);
+        NearDuplicateDetector.Batch batch = detector.newBatch();
+
+        assertThat(batch.check(deal("D2", "EUR", "USD", "1000.51", TIMESTAMP))).isNull();
+        assertThat(batch.check(deal("D3", "USD", "EUR", "1000.50", TIMESTAMP.plusDays(1)))).isNull();
+        assertThat(batch.check(deal("D4", "EUR", "USD", "1000.50", TIMESTAMP.plusSeconds(2)))).isNull();
+        // Same unique ID is an exact duplicate, handled by the unique-ID checks
+        assertThat(detector.newBatch().check(deal("D1", "EUR", "USD", "1000.50", TIMESTAMP))).isNull();
+        assertThat(detector.getSuspectCount()).isZero();
+    }
+
+    @Test
+    void testCheck_SameRequest_MatchesEarlierDealOnceWritten() {
+        NearDuplicateDetector.Batch batch = detector.newBatch();
+        FxDeal first = deal("D1", "GBP", "JPY", "250", TIMESTAMP);
+        FxDeal resend = deal("D2", "GBP", "JPY", "250", TIMESTAMP.minusNanos(500_000_000));
+
+        assertThat(batch.check(first)).isNull();
+        batch.queued(first);
+        assertThat(batch.resemblesUnwritten(resend)).isTrue();
+        assertThat(batch.check(resend)).isNull();
+
+        batch.settled(first, true);
+
+        assertThat(batch.resemblesUnwritten(resend)).isFalse();
+        assertThat(batch.check(resend)).isEqualTo("D1");
+        assertThat(detector.newBatch().check(deal("D3", "GBP", "JPY", "250", TIMESTAMP))).isNull();
+    }
+
+    @Test
+    void testCheck_SameRequest_EarlierDealNotStored_NoMatch() {
+        NearDuplicateDetector.Batch batch = detector.newBatch();
+        FxDeal first = deal("D1", "GBP", "JPY", "250", TIMESTAMP);
+        batch.queued(first);
+
+        batch.settled(first, false);
+
+        FxDeal resend = deal("D2", "GBP", "JPY", "250", TIMESTAMP);
+        assertThat(batch.resemblesUnwritten(resend)).isFalse();
+        assertThat(batch.check(resend)).isNull();
+        assertThat(detector.getSuspectCount()).isZero();
+    }
+
+    @Test
+    void testIndex_ExpiresAfterWindowAndStaysBounded() {
+        imported("D1", "EUR", "USD", "1000.50", TIMESTAMP);
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        assertThat(detector.newBatch().check(deal("D2", "EUR", "USD", "1000.50", TIMESTAMP))).isNull();
+
+        for (int i = 0; i < 150; i++) {
+            imported("X" + i, "EUR", "USD", String.valueOf(i + 1), TIMESTAMP);
+        }
+        assertThat(detector.size()).isEqualTo(100);
+        assertThat(detector.newBatch().check(deal("Y", "EUR", "USD", "1", TIMESTAMP))).isNull();
+        assertThat(detector.newBatch().check(deal("Y", "EUR", "USD", "150", TIMESTAMP))).isEqualTo("X149");
+    }
+
+    @Test
+    void testModeOff_NothingIndexedOrMatched() {
+        properties.setMode(NearDuplicateProperties.Mode.OFF);
+        imported("D1", "EUR", "USD", "1000.50", TIMESTAMP);
+
+        assertThat(detector.size()).isZero();
+        assertThat(detector.newBatch().check(deal("D2", "EUR", "USD", "1000.50", TIMESTAMP))).isNull();
+    }
+
+    private void imported(String id, String from, String to, String amount, LocalDateTime timestamp) {
+        detector.onDealsImported(new DealsImportedEvent(List.of(DealResponse.builder()
+            .dealUniqueId(id)
+            .fromCurrencyIsoCode(from)
+            .toCurrencyIsoCode(to)
+            .dealAmount(FixedPointAmount.parse(amount))
+            .dealTimestamp(timestamp)
+            .build())));
+    }
+
+    private static FxDeal deal(String id, String from, String to, String amount, LocalDateTime timestamp) {
+        return FxDeal.builder()
+            .dealUniqueId(id)
+            .fromCurrencyIsoCode(from)
+            .toCurrencyIsoCode(to)
+            .dealAmount(FixedPointAmount.parse(amount))
+            .dealTimestamp(timestamp)
+            .build();
+    }
+}
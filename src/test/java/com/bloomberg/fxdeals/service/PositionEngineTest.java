@@ -0,0 +1,176 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.ArchiveProperties;
+import com.bloomberg.fxdeals.config.PositionProperties;
+import com.bloomberg.fxdeals.dto.DealResponse;
+import com.bloomberg.fxdeals.dto.PositionResponse;
+import com.bloomberg.fxdeals.exception.ServiceUnavailableException;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.DealIdAllocator;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import com.bloomberg.fxdeals.repository.FxDealScanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for PositionEngine
+ */
+@ExtendWith(MockitoExtension.class)
+class PositionEngineTest {
+
+    @Mock
+    private FxDealRepository dealRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DealIdAllocator idAllocator;
+    private PositionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicLong sequence = new AtomicLong(1);
+        lenient().when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+            .thenAnswer(invocation -> sequence.getAndAdd(FxDeal.ID_ALLOCATION_SIZE));
+        idAllocator = new DealIdAllocator(jdbcTemplate);
+        engine = new PositionEngine(dealRepository, new DealArchiveRepository(new ArchiveProperties(), dealRepository,
+            jdbcTemplate), idAllocator, new PositionProperties(), transactionManager);
+    }
+
+    @Test
+    void testRun_RebuildsPositionsFromScan() {
+        stubScan(2L, new Object[] {1L, "USD", "EUR", "1000.50"}, new Object[] {2L, "EUR", "USD", "200"});
+
+        engine.run(null);
+
+        PositionResponse usd = engine.getPosition("USD");
+        assertThat(usd.getBought()).isEqualByComparingTo("200");
+        assertThat(usd.getSold()).isEqualByComparingTo("1000.50");
+        assertThat(usd.getNet()).isEqualByComparingTo("-800.50");
+        assertThat(usd.getDealCount()).isEqualTo(2);
+        assertThat(engine.getPositions()).extracting(PositionResponse::getCurrency).containsExactly("EUR", "USD");
+    }
+
+    @Test
+    void testOnDealsImported_AfterRebuild_UpdatesPositions() {
+        stubScan(0L);
+        engine.run(null);
+
+        engine.onDealsImported(new DealsImportedEvent(List.of(deal(1, "GBP", "JPY", "0.0001"),
+            deal(2, "GBP", "JPY", "0.9999"))));
+
+        assertThat(engine.getPosition("GBP").getNet()).isEqualByComparingTo("-1");
+        assertThat(engine.getPosition("JPY").getBought()).isEqualByComparingTo(BigDecimal.ONE);
+        assertThat(engine.getPosition("CHF")).isNull();
+    }
+
+    @Test
+    void testOnDealsImported_DuringRebuild_AppliesOnlyDealsNotScanned() {
+        // Deal 1 is covered by the scan; deal 2 committed after the scan started
+        engine.onDealsImported(new DealsImportedEvent(List.of(deal(1, "USD", "EUR", "10"),
+            deal(2, "USD", "EUR", "5"))));
+        stubScan(1L, new Object[] {1L, "USD", "EUR", "10"});
+
+        engine.run(null);
+
+        assertThat(engine.getPosition("EUR").getBought()).isEqualByComparingTo("15");
+    }
+
+    @Test
+    void testRun_DealCommittedAboveOpenRange_LeftToItsEvent() {
+        // Deal 2 committed while the range holding deal 1 was still open
+        DealIdAllocator.IdRange first = idAllocator.open(1);
+        DealIdAllocator.IdRange second = idAllocator.open(1);
+        second.onCompleted(() -> engine.onDealsImported(new DealsImportedEvent(List.of(deal(2, "USD", "EUR", "5")))));
+        second.close();
+        stubScan(2L, new Object[] {2L, "USD", "EUR", "5"});
+
+        engine.run(null);
+        first.onCompleted(() -> engine.onDealsImported(new DealsImportedEvent(List.of(deal(1, "USD", "EUR", "10")))));
+        first.close();
+
+        assertThat(engine.getPosition("EUR").getBought()).isEqualByComparingTo("15");
+        assertThat(engine.getPosition("EUR").getDealCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testOnDealsPurged_SubtractsDeals() {
+        stubScan(2L, new Object[] {1L, "USD", "EUR", "10"}, new Object[] {2L, "USD", "EUR", "2.5"});
+        engine.run(null);
+
+        engine.onDealsPurged(new DealsPurgedEvent(List.of(deal(1, "USD", "EUR", "10"))));
+
+        PositionResponse eur = engine.getPosition("EUR");
+        assertThat(eur.getBought()).isEqualByComparingTo("2.5");
+        assertThat(eur.getDealCount()).isEqualTo(1);
+        assertThat(engine.getPosition("USD").getNet()).isEqualByComparingTo("-2.5");
+    }
+
+    @Test
+    void testOnDealsPurged_BeforeScan_NotSubtractedTwice() {
+        // Deal 1 was purged before the scan started, so the scan no longer sees it
+        engine.onDealsImported(new DealsImportedEvent(List.of(deal(1, "USD", "EUR", "10"))));
+        engine.onDealsPurged(new DealsPurgedEvent(List.of(deal(1, "USD", "EUR", "10"))));
+        stubScan(2L, new Object[] {2L, "USD", "EUR", "5"});
+
+        engine.run(null);
+
+        PositionResponse eur = engine.getPosition("EUR");
+        assertThat(eur.getBought()).isEqualByComparingTo("5");
+        assertThat(eur.getDealCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetPositions_BeforeRebuild_ThrowsServiceUnavailable() {
+        assertThatThrownBy(() -> engine.getPositions())
+            .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private void stubScan(long maxId, Object[]... rows) {
+        when(dealRepository.findMaxId()).thenReturn(maxId == 0 ? null : maxId);
+        doAnswer(invocation -> {
+            long bound = invocation.getArgument(0);
+            FxDealScanRepository.DealAmountHandler handler = invocation.getArgument(2);
+            for (Object[] row : rows) {
+                if ((Long) row[0] <= bound) {
+                    handler.accept((Long) row[0], (String) row[1], (String) row[2],
+                        FixedPointAmount.parse((String) row[3]).unscaledValue());
+                }
+            }
+            return null;
+        }).when(dealRepository).scanDealAmounts(anyLong(), anyInt(), any());
+    }
+
+    private static DealResponse deal(long id, String from, String to, String amount) {
+        return DealResponse.builder()
+            .id(id)
+            .fromCurrencyIsoCode(from)
+            .toCurrencyIsoCode(to)
+            .dealAmount(FixedPointAmount.parse(amount))
+            .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.RejectionProperties;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.RejectedDeal;
+import com.bloomberg.fxdeals.repository.RejectedDealRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RejectedDealRecorder
+ */
+class RejectedDealRecorderTest {
+
+    private final RejectedDealRepository repository = mock(RejectedDealRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<List<RejectedDeal>> batches = new ArrayList<>();
+
+    private RejectionProperties properties;
+    private RejectedDealRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RejectionProperties();
+        properties.setQueueCapacity(5);
+        properties.setBatchSize(2);
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        doAnswer(invocation -> batches.add(new ArrayList<>(invocation.getArgument(0))))
+            .when(repository).insertBatch(anyList());
+        recorder = new RejectedDealRecorder(repository, properties, objectMapper,
+            new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void testDrain_WritesInBatchesWithRuleCodesAndPayload() {
+        DealRequest invalid = deal("DEAL-001");
+        invalid.setToCurrencyIsoCode("EUR");
+        recorder.record("B1", 0, invalid, RejectedDeal.Reason.INVALID, "Deal[0] (DEAL-001): Validation failed",
+            List.of(ValidationRuleSet.Rule.SAME_CURRENCY, ValidationRuleSet.Rule.TIMESTAMP_TOO_OLD));
+        recorder.record("B1", 1, deal("DEAL-002"), RejectedDeal.Reason.DUPLICATE, "already exists", List.of());
+        recorder.record("B1", 2, deal("DEAL-002"), RejectedDeal.Reason.DUPLICATE_IN_BATCH, "same batch", List.of());
+
+        recorder.drain();
+
+        assertThat(batches).extracting(List::size).containsExactly(2, 1);
+        RejectedDeal first = batches.get(0).get(0);
+        assertThat(first.getBatchId()).isEqualTo("B1");
+        assertThat(first.getErrorCodes()).isEqualTo("SAME_CURRENCY,TIMESTAMP_TOO_OLD");
+        assertThat(first.getPayload()).contains("\"dealUniqueId\":\"DEAL-001\"", "\"toCurrencyIsoCode\":\"EUR\"");
+        assertThat(batches.get(0).get(1).getErrorCodes()).isNull();
+        assertThat(recorder.getQueueSize()).isZero();
+        assertThat(recorder.getDropped()).isZero();
+    }
+
+    @Test
+    void testRecord_QueueFull_DropsWithoutBlocking() {
+        for (int i = 0; i < 8; i++) {
+            recorder.record("B1", i, deal("DEAL-" + i), RejectedDeal.Reason.DUPLICATE, "already exists", List.of());
+        }
+
+        assertThat(recorder.getQueueSize()).isEqualTo(5);
+        assertThat(recorder.getDropped()).isEqualTo(3);
+        recorder.drain();
+        assertThat(batches).flatExtracting(batch -> batch).extracting(RejectedDeal::getDealIndex)
+            .containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void testDrain_WriteFails_CountsDroppedAndContinues() {
+        doThrow(new DataAccessResourceFailureException("down")).doAnswer(invocation -> batches.add(
+                new ArrayList<>(invocation.getArgument(0))))
+            .when(repository).insertBatch(anyList());
+        for (int i = 0; i < 3; i++) {
+            recorder.record("B1", i, deal("DEAL-" + i), RejectedDeal.Reason.FAILED, "Unexpected error", List.of());
+        }
+
+        recorder.drain();
+
+        assertThat(recorder.getDropped()).isEqualTo(2);
+        assertThat(batches).singleElement().extracting(List::size).isEqualTo(1);
+    }
+
+    @Test
+    void testRecord_Disabled_NothingQueued() {
+        properties.setEnabled(false);
+
+        assertThat(recorder.record("B1", 0, deal("DEAL-001"), RejectedDeal.Reason.DUPLICATE, "x", List.of())).isFalse();
+        assertThat(recorder.getQueueSize()).isZero();
+    }
+
+    private static DealRequest deal(String id) {
+        return new DealRequest(id, "EUR", "USD", LocalDateTime.now().minusHours(1), FixedPointAmount.parse("100.00"));
+    }
+}
@@ -0,0 +1,221 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.ArchiveProperties;
+import com.bloomberg.fxdeals.config.RetentionProperties;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.FxDeal;
+import com.bloomberg.fxdeals.repository.DealArchiveRepository;
+import com.bloomberg.fxdeals.repository.DealIdAllocator;
+import com.bloomberg.fxdeals.repository.FxDealRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RetentionPurger
+ */
+class RetentionPurgerTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private final FxDealRepository dealRepository = mock(FxDealRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final AtomicLong sequence = new AtomicLong(1);
+    private final AtomicLong clock = new AtomicLong();
+    private final ImportLatencyMonitor latencyMonitor = new ImportLatencyMonitor(clock::get);
+    private final List<Long> pauses = new ArrayList<>();
+    private final List<Integer> requestedBatches = new ArrayList<>();
+
+    private RetentionProperties properties;
+    private DealArchiveRepository archive;
+    private DealIdAllocator idAllocator;
+    private RetentionPurger purger;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ArchiveProperties archiveProperties = new ArchiveProperties();
+        archiveProperties.setPath(directory.toString());
+        archive = new DealArchiveRepository(archiveProperties, dealRepository, mock(JdbcTemplate.class));
+        archive.afterPropertiesSet();
+
+        properties = new RetentionProperties();
+        properties.setMaxBatchSize(8);
+        properties.setMinBatchSize(2);
+        properties.setPause(Duration.ofMillis(10));
+        properties.setMaxPause(Duration.ofMillis(35));
+        properties.setImportLatencyBudget(Duration.ofMillis(1));
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+            .thenAnswer(invocation -> sequence.getAndAdd(FxDeal.ID_ALLOCATION_SIZE));
+        idAllocator = new DealIdAllocator(jdbcTemplate);
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        purger = new RetentionPurger(dealRepository, archive, idAllocator, properties, latencyMonitor,
+            eventPublisher, transactionManager, pauses::add);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        archive.destroy();
+    }
+
+    @Test
+    void testPurge_DeletesInKeysetBatchesAndPublishesEvents() {
+        stubExpiredDeals(20);
+
+        long deleted = purger.purge(CUTOFF);
+
+        assertThat(deleted).isEqualTo(20);
+        assertThat(requestedBatches).containsExactly(8, 8, 8);
+        verify(dealRepository, times(3)).deleteByIds(anyList());
+        verify(eventPublisher, times(3)).publishEvent(any(DealsPurgedEvent.class));
+        assertThat(pauses).containsExactly(ms(10), ms(10));
+    }
+
+    @Test
+    void testPurge_SlowImports_ShrinksBatchesAndBacksOff() {
+        latencyMonitor.record(10, Duration.ofMillis(50).toNanos());
+        stubExpiredDeals(20);
+
+        purger.purge(CUTOFF);
+
+        assertThat(requestedBatches).containsExactly(8, 4, 2, 2, 2, 2, 2);
+        assertThat(pauses).containsExactly(ms(20), ms(35), ms(35), ms(35), ms(35), ms(35));
+    }
+
+    @Test
+    void testPurge_DealsNotYetPublished_LeftForTheNextRun() {
+        stubExpiredDeals(20);
+        idAllocator.open(5).close();
+        try (DealIdAllocator.IdRange importing = idAllocator.open(1)) {
+            // Deals 7..20 committed above the import of deal 6, still in flight
+            long deleted = purger.purge(CUTOFF);
+
+            assertThat(deleted).isEqualTo(5);
+        }
+        verify(dealRepository, times(1)).deleteByIds(anyList());
+    }
+
+    @Test
+    void testPurge_EventPublishedBeforeArchiveReadsResume() {
+        stubExpiredDeals(3);
+        List<Boolean> readBlocked = new ArrayList<>();
+        doAnswer(invocation -> {
+            CompletableFuture<Boolean> read = CompletableFuture.supplyAsync(() -> archive.withStableArchive(() -> true));
+            readBlocked.add(!read.isDone() && !waitFor(read, 50));
+            return null;
+        }).when(eventPublisher).publishEvent(any(DealsPurgedEvent.class));
+
+        purger.purge(CUTOFF);
+
+        assertThat(readBlocked).containsExactly(true);
+    }
+
+    @Test
+    void testPurge_ArchiveLookupsNotBlockedByDelete() {
+        stubExpiredDeals(3);
+        List<Optional<FxDeal>> lookups = new ArrayList<>();
+        doAnswer(invocation -> {
+            lookups.add(CompletableFuture.supplyAsync(() -> archive.findByDealUniqueId("D1"))
+                .orTimeout(1, TimeUnit.SECONDS).join());
+            return null;
+        }).when(dealRepository).deleteByIds(anyList());
+
+        purger.purge(CUTOFF);
+
+        assertThat(lookups).containsExactly(Optional.empty());
+    }
+
+    @Test
+    void testPurge_ExpiredArchiveSegment_DroppedWhole() throws IOException {
+        archive.publish(archive.writePending(List.of(deal(1, CUTOFF.minusDays(2)), deal(2, CUTOFF.minusDays(1)))),
+            () -> { });
+        archive.publish(archive.writePending(List.of(deal(3, CUTOFF.minusDays(1)), deal(4, CUTOFF.plusDays(1)))),
+            () -> { });
+        stubExpiredDeals(0);
+
+        long deleted = purger.purge(CUTOFF);
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(archive.getSegmentCount()).isEqualTo(1);
+        assertThat(archive.findByDealUniqueId("D1")).isEmpty();
+        assertThat(archive.findByDealUniqueId("D3")).isPresent();
+        verify(eventPublisher).publishEvent(any(DealsPurgedEvent.class));
+    }
+
+    /**
+     * Serve the expired deals (ids 1..count) page by page, like findDealsBefore
+     */
+    private void stubExpiredDeals(int count) {
+        when(dealRepository.findMaxId()).thenReturn((long) count);
+        when(dealRepository.findDealsBefore(eq(CUTOFF), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(1);
+            Pageable page = invocation.getArgument(2);
+            requestedBatches.add(page.getPageSize());
+            List<FxDeal> deals = new ArrayList<>();
+            for (long id = afterId + 1; id <= count && deals.size() < page.getPageSize(); id++) {
+                deals.add(deal(id, CUTOFF.minusDays(1)));
+            }
+            return deals;
+        });
+    }
+
+    private static boolean waitFor(CompletableFuture<?> future, long millis) {
+        try {
+            future.get(millis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static long ms(long millis) {
+        return Duration.ofMillis(millis).toNanos();
+    }
+
+    private static FxDeal deal(long id, LocalDateTime timestamp) {
+        return FxDeal.builder()
+            .id(id)
+            .dealUniqueId("D" + id)
+            .fromCurrencyIsoCode("USD")
+            .toCurrencyIsoCode("EUR")
+            .dealTimestamp(timestamp)
+            .dealAmount(FixedPointAmount.ofUnscaled(10_000L))
+            .createdAt(timestamp)
+            .build();
+    }
+}
@@ -0,0 +1,196 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.config.SpoolProperties;
+import com.bloomberg.fxdeals.dto.BulkDealResponse;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.dto.SpoolFileResult;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for SpoolDirectoryWatcher
+ */
+class SpoolDirectoryWatcherTest {
+
+    private static final String DEAL = """
+        {"dealUniqueId":"%s","fromCurrencyIsoCode":"USD","toCurrencyIsoCode":"EUR",\
+        "dealTimestamp":"2024-01-15T10:30:00","dealAmount":10}""";
+
+    @TempDir
+    Path directory;
+
+    private final FxDealService dealService = mock(FxDealService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final List<List<String>> importedBatches = new ArrayList<>();
+
+    private SpoolProperties properties;
+    private SpoolDirectoryWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SpoolProperties();
+        properties.setPath(directory.toString());
+        when(dealService.importDealsBulk(anyList())).thenAnswer(invocation -> {
+            List<DealRequest> deals = invocation.getArgument(0);
+            importedBatches.add(deals.stream().map(DealRequest::getDealUniqueId).toList());
+            return BulkDealResponse.builder()
+                .totalReceived(deals.size())
+                .successfullyImported(deals.size())
+                .errors(new ArrayList<>())
+                .importedDeals(new ArrayList<>())
+                .build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (watcher != null) {
+            watcher.destroy();
+        }
+    }
+
+    @Test
+    void testStart_JsonFile_ImportedAndMovedToDone() throws IOException {
+        Files.writeString(directory.resolve("deals.json"),
+            "[" + DEAL.formatted("S1") + "," + DEAL.formatted("S2") + "]");
+
+        startWatcher();
+
+        assertThat(importedBatches).containsExactly(List.of("S1", "S2"));
+        assertThat(directory.resolve("deals.json")).doesNotExist();
+        assertThat(directory.resolve("done/deals.json")).exists();
+        SpoolFileResult result = readResult("done/deals.json");
+        assertThat(result.getStatus()).isEqualTo(SpoolFileResult.Status.DONE);
+        assertThat(result.getFormat()).isEqualTo("JSON");
+        assertThat(result.getSuccessfullyImported()).isEqualTo(2);
+    }
+
+    @Test
+    void testStart_CsvFile_ImportsInBatchesAndReportsFilePositions() throws IOException {
+        properties.setBatchSize(2);
+        doReturn(BulkDealResponse.builder()
+            .totalReceived(1)
+            .skippedDuplicates(1)
+            .errors(new ArrayList<>(List.of("Deal[0] (C4): Deal with unique ID C4 already exists")))
+            .importedDeals(new ArrayList<>())
+            .build()).when(dealService).importDealsBulk(List.of(csvDeal("C4")));
+        Files.writeString(directory.resolve("deals.csv"), """
+            dealUniqueId,fromCurrencyIsoCode,toCurrencyIsoCode,dealTimestamp,dealAmount
+            C1,USD,EUR,2024-01-15T10:30:00,10
+            C2,USD,EUR,2024-01-15T10:30:00,ten
+            C3,USD,EUR,2024-01-15T10:30:00,10
+            C4,USD,EUR,2024-01-15T10:30:00,10
+            """);
+
+        startWatcher();
+
+        assertThat(importedBatches).containsExactly(List.of("C1", "C3"));
+        SpoolFileResult result = readResult("done/deals.csv");
+        assertThat(result.getTotalReceived()).isEqualTo(4);
+        assertThat(result.getSuccessfullyImported()).isEqualTo(2);
+        assertThat(result.getSkippedDuplicates()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).containsExactly(
+            "Deal[1] (C2): Validation failed: Deal amount must be a decimal number",
+            "Deal[3] (C4): Deal with unique ID C4 already exists");
+    }
+
+    @Test
+    void testStart_MalformedFile_MovedToErrorAfterImportingWhatWasRead() throws IOException {
+        Files.writeString(directory.resolve("broken.ndjson"), DEAL.formatted("B1") + "\n{\"dealUniqueId\":");
+        Files.writeString(directory.resolve("notes.txt"), "not deals");
+
+        startWatcher();
+
+        assertThat(importedBatches).containsExactly(List.of("B1"));
+        SpoolFileResult broken = readResult("error/broken.ndjson");
+        assertThat(broken.getStatus()).isEqualTo(SpoolFileResult.Status.ERROR);
+        assertThat(broken.getSuccessfullyImported()).isEqualTo(1);
+        assertThat(broken.getError()).isNotBlank();
+        assertThat(readResult("error/notes.txt").getError()).contains("Unsupported file type");
+    }
+
+    @Test
+    void testProcess_SameNameDroppedDuringImport_ImportedAfterIt() throws IOException {
+        Files.createDirectories(directory.resolve(SpoolDirectoryWatcher.PROCESSING));
+        Files.createDirectories(directory.resolve(SpoolDirectoryWatcher.DONE));
+        watcher = new SpoolDirectoryWatcher(dealService, properties, objectMapper, Runnable::run);
+        Path inbox = directory.resolve("deals.json");
+        Files.writeString(inbox, "[" + DEAL.formatted("S1") + "]");
+        doAnswer(invocation -> {
+            // A second file of the same name arrives while the first one is being imported
+            Files.writeString(inbox, "[" + DEAL.formatted("S2") + "]");
+            watcher.process(inbox);
+            importedBatches.add(List.of("S1"));
+            return BulkDealResponse.builder()
+                .totalReceived(1)
+                .successfullyImported(1)
+                .errors(new ArrayList<>())
+                .importedDeals(new ArrayList<>())
+                .build();
+        }).when(dealService).importDealsBulk(argThat(deals -> "S1".equals(deals.get(0).getDealUniqueId())));
+
+        watcher.process(inbox);
+
+        assertThat(importedBatches).containsExactly(List.of("S1"), List.of("S2"));
+        assertThat(inbox).doesNotExist();
+        try (Stream<Path> done = Files.list(directory.resolve(SpoolDirectoryWatcher.DONE))) {
+            assertThat(done.filter(file -> !file.toString().endsWith(SpoolDirectoryWatcher.RESULT_SUFFIX)))
+                .hasSize(2);
+        }
+    }
+
+    @Test
+    void testStart_TemporaryAndInterruptedFiles() throws IOException {
+        Files.writeString(directory.resolve("incoming.json.part"), "[" + DEAL.formatted("T1") + "]");
+        Files.createDirectories(directory.resolve(SpoolDirectoryWatcher.PROCESSING));
+        Files.writeString(directory.resolve("processing/crashed.json"), "[" + DEAL.formatted("R1") + "]");
+
+        startWatcher();
+
+        assertThat(importedBatches).containsExactly(List.of("R1"));
+        assertThat(directory.resolve("incoming.json.part")).exists();
+        assertThat(directory.resolve("done/crashed.json")).exists();
+        verify(dealService, never()).importDeal(any());
+    }
+
+    private void startWatcher() throws IOException {
+        watcher = new SpoolDirectoryWatcher(dealService, properties, objectMapper, Runnable::run);
+        watcher.start();
+    }
+
+    private SpoolFileResult readResult(String file) throws IOException {
+        return objectMapper.readValue(directory.resolve(file + SpoolDirectoryWatcher.RESULT_SUFFIX).toFile(),
+            SpoolFileResult.class);
+    }
+
+    private static DealRequest csvDeal(String dealId) {
+        return new DealRequest(dealId, "USD", "EUR", LocalDateTime.of(2024, 1, 15, 10, 30),
+            FixedPointAmount.parse("10"));
+    }
+}
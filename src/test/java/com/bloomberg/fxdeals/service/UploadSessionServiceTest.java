@@ -0,0 +1,161 @@
+package com.bloomberg.fxdeals.service;
+
+import com.bloomberg.fxdeals.dto.BulkDealResponse;
+import com.bloomberg.fxdeals.dto.DealRequest;
+import com.bloomberg.fxdeals.dto.UploadChunkResponse;
+import com.bloomberg.fxdeals.dto.UploadSessionResponse;
+import com.bloomberg.fxdeals.exception.ResourceNotFoundException;
+import com.bloomberg.fxdeals.model.FixedPointAmount;
+import com.bloomberg.fxdeals.model.UploadSession;
+import com.bloomberg.fxdeals.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UploadSessionService
+ */
+@ExtendWith(MockitoExtension.class)
+class UploadSessionServiceTest {
+
+    private static final String UPLOAD_ID = "upload-1";
+
+    @Mock
+    private UploadSessionRepository sessionRepository;
+
+    @Mock
+    private FxDealService dealService;
+
+    @InjectMocks
+    private UploadSessionService uploadService;
+
+    private UploadSession session;
+    private List<DealRequest> chunk;
+
+    @BeforeEach
+    void setUp() {
+        session = UploadSession.builder()
+            .uploadId(UPLOAD_ID)
+            .status(UploadSession.Status.OPEN)
+            .expectedChunks(3)
+            .committedChunks(1)
+            .committedDeals(2)
+            .build();
+
+        chunk = List.of(createValidDeal("DEAL-003"), createValidDeal("DEAL-004"));
+    }
+
+    @Test
+    void testOpenSession_CreatesOpenSession() {
+        when(sessionRepository.save(any(UploadSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UploadSessionResponse response = uploadService.openSession(5);
+
+        assertThat(response.getUploadId()).isNotBlank();
+        assertThat(response.getStatus()).isEqualTo("OPEN");
+        assertThat(response.getExpectedChunks()).isEqualTo(5);
+        assertThat(response.getNextChunk()).isZero();
+        assertThat(response.getLastCommittedChunk()).isNull();
+    }
+
+    @Test
+    void testUploadChunk_NextChunk_ImportsAndCheckpoints() {
+        when(sessionRepository.findById(UPLOAD_ID)).thenReturn(Optional.of(session));
+        when(sessionRepository.save(any(UploadSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(dealService.importDealsBulk(chunk)).thenReturn(BulkDealResponse.builder()
+            .totalReceived(2).successfullyImported(1).skippedDuplicates(1).failed(0).build());
+
+        UploadChunkResponse response = uploadService.uploadChunk(UPLOAD_ID, 1, chunk);
+
+        assertThat(response.isAlreadyCommitted()).isFalse();
+        assertThat(response.getSession().getNextChunk()).isEqualTo(2);
+        assertThat(response.getSession().getLastCommittedChunk()).isEqualTo(1);
+        assertThat(response.getSession().getCommittedOffset()).isEqualTo(4);
+        assertThat(response.getSession().getImportedDeals()).isEqualTo(1);
+        assertThat(response.getSession().getDuplicateDeals()).isEqualTo(1);
+    }
+
+    @Test
+    void testUploadChunk_AlreadyCommittedChunk_SkipsImport() {
+        when(sessionRepository.findById(UPLOAD_ID)).thenReturn(Optional.of(session));
+
+        UploadChunkResponse response = uploadService.uploadChunk(UPLOAD_ID, 0, chunk);
+
+        assertThat(response.isAlreadyCommitted()).isTrue();
+        assertThat(response.getResult()).isNull();
+        verify(dealService, never()).importDealsBulk(anyList());
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    void testUploadChunk_ChunkAfterGap_ThrowsException() {
+        when(sessionRepository.findById(UPLOAD_ID)).thenReturn(Optional.of(session));
+
+        assertThatThrownBy(() -> uploadService.uploadChunk(UPLOAD_ID, 2, chunk))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("expects chunk 1");
+
+        verify(dealService, never()).importDealsBulk(anyList());
+    }
+
+    @Test
+    void testUploadChunk_CompletedSession_ThrowsException() {
+        session.setStatus(UploadSession.Status.COMPLETED);
+        when(sessionRepository.findById(UPLOAD_ID)).thenReturn(Optional.of(session));
+
+        assertThatThrownBy(() -> uploadService.uploadChunk(UPLOAD_ID, 1, chunk))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("already completed");
+    }
+
+    @Test
+    void testUploadChunk_UnknownSession_ThrowsNotFound() {
+        when(sessionRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> uploadService.uploadChunk("missing", 0, chunk))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void testCompleteSession_MissingChunks_ThrowsException() {
+        when(sessionRepository.findById(UPLOAD_ID)).thenReturn(Optional.of(session));
+
+        assertThatThrownBy(() -> uploadService.completeSession(UPLOAD_ID))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("resume from chunk 1");
+    }
+
+    @Test
+    void testCompleteSession_AllChunksCommitted_MarksCompleted() {
+        session.setCommittedChunks(3);
+        when(sessionRepository.findById(UPLOAD_ID)).thenReturn(Optional.of(session));
+        when(sessionRepository.save(any(UploadSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UploadSessionResponse response = uploadService.completeSession(UPLOAD_ID);
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+    }
+
+    private DealRequest createValidDeal(String dealId) {
+        DealRequest deal = new DealRequest();
+        deal.setDealUniqueId(dealId);
+        deal.setFromCurrencyIsoCode("USD");
+        deal.setToCurrencyIsoCode("EUR");
+        deal.setDealTimestamp(LocalDateTime.now().minusHours(1));
+        deal.setDealAmount(FixedPointAmount.parse("1000.50"));
+        return deal;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bloomberg.fxdeals.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for HyperLogLog
+ */
+class HyperLogLogTest {
+
+    @Test
+    void testEstimate_SmallCardinality_IsNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 100; i++) {
+            sketch.add(Fingerprints.of("DEAL-" + i));
+            sketch.add(Fingerprints.of("DEAL-" + i));
+        }
+
+        assertThat(sketch.estimate()).isBetween(98L, 102L);
+    }
+
+    @Test
+    void testEstimate_LargeCardinality_WithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        int distinct = 200_000;
+        for (int i = 0; i < distinct; i++) {
+            sketch.add(Fingerprints.of("DEAL-" + i));
+        }
+
+        // Four standard errors
+        double tolerance = 4 * sketch.relativeStandardError() * distinct;
+        assertThat((double) sketch.estimate()).isBetween(distinct - tolerance, distinct + tolerance);
+    }
+
+    @Test
+    void testMerge_EstimatesUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 1_000; i++) {
+            first.add(Fingerprints.of("DEAL-" + i));
+            second.add(Fingerprints.of("DEAL-" + (i + 500)));
+        }
+
+        first.merge(second);
+
+        assertThat(first.estimate()).isBetween(1_400L, 1_600L);
+    }
+
+    @Test
+    void testConstructor_InvalidPrecision_Throws() {
+        assertThatThrownBy(() -> new HyperLogLog(20)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,41 @@
+package com.bloomberg.fxdeals.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for LogRateLimiter
+ */
+class LogRateLimiterTest {
+
+    @Test
+    void testTryAcquire_BeyondLimit_SuppressedAndCounted() {
+        LogRateLimiter limiter = new LogRateLimiter(2);
+        AtomicLong suppressed = new AtomicLong();
+
+        assertThat(limiter.tryAcquire(suppressed)).isTrue();
+        assertThat(limiter.tryAcquire(suppressed)).isTrue();
+        assertThat(limiter.tryAcquire(suppressed)).isFalse();
+        assertThat(limiter.tryAcquire(suppressed)).isFalse();
+
+        assertThat(suppressed.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testTryAcquire_CallerCounters_ShareTheLimitButCountSeparately() {
+        LogRateLimiter limiter = new LogRateLimiter(1);
+        AtomicLong first = new AtomicLong();
+        AtomicLong second = new AtomicLong();
+
+        assertThat(limiter.tryAcquire(first)).isTrue();
+        assertThat(limiter.tryAcquire(second)).isFalse();
+        assertThat(limiter.tryAcquire(second)).isFalse();
+        assertThat(limiter.tryAcquire(first)).isFalse();
+
+        assertThat(first.get()).isEqualTo(1);
+        assertThat(second.get()).isEqualTo(2);
+    }
+}
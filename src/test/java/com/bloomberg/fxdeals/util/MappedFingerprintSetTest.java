@@ -0,0 +1,91 @@
+package com.bloomberg.fxdeals.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for MappedFingerprintSet
+ */
+class MappedFingerprintSetTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAdd_ThenContains_ReturnsTrue() throws IOException {
+        try (MappedFingerprintSet set = MappedFingerprintSet.open(tempDir.resolve("ids.bin"), 1024)) {
+            assertThat(set.add(Fingerprints.of("DEAL-001"))).isTrue();
+
+            assertThat(set.contains(Fingerprints.of("DEAL-001"))).isTrue();
+            assertThat(set.contains(Fingerprints.of("DEAL-002"))).isFalse();
+            assertThat(set.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testAdd_SameFingerprintTwice_StoredOnce() throws IOException {
+        try (MappedFingerprintSet set = MappedFingerprintSet.open(tempDir.resolve("ids.bin"), 1024)) {
+            assertThat(set.add(42L)).isTrue();
+            assertThat(set.add(42L)).isFalse();
+            assertThat(set.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testAdd_ZeroFingerprint_IsStored() throws IOException {
+        try (MappedFingerprintSet set = MappedFingerprintSet.open(tempDir.resolve("ids.bin"), 1024)) {
+            set.add(0L);
+            assertThat(set.contains(0L)).isTrue();
+        }
+    }
+
+    @Test
+    void testAdd_BeyondLoadFactor_GrowsAndKeepsEntries() throws IOException {
+        try (MappedFingerprintSet set = MappedFingerprintSet.open(tempDir.resolve("ids.bin"), 1024)) {
+            for (int i = 0; i < 5_000; i++) {
+                set.add(Fingerprints.of("DEAL-" + i));
+            }
+
+            assertThat(set.capacity()).isGreaterThanOrEqualTo(8192);
+            assertThat(set.size()).isEqualTo(5_000);
+            for (int i = 0; i < 5_000; i++) {
+                assertThat(set.contains(Fingerprints.of("DEAL-" + i))).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void testReopen_KeepsFingerprintsAndCheckpoint() throws IOException {
+        Path file = tempDir.resolve("ids.bin");
+        try (MappedFingerprintSet set = MappedFingerprintSet.open(file, 1024)) {
+            for (int i = 0; i < 2_000; i++) {
+                set.add(Fingerprints.of("DEAL-" + i));
+            }
+            set.checkpoint(1_999L);
+        }
+
+        try (MappedFingerprintSet reopened = MappedFingerprintSet.open(file, 1024)) {
+            assertThat(reopened.getCheckpoint()).isEqualTo(1_999L);
+            assertThat(reopened.size()).isEqualTo(2_000);
+            assertThat(reopened.contains(Fingerprints.of("DEAL-1234"))).isTrue();
+            assertThat(reopened.contains(Fingerprints.of("DEAL-9999"))).isFalse();
+        }
+    }
+
+    @Test
+    void testOpen_ForeignFile_ThrowsException() throws IOException {
+        Path file = tempDir.resolve("other.bin");
+        Files.write(file, new byte[128]);
+
+        assertThatThrownBy(() -> MappedFingerprintSet.open(file, 1024))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("Not a fingerprint set");
+    }
+}
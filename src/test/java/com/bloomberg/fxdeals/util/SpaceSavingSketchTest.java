@@ -0,0 +1,61 @@
+package com.bloomberg.fxdeals.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SpaceSavingSketch
+ */
+class SpaceSavingSketchTest {
+
+    @Test
+    void testTop_WithinCapacity_CountsAreExact() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+        sketch.add(1, 5);
+        sketch.add(2, 3);
+        sketch.add(3);
+
+        assertThat(sketch.top(2)).containsExactly(
+            new SpaceSavingSketch.Entry(1, 5, 0), new SpaceSavingSketch.Entry(2, 3, 0));
+    }
+
+    @Test
+    void testAdd_ManyRareKeys_HeavyHittersStayTrackedWithinErrorBound() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(8);
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(1);
+            sketch.add(100 + i);
+            if (i % 2 == 0) {
+                sketch.add(2);
+            }
+        }
+
+        List<SpaceSavingSketch.Entry> top = sketch.top(2);
+        assertThat(top).extracting(SpaceSavingSketch.Entry::key).containsExactly(1, 2);
+        for (SpaceSavingSketch.Entry entry : top) {
+            long trueCount = entry.key() == 1 ? 1_000 : 500;
+            assertThat(entry.count()).isGreaterThanOrEqualTo(trueCount);
+            assertThat(entry.count() - entry.error()).isLessThanOrEqualTo(trueCount);
+            assertThat(entry.error()).isLessThanOrEqualTo(sketch.maxError());
+        }
+    }
+
+    @Test
+    void testMerge_CombinesCountsAndTotals() {
+        SpaceSavingSketch first = new SpaceSavingSketch(4);
+        SpaceSavingSketch second = new SpaceSavingSketch(4);
+        first.add(1, 10);
+        first.add(2, 1);
+        second.add(1, 5);
+        second.add(3, 7);
+
+        first.merge(second);
+
+        assertThat(first.top(3)).containsExactly(new SpaceSavingSketch.Entry(1, 15, 0),
+            new SpaceSavingSketch.Entry(3, 7, 0), new SpaceSavingSketch.Entry(2, 1, 0));
+        assertThat(first.total()).isEqualTo(23);
+    }
+}